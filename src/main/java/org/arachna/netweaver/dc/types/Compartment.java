@@ -1,5 +1,6 @@
 package org.arachna.netweaver.dc.types;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -59,7 +60,7 @@ public final class Compartment {
     /**
      * {@link DevelopmentComponent}s contained in this compartment.
      */
-    private final Set<DevelopmentComponent> components = new LinkedHashSet<DevelopmentComponent>();
+    private final Set<DevelopmentComponent> components = Collections.synchronizedSet(new LinkedHashSet<DevelopmentComponent>());
 
     /**
      * Type of compartment {@link CompartmentState}.
@@ -192,11 +193,13 @@ public final class Compartment {
             component.setCompartment(null);
         }
 
-        for (final DevelopmentComponent dc : components) {
-            if (dc.equals(component)) {
-                components.remove(component);
-                Logger.getLogger(getClass().getName()).fine(
-                        String.format("Removing component %s from %s.", component, this));
+        synchronized (components) {
+            for (final Iterator<DevelopmentComponent> dcs = components.iterator(); dcs.hasNext();) {
+                if (dcs.next().equals(component)) {
+                    dcs.remove();
+                    Logger.getLogger(getClass().getName()).fine(
+                            String.format("Removing component %s from %s.", component, this));
+                }
             }
         }
     }
@@ -331,10 +334,12 @@ public final class Compartment {
     /**
      * Return the {@link DevelopmentComponent}s contained in this compartment.
      *
-     * @return the components
+     * @return a snapshot of the components (the set may be modified concurrently)
      */
     public Collection<DevelopmentComponent> getDevelopmentComponents() {
-        return Collections.unmodifiableCollection(components);
+        synchronized (components) {
+            return Collections.unmodifiableCollection(new ArrayList<DevelopmentComponent>(components));
+        }
     }
 
     /**
@@ -351,7 +356,7 @@ public final class Compartment {
 
         final Collection<DevelopmentComponent> matchingDCs = new LinkedList<DevelopmentComponent>();
 
-        for (final DevelopmentComponent component : components) {
+        for (final DevelopmentComponent component : getDevelopmentComponents()) {
             if (filter.accept(component)) {
                 matchingDCs.add(component);
             }
@@ -473,7 +478,7 @@ public final class Compartment {
     public DevelopmentComponent getDevelopmentComponent(final String dcName) {
         DevelopmentComponent component = null;
 
-        for (final DevelopmentComponent dc : components) {
+        for (final DevelopmentComponent dc : getDevelopmentComponents()) {
             if (dc.getName().equals(dcName)) {
                 component = dc;
                 break;
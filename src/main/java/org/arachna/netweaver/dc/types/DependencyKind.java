@@ -0,0 +1,59 @@
+/**
+ *
+ */
+package org.arachna.netweaver.dc.types;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Kind of a dependency between development components as declared by a {@link PublicPartReference}.
+ *
+ * @author Dirk Weigenand
+ */
+public enum DependencyKind {
+    /**
+     * the used development component is needed to build the using one.
+     */
+    BUILD_TIME,
+
+    /**
+     * the used development component is needed at run time of the using one.
+     */
+    RUN_TIME,
+
+    /**
+     * the used development component has to be deployed before the using one.
+     */
+    DEPLOY_TIME;
+
+    /**
+     * Determine the kinds of dependency declared by the given public part reference. A reference that declares no kind at all is treated
+     * as a build time dependency.
+     *
+     * @param reference
+     *            public part reference to examine.
+     * @return the kinds of dependency declared by the given public part reference.
+     */
+    public static Set<DependencyKind> of(final PublicPartReference reference) {
+        final Set<DependencyKind> kinds = EnumSet.noneOf(DependencyKind.class);
+
+        if (reference.isAtBuildTime()) {
+            kinds.add(BUILD_TIME);
+        }
+
+        if (reference.isAtRunTime()) {
+            kinds.add(RUN_TIME);
+        }
+
+        if (reference.isAtDeployTime()) {
+            kinds.add(DEPLOY_TIME);
+        }
+
+        if (kinds.isEmpty()) {
+            kinds.add(BUILD_TIME);
+        }
+
+        return kinds;
+    }
+}
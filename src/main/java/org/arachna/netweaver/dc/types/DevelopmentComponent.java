@@ -1,10 +1,15 @@
 package org.arachna.netweaver.dc.types;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -69,9 +74,10 @@ public final class DevelopmentComponent {
     private PublicPartReference buildPlugin;
 
     /**
-     * collection of development components that use this DC.
+     * development components that use this DC mapped to the kinds of their dependency on this DC.
      */
-    private final Set<DevelopmentComponent> usingComponents = new LinkedHashSet<DevelopmentComponent>();
+    private final Map<DevelopmentComponent, Set<DependencyKind>> usingComponents =
+        new LinkedHashMap<DevelopmentComponent, Set<DependencyKind>>();
 
     /**
      * folders containing sources.
@@ -200,12 +206,31 @@ public final class DevelopmentComponent {
     }
 
     /**
-     * Add a development component that uses to this development component.
+     * Add a development component that uses to this development component. Since the kind of dependency is not known, all kinds of
+     * dependency are recorded.
      *
      * @param component the development component to add to those using this DC.
      */
     public void addUsingDC(final DevelopmentComponent component) {
-        usingComponents.add(component);
+        addUsingDC(component, EnumSet.allOf(DependencyKind.class));
+    }
+
+    /**
+     * Add a development component that uses to this development component with the given kinds of dependency. The kinds are added to
+     * those already recorded for the using DC.
+     *
+     * @param component the development component to add to those using this DC.
+     * @param kinds kinds of the dependency of the given development component on this DC.
+     */
+    public void addUsingDC(final DevelopmentComponent component, final Collection<DependencyKind> kinds) {
+        Set<DependencyKind> dependencyKinds = usingComponents.get(component);
+
+        if (dependencyKinds == null) {
+            dependencyKinds = EnumSet.noneOf(DependencyKind.class);
+            usingComponents.put(component, dependencyKinds);
+        }
+
+        dependencyKinds.addAll(kinds);
     }
 
     /**
@@ -214,7 +239,37 @@ public final class DevelopmentComponent {
      * @return all development components that use this development component.
      */
     public Collection<DevelopmentComponent> getUsingDevelopmentComponents() {
-        return Collections.unmodifiableCollection(usingComponents);
+        return Collections.unmodifiableCollection(usingComponents.keySet());
+    }
+
+    /**
+     * Return the development components that use this development component with the given kind of dependency.
+     *
+     * @param kind kind of dependency.
+     * @return development components that use this development component with the given kind of dependency.
+     */
+    public Collection<DevelopmentComponent> getUsingDevelopmentComponents(final DependencyKind kind) {
+        final List<DevelopmentComponent> components = new ArrayList<DevelopmentComponent>();
+
+        for (final Map.Entry<DevelopmentComponent, Set<DependencyKind>> entry : usingComponents.entrySet()) {
+            if (entry.getValue().contains(kind)) {
+                components.add(entry.getKey());
+            }
+        }
+
+        return components;
+    }
+
+    /**
+     * Return the kinds of dependency the given development component has on this development component.
+     *
+     * @param component a development component using this one.
+     * @return kinds of dependency of the given development component on this one (empty if the given DC does not use this one).
+     */
+    public Set<DependencyKind> getDependencyKinds(final DevelopmentComponent component) {
+        final Set<DependencyKind> kinds = usingComponents.get(component);
+
+        return kinds == null ? Collections.<DependencyKind> emptySet() : Collections.unmodifiableSet(kinds);
     }
 
     /**
@@ -5,19 +5,21 @@ package org.arachna.netweaver.dc.types;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Factory/registry for {@link DevelopmentComponent} objects.
  *
+ * The registry is thread safe, i.e. development components may be created and looked up concurrently.
+ *
  * @author Dirk Weigenand
  */
 public final class DevelopmentComponentFactory {
     /**
      * maps 'vendor:component.name' to development components.
      */
-    private final Map<String, DevelopmentComponent> componentMap = new HashMap<String, DevelopmentComponent>();
+    private final ConcurrentMap<String, DevelopmentComponent> componentMap = new ConcurrentHashMap<String, DevelopmentComponent>();
 
     /**
      * Default constructor.
@@ -53,14 +55,16 @@ public final class DevelopmentComponentFactory {
      * @return the newly created or already registered development component
      */
     public DevelopmentComponent create(final String vendor, final String name, final DevelopmentComponentType type) {
-        DevelopmentComponent component = this.get(vendor, name);
+        final DevelopmentComponent component = this.get(vendor, name);
 
-        if (null == component) {
-            component = new DevelopmentComponent(name, vendor, type);
-            componentMap.put(createComponentKey(name, vendor), component);
+        if (null != component) {
+            return component;
         }
 
-        return component;
+        final DevelopmentComponent created = new DevelopmentComponent(name, vendor, type);
+        final DevelopmentComponent registered = componentMap.putIfAbsent(createComponentKey(name, vendor), created);
+
+        return registered == null ? created : registered;
     }
 
     /**
@@ -132,32 +136,17 @@ public final class DevelopmentComponentFactory {
     /**
      * Update the using DCs for all registered DCs.
      *
-     * For each registered development component the list of public parts it references will be iterated. The respective development
-     * component will be looked up and the currently worked on DC will be added to its using DCs.
+     * The public part references of all registered development components are iterated once. Each reference is resolved using this
+     * registry and the referencing DC is added to the using DCs of the referenced one together with the kinds of dependency
+     * declared by the reference.
      */
     public void updateUsingDCs() {
         for (final DevelopmentComponent component : componentMap.values()) {
-            this.updateUsingDCs(component);
-        }
-    }
-
-    /**
-     * Updates the using DCs for the given DC.
-     *
-     * @param root
-     *            development component whose using DCs are to be updated.
-     */
-    private void updateUsingDCs(final DevelopmentComponent root) {
-        for (final DevelopmentComponent dc : componentMap.values()) {
-            final Collection<PublicPartReference> references = dc.getUsedDevelopmentComponents();
-
-            for (final PublicPartReference reference : references) {
-                if (reference.references(root)) {
-                    root.addUsingDC(dc);
+            for (final PublicPartReference reference : component.getUsedDevelopmentComponents()) {
+                final DevelopmentComponent usedComponent = this.get(reference);
 
-                    if (dc.getUsingDevelopmentComponents().isEmpty()) {
-                        this.updateUsingDCs(dc);
-                    }
+                if (usedComponent != null) {
+                    usedComponent.addUsingDC(component, DependencyKind.of(reference));
                 }
             }
         }
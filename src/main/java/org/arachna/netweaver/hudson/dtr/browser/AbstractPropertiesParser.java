@@ -0,0 +1,119 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class for parsers of DTR resource detail pages. Collects the cells of the property table (the first table containing a header
+ * row, i.e. 'Property Name', 'Property Value'). The cells are numbered consecutively, i.e. the name of the first property is at index
+ * 0, its value at index 1.
+ * 
+ * @author Dirk Weigenand
+ */
+abstract class AbstractPropertiesParser extends AbstractResourceParser {
+    /**
+     * nesting level of the property table (-1 when it has not been found yet or has already been read).
+     */
+    private int propertyTableDepth = -1;
+
+    /**
+     * indicates whether the property table has been read.
+     */
+    private boolean propertyTableRead;
+
+    /**
+     * texts of the cells of the property table.
+     */
+    private final List<String> properties = new ArrayList<String>();
+
+    /**
+     * Collect the cells of the property table.
+     * 
+     * {@inheritDoc}
+     */
+    @Override
+    public void row(final int tableDepth, final List<TableCell> cells) {
+        if (propertyTableRead) {
+            return;
+        }
+
+        if (propertyTableDepth == -1) {
+            if (cells.get(0).isHeader()) {
+                propertyTableDepth = tableDepth;
+            }
+        }
+        else if (propertyTableDepth == tableDepth) {
+            for (final TableCell cell : cells) {
+                if (!cell.isHeader()) {
+                    properties.add(cell.getText());
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endTable(final int tableDepth) {
+        if (propertyTableDepth == tableDepth) {
+            propertyTableDepth = -1;
+            propertyTableRead = true;
+        }
+    }
+
+    /**
+     * Returns the nesting level of the property table currently being read.
+     * 
+     * @return the nesting level of the property table or -1 when it is not being read currently.
+     */
+    final int getPropertyTableDepth() {
+        return propertyTableDepth;
+    }
+
+    /**
+     * Validate the number of cells read from the property table and update the resource.
+     * 
+     * {@inheritDoc}
+     */
+    @Override
+    final void parseInternal() {
+        if (properties.size() < getExpectedNodeLen()) {
+            throw new IllegalStateException(String.format("%s did not yield expected node count!", getClass().getSimpleName()));
+        }
+
+        parseProperties(properties);
+    }
+
+    /**
+     * Returns the property cell's text at the given index.
+     * 
+     * @param properties
+     *            the texts of the cells of the property table.
+     * @param index
+     *            index into the list of cells
+     * 
+     * @return the property cell's text at the given index.
+     */
+    protected final String nodeValueAt(final List<String> properties, final int index) {
+        return properties.get(index);
+    }
+
+    /**
+     * Extract information from the given cells of the property table.
+     * 
+     * @param properties
+     *            the texts of the cells of the property table.
+     */
+    abstract void parseProperties(List<String> properties);
+
+    /**
+     * Return the minimum count of property cells one can expect in the page.
+     * 
+     * @return minimum count of property cells.
+     */
+    abstract int getExpectedNodeLen();
+}
@@ -5,19 +5,23 @@ package org.arachna.netweaver.hudson.dtr.browser;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.List;
 
-import org.jaxen.JaxenException;
-import org.jaxen.dom.DOMXPath;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-
 /**
  * Base class for resource parsers. Implements logic common to all parsers extracting information read from the DTR.
  * 
+ * The report is read in a single pass using a {@link HtmlTokenizer}. Links and table rows are handed to the parser as soon as they have
+ * been read, so subclasses should process them right away instead of collecting the whole page.
+ * 
  * @author Dirk Weigenand
  */
-abstract class AbstractResourceParser {
+abstract class AbstractResourceParser implements ReportContentListener {
+    /**
+     * encoding of the DTR HTML reports.
+     */
+    static final String REPORT_ENCODING = "ISO-8859-1";
+
     /**
      * Parses the given <code>InputStream</code> and updates the activities details.
      * 
@@ -25,63 +29,50 @@ abstract class AbstractResourceParser {
      *            of the activities detail HTML page.
      */
     final void parse(final InputStream content) {
-        final Document document = JTidyHelper.getDocument(content);
-
         try {
-            content.close();
-            final DOMXPath xPath = new DOMXPath(getXPath());
-
-            final List selectedNodes = xPath.selectNodes(document);
-
-            if (selectedNodes.size() < getExpectedNodeLen()) {
-                throw new IllegalStateException(String.format("%s did not yield expected node count!", getXPath()));
+            try {
+                new HtmlTokenizer(new InputStreamReader(content, REPORT_ENCODING)).parse(new ReportContentExtractor(this));
+            }
+            finally {
+                content.close();
             }
-
-            parseInternal(selectedNodes);
-        }
-        catch (final JaxenException e) {
-            throw new IllegalStateException(e);
         }
         catch (final IOException e) {
             throw new IllegalStateException(e);
         }
+
+        parseInternal();
     }
 
     /**
-     * Extracts the node's value as text at the given index.
-     * 
-     * @param nodes
-     *            a list of {@link Node} objects representing a XPath selection result.
-     * @param index
-     *            index into the list of nodes
+     * Ignores links. Subclasses interested in links should override this method.
      * 
-     * @return node's value as text at the given index.
+     * {@inheritDoc}
      */
-    protected final String nodeValueAt(final List<Object> nodes, final int index) {
-        final Node textNode = ((Node)nodes.get(index)).getFirstChild();
-
-        return textNode == null ? "" : textNode.getNodeValue();
+    @Override
+    public void anchor(final String href, final String text) {
     }
 
     /**
-     * Extract resources from the given list of nodes.
+     * Ignores table rows. Subclasses interested in table rows should override this method.
      * 
-     * @param nodes
-     *            list of selected nodes
+     * {@inheritDoc}
      */
-    abstract void parseInternal(List nodes);
+    @Override
+    public void row(final int tableDepth, final List<TableCell> cells) {
+    }
 
     /**
-     * Get the XPath to use extracting resources.
+     * Ignores the end of tables. Subclasses interested in the end of tables should override this method.
      * 
-     * @return XPath to use extracting resources.
+     * {@inheritDoc}
      */
-    abstract String getXPath();
+    @Override
+    public void endTable(final int tableDepth) {
+    }
 
     /**
-     * Return the minimum count of nodes one can expect when applying the XPath expression returned by {@see #getXPath()}.
-     * 
-     * @return minimum count of nodes selected by getXPath().
+     * Called after the whole report has been read. Subclasses should validate and process the extracted information here.
      */
-    abstract int getExpectedNodeLen();
+    abstract void parseInternal();
 }
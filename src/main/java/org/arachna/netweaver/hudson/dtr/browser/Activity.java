@@ -55,6 +55,11 @@ public final class Activity {
      */
     private final Map<String, String> activityUrlParams = new LinkedHashMap<String, String>();
 
+    /**
+     * Map workspace paths to the integration sequence number this activity was integrated with into the respective workspace.
+     */
+    private final Map<String, Integer> integrationSequenceNumbers = new LinkedHashMap<String, Integer>();
+
     /**
      * Create an instance of an <code>Activity</code> using the principal that created it, its description and checkin date. Also contains
      * the relative URL where the content of the activity can be browsed.
@@ -116,6 +121,41 @@ public final class Activity {
         this.description = description;
     }
 
+    /**
+     * Register the integration sequence number this activity was integrated with into the given workspace.
+     * 
+     * @param workspace
+     *            path of the workspace the activity was integrated into (i.e. '/ws/Example/example.com_EXAMPLE_SC1/dev/inactive').
+     * @param integrationSequenceNumber
+     *            the ISN of the integration.
+     */
+    void setIntegrationSequenceNumber(final String workspace, final int integrationSequenceNumber) {
+        integrationSequenceNumbers.put(normalizeWorkspacePath(workspace), Integer.valueOf(integrationSequenceNumber));
+    }
+
+    /**
+     * Returns the integration sequence number this activity was integrated with into the given workspace.
+     * 
+     * @param workspace
+     *            path of the workspace (leading and trailing slashes are ignored).
+     * @return the ISN of the integration into the given workspace or <code>null</code> when the activity was not integrated there (or
+     *         the activity's details have not been read yet).
+     */
+    public Integer getIntegrationSequenceNumber(final String workspace) {
+        return integrationSequenceNumbers.get(normalizeWorkspacePath(workspace));
+    }
+
+    /**
+     * Remove leading and trailing slashes from the given workspace path.
+     * 
+     * @param workspace
+     *            workspace path to normalize.
+     * @return the workspace path without leading and trailing slashes.
+     */
+    private String normalizeWorkspacePath(final String workspace) {
+        return StringUtils.strip(StringUtils.trimToEmpty(workspace), "/");
+    }
+
     /**
      * @return the activityUrl
      */
@@ -10,16 +10,16 @@ import java.util.List;
  * 
  * @author Dirk Weigenand
  */
-final class ActivityDetailParser extends AbstractResourceParser {
+final class ActivityDetailParser extends AbstractPropertiesParser {
     /**
      * index of long description in details table.
      */
     private static final int LONG_DESCRIPTION = 15;
 
     /**
-     * XPath expression for selecting the <td>s of the activity's properties.
+     * Pattern matching an integration sequence number.
      */
-    private static final String XPATH = "/html/body/table[3]/tr/td";
+    private static final String ISN_PATTERN = "\\d+";
 
     /**
      * {@link Activity} to update.
@@ -40,16 +40,32 @@ final class ActivityDetailParser extends AbstractResourceParser {
      * Updates the activity's long description.
      * 
      * @param nodes
-     *            list of nodes containing an activity's details.
+     *            texts of the cells containing an activity's details.
      */
     @Override
-    void parseInternal(final List nodes) {
+    void parseProperties(final List<String> nodes) {
         activity.setDescription(nodeValueAt(nodes, LONG_DESCRIPTION));
     }
 
+    /**
+     * Update the activity with the integration sequence numbers read from the table of integrations nested into the property table.
+     * Rows of the integrations table contain a link to the workspace the activity was integrated into in the first and the integration
+     * sequence number in the second column.
+     * 
+     * {@inheritDoc}
+     */
     @Override
-    String getXPath() {
-        return XPATH;
+    public void row(final int tableDepth, final List<TableCell> cells) {
+        if (getPropertyTableDepth() > -1 && tableDepth > getPropertyTableDepth() && cells.size() > 1) {
+            final TableCell workspace = cells.get(0);
+            final String isn = cells.get(1).getText();
+
+            if (workspace.getHref() != null && workspace.getHref().contains("path=/ws/") && isn.matches(ISN_PATTERN)) {
+                activity.setIntegrationSequenceNumber(workspace.getAnchorText(), Integer.parseInt(isn));
+            }
+        }
+
+        super.row(tableDepth, cells);
     }
 
     /**
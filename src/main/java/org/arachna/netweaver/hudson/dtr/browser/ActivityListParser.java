@@ -9,9 +9,6 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
-import org.jaxen.JaxenException;
-import org.jaxen.dom.DOMXPath;
-import org.w3c.dom.Node;
 
 /**
  * Parser for a DTR activity list.
@@ -28,63 +25,59 @@ final class ActivityListParser extends AbstractResourceParser {
     static final String ACTIVITY_DATE_FORMAT = "dd.MM.yyyy HH:mm:ss z";
 
     /**
-     * XPath expression for extracting activities.
+     * prefix of links to activity details.
      */
-    private static final String XPATH =
-        "//a[starts-with(@href, '/dtr/system-tools/reports/ResourceDetails?') and contains(@href, 'path=/act/')]/../..";
+    private static final String RESOURCE_DETAILS_LINK = "/dtr/system-tools/reports/ResourceDetails?";
 
     /**
-     * List of extracted activities.
+     * marker for links to activities.
      */
-    private final List<Activity> activities = new ArrayList<Activity>();
+    private static final String ACTIVITY_PATH = "path=/act/";
 
     /**
-     * {@link ActivityFilter} to use when parsing activities. Initialized with an accept all filter.
+     * index of the cell containing the link to the activity and its short description.
      */
-    private ActivityFilter activityFilter = new ActivityFilter() {
-        @Override
-        public boolean accept(final Activity activity) {
-            return true;
-        }
-    };
+    private static final int ACTIVITY = 0;
 
     /**
-     * date parser for check in times.
+     * index of the cell containing the principal of the activity.
      */
-    private final SimpleDateFormat dateParser = new SimpleDateFormat(ACTIVITY_DATE_FORMAT);
+    private static final int PRINCIPAL = 2;
 
     /**
-     * XPath for matching check in dates.
+     * index of the cell containing the check in date of the activity.
      */
-    private DOMXPath checkInDateXPath;
+    private static final int CHECK_IN_DATE = 3;
 
     /**
-     * XPath for matching the short description of an activity.
+     * List of extracted activities.
      */
-    private DOMXPath commentXPath;
+    private final List<Activity> activities = new ArrayList<Activity>();
 
     /**
-     * XPath for matching the principal of an activity.
+     * {@link ActivityFilter} to use when parsing activities. Initialized with an accept all filter.
      */
-    private DOMXPath principalXPath;
+    private ActivityFilter activityFilter = new ActivityFilter() {
+        @Override
+        public boolean accept(final Activity activity) {
+            return true;
+        }
+    };
 
     /**
-     * XPath for matching check in dates.
+     * date parser for check in times.
      */
-    private DOMXPath activityXPath;
+    private final SimpleDateFormat dateParser = new SimpleDateFormat(ACTIVITY_DATE_FORMAT);
 
     /**
      * Create an instance of an {@link ActivityListParser}.
      */
     ActivityListParser() {
-        setUpXPaths();
     }
 
     /**
      * Create an instance of an {@link ActivityListParser}.
      * 
-     * @param compartment
-     * 
      * @param activityFilter
      *            the {@link ActivityFilter} to be used.
      */
@@ -94,138 +87,117 @@ final class ActivityListParser extends AbstractResourceParser {
         }
 
         this.activityFilter = activityFilter;
-        setUpXPaths();
     }
 
     /**
-     * Initialize XPath expression used later on to extract details of activities.
+     * Create an instance of an {@link Activity} from the given table row.
+     * 
+     * @param cells
+     *            the cells of the row the activity's data should be read from.
+     * @return the activity extracted from the given row.
+     * @throws ParseException
+     *             when there was an error parsing the activity's date.
      */
-    private void setUpXPaths() {
-        try {
-            commentXPath = new DOMXPath("td[1]/a");
-            principalXPath = new DOMXPath("td[3]/a");
-            checkInDateXPath = new DOMXPath("td[4]/text()");
-            activityXPath = new DOMXPath("td[1]/a/@href");
-        }
-        catch (final JaxenException e) {
-            throw new IllegalStateException(e);
+    private Activity createActivity(final List<TableCell> cells) throws ParseException {
+        if (cells.size() <= CHECK_IN_DATE || "".equals(cells.get(CHECK_IN_DATE).getText())) {
+            // filter empty dates
+            return null;
         }
+
+        return new Activity(getActivityUrl(cells), getPrincipal(cells), getComment(cells), getCheckInDate(cells));
     }
 
     /**
-     * Create an instance of an {@link Activity} from the given {@link org.w3c.dom.Node}.
+     * Get the short description from the given row.
      * 
-     * @param node
-     *            the node the activity's data should be read from.
-     * @return the activity extracted from the given node.
-     * @throws JaxenException
-     *             when there was an error evaluating the XPath expressions used to extract the data
-     * @throws ParseException
-     *             when there was an error parsing the activity's date.
+     * @param cells
+     *            the cells of the row the short description should be read from.
+     * @return the short description extracted from the given row.
      */
-    private Activity createActivity(final Node node) throws JaxenException, ParseException {
-    	if ("".equals(checkInDateXPath.stringValueOf(node))) {
-    		// filter empty dates
-    		return null;
-    	}
-    	
-        return new Activity(getActivityUrl(node), getPrincipal(node), getComment(node), getCheckInDate(node));
+    private String getComment(final List<TableCell> cells) {
+        return cells.get(ACTIVITY).getAnchorText();
     }
 
     /**
-     * Get the short description from the given node.
+     * Get the check in date from the given row.
      * 
-     * @param node
-     *            the node the short description should be read from.
-     * @return the short description extracted from the given node.
-     * @throws JaxenException
-     *             when there was an error evaluating the XPath expressions used to extract the data
-     */
-    private String getComment(final Node node) throws JaxenException {
-        return commentXPath.stringValueOf(node);
+     * @param cells
+     *            the cells of the row the activity's check in date should be read from.
+     * @return the check in date extracted from the given row.
+     * @throws ParseException
+     *             when there was an error parsing the activity's date.
+     */
+    private Date getCheckInDate(final List<TableCell> cells) throws ParseException {
+        return dateParser.parse(cells.get(CHECK_IN_DATE).getText());
     }
 
     /**
-     * Get the check in date from the given node.
+     * Get the UME principal's name of the activity from the given row.
      * 
-     * @param node
-     *            the node the activity's check in date should be read from.
-     * @return the check in date extracted from the given node.
-     * @throws JaxenException
-     *             when there was an error evaluating the XPath expressions used to extract the data
-     * @throws ParseException
-     *             when there was an error parsing the activity's date.
+     * @param cells
+     *            the cells of the row the UME princiapl's name should be read from.
+     * @return the UME principal's name extracted from the given row.
      */
-    private Date getCheckInDate(final Node node) throws JaxenException, ParseException {
-        return dateParser.parse(checkInDateXPath.stringValueOf(node));
+    private Principal getPrincipal(final List<TableCell> cells) {
+        return new Principal(cells.get(PRINCIPAL).getAnchorText().replace("/principals/", ""));
     }
 
     /**
-     * Get the UME principal's name of the activity from the given node.
+     * Get the activity's url from the given row.
      * 
-     * @param node
-     *            the node the UME princiapl's name should be read from.
-     * @return the UME principal's name extracted from the given node.
-     * @throws JaxenException
-     *             when there was an error evaluating the XPath expressions used to extract the data
-     */
-    private Principal getPrincipal(final Node node) throws JaxenException {
-        return new Principal(principalXPath.stringValueOf(node).replace("/principals/", ""));
+     * @param cells
+     *            the cells of the row the activity's url should be read from.
+     * @return the activity's url extracted from the given row.
+     */
+    private String getActivityUrl(final List<TableCell> cells) {
+        return cells.get(ACTIVITY).getHref();
     }
 
     /**
-     * Get the activity's url from the given node.
+     * Determine whether the given row describes an activity, i.e. one of its cells contains a link to the details of an activity.
      * 
-     * @param node
-     *            the node the activity's url should be read from.
-     * @return the activity's url extracted from the given node.
-     * @throws JaxenException
-     *             when there was an error evaluating the XPath expressions used to extract the data
-     */
-    private String getActivityUrl(final Node node) throws JaxenException {
-        return activityXPath.stringValueOf(node);
+     * @param cells
+     *            the cells of the row to examine.
+     * @return <code>true</code> when the row describes an activity, <code>false</code> otherwise.
+     */
+    private boolean isActivityRow(final List<TableCell> cells) {
+        for (final TableCell cell : cells) {
+            final String href = cell.getHref();
+
+            if (href != null && href.startsWith(RESOURCE_DETAILS_LINK) && href.contains(ACTIVITY_PATH)) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     /**
-     * Extract activities from the given {@link java.io.InputStream}.
+     * Extract an activity from the given table row.
      * 
-     * @param nodes
-     *            extracted from activity list.
+     * {@inheritDoc}
      */
     @Override
-    void parseInternal(final List nodes) {
-        Node node;
-        Activity activity;
-
-        try {
-            for (final Object returnValue : nodes) {
-                node = (Node)returnValue;
-                activity = createActivity(node);
+    public void row(final int tableDepth, final List<TableCell> cells) {
+        if (isActivityRow(cells)) {
+            try {
+                final Activity activity = createActivity(cells);
 
                 if (activity != null && activityFilter.accept(activity)) {
                     activities.add(activity);
                 }
             }
+            catch (final ParseException e) {
+                throw new IllegalStateException(e);
+            }
         }
-        catch (final ParseException e) {
-            throw new IllegalStateException(e);
-        }
-        catch (final JaxenException e) {
-            throw new IllegalStateException(e);
-        }
-    }
-
-    @Override
-    String getXPath() {
-        return XPATH;
     }
 
     /**
-     * {@inheritDoc}
+     * Activities are extracted while reading the activity list. Nothing left to do.
      */
     @Override
-    int getExpectedNodeLen() {
-        return 0;
+    void parseInternal() {
     }
 
     /**
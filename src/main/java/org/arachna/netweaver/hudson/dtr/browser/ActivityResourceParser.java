@@ -3,13 +3,11 @@
  */
 package org.arachna.netweaver.hudson.dtr.browser;
 
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.arachna.netweaver.dc.types.DevelopmentComponent;
 import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
-import org.w3c.dom.Node;
 
 /**
  * A parser for {@link ActivityResource}s. Parses a DTR HTML report of a specific activity and returns the found resources.
@@ -18,10 +16,14 @@ import org.w3c.dom.Node;
  */
 public final class ActivityResourceParser extends AbstractResourceParser {
     /**
-     * XPath expression to extract resources.
+     * prefix of links to resource details.
      */
-    private static final String XPATH =
-        "//a[starts-with(@href, '/dtr/system-tools/reports/ResourceDetails?') and contains(@href, 'path=/vh/')]";
+    private static final String RESOURCE_DETAILS_LINK = "/dtr/system-tools/reports/ResourceDetails?";
+
+    /**
+     * marker for links to versions of resources.
+     */
+    private static final String VERSION_PATH = "path=/vh/";
 
     /**
      * Pattern matching the resources ID.
@@ -74,39 +76,39 @@ public final class ActivityResourceParser extends AbstractResourceParser {
         this.activity = activity;
     }
 
+    /**
+     * Create an {@link ActivityResource} from links to versions of resources and add it to the activity.
+     * 
+     * {@inheritDoc}
+     */
     @Override
-    String getXPath() {
-        return XPATH;
+    public void anchor(final String href, final String text) {
+        if (href != null && href.startsWith(RESOURCE_DETAILS_LINK) && href.contains(VERSION_PATH)) {
+            addResource(href, text);
+        }
     }
 
     /**
-     * Parses a DTR HTML report of a specific activity and updates the activity with the found resources.
-     * 
-     * @param nodes
-     *            DOM nodes representing the extracted resources.
+     * Resources are extracted while reading the report. Nothing left to do.
      */
     @Override
-    public void parseInternal(final List nodes) {
-        for (final Object returnValue : nodes) {
-            addResource((Node)returnValue);
-        }
+    void parseInternal() {
     }
 
     /**
-     * Create a {@link ActivityResource} from the given <code>Node</code>.
+     * Create a {@link ActivityResource} from the given link.
      * 
-     * @param node
-     *            node to extract the <code>ActivityResource</code> from.
+     * @param href
+     *            target of the link to the resource.
+     * @param resourcePath
+     *            text of the link, i.e. the path of the resource.
      */
-    private void addResource(final Node node) {
-        final String resourcePath = node.getChildNodes().item(0).getNodeValue();
-
+    private void addResource(final String href, final String resourcePath) {
         if (isResourcePathDevelopmentComponentResource(resourcePath)) {
             final DevelopmentComponent component =
                 developmentComponentFactory.create(getVendor(resourcePath), getDevelopmentComponentName(resourcePath));
             final ActivityResource resource =
-                new ActivityResource(activity, component, getResourcePath(resourcePath), getResourceId(node.getAttributes()
-                    .getNamedItem("href").getNodeValue()));
+                new ActivityResource(activity, component, getResourcePath(resourcePath), getResourceId(href));
             activity.add(resource);
         }
     }
@@ -181,12 +183,4 @@ public final class ActivityResourceParser extends AbstractResourceParser {
 
         return matcher.group(1);
     }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    int getExpectedNodeLen() {
-        return 0;
-    }
 }
@@ -4,9 +4,16 @@
 package org.arachna.netweaver.hudson.dtr.browser;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -56,6 +63,11 @@ final class DevelopmentComponentCollector {
      */
     private static final Logger LOGGER = Logger.getLogger(DevelopmentComponentCollector.class.getName());
 
+    /**
+     * Default number of threads used to concurrently query the DTR.
+     */
+    static final int DEFAULT_PARALLELISM = 4;
+
     /**
      * DtrHttpClient for browsing the DTR.
      */
@@ -71,6 +83,16 @@ final class DevelopmentComponentCollector {
      */
     private final DevelopmentComponentFactory dcFactory;
 
+    /**
+     * number of threads to use for concurrently querying the DTR.
+     */
+    private final int parallelism;
+
+    /**
+     * cache for details of resource versions (<code>null</code> if resource details should always be read from the DTR).
+     */
+    private final ResourceDetailsCache resourceDetailsCache;
+
     /**
      * Create an instance of a <code>DevelopmentComponentCollector</code> with
      * the list of given activities.
@@ -86,15 +108,48 @@ final class DevelopmentComponentCollector {
      */
     public DevelopmentComponentCollector(final DtrHttpClient dtrHttpClient, final String dtrUrl,
         final DevelopmentComponentFactory dcFactory) {
+        this(dtrHttpClient, dtrUrl, dcFactory, DEFAULT_PARALLELISM, null);
+    }
+
+    /**
+     * Create an instance of a <code>DevelopmentComponentCollector</code> with
+     * the list of given activities.
+     * 
+     * @param dtrHttpClient
+     *            HTTP-Client for querying the DTR.
+     * @param dtrUrl
+     *            URL of DTR server.
+     * @param dcFactory
+     *            registry for {@link DevelopmentComponent} objects. Used to
+     *            create and register development components that are related to
+     *            an activity in the DTR.
+     * @param parallelism
+     *            number of threads to use for concurrently querying the DTR
+     *            (values lower than one are treated as one).
+     * @param resourceDetailsCache
+     *            cache for details of resource versions consulted before
+     *            querying the DTR (may be <code>null</code>).
+     */
+    public DevelopmentComponentCollector(final DtrHttpClient dtrHttpClient, final String dtrUrl,
+        final DevelopmentComponentFactory dcFactory, final int parallelism,
+        final ResourceDetailsCache resourceDetailsCache) {
         this.dtrHttpClient = dtrHttpClient;
         this.dtrUrl = dtrUrl;
         this.dcFactory = dcFactory;
+        this.parallelism = Math.max(1, parallelism);
+        this.resourceDetailsCache = resourceDetailsCache;
     }
 
     /**
      * Collect development components associated to the given list of
      * activities.
      * 
+     * The details and resources of the activities are read concurrently
+     * using a pool of worker threads. The details of the resources of an
+     * activity are queried as soon as its resources are known. The results
+     * are merged in the order of the given activities and their resources so
+     * the returned set does not depend on the order the queries complete.
+     * 
      * @param activities
      *            list of activities the associated development components are
      *            to belooked up
@@ -103,9 +158,42 @@ final class DevelopmentComponentCollector {
     public Set<DevelopmentComponent> collect(final List<Activity> activities) {
         final Set<DevelopmentComponent> components = new LinkedHashSet<DevelopmentComponent>();
 
-        if (activities != null) {
-            for (final Activity activity : activities) {
-                components.addAll(calculateAffectedDevelopmentComponents(activity));
+        if (activities != null && !activities.isEmpty()) {
+            final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, activities.size()));
+
+            try {
+                final List<Future<Boolean>> activityFutures = new ArrayList<Future<Boolean>>(activities.size());
+
+                for (final Activity activity : activities) {
+                    activityFutures.add(executor.submit(new ActivityResolver(activity)));
+                }
+
+                final List<Future<DevelopmentComponent>> resourceFutures = new ArrayList<Future<DevelopmentComponent>>();
+
+                for (int i = 0; i < activities.size(); i++) {
+                    if (Boolean.TRUE.equals(waitFor(activityFutures.get(i)))) {
+                        for (final ActivityResource resource : activities.get(i).getResources()) {
+                            resourceFutures.add(executor.submit(new ResourceResolver(resource)));
+                        }
+                    }
+                }
+
+                for (final Future<DevelopmentComponent> future : resourceFutures) {
+                    final DevelopmentComponent component = waitFor(future);
+
+                    if (component != null) {
+                        components.add(component);
+                    }
+                }
+            }
+            finally {
+                executor.shutdownNow();
+            }
+
+            if (resourceDetailsCache != null) {
+                resourceDetailsCache.save();
+                LOGGER.log(Level.FINE, String.format("Resource details cache: %d hits, %d misses, %d entries.",
+                    resourceDetailsCache.getHits(), resourceDetailsCache.getMisses(), resourceDetailsCache.size()));
             }
         }
 
@@ -113,38 +201,45 @@ final class DevelopmentComponentCollector {
     }
 
     /**
-     * Calculate the set of development components affected by the given
-     * activity. The affected components will have their
-     * {@link DevelopmentComponent#isNeedsRebuild()} property set to
-     * <code>true</code>.
+     * Wait for the given future to complete and return its result.
      * 
-     * @param activity
-     *            activity to calculate affected development components for.
-     * @return set of development components affected by the given activity.
+     * @param <T>
+     *            type of result.
+     * @param future
+     *            the future to wait for.
+     * @return the result of the future or <code>null</code> when the
+     *         computation failed.
      */
-    private Set<DevelopmentComponent> calculateAffectedDevelopmentComponents(final Activity activity) {
-        final Set<DevelopmentComponent> components = new LinkedHashSet<DevelopmentComponent>();
+    private <T> T waitFor(final Future<T> future) {
+        try {
+            return future.get();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ERROR_CALCULATING_AFFECTED_DEVELOPMENT_COMPONENTS, e);
+        }
+        catch (final ExecutionException e) {
+            LOGGER.log(Level.SEVERE, ERROR_CALCULATING_AFFECTED_DEVELOPMENT_COMPONENTS, e.getCause());
+        }
+
+        return null;
+    }
 
+    /**
+     * Update the given activity with its details and resources (from the
+     * DTR HTML report).
+     * 
+     * @param activity
+     *            activity to update.
+     * @return <code>true</code> when the activity could be updated,
+     *         <code>false</code> otherwise.
+     */
+    private boolean resolveActivity(final Activity activity) {
         try {
             updateActivityDetails(activity);
             createActivityResources(activity);
 
-            for (final ActivityResource resource : activity.getResources()) {
-                final String queryURL = String.format(RESOURCE_DETAIL_QUERY_TEMPLATE, dtrUrl, resource.getId());
-
-                try {
-                    new ResourceDetailsParser(resource).parse(dtrHttpClient.getContent(queryURL));
-                    components.add(resource.getDevelopmentComponent());
-                }
-                catch (final IllegalStateException ise) {
-                    // This means that the resource was deleted from the DTR.
-                    // Verify this using the URL printed below.
-                    LOGGER.log(
-                        Level.FINE,
-                        String.format(RESOURCE_NOT_FOUND_IN_X_PATH_EXPRESSION_FOR_RESOURCE_EXTRACTION, queryURL,
-                            ise.getMessage()));
-                }
-            }
+            return true;
         }
         catch (final ClientProtocolException e) {
             LOGGER.log(Level.SEVERE, ERROR_CALCULATING_AFFECTED_DEVELOPMENT_COMPONENTS, e);
@@ -156,7 +251,50 @@ final class DevelopmentComponentCollector {
             LOGGER.log(Level.SEVERE, ERROR_CALCULATING_AFFECTED_DEVELOPMENT_COMPONENTS, e);
         }
 
-        return components;
+        return false;
+    }
+
+    /**
+     * Update the given resource with its details read from the DTR and
+     * return the development component it belongs to. The details are taken
+     * from the resource details cache when present there.
+     * 
+     * @param resource
+     *            resource to update.
+     * @return the development component the resource belongs to or
+     *         <code>null</code> when the resource could not be found.
+     */
+    private DevelopmentComponent resolveResource(final ActivityResource resource) {
+        if (resourceDetailsCache != null && resourceDetailsCache.lookup(dtrUrl, resource)) {
+            return resource.getDevelopmentComponent();
+        }
+
+        final String queryURL = String.format(RESOURCE_DETAIL_QUERY_TEMPLATE, dtrUrl, resource.getId());
+
+        try {
+            new ResourceDetailsParser(resource).parse(dtrHttpClient.getContent(queryURL));
+
+            // only cache completely parsed details
+            if (resourceDetailsCache != null && resource.getSequenceNumber() != null) {
+                resourceDetailsCache.put(dtrUrl, resource);
+            }
+
+            return resource.getDevelopmentComponent();
+        }
+        catch (final IllegalStateException ise) {
+            // This means that the resource was deleted from the DTR.
+            // Verify this using the URL printed below.
+            LOGGER.log(Level.FINE,
+                String.format(RESOURCE_NOT_FOUND_IN_X_PATH_EXPRESSION_FOR_RESOURCE_EXTRACTION, queryURL, ise.getMessage()));
+        }
+        catch (final ClientProtocolException e) {
+            LOGGER.log(Level.SEVERE, ERROR_CALCULATING_AFFECTED_DEVELOPMENT_COMPONENTS, e);
+        }
+        catch (final IOException e) {
+            LOGGER.log(Level.SEVERE, ERROR_CALCULATING_AFFECTED_DEVELOPMENT_COMPONENTS, e);
+        }
+
+        return null;
     }
 
     /**
@@ -172,7 +310,12 @@ final class DevelopmentComponentCollector {
         final String queryURL = String.format(RESOURCE_QUERY_TEMPLATE, dtrUrl, activity.getActivityPath());
 
         try {
-            activityResourceParser.parse(dtrHttpClient.getContent(queryURL));
+            final InputStream content = dtrHttpClient.getContent(queryURL);
+
+            // the development component registry is not thread safe
+            synchronized (dcFactory) {
+                activityResourceParser.parse(content);
+            }
         }
         catch (final IllegalStateException ise) {
             LOGGER.log(
@@ -195,4 +338,64 @@ final class DevelopmentComponentCollector {
         final String queryURL = String.format(ACTIVITY_DETAIL_QUERY_TEMPLATE, dtrUrl, activity.getActivityPath());
         activityDetailParser.parse(dtrHttpClient.getContent(queryURL));
     }
+
+    /**
+     * Task reading the details and resources of an activity.
+     * 
+     * @author Dirk Weigenand
+     */
+    private final class ActivityResolver implements Callable<Boolean> {
+        /**
+         * activity to update.
+         */
+        private final Activity activity;
+
+        /**
+         * Create a task for updating the given activity.
+         * 
+         * @param activity
+         *            activity to update.
+         */
+        ActivityResolver(final Activity activity) {
+            this.activity = activity;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Boolean call() {
+            return Boolean.valueOf(resolveActivity(activity));
+        }
+    }
+
+    /**
+     * Task reading the details of a resource.
+     * 
+     * @author Dirk Weigenand
+     */
+    private final class ResourceResolver implements Callable<DevelopmentComponent> {
+        /**
+         * resource to update.
+         */
+        private final ActivityResource resource;
+
+        /**
+         * Create a task for updating the given resource.
+         * 
+         * @param resource
+         *            resource to update.
+         */
+        ResourceResolver(final ActivityResource resource) {
+            this.resource = resource;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DevelopmentComponent call() {
+            return resolveResource(resource);
+        }
+    }
 }
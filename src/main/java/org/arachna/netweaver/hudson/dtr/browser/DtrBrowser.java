@@ -5,8 +5,12 @@ package org.arachna.netweaver.hudson.dtr.browser;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.http.client.ClientProtocolException;
 import org.arachna.netweaver.dc.types.Compartment;
@@ -33,13 +37,25 @@ public final class DtrBrowser {
         "There was an error reading the list of activities (URL: %s) from the DTR.";
 
     /**
-     * query for reading activities for a given compartment.
+     * query for reading activities for a given compartment. Only activities integrated with an ISN greater or equal to the given
+     * <code>isnFrom</code> will be returned by the DTR.
      */
     private static final String ACTIVITY_QUERY = "%s/system-tools/reports/ActivityQuery?wspPath=/%s"
-        + "&user=&closedOnly=on&isnFrom=&isnTo=&nonEmptyOnly=on&folderPath=&command=Show";
+        + "&user=&closedOnly=on&isnFrom=%s&isnTo=&nonEmptyOnly=on&folderPath=&command=Show";
 
     /**
-     * DtrHttpClient for browsing the DTR.
+     * Name of system property to configure the number of threads used for concurrently querying the DTR.
+     */
+    private static final String DTR_BROWSER_THREADS = "nwdibuild.dtr.browser.threads";
+
+    /**
+     * number of threads used for concurrently querying the DTR.
+     */
+    private final int parallelism =
+        Integer.getInteger(DTR_BROWSER_THREADS, DevelopmentComponentCollector.DEFAULT_PARALLELISM).intValue();
+
+    /**
+     * DtrHttpClient for browsing the DTR (shared with other browsers using the same DTR and credentials).
      */
     private final DtrHttpClient dtrHttpClient;
 
@@ -48,6 +64,11 @@ public final class DtrBrowser {
      */
     private final DevelopmentConfiguration config;
 
+    /**
+     * highest integration sequence number seen per compartment (the key is the compartment's name).
+     */
+    private final Map<String, Integer> integrationSequenceNumbers = new LinkedHashMap<String, Integer>();
+
     /**
      * Create an instance of a <code>DtrBrowser</code>.
      * 
@@ -59,8 +80,26 @@ public final class DtrBrowser {
      *            password to authenticate the user against the DTR's UME.
      */
     public DtrBrowser(final DevelopmentConfiguration config, final String dtrUser, final String password) {
+        this(config, dtrUser, password, false);
+    }
+
+    /**
+     * Create an instance of a <code>DtrBrowser</code>.
+     * 
+     * @param config
+     *            the {@link DevelopmentConfiguration} to use in queries.
+     * @param dtrUser
+     *            user for accessing the DTR.
+     * @param password
+     *            password to authenticate the user against the DTR's UME.
+     * @param preemptiveAuthentication
+     *            whether credentials should be sent with the first request to the DTR instead of waiting for it to request
+     *            authentication.
+     */
+    public DtrBrowser(final DevelopmentConfiguration config, final String dtrUser, final String password,
+        final boolean preemptiveAuthentication) {
         this.config = config;
-        dtrHttpClient = new DtrHttpClient(dtrUser, password);
+        dtrHttpClient = DtrHttpClientRegistry.get(config.getCmsUrl(), dtrUser, password, parallelism, preemptiveAuthentication);
     }
 
     /**
@@ -74,8 +113,10 @@ public final class DtrBrowser {
      * @return list of retrieved activities (may be empty).
      */
     private List<Activity> getActivities(final Compartment compartment, final ActivityFilter activityFilter) {
+        final Integer lastIsn = integrationSequenceNumbers.get(compartment.getName());
         final String queryUrl =
-            String.format(ACTIVITY_QUERY, compartment.getDtrUrl(), compartment.getInactiveLocation());
+            String.format(ACTIVITY_QUERY, compartment.getDtrUrl(), compartment.getInactiveLocation(),
+                lastIsn == null ? "" : Integer.toString(lastIsn.intValue() + 1));
 
         try {
             final ActivityListParser activityListBrowser = new ActivityListParser(activityFilter);
@@ -100,19 +141,75 @@ public final class DtrBrowser {
      * @param activityFilter
      *            an {@link ActivityFilter} for filtering the list of returned
      *            activities.
-     * @return a list of activities matching the given {@link ActivityFilter} in
-     *         the given workspace.
+     * @return the activities matching the given {@link ActivityFilter} mapped
+     *         to the compartment they were read from.
      */
-    private List<Activity> getActivities(final ActivityFilter activityFilter) {
-        final List<Activity> activities = new ArrayList<Activity>();
+    private Map<Compartment, List<Activity>> getActivities(final ActivityFilter activityFilter) {
+        final Map<Compartment, List<Activity>> activities = new LinkedHashMap<Compartment, List<Activity>>();
 
         for (final Compartment compartment : config.getCompartments(CompartmentState.Source)) {
-            activities.addAll(this.getActivities(compartment, activityFilter));
+            activities.put(compartment, this.getActivities(compartment, activityFilter));
+        }
+
+        return activities;
+    }
+
+    /**
+     * Flatten the given map of compartments to activities into one list.
+     * 
+     * @param activitiesByCompartment
+     *            activities mapped to the compartment they were read from.
+     * @return list of all activities.
+     */
+    private List<Activity> flatten(final Map<Compartment, List<Activity>> activitiesByCompartment) {
+        final List<Activity> activities = new ArrayList<Activity>();
+
+        for (final List<Activity> compartmentActivities : activitiesByCompartment.values()) {
+            activities.addAll(compartmentActivities);
         }
 
         return activities;
     }
 
+    /**
+     * Initialize the integration sequence numbers per compartment to start
+     * querying activities from.
+     * 
+     * @param lastIntegrationSequenceNumbers
+     *            highest integration sequence numbers seen per compartment
+     *            during the last build (may be <code>null</code>).
+     */
+    private void setIntegrationSequenceNumbers(final Map<String, Integer> lastIntegrationSequenceNumbers) {
+        integrationSequenceNumbers.clear();
+
+        if (lastIntegrationSequenceNumbers != null) {
+            integrationSequenceNumbers.putAll(lastIntegrationSequenceNumbers);
+        }
+    }
+
+    /**
+     * Update the highest integration sequence number seen per compartment
+     * using the ISNs of the given activities (their details must have been
+     * read already).
+     * 
+     * @param activitiesByCompartment
+     *            activities mapped to the compartment they were read from.
+     */
+    private void updateIntegrationSequenceNumbers(final Map<Compartment, List<Activity>> activitiesByCompartment) {
+        for (final Map.Entry<Compartment, List<Activity>> entry : activitiesByCompartment.entrySet()) {
+            final Compartment compartment = entry.getKey();
+
+            for (final Activity activity : entry.getValue()) {
+                final Integer isn = activity.getIntegrationSequenceNumber(compartment.getInactiveLocation());
+                final Integer lastIsn = integrationSequenceNumbers.get(compartment.getName());
+
+                if (isn != null && (lastIsn == null || isn.intValue() > lastIsn.intValue())) {
+                    integrationSequenceNumbers.put(compartment.getName(), isn);
+                }
+            }
+        }
+    }
+
     /**
      * Get a list of activities in the given workspace matching the given
      * {@link ActivityFilter}.
@@ -122,9 +219,25 @@ public final class DtrBrowser {
      * @return a list of activities in the given workspace.
      */
     public List<Activity> getActivities(final Date since) {
-        final List<Activity> activities = this.getActivities(new ActivityCheckinDateFilter(since));
+        return getActivities(since, null);
+    }
 
-        dtrHttpClient.close();
+    /**
+     * Get a list of activities in the given workspace that were checked in
+     * after the given date and integrated with an ISN higher than the one
+     * registered for the respective compartment.
+     * 
+     * @param since
+     *            date after which to look for activities.
+     * @param lastIntegrationSequenceNumbers
+     *            highest integration sequence numbers seen per compartment
+     *            during the last build (may be <code>null</code>, all
+     *            activities will be read then).
+     * @return a list of activities in the given workspace.
+     */
+    public List<Activity> getActivities(final Date since, final Map<String, Integer> lastIntegrationSequenceNumbers) {
+        setIntegrationSequenceNumbers(lastIntegrationSequenceNumbers);
+        final List<Activity> activities = flatten(this.getActivities(new ActivityCheckinDateFilter(since)));
 
         return activities;
     }
@@ -142,18 +255,56 @@ public final class DtrBrowser {
      *            date since when new activities should be detected.
      * @return list of detected activities.
      */
-
     public List<Activity> getActivitiesWithResourcesAndDevelopmentComponents(
         final DevelopmentComponentFactory dcFactory, final Date since) {
-        final List<Activity> activities = this.getActivities(new ActivityCheckinDateFilter(since));
+        return getActivitiesWithResourcesAndDevelopmentComponents(dcFactory, since, null);
+    }
+
+    /**
+     * Determine activities from DTR that were checked in after the given date
+     * <code>since</code> and integrated with an ISN higher than the one
+     * registered for the respective compartment. Also collect the affected
+     * resources and development components. Those components will have the
+     * property <code>needsRebuild</code> set to <code>true</code> afterwards.
+     * The highest ISN per compartment can be read using
+     * {@link #getIntegrationSequenceNumbers()} afterwards.
+     * 
+     * @param dcFactory
+     *            registry for development components to use for when querying
+     *            development components affected by activities.
+     * @param since
+     *            date since when new activities should be detected.
+     * @param lastIntegrationSequenceNumbers
+     *            highest integration sequence numbers seen per compartment
+     *            during the last build (may be <code>null</code>, all
+     *            activities will be read then).
+     * @return list of detected activities.
+     */
+    public List<Activity> getActivitiesWithResourcesAndDevelopmentComponents(
+        final DevelopmentComponentFactory dcFactory, final Date since,
+        final Map<String, Integer> lastIntegrationSequenceNumbers) {
+        setIntegrationSequenceNumbers(lastIntegrationSequenceNumbers);
+        final Map<Compartment, List<Activity>> activitiesByCompartment =
+            this.getActivities(new ActivityCheckinDateFilter(since));
+        final List<Activity> activities = flatten(activitiesByCompartment);
 
         for (final DevelopmentComponent component : new DevelopmentComponentCollector(dtrHttpClient,
-            config.getCmsUrl(), dcFactory).collect(activities)) {
+            config.getCmsUrl(), dcFactory, parallelism, ResourceDetailsCache.getInstance()).collect(activities)) {
             component.setNeedsRebuild(true);
         }
 
-        dtrHttpClient.close();
-
+        updateIntegrationSequenceNumbers(activitiesByCompartment);
         return activities;
     }
+
+    /**
+     * Returns the highest integration sequence number seen per compartment
+     * (keyed by the compartment's name). The returned map is a snapshot and
+     * can be passed to the next query of this browser.
+     * 
+     * @return the highest integration sequence number seen per compartment.
+     */
+    public Map<String, Integer> getIntegrationSequenceNumbers() {
+        return Collections.unmodifiableMap(new HashMap<String, Integer>(integrationSequenceNumbers));
+    }
 }
@@ -7,21 +7,31 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringWriter;
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.AuthCache;
+import org.apache.http.client.CookieStore;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
-import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.protocol.HttpContext;
 
 import hudson.util.IOUtils;
@@ -43,11 +53,69 @@ final class DtrHttpClient {
     private final CloseableHttpClient httpClient;
 
     /**
-     * Context to use for conversations.
+     * Authentication schemes per DTR host shared by all threads (so a successful authentication is reused by all of them).
      */
-    private final HttpContext localContext = new BasicHttpContext();
+    private final AuthCache authCache = new BasicAuthCache();
 
-    private HttpClientConnectionManager connectionManager = new BasicHttpClientConnectionManager();
+    /**
+     * Cookies (i.e. the session cookie handed out by the DTR) shared by all threads.
+     */
+    private final CookieStore cookieStore = new BasicCookieStore();
+
+    /**
+     * DTR hosts the authentication cache has been primed for.
+     */
+    private final Set<HttpHost> primedHosts = ConcurrentHashMap.<HttpHost> newKeySet();
+
+    /**
+     * whether credentials should be sent with the first request to a DTR host instead of waiting for it to challenge the client.
+     */
+    private final boolean preemptiveAuthentication;
+
+    /**
+     * Context to use for conversations (one per thread since contexts must not be shared between concurrently executed requests). All
+     * contexts share the authentication cache and cookie store.
+     */
+    private final ThreadLocal<HttpContext> localContext = new ThreadLocal<HttpContext>() {
+        @Override
+        protected HttpContext initialValue() {
+            final HttpClientContext context = HttpClientContext.create();
+            context.setAuthCache(authCache);
+            context.setCookieStore(cookieStore);
+
+            return context;
+        }
+    };
+
+    /**
+     * maximum number of connections kept open to all DTR hosts.
+     */
+    private static final int MAX_TOTAL_CONNECTIONS = 20;
+
+    /**
+     * time in seconds after which idle connections are closed.
+     */
+    private static final long IDLE_CONNECTION_TIMEOUT = 60;
+
+    /**
+     * time in milliseconds of inactivity after which pooled connections are validated before being reused.
+     */
+    private static final int VALIDATE_AFTER_INACTIVITY = 5000;
+
+    /**
+     * Connection manager pooling connections to the DTR.
+     */
+    private final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+
+    /**
+     * number of requests currently executed by this client.
+     */
+    private final AtomicInteger activeRequests = new AtomicInteger();
+
+    /**
+     * time (in milliseconds) this client was last used to execute a request.
+     */
+    private volatile long lastUsed = System.currentTimeMillis();
 
     /**
      * Create an instance of a <code>DtrHttpClient</code>.
@@ -58,11 +126,56 @@ final class DtrHttpClient {
      *            password to authenticate the user against the DTR's UME.
      */
     public DtrHttpClient(final String dtrUser, final String password) {
+        this(dtrUser, password, DevelopmentComponentCollector.DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Create an instance of a <code>DtrHttpClient</code> that can be used by the given number of threads concurrently.
+     * 
+     * Connections are kept alive and pooled. Connections idle for longer than {@link #IDLE_CONNECTION_TIMEOUT} seconds are evicted from
+     * the pool.
+     * 
+     * @param dtrUser
+     *            user for accessing the DTR.
+     * @param password
+     *            password to authenticate the user against the DTR's UME.
+     * @param maxConnectionsPerRoute
+     *            maximum number of concurrent connections to a DTR host.
+     */
+    public DtrHttpClient(final String dtrUser, final String password, final int maxConnectionsPerRoute) {
+        this(dtrUser, password, maxConnectionsPerRoute, false);
+    }
+
+    /**
+     * Create an instance of a <code>DtrHttpClient</code> that can be used by the given number of threads concurrently.
+     * 
+     * When <code>preemptiveAuthentication</code> is <code>true</code> the credentials are sent with the first request to a DTR host
+     * using basic authentication. Otherwise they are sent after the DTR challenged the client. In both cases the session cookie returned
+     * by the DTR is reused for subsequent requests.
+     * 
+     * @param dtrUser
+     *            user for accessing the DTR.
+     * @param password
+     *            password to authenticate the user against the DTR's UME.
+     * @param maxConnectionsPerRoute
+     *            maximum number of concurrent connections to a DTR host.
+     * @param preemptiveAuthentication
+     *            whether credentials should be sent without waiting for the DTR to request authentication.
+     */
+    public DtrHttpClient(final String dtrUser, final String password, final int maxConnectionsPerRoute,
+        final boolean preemptiveAuthentication) {
         validateArgument(dtrUser, "DTR user");
         validateArgument(password, "password");
-        CredentialsProvider credsProvider = new BasicCredentialsProvider();
+        final int maxPerRoute = Math.max(1, maxConnectionsPerRoute);
+        connectionManager.setMaxTotal(Math.max(maxPerRoute, MAX_TOTAL_CONNECTIONS));
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY);
+        final CredentialsProvider credsProvider = new BasicCredentialsProvider();
         credsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(dtrUser, password));
-        httpClient = HttpClients.custom().setConnectionManager(connectionManager).setDefaultCredentialsProvider(credsProvider).build();
+        this.preemptiveAuthentication = preemptiveAuthentication;
+        httpClient =
+            HttpClients.custom().setConnectionManager(connectionManager).setDefaultCredentialsProvider(credsProvider)
+                .setDefaultCookieStore(cookieStore).evictExpiredConnections().evictIdleConnections(IDLE_CONNECTION_TIMEOUT, TimeUnit.SECONDS).build();
     }
 
     /**
@@ -93,15 +206,21 @@ final class DtrHttpClient {
         CloseableHttpResponse response = null;
         ByteArrayOutputStream content = new ByteArrayOutputStream();
 
+        activeRequests.incrementAndGet();
+
         try {
             final HttpGet httpget = new HttpGet(queryUrl);
-            response = httpClient.execute(httpget, localContext);
+            primeAuthCache(httpget.getURI());
+            response = httpClient.execute(httpget, localContext.get());
             IOUtils.copy(response.getEntity().getContent(), content);
         }
         catch (UnsupportedOperationException e) {
             logger.log(Level.WARNING, e.getLocalizedMessage(), e);
         }
         finally {
+            lastUsed = System.currentTimeMillis();
+            activeRequests.decrementAndGet();
+
             if (response != null) {
                 response.close();
             }
@@ -111,9 +230,46 @@ final class DtrHttpClient {
     }
 
     /**
-     * Shut down the underlying {@link DefaultHTTPClient}'s connection manager.
+     * Register basic authentication for the host of the given URI with the authentication cache (once per host) when preemptive
+     * authentication is enabled.
+     * 
+     * @param uri
+     *            URI of request about to be executed.
+     */
+    private void primeAuthCache(final URI uri) {
+        if (preemptiveAuthentication) {
+            final HttpHost host = URIUtils.extractHost(uri);
+
+            if (host != null && primedHosts.add(host)) {
+                authCache.put(host, new BasicScheme());
+            }
+        }
+    }
+
+    /**
+     * Determine whether this client did not execute any requests for at least the given time.
+     * 
+     * @param maxIdleTime
+     *            time in milliseconds.
+     * @return <code>true</code> when no request is being executed and the last one finished at least <code>maxIdleTime</code>
+     *         milliseconds ago, <code>false</code> otherwise.
+     */
+    boolean isIdle(final long maxIdleTime) {
+        return activeRequests.get() == 0 && System.currentTimeMillis() - lastUsed >= maxIdleTime;
+    }
+
+    /**
+     * Shut down the underlying {@link CloseableHttpClient} and its connection manager.
      */
     public void close() {
-        connectionManager.shutdown();
+        try {
+            httpClient.close();
+        }
+        catch (final IOException e) {
+            logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+        }
+        finally {
+            connectionManager.shutdown();
+        }
     }
 }
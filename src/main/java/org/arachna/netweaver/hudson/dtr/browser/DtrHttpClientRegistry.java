@@ -0,0 +1,190 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import hudson.init.Terminator;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Registry for {@link DtrHttpClient} objects. Clients are shared between DTR browser sessions using the same DTR host, user, number of
+ * connections and authentication mode so that polling and checking out several NWDI projects reuses already established connections.
+ *
+ * A client is closed and replaced when it is requested with another password than the one it was created with (i.e. the credentials
+ * were changed in the global configuration). Clients that did not execute any requests for {@link #MAX_IDLE_TIME} milliseconds are
+ * closed and removed from the registry. All remaining clients are closed when Jenkins shuts down.
+ *
+ * @author Dirk Weigenand
+ */
+public final class DtrHttpClientRegistry {
+    /**
+     * time in milliseconds a client may be unused before it is closed (30 minutes).
+     */
+    static final long MAX_IDLE_TIME = 30 * 60 * 1000;
+
+    /**
+     * maps 'host:user:maximum connections:authentication mode' to HTTP clients.
+     */
+    private static final Map<String, Registration> CLIENTS = new HashMap<String, Registration>();
+
+    /**
+     * static registry: should not be instantiated.
+     */
+    private DtrHttpClientRegistry() {
+    }
+
+    /**
+     * Get the HTTP client for the given DTR and credentials. Creates and registers a new client if there is none registered yet or the
+     * registered one was created for another password. Clients unused for {@link #MAX_IDLE_TIME} milliseconds are closed.
+     *
+     * @param dtrUrl
+     *            URL of the DTR.
+     * @param dtrUser
+     *            user for accessing the DTR.
+     * @param password
+     *            password to authenticate the user against the DTR's UME.
+     * @param maxConnectionsPerRoute
+     *            maximum number of concurrent connections to the DTR host.
+     * @param preemptiveAuthentication
+     *            whether credentials should be sent without waiting for the DTR to request authentication.
+     * @return the HTTP client registered for the given DTR host and credentials.
+     */
+    static DtrHttpClient get(final String dtrUrl, final String dtrUser, final String password, final int maxConnectionsPerRoute,
+        final boolean preemptiveAuthentication) {
+        final String key = createKey(dtrUrl, dtrUser, maxConnectionsPerRoute, preemptiveAuthentication);
+        final String passwordHash = DigestUtils.sha1Hex(password == null ? "" : password);
+
+        synchronized (CLIENTS) {
+            evictIdleClients(MAX_IDLE_TIME);
+            Registration registration = CLIENTS.get(key);
+
+            if (registration != null && !registration.passwordHash.equals(passwordHash)) {
+                // credentials changed: connections and session cookies of the old client must not be reused
+                registration.client.close();
+                registration = null;
+            }
+
+            if (registration == null) {
+                registration =
+                    new Registration(new DtrHttpClient(dtrUser, password, maxConnectionsPerRoute, preemptiveAuthentication), passwordHash);
+                CLIENTS.put(key, registration);
+            }
+
+            return registration.client;
+        }
+    }
+
+    /**
+     * Close and remove the clients that did not execute any requests for at least the given time.
+     *
+     * @param maxIdleTime
+     *            time in milliseconds a client may be unused before it is closed.
+     */
+    static void evictIdleClients(final long maxIdleTime) {
+        synchronized (CLIENTS) {
+            final Iterator<Registration> registrations = CLIENTS.values().iterator();
+
+            while (registrations.hasNext()) {
+                final DtrHttpClient client = registrations.next().client;
+
+                if (client.isIdle(maxIdleTime)) {
+                    client.close();
+                    registrations.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the key for storing a HTTP client in the registry.
+     *
+     * @param dtrUrl
+     *            URL of the DTR (only the host and port are used).
+     * @param dtrUser
+     *            user for accessing the DTR.
+     * @param maxConnectionsPerRoute
+     *            maximum number of concurrent connections to the DTR host.
+     * @param preemptiveAuthentication
+     *            whether credentials should be sent without waiting for the DTR to request authentication.
+     * @return the concatenation of the DTR's host, the user, the maximum number of connections and the authentication mode separated by
+     *         ':'.
+     */
+    private static String createKey(final String dtrUrl, final String dtrUser, final int maxConnectionsPerRoute,
+        final boolean preemptiveAuthentication) {
+        return getHost(dtrUrl) + ":" + dtrUser + ":" + maxConnectionsPerRoute + ":" + preemptiveAuthentication;
+    }
+
+    /**
+     * Extract host and port from the given URL.
+     *
+     * @param dtrUrl
+     *            URL of the DTR.
+     * @return host and port of the given URL or the URL itself if it could not be parsed.
+     */
+    private static String getHost(final String dtrUrl) {
+        String host = dtrUrl == null ? "" : dtrUrl;
+
+        try {
+            final URI uri = URI.create(host);
+
+            if (uri.getHost() != null) {
+                host = uri.getHost() + ":" + uri.getPort();
+            }
+        }
+        catch (final IllegalArgumentException e) {
+            // use the URL as is
+        }
+
+        return host;
+    }
+
+    /**
+     * Shut down all registered HTTP clients and clear the registry.
+     */
+    @Terminator
+    public static void shutdown() {
+        synchronized (CLIENTS) {
+            for (final Registration registration : CLIENTS.values()) {
+                registration.client.close();
+            }
+
+            CLIENTS.clear();
+        }
+    }
+
+    /**
+     * A registered HTTP client together with the hash of the password it was created with.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class Registration {
+        /**
+         * the registered HTTP client.
+         */
+        private final DtrHttpClient client;
+
+        /**
+         * SHA-1 hash of the password the client authenticates with.
+         */
+        private final String passwordHash;
+
+        /**
+         * Create a registration for the given client.
+         *
+         * @param client
+         *            the HTTP client to register.
+         * @param passwordHash
+         *            SHA-1 hash of the password the client authenticates with.
+         */
+        Registration(final DtrHttpClient client, final String passwordHash) {
+            this.client = client;
+            this.passwordHash = passwordHash;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import java.util.Map;
+
+/**
+ * Receiver of the tokens read by a {@link HtmlTokenizer}.
+ * 
+ * @author Dirk Weigenand
+ */
+interface HtmlTokenHandler {
+    /**
+     * Called for every start tag.
+     * 
+     * @param name
+     *            name of the tag (in lower case).
+     * @param attributes
+     *            attributes of the tag (names in lower case, values with entities decoded).
+     */
+    void startTag(String name, Map<String, String> attributes);
+
+    /**
+     * Called for every end tag (and for self closing tags after {@link #startTag(String, Map)}).
+     * 
+     * @param name
+     *            name of the tag (in lower case).
+     */
+    void endTag(String name);
+
+    /**
+     * Called for text between tags.
+     * 
+     * @param text
+     *            the text with entities decoded.
+     */
+    void text(String text);
+}
@@ -0,0 +1,511 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming tokenizer for (possibly malformed) HTML as returned by the DTR web interface. Reads the given input in a single pass and
+ * reports start tags, end tags and text to a {@link HtmlTokenHandler}. No document tree is built, only the current token is held in
+ * memory. Comments, processing instructions, document type declarations and the content of <code>script</code> and <code>style</code>
+ * elements are skipped.
+ * 
+ * @author Dirk Weigenand
+ */
+final class HtmlTokenizer {
+    /**
+     * marks the end of input.
+     */
+    private static final int EOF = -1;
+
+    /**
+     * maximum length of an entity name (including the '#' of numeric entities).
+     */
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    /**
+     * Mapping of named entities to their characters.
+     */
+    private static final Map<String, Character> ENTITIES;
+
+    static {
+        final Map<String, Character> entities = new HashMap<String, Character>();
+        entities.put("amp", '&');
+        entities.put("lt", '<');
+        entities.put("gt", '>');
+        entities.put("quot", '"');
+        entities.put("apos", '\'');
+        entities.put("nbsp", '\u00a0');
+        entities.put("auml", '\u00e4');
+        entities.put("ouml", '\u00f6');
+        entities.put("uuml", '\u00fc');
+        entities.put("Auml", '\u00c4');
+        entities.put("Ouml", '\u00d6');
+        entities.put("Uuml", '\u00dc');
+        entities.put("szlig", '\u00df');
+        ENTITIES = Collections.unmodifiableMap(entities);
+    }
+
+    /**
+     * input to tokenize.
+     */
+    private final Reader input;
+
+    /**
+     * character pushed back onto the input ({@link #EOF} when there is none).
+     */
+    private int pushedBack = EOF;
+
+    /**
+     * buffer for text between tags.
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Create a tokenizer for the given input.
+     * 
+     * @param input
+     *            the HTML to tokenize.
+     */
+    HtmlTokenizer(final Reader input) {
+        this.input = input instanceof BufferedReader ? input : new BufferedReader(input);
+    }
+
+    /**
+     * Tokenize the input and report the tokens read to the given handler.
+     * 
+     * @param handler
+     *            receiver of tokens.
+     * @throws IOException
+     *             when reading the input fails.
+     */
+    void parse(final HtmlTokenHandler handler) throws IOException {
+        int c = read();
+
+        while (c != EOF) {
+            if (c == '<') {
+                final int next = read();
+
+                if (next == '/') {
+                    flushText(handler);
+                    readEndTag(handler);
+                }
+                else if (next == '!' || next == '?') {
+                    flushText(handler);
+                    skipMarkup(next);
+                }
+                else if (isNameStart(next)) {
+                    flushText(handler);
+                    final String name = readStartTag(handler, next);
+
+                    if ("script".equals(name) || "style".equals(name)) {
+                        skipRawText(name);
+                        handler.endTag(name);
+                    }
+                }
+                else {
+                    text.append('<');
+                    unread(next);
+                }
+            }
+            else {
+                text.append((char)c);
+            }
+
+            c = read();
+        }
+
+        flushText(handler);
+    }
+
+    /**
+     * Report the text read so far to the given handler.
+     * 
+     * @param handler
+     *            receiver of tokens.
+     */
+    private void flushText(final HtmlTokenHandler handler) {
+        if (text.length() > 0) {
+            handler.text(decodeEntities(text));
+            text.setLength(0);
+        }
+    }
+
+    /**
+     * Read a start tag (including its attributes) and report it to the given handler.
+     * 
+     * @param handler
+     *            receiver of tokens.
+     * @param first
+     *            first character of the tag name.
+     * @return the name of the tag read.
+     * @throws IOException
+     *             when reading the input fails.
+     */
+    private String readStartTag(final HtmlTokenHandler handler, final int first) throws IOException {
+        final String name = readName(first);
+        final Map<String, String> attributes = new LinkedHashMap<String, String>();
+        boolean selfClosing = false;
+        int c = skipWhitespace(read());
+
+        while (c != EOF && c != '>') {
+            if (c == '/') {
+                selfClosing = true;
+                c = skipWhitespace(read());
+            }
+            else if (c == '"' || c == '\'') {
+                // garbage: skip quoted string
+                readQuoted(c);
+                c = skipWhitespace(read());
+            }
+            else {
+                selfClosing = false;
+                final StringBuilder attributeName = new StringBuilder();
+
+                while (c != EOF && c != '=' && c != '>' && c != '/' && !Character.isWhitespace(c)) {
+                    attributeName.append((char)c);
+                    c = read();
+                }
+
+                c = skipWhitespace(c);
+                String value = "";
+
+                if (c == '=') {
+                    c = skipWhitespace(read());
+
+                    if (c == '"' || c == '\'') {
+                        value = readQuoted(c);
+                        c = read();
+                    }
+                    else {
+                        final StringBuilder unquoted = new StringBuilder();
+
+                        while (c != EOF && c != '>' && !Character.isWhitespace(c)) {
+                            unquoted.append((char)c);
+                            c = read();
+                        }
+
+                        value = unquoted.toString();
+                    }
+                }
+
+                if (attributeName.length() > 0) {
+                    attributes.put(attributeName.toString().toLowerCase(Locale.ENGLISH), decodeEntities(value));
+                }
+
+                c = skipWhitespace(c);
+            }
+        }
+
+        handler.startTag(name, attributes);
+
+        if (selfClosing) {
+            handler.endTag(name);
+        }
+
+        return name;
+    }
+
+    /**
+     * Read an end tag and report it to the given handler.
+     * 
+     * @param handler
+     *            receiver of tokens.
+     * @throws IOException
+     *             when reading the input fails.
+     */
+    private void readEndTag(final HtmlTokenHandler handler) throws IOException {
+        final int first = read();
+
+        if (isNameStart(first)) {
+            final String name = readName(first);
+            skipTo('>');
+            handler.endTag(name);
+        }
+        else if (first != '>') {
+            // something like '</ ...>' or '</>': ignore
+            unread(first);
+            skipTo('>');
+        }
+    }
+
+    /**
+     * Read a tag name beginning with the given character.
+     * 
+     * @param first
+     *            first character of the name.
+     * @return the name read (in lower case).
+     * @throws IOException
+     *             when reading the input fails.
+     */
+    private String readName(final int first) throws IOException {
+        final StringBuilder name = new StringBuilder();
+        int c = first;
+
+        while (c != EOF && (Character.isLetterOrDigit(c) || c == ':' || c == '-' || c == '_')) {
+            name.append((char)c);
+            c = read();
+        }
+
+        unread(c);
+
+        return name.toString().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Read a quoted string up to the given closing quote.
+     * 
+     * @param quote
+     *            the quote character.
+     * @return the content of the quoted string.
+     * @throws IOException
+     *             when reading the input fails.
+     */
+    private String readQuoted(final int quote) throws IOException {
+        final StringBuilder value = new StringBuilder();
+        int c = read();
+
+        while (c != EOF && c != quote) {
+            value.append((char)c);
+            c = read();
+        }
+
+        return value.toString();
+    }
+
+    /**
+     * Skip comments, document type declarations and processing instructions.
+     * 
+     * @param type
+     *            the character following the opening '&lt;'.
+     * @throws IOException
+     *             when reading the input fails.
+     */
+    private void skipMarkup(final int type) throws IOException {
+        if (type == '!') {
+            final int first = read();
+
+            if (first == '-') {
+                final int second = read();
+
+                if (second == '-') {
+                    skipComment();
+                    return;
+                }
+
+                unread(second);
+            }
+            else {
+                unread(first);
+            }
+        }
+
+        skipTo('>');
+    }
+
+    /**
+     * Skip the remainder of a comment (i.e. everything up to and including '--&gt;').
+     * 
+     * @throws IOException
+     *             when reading the input fails.
+     */
+    private void skipComment() throws IOException {
+        int dashes = 0;
+        int c = read();
+
+        while (c != EOF) {
+            if (c == '>' && dashes >= 2) {
+                return;
+            }
+
+            dashes = c == '-' ? dashes + 1 : 0;
+            c = read();
+        }
+    }
+
+    /**
+     * Skip the content of an element whose content is not HTML (i.e. 'script' or 'style') including its end tag.
+     * 
+     * @param name
+     *            name of the element.
+     * @throws IOException
+     *             when reading the input fails.
+     */
+    private void skipRawText(final String name) throws IOException {
+        final String endTag = "</" + name;
+        int matched = 0;
+        int c = read();
+
+        while (c != EOF) {
+            if (Character.toLowerCase((char)c) == endTag.charAt(matched)) {
+                matched++;
+
+                if (matched == endTag.length()) {
+                    skipTo('>');
+                    return;
+                }
+            }
+            else {
+                matched = c == '<' ? 1 : 0;
+            }
+
+            c = read();
+        }
+    }
+
+    /**
+     * Skip all characters up to and including the given one.
+     * 
+     * @param end
+     *            character to skip to.
+     * @throws IOException
+     *             when reading the input fails.
+     */
+    private void skipTo(final int end) throws IOException {
+        int c = read();
+
+        while (c != EOF && c != end) {
+            c = read();
+        }
+    }
+
+    /**
+     * Skip white space beginning with the given character.
+     * 
+     * @param first
+     *            the current character.
+     * @return the first character that is not white space.
+     * @throws IOException
+     *             when reading the input fails.
+     */
+    private int skipWhitespace(final int first) throws IOException {
+        int c = first;
+
+        while (c != EOF && Character.isWhitespace(c)) {
+            c = read();
+        }
+
+        return c;
+    }
+
+    /**
+     * Determine whether the given character may start a tag name.
+     * 
+     * @param c
+     *            character to test.
+     * @return <code>true</code> when the given character is a letter, <code>false</code> otherwise.
+     */
+    private boolean isNameStart(final int c) {
+        return c != EOF && Character.isLetter(c);
+    }
+
+    /**
+     * Read the next character (either the one pushed back or from the input).
+     * 
+     * @return the next character or {@link #EOF}.
+     * @throws IOException
+     *             when reading the input fails.
+     */
+    private int read() throws IOException {
+        if (pushedBack != EOF) {
+            final int c = pushedBack;
+            pushedBack = EOF;
+
+            return c;
+        }
+
+        return input.read();
+    }
+
+    /**
+     * Push the given character back onto the input.
+     * 
+     * @param c
+     *            the character to push back.
+     */
+    private void unread(final int c) {
+        pushedBack = c;
+    }
+
+    /**
+     * Replace character entities in the given text.
+     * 
+     * @param encoded
+     *            text possibly containing character entities.
+     * @return the text with (known) character entities replaced.
+     */
+    static String decodeEntities(final CharSequence encoded) {
+        final String value = encoded.toString();
+        int ampersand = value.indexOf('&');
+
+        if (ampersand < 0) {
+            return value;
+        }
+
+        final StringBuilder decoded = new StringBuilder(value.length());
+        int start = 0;
+
+        while (ampersand >= 0) {
+            decoded.append(value, start, ampersand);
+            final int semicolon = value.indexOf(';', ampersand);
+            Character replacement = null;
+
+            if (semicolon > ampersand + 1 && semicolon - ampersand <= MAX_ENTITY_LENGTH + 1) {
+                replacement = decodeEntity(value.substring(ampersand + 1, semicolon));
+            }
+
+            if (replacement == null) {
+                decoded.append('&');
+                start = ampersand + 1;
+            }
+            else {
+                decoded.append(replacement.charValue());
+                start = semicolon + 1;
+            }
+
+            ampersand = value.indexOf('&', start);
+        }
+
+        decoded.append(value, start, value.length());
+
+        return decoded.toString();
+    }
+
+    /**
+     * Decode the given entity name.
+     * 
+     * @param entity
+     *            name of entity (without '&amp;' and ';').
+     * @return the character represented by the given entity or <code>null</code> if it is unknown.
+     */
+    private static Character decodeEntity(final String entity) {
+        Character replacement = null;
+
+        if (entity.charAt(0) == '#') {
+            try {
+                final boolean hex = entity.length() > 1 && (entity.charAt(1) == 'x' || entity.charAt(1) == 'X');
+                final int codePoint = hex ? Integer.parseInt(entity.substring(2), 16) : Integer.parseInt(entity.substring(1));
+
+                if (codePoint > 0 && codePoint <= Character.MAX_VALUE) {
+                    replacement = Character.valueOf((char)codePoint);
+                }
+            }
+            catch (final NumberFormatException e) {
+                // not a numeric entity, leave as is
+            }
+        }
+        else {
+            replacement = ENTITIES.get(entity);
+        }
+
+        return replacement;
+    }
+}
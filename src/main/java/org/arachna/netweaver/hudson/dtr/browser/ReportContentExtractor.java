@@ -0,0 +1,270 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts links and table rows from the tokens of a DTR HTML report and reports them to a {@link ReportContentListener}.
+ * 
+ * Only the rows of the tables currently open are held in memory. Each row is handed to the listener as soon as it has been read and
+ * discarded afterwards. Missing end tags for cells and rows are tolerated.
+ * 
+ * @author Dirk Weigenand
+ */
+final class ReportContentExtractor implements HtmlTokenHandler {
+    /**
+     * pattern matching white space (including non breaking spaces).
+     */
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s\\u00a0]+");
+
+    /**
+     * receiver of extracted links and table rows.
+     */
+    private final ReportContentListener listener;
+
+    /**
+     * stack of currently open tables (innermost first).
+     */
+    private final LinkedList<TableState> tables = new LinkedList<TableState>();
+
+    /**
+     * target of the link currently open (<code>null</code> if there is none).
+     */
+    private String anchorHref;
+
+    /**
+     * text of the link currently open (<code>null</code> if there is none).
+     */
+    private StringBuilder anchorText;
+
+    /**
+     * Create an extractor reporting to the given listener.
+     * 
+     * @param listener
+     *            receiver of extracted links and table rows.
+     */
+    ReportContentExtractor(final ReportContentListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startTag(final String name, final Map<String, String> attributes) {
+        if ("table".equals(name)) {
+            tables.addFirst(new TableState());
+        }
+        else if ("tr".equals(name)) {
+            if (!tables.isEmpty()) {
+                endRow();
+                tables.getFirst().startRow();
+            }
+        }
+        else if ("td".equals(name) || "th".equals(name)) {
+            if (!tables.isEmpty()) {
+                tables.getFirst().startCell("th".equals(name));
+            }
+        }
+        else if ("a".equals(name)) {
+            endAnchor();
+            anchorHref = attributes.get("href");
+            anchorText = new StringBuilder();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endTag(final String name) {
+        if ("table".equals(name)) {
+            if (!tables.isEmpty()) {
+                endRow();
+                final int depth = tables.size();
+                tables.removeFirst();
+                listener.endTable(depth);
+            }
+        }
+        else if ("tr".equals(name)) {
+            endRow();
+        }
+        else if ("td".equals(name) || "th".equals(name)) {
+            if (!tables.isEmpty()) {
+                tables.getFirst().endCell();
+            }
+        }
+        else if ("a".equals(name)) {
+            endAnchor();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void text(final String text) {
+        if (anchorText != null) {
+            anchorText.append(text);
+        }
+
+        if (!tables.isEmpty()) {
+            tables.getFirst().appendText(text);
+        }
+    }
+
+    /**
+     * Close the row currently open in the innermost table and report it to the listener.
+     */
+    private void endRow() {
+        if (!tables.isEmpty()) {
+            final List<TableCell> cells = tables.getFirst().endRow();
+
+            if (cells != null && !cells.isEmpty()) {
+                listener.row(tables.size(), cells);
+            }
+        }
+    }
+
+    /**
+     * Close the link currently open and report it to the listener.
+     */
+    private void endAnchor() {
+        if (anchorText != null) {
+            final String text = normalize(anchorText);
+
+            if (!tables.isEmpty()) {
+                tables.getFirst().setAnchor(anchorHref, text);
+            }
+
+            listener.anchor(anchorHref, text);
+            anchorHref = null;
+            anchorText = null;
+        }
+    }
+
+    /**
+     * Collapse white space in the given text into single blanks and remove leading and trailing white space.
+     * 
+     * @param text
+     *            the text to normalize.
+     * @return the normalized text.
+     */
+    static String normalize(final CharSequence text) {
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+
+    /**
+     * State of a table currently being read.
+     * 
+     * @author Dirk Weigenand
+     */
+    private static final class TableState {
+        /**
+         * cells of the row currently open (<code>null</code> when no row is open).
+         */
+        private List<TableCell> cells;
+
+        /**
+         * whether the cell currently open is a header cell.
+         */
+        private boolean header;
+
+        /**
+         * text of the cell currently open (<code>null</code> when no cell is open).
+         */
+        private StringBuilder text;
+
+        /**
+         * target of the first link in the cell currently open.
+         */
+        private String href;
+
+        /**
+         * text of the first link in the cell currently open.
+         */
+        private String anchorText;
+
+        /**
+         * Start a new row.
+         */
+        void startRow() {
+            cells = new ArrayList<TableCell>();
+        }
+
+        /**
+         * Start a new cell (closing the one currently open). Opens a row if there is none.
+         * 
+         * @param headerCell
+         *            whether the new cell is a header cell.
+         */
+        void startCell(final boolean headerCell) {
+            endCell();
+
+            if (cells == null) {
+                startRow();
+            }
+
+            header = headerCell;
+            text = new StringBuilder();
+            href = null;
+            anchorText = null;
+        }
+
+        /**
+         * Append the given text to the cell currently open.
+         * 
+         * @param content
+         *            text to append.
+         */
+        void appendText(final String content) {
+            if (text != null) {
+                text.append(content);
+            }
+        }
+
+        /**
+         * Register the given link with the cell currently open unless it already contains one.
+         * 
+         * @param target
+         *            target of the link.
+         * @param content
+         *            text of the link.
+         */
+        void setAnchor(final String target, final String content) {
+            if (text != null && href == null && anchorText == null) {
+                href = target;
+                anchorText = content;
+            }
+        }
+
+        /**
+         * Close the cell currently open.
+         */
+        void endCell() {
+            if (text != null) {
+                cells.add(new TableCell(header, normalize(text), href, anchorText));
+                text = null;
+            }
+        }
+
+        /**
+         * Close the row currently open.
+         * 
+         * @return the cells of the closed row or <code>null</code> when there was no row open.
+         */
+        List<TableCell> endRow() {
+            endCell();
+            final List<TableCell> row = cells;
+            cells = null;
+
+            return row;
+        }
+    }
+}
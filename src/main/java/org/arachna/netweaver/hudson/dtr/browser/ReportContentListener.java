@@ -0,0 +1,42 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import java.util.List;
+
+/**
+ * Receiver of the links and table rows a {@link ReportContentExtractor} extracts from a DTR HTML report.
+ * 
+ * @author Dirk Weigenand
+ */
+interface ReportContentListener {
+    /**
+     * Called for every link in the report.
+     * 
+     * @param href
+     *            target of the link (may be <code>null</code>).
+     * @param text
+     *            white space normalized text of the link.
+     */
+    void anchor(String href, String text);
+
+    /**
+     * Called for every table row in the report after the row has been read completely. Rows of nested tables are reported before the row
+     * containing the nested table.
+     * 
+     * @param tableDepth
+     *            nesting level of the table containing the row (1 for tables not nested in other tables).
+     * @param cells
+     *            the cells of the row.
+     */
+    void row(int tableDepth, List<TableCell> cells);
+
+    /**
+     * Called when a table has been read completely.
+     * 
+     * @param tableDepth
+     *            nesting level of the table (1 for tables not nested in other tables).
+     */
+    void endTable(int tableDepth);
+}
@@ -0,0 +1,426 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import hudson.init.Terminator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jenkins.model.Jenkins;
+
+/**
+ * Persistent cache for the details (creation date, last modification date, sequence number and deletion flag) of resource versions read
+ * from the DTR (<code>/vh/&lt;id&gt;</code>).
+ *
+ * Versions in the DTR's version history are immutable, so their details can be cached indefinitely. Entries are keyed by the URL of
+ * the DTR and the ID of the resource version. The cache is bounded by the number of entries; the least recently used entries are
+ * evicted first. The cache is stored in <code>JENKINS_HOME</code> and shared by all NWDI projects.
+ *
+ * @author Dirk Weigenand
+ */
+public final class ResourceDetailsCache {
+    /**
+     * Default maximum number of cache entries.
+     */
+    static final int DEFAULT_MAX_ENTRIES = 50000;
+
+    /**
+     * Name of system property to configure the maximum number of cache entries.
+     */
+    private static final String CACHE_SIZE = "nwdibuild.dtr.resource.cache.size";
+
+    /**
+     * Name of file the cache is stored in (relative to <code>JENKINS_HOME</code>).
+     */
+    private static final String CACHE_FILE_NAME = "nwdi-dtr-resource-details.cache";
+
+    /**
+     * Encoding of cache file.
+     */
+    private static final String ENCODING = "UTF-8";
+
+    /**
+     * separator of the fields of a cache entry.
+     */
+    private static final char SEPARATOR = '\t';
+
+    /**
+     * Logger to use.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ResourceDetailsCache.class.getName());
+
+    /**
+     * the cache shared by all DTR browsers.
+     */
+    private static ResourceDetailsCache instance;
+
+    /**
+     * file the cache is stored in (<code>null</code> if the cache shall not be persisted).
+     */
+    private final File cacheFile;
+
+    /**
+     * cached resource details in least recently used order.
+     */
+    private final Map<String, Details> entries;
+
+    /**
+     * number of successful lookups.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * number of failed lookups.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * whether the cache has been read from its file.
+     */
+    private boolean loaded;
+
+    /**
+     * whether the cache has been modified since it was read or last saved.
+     */
+    private boolean modified;
+
+    /**
+     * Create a cache stored in the given file.
+     *
+     * @param cacheFile
+     *            file the cache is stored in (<code>null</code> if the cache shall not be persisted).
+     * @param maxEntries
+     *            maximum number of entries to keep (values lower than one are treated as one).
+     */
+    ResourceDetailsCache(final File cacheFile, final int maxEntries) {
+        this.cacheFile = cacheFile;
+        final int capacity = Math.max(1, maxEntries);
+        entries = new LinkedHashMap<String, Details>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Details> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache shared by all DTR browsers. The cache is stored in <code>JENKINS_HOME</code>. When not running inside Jenkins
+     * the cache is held in memory only.
+     *
+     * @return the cache shared by all DTR browsers.
+     */
+    static synchronized ResourceDetailsCache getInstance() {
+        if (instance == null) {
+            final Jenkins jenkins = Jenkins.getInstance();
+            final File cacheFile = jenkins == null ? null : new File(jenkins.getRootDir(), CACHE_FILE_NAME);
+            instance = new ResourceDetailsCache(cacheFile, Integer.getInteger(CACHE_SIZE, DEFAULT_MAX_ENTRIES).intValue());
+        }
+
+        return instance;
+    }
+
+    /**
+     * Update the given resource with the details cached for it.
+     *
+     * @param dtrUrl
+     *            URL of the DTR the resource was read from.
+     * @param resource
+     *            the resource to update.
+     * @return <code>true</code> when details for the given resource were found in the cache, <code>false</code> otherwise.
+     */
+    synchronized boolean lookup(final String dtrUrl, final ActivityResource resource) {
+        load();
+        final Details details = entries.get(createKey(dtrUrl, resource.getId()));
+
+        if (details == null) {
+            misses.incrementAndGet();
+
+            return false;
+        }
+
+        hits.incrementAndGet();
+        details.applyTo(resource);
+
+        return true;
+    }
+
+    /**
+     * Add the details of the given resource to the cache.
+     *
+     * @param dtrUrl
+     *            URL of the DTR the resource was read from.
+     * @param resource
+     *            the resource whose details shall be cached.
+     */
+    synchronized void put(final String dtrUrl, final ActivityResource resource) {
+        load();
+        entries.put(createKey(dtrUrl, resource.getId()), new Details(resource));
+        modified = true;
+    }
+
+    /**
+     * Returns the number of lookups that could be answered from the cache.
+     *
+     * @return number of cache hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that could not be answered from the cache.
+     *
+     * @return number of cache misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of cached resource details.
+     *
+     * @return number of cache entries.
+     */
+    public synchronized int size() {
+        load();
+
+        return entries.size();
+    }
+
+    /**
+     * Write the cache to its file (if it was modified).
+     */
+    synchronized void save() {
+        if (cacheFile == null || !modified) {
+            return;
+        }
+
+        final File tempFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp");
+        Writer writer = null;
+
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), ENCODING));
+
+            for (final Map.Entry<String, Details> entry : entries.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write(SEPARATOR);
+                writer.write(entry.getValue().toString());
+                writer.write('\n');
+            }
+
+            writer.close();
+            writer = null;
+
+            if (cacheFile.exists() && !cacheFile.delete() || !tempFile.renameTo(cacheFile)) {
+                throw new IOException(String.format("Could not rename %s to %s.", tempFile, cacheFile));
+            }
+
+            modified = false;
+        }
+        catch (final IOException e) {
+            LOGGER.log(Level.WARNING, String.format("Could not write DTR resource details cache %s.", cacheFile), e);
+        }
+        finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                }
+                catch (final IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the cache from its file (once).
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+
+        if (cacheFile == null || !cacheFile.exists()) {
+            return;
+        }
+
+        BufferedReader reader = null;
+
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(cacheFile), ENCODING));
+            String line = reader.readLine();
+
+            while (line != null) {
+                final String[] fields = line.split(String.valueOf(SEPARATOR));
+
+                if (fields.length == Details.FIELD_COUNT + 2) {
+                    try {
+                        entries.put(fields[0] + SEPARATOR + fields[1], Details.valueOf(fields, 2));
+                    }
+                    catch (final NumberFormatException e) {
+                        LOGGER.log(Level.FINE, String.format("Ignoring malformed cache entry '%s'.", line));
+                    }
+                }
+
+                line = reader.readLine();
+            }
+        }
+        catch (final IOException e) {
+            LOGGER.log(Level.WARNING, String.format("Could not read DTR resource details cache %s.", cacheFile), e);
+        }
+        finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                }
+                catch (final IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the key for caching the details of the given resource.
+     *
+     * @param dtrUrl
+     *            URL of the DTR the resource was read from.
+     * @param id
+     *            ID of resource version.
+     * @return the key for the given DTR and resource.
+     */
+    private static String createKey(final String dtrUrl, final String id) {
+        return dtrUrl + SEPARATOR + id;
+    }
+
+    /**
+     * Save the shared cache when Jenkins shuts down.
+     */
+    @Terminator
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.save();
+        }
+    }
+
+    /**
+     * Details of a resource version.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class Details {
+        /**
+         * number of fields of a persisted entry.
+         */
+        static final int FIELD_COUNT = 4;
+
+        /**
+         * creation date of resource version (milliseconds since epoch).
+         */
+        private final long creationDate;
+
+        /**
+         * last modification date of resource version (milliseconds since epoch).
+         */
+        private final long lastModified;
+
+        /**
+         * sequence number of resource version (<code>null</code> if unknown).
+         */
+        private final Integer sequenceNumber;
+
+        /**
+         * whether the resource version represents a deletion.
+         */
+        private final boolean deleted;
+
+        /**
+         * Create the details for the given resource.
+         *
+         * @param resource
+         *            the resource whose details shall be cached.
+         */
+        Details(final ActivityResource resource) {
+            this(resource.getCreationDate().getTime(), resource.getLastModified().getTime(), resource.getSequenceNumber(), Boolean.TRUE
+                .equals(resource.isDeleted()));
+        }
+
+        /**
+         * Create the details of a resource version.
+         *
+         * @param creationDate
+         *            creation date of resource version (milliseconds since epoch).
+         * @param lastModified
+         *            last modification date of resource version (milliseconds since epoch).
+         * @param sequenceNumber
+         *            sequence number of resource version (<code>null</code> if unknown).
+         * @param deleted
+         *            whether the resource version represents a deletion.
+         */
+        private Details(final long creationDate, final long lastModified, final Integer sequenceNumber, final boolean deleted) {
+            this.creationDate = creationDate;
+            this.lastModified = lastModified;
+            this.sequenceNumber = sequenceNumber;
+            this.deleted = deleted;
+        }
+
+        /**
+         * Create details from the given persisted fields.
+         *
+         * @param fields
+         *            fields of a persisted cache entry.
+         * @param offset
+         *            index of first field containing details.
+         * @return the details read from the given fields.
+         */
+        static Details valueOf(final String[] fields, final int offset) {
+            final String sequenceNumber = fields[offset + 2];
+
+            return new Details(Long.parseLong(fields[offset]), Long.parseLong(fields[offset + 1]), sequenceNumber.length() == 0 ? null
+                : Integer.valueOf(sequenceNumber), Boolean.parseBoolean(fields[offset + 3]));
+        }
+
+        /**
+         * Update the given resource with these details.
+         *
+         * @param resource
+         *            resource to update.
+         */
+        void applyTo(final ActivityResource resource) {
+            resource.setCreationDate(new Date(creationDate));
+            resource.setLastModified(new Date(lastModified));
+            resource.setSequenceNumber(sequenceNumber);
+            resource.setDeleted(Boolean.valueOf(deleted));
+        }
+
+        /**
+         * Returns the fields of these details separated by tabs.
+         *
+         * @return the persistent representation of these details.
+         */
+        @Override
+        public String toString() {
+            return new StringBuilder().append(creationDate).append(SEPARATOR).append(lastModified).append(SEPARATOR)
+                .append(sequenceNumber == null ? "" : sequenceNumber.toString()).append(SEPARATOR).append(deleted).toString();
+        }
+    }
+}
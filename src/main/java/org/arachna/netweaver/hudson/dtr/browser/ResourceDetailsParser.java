@@ -14,7 +14,7 @@ import java.util.logging.Logger;
  * 
  * @author Dirk Weigenand
  */
-final class ResourceDetailsParser extends AbstractResourceParser {
+final class ResourceDetailsParser extends AbstractPropertiesParser {
     /**
      * Logger for errors.
      */
@@ -40,11 +40,6 @@ final class ResourceDetailsParser extends AbstractResourceParser {
      */
     private static final int IS_DELETED = 23;
 
-    /**
-     * XPath expression for selecting property name/value nodes from the associated table in the html page returned upon query.
-     */
-    private static final String XPATH = "/html/body/table[3]/tr/td";
-
     /**
      * Resource that is to be updated with details for the associated activity.
      */
@@ -64,10 +59,10 @@ final class ResourceDetailsParser extends AbstractResourceParser {
      * Update the {@link ActivityResource} given at object instantiation with information read from the given html page.
      * 
      * @param nodes
-     *            list of nodes extracted from resource detail page
+     *            texts of the property cells extracted from resource detail page
      */
     @Override
-    void parseInternal(final List nodes) {
+    void parseProperties(final List<String> nodes) {
         final SimpleDateFormat format = new SimpleDateFormat(ActivityListParser.ACTIVITY_DATE_FORMAT);
 
         try {
@@ -82,14 +77,6 @@ final class ResourceDetailsParser extends AbstractResourceParser {
         }
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    String getXPath() {
-        return XPATH;
-    }
-
     /**
      * {@inheritDoc}
      */
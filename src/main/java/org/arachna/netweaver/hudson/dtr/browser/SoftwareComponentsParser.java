@@ -3,17 +3,15 @@
  */
 package org.arachna.netweaver.hudson.dtr.browser;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
 import org.arachna.netweaver.dc.types.Compartment;
 import org.arachna.netweaver.dc.types.DevelopmentConfiguration;
-import org.jaxen.JaxenException;
-import org.jaxen.dom.DOMXPath;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
 
 /**
  * Extractor for {@link Compartment} objects from a DTR workspace listing.
@@ -27,10 +25,9 @@ final class SoftwareComponentsParser {
     private static final Logger LOGGER = Logger.getLogger(SoftwareComponentsParser.class.getName());
 
     /**
-     * XPath expression for extracting compartments from a workspace listing in
-     * DTR.
+     * prefix of links to compartments in a workspace listing in DTR.
      */
-    private static final String XPATH = "/html/body//a[starts-with(@href, '/dtr/ws/%s/')]";
+    private static final String COMPARTMENT_LINK = "/dtr/ws/%s/";
 
     /**
      * Extracts a list of compartments from the given {@link InputStream}
@@ -45,28 +42,37 @@ final class SoftwareComponentsParser {
      */
     public List<Compartment> parse(final InputStream compartmentList, final DevelopmentConfiguration config) {
         final List<Compartment> compartments = new ArrayList<Compartment>();
-        final String path = String.format(XPATH, config.getWorkspace());
-        final Document document = JTidyHelper.getDocument(compartmentList);
+        final String prefix = String.format(COMPARTMENT_LINK, config.getWorkspace());
+        final ReportContentListener listener = new ReportContentListener() {
+            @Override
+            public void anchor(final String href, final String text) {
+                if (href != null && href.startsWith(prefix)) {
+                    final String compartmentName = createCompartmentName(href);
+                    final Compartment compartment = config.getCompartment(compartmentName);
 
-        try {
-            final DOMXPath xPath = new DOMXPath(path);
-            Node node;
+                    if (compartment != null) {
+                        compartments.add(compartment);
+                    }
+                    else {
+                        LOGGER.warning(String.format("%s could not be found in %s.", compartmentName, config.getName()));
+                    }
+                }
+            }
 
-            for (final Object returnValue : xPath.selectNodes(document)) {
-                node = (Node)returnValue;
-                final String compartmentName =
-                    createCompartmentName(node.getAttributes().getNamedItem("href").getNodeValue());
-                final Compartment compartment = config.getCompartment(compartmentName);
+            @Override
+            public void row(final int tableDepth, final List<TableCell> cells) {
+            }
 
-                if (compartment != null) {
-                    compartments.add(compartment);
-                }
-                else {
-                    LOGGER.warning(String.format("%s could not be found in %s.", compartmentName, config.getName()));
-                }
+            @Override
+            public void endTable(final int tableDepth) {
             }
+        };
+
+        try {
+            new HtmlTokenizer(new InputStreamReader(compartmentList, AbstractResourceParser.REPORT_ENCODING))
+                .parse(new ReportContentExtractor(listener));
         }
-        catch (final JaxenException e) {
+        catch (final IOException e) {
             throw new IllegalStateException(e);
         }
 
@@ -0,0 +1,94 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+/**
+ * A cell of a table row extracted from a DTR HTML report.
+ * 
+ * @author Dirk Weigenand
+ */
+final class TableCell {
+    /**
+     * indicates whether this cell is a header cell (i.e. a <code>th</code> element).
+     */
+    private final boolean header;
+
+    /**
+     * text of this cell (white space normalized).
+     */
+    private final String text;
+
+    /**
+     * target of the first link contained in this cell.
+     */
+    private final String href;
+
+    /**
+     * text of the first link contained in this cell.
+     */
+    private final String anchorText;
+
+    /**
+     * Create a table cell.
+     * 
+     * @param header
+     *            whether the cell is a header cell (i.e. a <code>th</code> element).
+     * @param text
+     *            text of the cell (white space normalized).
+     * @param href
+     *            target of the first link contained in the cell (may be <code>null</code>).
+     * @param anchorText
+     *            text of the first link contained in the cell (may be <code>null</code>).
+     */
+    TableCell(final boolean header, final String text, final String href, final String anchorText) {
+        this.header = header;
+        this.text = text;
+        this.href = href;
+        this.anchorText = anchorText;
+    }
+
+    /**
+     * Returns whether this cell is a header cell (i.e. a <code>th</code> element).
+     * 
+     * @return <code>true</code> when this cell is a header cell, <code>false</code> otherwise.
+     */
+    boolean isHeader() {
+        return header;
+    }
+
+    /**
+     * Returns the white space normalized text of this cell.
+     * 
+     * @return the text of this cell.
+     */
+    String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the target of the first link contained in this cell.
+     * 
+     * @return the target of the first link contained in this cell or <code>null</code> if there is none.
+     */
+    String getHref() {
+        return href;
+    }
+
+    /**
+     * Returns the text of the first link contained in this cell.
+     * 
+     * @return the text of the first link contained in this cell or an empty string if there is none.
+     */
+    String getAnchorText() {
+        return anchorText == null ? "" : anchorText;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("TableCell[header = %s, text = '%s', href = '%s']", header, text, href);
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang.StringUtils;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.arachna.netweaver.dc.types.PublicPartReference;
+
+/**
+ * Tracks changes of the API of the compile public parts of development components built wave by wave and determines which of the
+ * development components scheduled only because they use a rebuilt development component actually need to be rebuilt.
+ *
+ * A development component needs to be built when it was changed itself or when it uses a development component whose outputs changed
+ * in this build: a development component whose outputs were restored from a cache or that was built and whose used public part changed
+ * its API fingerprint (references to public parts other than compile public parts count as changed whenever the DC was built).
+ *
+ * @author Dirk Weigenand
+ */
+final class ApiChangeTracker {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ApiChangeTracker.class.getName());
+
+    /**
+     * calculator for API fingerprints of public parts.
+     */
+    private final ApiFingerprintCalculator calculator;
+
+    /**
+     * registry for development components (used to resolve public part references).
+     */
+    private final DevelopmentComponentFactory dcFactory;
+
+    /**
+     * development components that were changed themselves (and need to be built in any case).
+     */
+    private final Set<DevelopmentComponent> changedComponents;
+
+    /**
+     * development components whose outputs were replaced without building them (i.e. restored from a cache) or whose API could not be
+     * determined.
+     */
+    private final Set<DevelopmentComponent> replacedComponents;
+
+    /**
+     * API fingerprints of development components before building them.
+     */
+    private final Map<DevelopmentComponent, Map<String, String>> before =
+        new HashMap<DevelopmentComponent, Map<String, String>>();
+
+    /**
+     * API fingerprints of development components after building them successfully.
+     */
+    private final Map<DevelopmentComponent, Map<String, String>> after = new HashMap<DevelopmentComponent, Map<String, String>>();
+
+    /**
+     * Create a tracker for changes of the API of development components.
+     *
+     * @param calculator
+     *            calculator for API fingerprints of public parts.
+     * @param dcFactory
+     *            registry for development components.
+     * @param changedComponents
+     *            development components that were changed themselves.
+     * @param replacedComponents
+     *            development components whose outputs were replaced without building them.
+     */
+    ApiChangeTracker(final ApiFingerprintCalculator calculator, final DevelopmentComponentFactory dcFactory,
+        final Collection<DevelopmentComponent> changedComponents, final Collection<DevelopmentComponent> replacedComponents) {
+        this.calculator = calculator;
+        this.dcFactory = dcFactory;
+        this.changedComponents = new HashSet<DevelopmentComponent>(changedComponents);
+        this.replacedComponents = new HashSet<DevelopmentComponent>(replacedComponents);
+    }
+
+    /**
+     * Record the API of the given development components before they are built. When the API of a development component can't be
+     * determined, it is treated as changed after building it.
+     *
+     * @param components
+     *            development components about to be built.
+     */
+    synchronized void beforeBuild(final Collection<DevelopmentComponent> components) {
+        for (final DevelopmentComponent component : components) {
+            try {
+                before.put(component, calculator.calculate(component));
+            }
+            catch (final IOException e) {
+                LOGGER.log(Level.WARNING,
+                    String.format("Could not determine API of %s:%s.", component.getVendor(), component.getName()), e);
+            }
+        }
+    }
+
+    /**
+     * Record the API of the given development components after they were built successfully. When the API of a development component
+     * can't be determined, it is treated as changed.
+     *
+     * @param components
+     *            development components built successfully.
+     */
+    synchronized void afterBuild(final Collection<DevelopmentComponent> components) {
+        for (final DevelopmentComponent component : components) {
+            try {
+                after.put(component, calculator.calculate(component));
+            }
+            catch (final IOException e) {
+                LOGGER.log(Level.WARNING,
+                    String.format("Could not determine API of %s:%s.", component.getVendor(), component.getName()), e);
+                replacedComponents.add(component);
+            }
+        }
+    }
+
+    /**
+     * Determine whether the given development component needs to be built.
+     *
+     * @param component
+     *            development component scheduled for building.
+     * @return <code>true</code> when the development component was changed or uses a development component whose outputs changed,
+     *         <code>false</code> otherwise.
+     */
+    synchronized boolean needsBuild(final DevelopmentComponent component) {
+        if (changedComponents.contains(component)) {
+            return true;
+        }
+
+        for (final PublicPartReference reference : component.getUsedDevelopmentComponents()) {
+            final DevelopmentComponent usedDC = dcFactory.get(reference);
+
+            if (usedDC != null && (replacedComponents.contains(usedDC) || isApiChanged(usedDC, reference.getName()))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Determine whether the given public part of the given development component changed its API in this build.
+     *
+     * @param component
+     *            development component.
+     * @param publicPart
+     *            name of public part (empty when the reference does not name a public part).
+     * @return <code>true</code> when the development component was built and the given public part changed its API or is not a
+     *         compile public part, <code>false</code> otherwise.
+     */
+    private boolean isApiChanged(final DevelopmentComponent component, final String publicPart) {
+        final Map<String, String> newApi = after.get(component);
+
+        if (newApi == null) {
+            // not built in this build
+            return false;
+        }
+
+        final Map<String, String> oldApi = before.get(component);
+
+        if (oldApi == null) {
+            return true;
+        }
+
+        if (StringUtils.isEmpty(publicPart)) {
+            return !oldApi.equals(newApi);
+        }
+
+        final String fingerprint = newApi.get(publicPart);
+
+        return fingerprint == null || !fingerprint.equals(oldApi.get(publicPart));
+    }
+}
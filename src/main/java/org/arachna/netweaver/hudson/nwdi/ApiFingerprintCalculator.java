@@ -0,0 +1,542 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.arachna.ant.AntHelper;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.PublicPart;
+import org.arachna.netweaver.dc.types.PublicPartType;
+
+/**
+ * Calculates fingerprints of the API provided by the compile public parts of a development component.
+ *
+ * The API of a public part consists of the signatures of the public classes and their public and protected members found in the
+ * archives (and class files) of the public part, including the values of constants (which are inlined by the compiler) and generic
+ * signatures. Changes to method bodies, private or package private members and debug information don't change the fingerprint. Other
+ * resources contained in the archives are fingerprinted by content.
+ *
+ * @author Dirk Weigenand
+ */
+final class ApiFingerprintCalculator {
+    /**
+     * magic number of class files.
+     */
+    private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+
+    /**
+     * access flag <code>public</code>.
+     */
+    private static final int ACC_PUBLIC = 0x0001;
+
+    /**
+     * access flag <code>protected</code>.
+     */
+    private static final int ACC_PROTECTED = 0x0004;
+
+    /**
+     * access flag for synthetic members.
+     */
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    /**
+     * access flag for bridge methods.
+     */
+    private static final int ACC_BRIDGE = 0x0040;
+
+    /**
+     * access flags of classes relevant for their API (public, final, interface, abstract, annotation, enum).
+     */
+    private static final int CLASS_API_FLAGS = 0x0001 | 0x0010 | 0x0200 | 0x0400 | 0x2000 | 0x4000;
+
+    /**
+     * access flags of fields relevant for their API (public, protected, static, final, enum).
+     */
+    private static final int FIELD_API_FLAGS = 0x0001 | 0x0004 | 0x0008 | 0x0010 | 0x4000;
+
+    /**
+     * access flags of methods relevant for their API (public, protected, static, final, varargs, abstract).
+     */
+    private static final int METHOD_API_FLAGS = 0x0001 | 0x0004 | 0x0008 | 0x0010 | 0x0080 | 0x0400;
+
+    /**
+     * charset used for hashing API descriptions.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * size of buffer used reading resources.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * helper for determining the locations of public parts.
+     */
+    private final AntHelper antHelper;
+
+    /**
+     * Create a calculator for API fingerprints of public parts.
+     *
+     * @param antHelper
+     *            helper for determining the locations of public parts.
+     */
+    ApiFingerprintCalculator(final AntHelper antHelper) {
+        this.antHelper = antHelper;
+    }
+
+    /**
+     * Calculate the API fingerprints of the compile public parts of the given development component. Public parts that have not been
+     * built (yet) are omitted.
+     *
+     * @param component
+     *            development component.
+     * @return API fingerprints mapped by name of public part.
+     * @throws IOException
+     *             when an archive of a public part could not be read.
+     */
+    Map<String, String> calculate(final DevelopmentComponent component) throws IOException {
+        final Map<String, String> fingerprints = new TreeMap<String, String>();
+
+        for (final PublicPart publicPart : component.getPublicParts()) {
+            if (PublicPartType.COMPILE.equals(publicPart.getType())) {
+                final File location = new File(antHelper.getBaseLocation(component, publicPart.getPublicPart()));
+
+                if (location.isDirectory()) {
+                    fingerprints.put(publicPart.getPublicPart(), calculate(location));
+                }
+            }
+        }
+
+        return fingerprints;
+    }
+
+    /**
+     * Calculate the API fingerprint of the archives and class files in the given folder.
+     *
+     * @param location
+     *            folder containing the artifacts of a public part.
+     * @return API fingerprint of the public part.
+     * @throws IOException
+     *             when an archive could not be read.
+     */
+    String calculate(final File location) throws IOException {
+        final List<String> api = new ArrayList<String>();
+        addFolder(api, location, location);
+        Collections.sort(api);
+
+        final MessageDigest digest = DigestUtils.getSha1Digest();
+
+        for (final String entry : api) {
+            digest.update(entry.getBytes(UTF8));
+            digest.update((byte)'\n');
+        }
+
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Add the API found in the archives and class files below the given folder.
+     *
+     * @param api
+     *            collected API descriptions.
+     * @param root
+     *            root folder of public part.
+     * @param folder
+     *            folder to examine.
+     * @throws IOException
+     *             when an archive could not be read.
+     */
+    private void addFolder(final List<String> api, final File root, final File folder) throws IOException {
+        final File[] files = folder.listFiles();
+
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files);
+
+        for (final File file : files) {
+            final String name = file.getAbsolutePath().substring(root.getAbsolutePath().length());
+
+            if (file.isDirectory()) {
+                addFolder(api, root, file);
+            }
+            else {
+                final InputStream in = new BufferedInputStream(new FileInputStream(file));
+
+                try {
+                    if (name.endsWith(".jar") || name.endsWith(".zip")) {
+                        addArchive(api, in);
+                    }
+                    else {
+                        addEntry(api, name, in);
+                    }
+                }
+                finally {
+                    in.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the API found in the entries of the given archive.
+     *
+     * @param api
+     *            collected API descriptions.
+     * @param in
+     *            archive to read.
+     * @throws IOException
+     *             when the archive could not be read.
+     */
+    private void addArchive(final List<String> api, final InputStream in) throws IOException {
+        final ZipInputStream archive = new ZipInputStream(in);
+        ZipEntry entry = archive.getNextEntry();
+
+        while (entry != null) {
+            if (!entry.isDirectory() && !entry.getName().startsWith("META-INF/")) {
+                addEntry(api, entry.getName(), archive);
+            }
+
+            entry = archive.getNextEntry();
+        }
+    }
+
+    /**
+     * Add the API of a class file or the fingerprint of another resource.
+     *
+     * @param api
+     *            collected API descriptions.
+     * @param name
+     *            name of resource.
+     * @param in
+     *            content of resource.
+     * @throws IOException
+     *             when the resource could not be read.
+     */
+    private void addEntry(final List<String> api, final String name, final InputStream in) throws IOException {
+        final byte[] content = read(in);
+
+        if (name.endsWith(".class")) {
+            api.addAll(new ClassFileApiReader(content).read());
+        }
+        else {
+            api.add(String.format("R %s %s", name.replace(File.separatorChar, '/'), DigestUtils.sha1Hex(content)));
+        }
+    }
+
+    /**
+     * Read the given stream (without closing it).
+     *
+     * @param in
+     *            stream to read.
+     * @return content of stream.
+     * @throws IOException
+     *             when reading the stream fails.
+     */
+    private byte[] read(final InputStream in) throws IOException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read = in.read(buffer);
+
+        while (read != -1) {
+            content.write(buffer, 0, read);
+            read = in.read(buffer);
+        }
+
+        return content.toByteArray();
+    }
+
+    /**
+     * Reader for the API of a class file.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class ClassFileApiReader {
+        /**
+         * constant pool tag for UTF8 strings.
+         */
+        private static final int CONSTANT_UTF8 = 1;
+
+        /**
+         * constant pool tag for integers.
+         */
+        private static final int CONSTANT_INTEGER = 3;
+
+        /**
+         * constant pool tag for floats.
+         */
+        private static final int CONSTANT_FLOAT = 4;
+
+        /**
+         * constant pool tag for longs.
+         */
+        private static final int CONSTANT_LONG = 5;
+
+        /**
+         * constant pool tag for doubles.
+         */
+        private static final int CONSTANT_DOUBLE = 6;
+
+        /**
+         * constant pool tag for classes.
+         */
+        private static final int CONSTANT_CLASS = 7;
+
+        /**
+         * constant pool tag for strings.
+         */
+        private static final int CONSTANT_STRING = 8;
+
+        /**
+         * constant pool tag for method handles.
+         */
+        private static final int CONSTANT_METHOD_HANDLE = 15;
+
+        /**
+         * constant pool tag for method types.
+         */
+        private static final int CONSTANT_METHOD_TYPE = 16;
+
+        /**
+         * constant pool tag for modules.
+         */
+        private static final int CONSTANT_MODULE = 19;
+
+        /**
+         * constant pool tag for packages.
+         */
+        private static final int CONSTANT_PACKAGE = 20;
+
+        /**
+         * class file content.
+         */
+        private final DataInputStream in;
+
+        /**
+         * resolved constant pool entries (UTF8 strings, class names and constant values).
+         */
+        private Object[] constants;
+
+        /**
+         * constant pool entries referring to other entries (class and string entries).
+         */
+        private int[] references;
+
+        /**
+         * Create a reader for the given class file.
+         *
+         * @param content
+         *            content of class file.
+         */
+        ClassFileApiReader(final byte[] content) {
+            in = new DataInputStream(new ByteArrayInputStream(content));
+        }
+
+        /**
+         * Read the API of the class file.
+         *
+         * @return descriptions of the class and its public and protected members (empty when the class is not public).
+         * @throws IOException
+         *             when the class file is malformed.
+         */
+        List<String> read() throws IOException {
+            if (in.readInt() != CLASS_FILE_MAGIC) {
+                throw new IOException("Not a class file!");
+            }
+
+            in.readUnsignedShort();
+            in.readUnsignedShort();
+            readConstantPool();
+
+            final int access = in.readUnsignedShort();
+            final String className = getClassName(in.readUnsignedShort());
+            final String superClass = getClassName(in.readUnsignedShort());
+            final List<String> interfaces = new ArrayList<String>();
+
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                interfaces.add(getClassName(in.readUnsignedShort()));
+            }
+
+            Collections.sort(interfaces);
+
+            final List<String> api = new ArrayList<String>();
+            final boolean visible = (access & ACC_PUBLIC) != 0 && (access & ACC_SYNTHETIC) == 0;
+
+            readMembers(api, className, "F", FIELD_API_FLAGS);
+            readMembers(api, className, "M", METHOD_API_FLAGS);
+            final Map<String, String> attributes = readAttributes();
+
+            if (!visible) {
+                return Collections.emptyList();
+            }
+
+            api.add(String.format("C %s %d %s %s %s", className, access & CLASS_API_FLAGS, superClass, interfaces,
+                attributes.get("Signature")));
+
+            return api;
+        }
+
+        /**
+         * Read the fields or methods of the class adding the public and protected ones to the given API descriptions.
+         *
+         * @param api
+         *            collected API descriptions.
+         * @param className
+         *            name of class.
+         * @param kind
+         *            kind of members (<code>F</code> for fields, <code>M</code> for methods).
+         * @param apiFlags
+         *            access flags relevant for the API of the members.
+         * @throws IOException
+         *             when the class file is malformed.
+         */
+        private void readMembers(final List<String> api, final String className, final String kind, final int apiFlags)
+            throws IOException {
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                final int access = in.readUnsignedShort();
+                final String name = (String)constants[in.readUnsignedShort()];
+                final String descriptor = (String)constants[in.readUnsignedShort()];
+                final Map<String, String> attributes = readAttributes();
+
+                if ((access & (ACC_PUBLIC | ACC_PROTECTED)) != 0 && (access & (ACC_SYNTHETIC | ACC_BRIDGE)) == 0) {
+                    api.add(String.format("%s %s.%s %s %d %s %s %s", kind, className, name, descriptor, access & apiFlags,
+                        attributes.get("ConstantValue"), attributes.get("Exceptions"), attributes.get("Signature")));
+                }
+            }
+        }
+
+        /**
+         * Read attributes resolving those relevant for the API (<code>ConstantValue</code>, <code>Exceptions</code> and
+         * <code>Signature</code>).
+         *
+         * @return resolved values of attributes relevant for the API mapped by attribute name.
+         * @throws IOException
+         *             when the class file is malformed.
+         */
+        private Map<String, String> readAttributes() throws IOException {
+            final Map<String, String> attributes = new TreeMap<String, String>();
+
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                final String name = (String)constants[in.readUnsignedShort()];
+                final int length = in.readInt();
+
+                if ("ConstantValue".equals(name) || "Signature".equals(name)) {
+                    attributes.put(name, String.valueOf(getConstant(in.readUnsignedShort())));
+                }
+                else if ("Exceptions".equals(name)) {
+                    final List<String> exceptions = new ArrayList<String>();
+
+                    for (int j = in.readUnsignedShort(); j > 0; j--) {
+                        exceptions.add(getClassName(in.readUnsignedShort()));
+                    }
+
+                    Collections.sort(exceptions);
+                    attributes.put(name, exceptions.toString());
+                }
+                else {
+                    in.skipBytes(length);
+                }
+            }
+
+            return attributes;
+        }
+
+        /**
+         * Read the constant pool.
+         *
+         * @throws IOException
+         *             when the class file is malformed.
+         */
+        private void readConstantPool() throws IOException {
+            final int count = in.readUnsignedShort();
+            constants = new Object[count];
+            references = new int[count];
+
+            for (int index = 1; index < count; index++) {
+                final int tag = in.readUnsignedByte();
+
+                switch (tag) {
+                    case CONSTANT_UTF8:
+                        constants[index] = in.readUTF();
+                        break;
+
+                    case CONSTANT_INTEGER:
+                        constants[index] = Integer.valueOf(in.readInt());
+                        break;
+
+                    case CONSTANT_FLOAT:
+                        constants[index] = Float.valueOf(in.readFloat());
+                        break;
+
+                    case CONSTANT_LONG:
+                        constants[index++] = Long.valueOf(in.readLong());
+                        break;
+
+                    case CONSTANT_DOUBLE:
+                        constants[index++] = Double.valueOf(in.readDouble());
+                        break;
+
+                    case CONSTANT_CLASS:
+                    case CONSTANT_STRING:
+                    case CONSTANT_METHOD_TYPE:
+                    case CONSTANT_MODULE:
+                    case CONSTANT_PACKAGE:
+                        references[index] = in.readUnsignedShort();
+                        break;
+
+                    case CONSTANT_METHOD_HANDLE:
+                        in.skipBytes(3);
+                        break;
+
+                    default:
+                        // field, method and interface method references, name and type, (invoke) dynamic
+                        in.skipBytes(4);
+                }
+            }
+        }
+
+        /**
+         * Returns the class name referenced by the given constant pool entry.
+         *
+         * @param index
+         *            index of class entry in constant pool.
+         * @return the class name (<code>null</code> for index zero).
+         */
+        private String getClassName(final int index) {
+            return index == 0 ? null : (String)constants[references[index]];
+        }
+
+        /**
+         * Returns the value of the given constant pool entry (resolving string entries).
+         *
+         * @param index
+         *            index of entry in constant pool.
+         * @return the value of the given constant pool entry.
+         */
+        private Object getConstant(final int index) {
+            return constants[index] == null && references[index] != 0 ? constants[references[index]] : constants[index];
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.arachna.ant.AntHelper;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.arachna.netweaver.dc.types.PublicPart;
+import org.arachna.netweaver.hudson.nwdi.cache.BuildOutputCache;
+
+/**
+ * Determines the development components of a build that need not be built with <code>dctool</code> and records the outcome of the
+ * builds for subsequent builds.
+ *
+ * A development component need not be built when its inputs did not change since its last successful build in the workspace (when
+ * skipping unchanged development components is enabled for the project) or when the outputs of a build from the same inputs could be
+ * restored from the build output cache (when a cache is configured). The outputs of development components built successfully are
+ * published to the build output cache.
+ *
+ * @author Dirk Weigenand
+ */
+final class BuildAvoidanceCoordinator {
+    /**
+     * helper for determining the locations of development components and their artifacts.
+     */
+    private final AntHelper antHelper;
+
+    /**
+     * registry for development components.
+     */
+    private final DevelopmentComponentFactory dcFactory;
+
+    /**
+     * whether development components whose inputs did not change since their last successful build shall be skipped.
+     */
+    private final boolean skipUnchanged;
+
+    /**
+     * cache for build outputs of development components (<code>null</code> when no cache is configured).
+     */
+    private final BuildOutputCache outputCache;
+
+    /**
+     * calculator for input fingerprints of development components.
+     */
+    private final InputFingerprintNeedsRebuildCalculator inputFingerprints;
+
+    /**
+     * development components whose outputs were restored from the build output cache.
+     */
+    private final Set<DevelopmentComponent> restoredComponents = new HashSet<DevelopmentComponent>();
+
+    /**
+     * Create a coordinator for avoiding builds of development components.
+     *
+     * @param antHelper
+     *            helper for determining the locations of development components and their artifacts.
+     * @param dcFactory
+     *            registry for development components.
+     * @param skipUnchanged
+     *            whether development components whose inputs did not change since their last successful build shall be skipped.
+     * @param outputCache
+     *            cache for build outputs of development components (<code>null</code> when no cache is configured).
+     */
+    BuildAvoidanceCoordinator(final AntHelper antHelper, final DevelopmentComponentFactory dcFactory, final boolean skipUnchanged,
+        final BuildOutputCache outputCache) {
+        this.antHelper = antHelper;
+        this.dcFactory = dcFactory;
+        this.skipUnchanged = skipUnchanged;
+        this.outputCache = outputCache;
+        inputFingerprints =
+            new InputFingerprintNeedsRebuildCalculator(antHelper, dcFactory, new BuildInputManifest(new File(
+                antHelper.getPathToWorkspace(), BuildInputManifest.FILE_NAME)));
+    }
+
+    /**
+     * Determine the development components that need not be built: those whose inputs did not change since their last successful build
+     * and those whose outputs could be restored from the build output cache.
+     *
+     * @param components
+     *            development components affected by the build.
+     * @param logger
+     *            Logger to log the number of development components not needing a build and cache errors to (may be <code>null</code>).
+     * @return the development components that need not be built.
+     */
+    Set<DevelopmentComponent> getDevelopmentComponentsNotNeedingBuild(final Collection<DevelopmentComponent> components,
+        final PrintStream logger) {
+        final Set<DevelopmentComponent> notNeedingBuild = new HashSet<DevelopmentComponent>();
+
+        if (skipUnchanged) {
+            for (final DevelopmentComponent component : components) {
+                if (!inputFingerprints.needsRebuild(component)) {
+                    notNeedingBuild.add(component);
+                }
+            }
+
+            if (logger != null && !notNeedingBuild.isEmpty()) {
+                logger.println(Messages.NWDIBuild_skipping_unchanged_development_components(notNeedingBuild.size()));
+            }
+        }
+
+        if (outputCache != null) {
+            final Collection<DevelopmentComponent> candidates = new ArrayList<DevelopmentComponent>(components);
+            candidates.removeAll(notNeedingBuild);
+            restoreFromBuildOutputCache(candidates, logger);
+            notNeedingBuild.addAll(restoredComponents);
+
+            if (logger != null && !restoredComponents.isEmpty()) {
+                logger.println(Messages.NWDIBuild_restored_development_components(restoredComponents.size()));
+            }
+        }
+
+        return notNeedingBuild;
+    }
+
+    /**
+     * Returns the development components whose outputs were restored from the build output cache.
+     *
+     * @return the development components whose outputs were restored from the build output cache.
+     */
+    Set<DevelopmentComponent> getRestoredComponents() {
+        return Collections.unmodifiableSet(restoredComponents);
+    }
+
+    /**
+     * Record the input fingerprints of the development components built successfully and publish their outputs to the build output
+     * cache.
+     *
+     * @param progress
+     *            outcome of the builds of development components.
+     * @param logger
+     *            Logger to log cache errors to.
+     * @throws IOException
+     *             when the manifest of input fingerprints could not be written.
+     */
+    void recordBuildResults(final DCBuildProgressAction progress, final PrintStream logger) throws IOException {
+        final Collection<DevelopmentComponent> built = new ArrayList<DevelopmentComponent>();
+
+        for (final DCBuildProgressAction.Entry entry : progress.getEntries()) {
+            final DevelopmentComponent component = dcFactory.get(entry.getVendor(), entry.getName());
+
+            if (component != null) {
+                if (DCBuildProgressAction.Outcome.SUCCESS.equals(entry.getOutcome())) {
+                    inputFingerprints.buildSucceeded(component);
+                    built.add(component);
+                }
+                else if (DCBuildProgressAction.Outcome.NOT_NEEDED.equals(entry.getOutcome())) {
+                    // outputs are still valid but were built from other inputs, so don't publish them
+                    inputFingerprints.buildSucceeded(component);
+                }
+                else {
+                    inputFingerprints.buildFailed(component);
+                }
+            }
+        }
+
+        inputFingerprints.save();
+
+        if (outputCache != null) {
+            for (final DevelopmentComponent component : built) {
+                final List<File> locations = getPublicPartLocations(component);
+
+                try {
+                    if (!locations.isEmpty() && allDirectories(locations)) {
+                        final String fingerprint = inputFingerprints.getFingerprint(component);
+
+                        for (final File location : locations) {
+                            outputCache.publish(getOutputCacheKey(component, fingerprint, location), location);
+                        }
+                    }
+                }
+                catch (final IOException e) {
+                    logOutputCacheError(logger, component, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Restore the public part outputs of the given development components from the build output cache.
+     *
+     * @param components
+     *            development components whose outputs shall be restored.
+     * @param logger
+     *            Logger to log cache errors to (may be <code>null</code>).
+     */
+    private void restoreFromBuildOutputCache(final Collection<DevelopmentComponent> components, final PrintStream logger) {
+        for (final DevelopmentComponent component : components) {
+            final List<File> locations = getPublicPartLocations(component);
+
+            if (locations.isEmpty()) {
+                continue;
+            }
+
+            try {
+                final String fingerprint = inputFingerprints.getFingerprint(component);
+                boolean complete = true;
+
+                for (final File location : locations) {
+                    complete = complete && outputCache.restore(getOutputCacheKey(component, fingerprint, location), location);
+                }
+
+                if (complete) {
+                    inputFingerprints.buildSucceeded(component);
+                    restoredComponents.add(component);
+                }
+            }
+            catch (final IOException e) {
+                // DCs not restored are built as usual
+                logOutputCacheError(logger, component, e);
+            }
+        }
+
+        if (!restoredComponents.isEmpty()) {
+            try {
+                inputFingerprints.save();
+            }
+            catch (final IOException e) {
+                if (logger != null) {
+                    logger.println(Messages.NWDIBuild_output_cache_error(e.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the locations of the public part artifacts of the given development component (as determined by
+     * {@link AntHelper#getBaseLocation(DevelopmentComponent, String)}) that can be stored in the build output cache.
+     *
+     * @param component
+     *            development component.
+     * @return locations of the public part artifacts of the given development component or an empty list when they are not build outputs
+     *         (e.g. the <code>libraries</code> folder of external library DCs in source state).
+     */
+    private List<File> getPublicPartLocations(final DevelopmentComponent component) {
+        final Set<File> locations = new TreeSet<File>();
+
+        for (final PublicPart publicPart : component.getPublicParts()) {
+            locations.add(new File(antHelper.getBaseLocation(component, publicPart.getPublicPart())));
+        }
+
+        if (locations.isEmpty()) {
+            locations.add(new File(antHelper.getBaseLocation(component, null)));
+        }
+
+        final String generated = new File(antHelper.getBaseLocation(component), "gen").getAbsolutePath() + File.separator;
+
+        for (final File location : locations) {
+            if (!location.getAbsolutePath().startsWith(generated)) {
+                return Collections.emptyList();
+            }
+        }
+
+        return new ArrayList<File>(locations);
+    }
+
+    /**
+     * Returns the key of the given public part location of the given development component in the build output cache. The key depends on
+     * the fingerprint of the inputs of the development component and the location relative to the development component (so it is the
+     * same in every workspace).
+     *
+     * @param component
+     *            development component.
+     * @param fingerprint
+     *            fingerprint of the inputs of the development component.
+     * @param location
+     *            location of public part artifacts.
+     * @return key of the given location in the build output cache.
+     */
+    private String getOutputCacheKey(final DevelopmentComponent component, final String fingerprint, final File location) {
+        final String relativeLocation =
+            location.getAbsolutePath().substring(new File(antHelper.getBaseLocation(component)).getAbsolutePath().length())
+                .replace(File.separatorChar, '/');
+
+        return DigestUtils.sha1Hex(fingerprint + '\0' + relativeLocation);
+    }
+
+    /**
+     * Log an error accessing the build output cache for the given development component.
+     *
+     * @param logger
+     *            Logger to log cache errors to (may be <code>null</code>).
+     * @param component
+     *            development component whose outputs could not be restored or published.
+     * @param e
+     *            the error accessing the build output cache.
+     */
+    private void logOutputCacheError(final PrintStream logger, final DevelopmentComponent component, final IOException e) {
+        if (logger != null) {
+            logger.println(Messages.NWDIBuild_output_cache_error(String.format("%s:%s: %s", component.getVendor(), component.getName(),
+                e.getMessage())));
+        }
+    }
+
+    /**
+     * Determine whether all of the given locations are existing directories.
+     *
+     * @param locations
+     *            locations to examine.
+     * @return <code>true</code> when all of the given locations are existing directories, <code>false</code> otherwise.
+     */
+    private boolean allDirectories(final List<File> locations) {
+        for (final File location : locations) {
+            if (!location.isDirectory()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
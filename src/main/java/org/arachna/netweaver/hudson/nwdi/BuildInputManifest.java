@@ -0,0 +1,141 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+
+/**
+ * Persistent manifest of the input fingerprints of the development components that were last built successfully in a workspace.
+ *
+ * @author Dirk Weigenand
+ */
+final class BuildInputManifest {
+    /**
+     * name of the manifest file in the workspace.
+     */
+    static final String FILE_NAME = ".nwdi-build-inputs.properties";
+
+    /**
+     * file the manifest is persisted to.
+     */
+    private final File file;
+
+    /**
+     * input fingerprints mapped by vendor and name of development component.
+     */
+    private final Properties fingerprints = new Properties();
+
+    /**
+     * Create a manifest persisted to the given file. Fingerprints already stored in the file are loaded.
+     *
+     * @param file
+     *            file the manifest is persisted to.
+     */
+    BuildInputManifest(final File file) {
+        this.file = file;
+
+        if (file.exists()) {
+            InputStream in = null;
+
+            try {
+                in = new FileInputStream(file);
+                fingerprints.load(in);
+            }
+            catch (final IOException e) {
+                // an unreadable manifest only means that everything is rebuilt
+                fingerprints.clear();
+            }
+            finally {
+                close(in);
+            }
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the inputs of the last successful build of the given development component.
+     *
+     * @param component
+     *            development component to look up.
+     * @return fingerprint of the inputs of the last successful build or <code>null</code> when there is none.
+     */
+    String get(final DevelopmentComponent component) {
+        return fingerprints.getProperty(getKey(component));
+    }
+
+    /**
+     * Record the fingerprint of the inputs of a successful build of the given development component.
+     *
+     * @param component
+     *            development component that was built successfully.
+     * @param fingerprint
+     *            fingerprint of the inputs of the build.
+     */
+    void put(final DevelopmentComponent component, final String fingerprint) {
+        fingerprints.setProperty(getKey(component), fingerprint);
+    }
+
+    /**
+     * Forget the fingerprint of the given development component (i.e. because its build failed).
+     *
+     * @param component
+     *            development component to forget.
+     */
+    void remove(final DevelopmentComponent component) {
+        fingerprints.remove(getKey(component));
+    }
+
+    /**
+     * Persist the manifest.
+     *
+     * @throws IOException
+     *             when the manifest could not be written.
+     */
+    void save() throws IOException {
+        final OutputStream out = new FileOutputStream(file);
+
+        try {
+            fingerprints.store(out, "input fingerprints of development components");
+        }
+        finally {
+            close(out);
+        }
+    }
+
+    /**
+     * Returns the key for the given development component.
+     *
+     * @param component
+     *            development component.
+     * @return key for the given development component.
+     */
+    private String getKey(final DevelopmentComponent component) {
+        return String.format("%s:%s", component.getVendor(), component.getName());
+    }
+
+    /**
+     * Close the given stream ignoring errors.
+     *
+     * @param stream
+     *            stream to close (may be <code>null</code>).
+     */
+    private void close(final Closeable stream) {
+        if (stream != null) {
+            try {
+                stream.close();
+            }
+            catch (final IOException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import hudson.remoting.VirtualChannel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jenkins.MasterToSlaveFileCallable;
+
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+
+/**
+ * Replaces the project name <code>DC Build</code> in the <code>build.xml</code> files generated when building development components with
+ * the name of the respective development component (so static analysis tools can recognize modules).
+ *
+ * All <code>build.xml</code> files of a build are updated in one call on the node hosting the workspace. Only the header containing the
+ * project tag is rewritten, the rest of a file is copied using channel transfers. Files already updated are left untouched.
+ *
+ * @author Dirk Weigenand
+ */
+final class BuildXmlProjectNameUpdater extends MasterToSlaveFileCallable<BuildXmlProjectNameUpdater.Summary> {
+    /**
+     * serialization UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * encoding of <code>build.xml</code> files.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * project attribute to replace.
+     */
+    private static final byte[] PROJECT_NAME = "project name=\"DC Build\"".getBytes(UTF8);
+
+    /**
+     * number of bytes at the beginning of a <code>build.xml</code> searched for the project tag.
+     */
+    private static final int HEADER_SIZE = 8 * 1024;
+
+    /**
+     * project names mapped by the path of the respective <code>build.xml</code> relative to the DTC folder.
+     */
+    private final Map<String, String> projectNames = new LinkedHashMap<String, String>();
+
+    /**
+     * number of threads used for updating <code>build.xml</code> files.
+     */
+    private final int parallelism;
+
+    /**
+     * Create an updater for the <code>build.xml</code> files of the given development components.
+     *
+     * @param components
+     *            development components whose <code>build.xml</code> shall be updated.
+     * @param parallelism
+     *            number of threads used for updating <code>build.xml</code> files.
+     */
+    BuildXmlProjectNameUpdater(final Iterable<DevelopmentComponent> components, final int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+
+        for (final DevelopmentComponent component : components) {
+            projectNames.put(String.format("DCs/%s/%s/_comp/gen/default/logs/build.xml", component.getVendor(), component.getName()),
+                String.format("%s~%s", component.getVendor(), component.getName().replace('/', '~')));
+        }
+    }
+
+    /**
+     * Update the <code>build.xml</code> files below the given DTC folder.
+     *
+     * @param dtcFolder
+     *            the DTC folder containing the development components.
+     * @param channel
+     *            channel to the master.
+     * @return summary of the updated <code>build.xml</code> files.
+     * @throws IOException
+     *             never thrown, failures are reported in the summary.
+     * @throws InterruptedException
+     *             when updating was interrupted.
+     */
+    @Override
+    public Summary invoke(final File dtcFolder, final VirtualChannel channel) throws IOException, InterruptedException {
+        final Summary summary = new Summary();
+
+        if (projectNames.isEmpty()) {
+            return summary;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, projectNames.size()));
+
+        try {
+            final Map<File, Future<Boolean>> futures = new LinkedHashMap<File, Future<Boolean>>();
+
+            for (final Map.Entry<String, String> entry : projectNames.entrySet()) {
+                final File buildXml = new File(dtcFolder, entry.getKey());
+                final String projectName = entry.getValue();
+
+                if (buildXml.exists()) {
+                    futures.put(buildXml, executor.submit(new Callable<Boolean>() {
+                        @Override
+                        public Boolean call() throws IOException {
+                            return Boolean.valueOf(update(buildXml, projectName));
+                        }
+                    }));
+                }
+                else {
+                    summary.missing++;
+                }
+            }
+
+            for (final Map.Entry<File, Future<Boolean>> entry : futures.entrySet()) {
+                try {
+                    if (entry.getValue().get().booleanValue()) {
+                        summary.updated++;
+                    }
+                    else {
+                        summary.unchanged++;
+                    }
+                }
+                catch (final ExecutionException e) {
+                    summary.failures.add(String.format("%s: %s", entry.getKey().getAbsolutePath(), e.getCause().getLocalizedMessage()));
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        return summary;
+    }
+
+    /**
+     * Replace the project name in the header of the given <code>build.xml</code>.
+     *
+     * @param buildXml
+     *            the <code>build.xml</code> to update.
+     * @param projectName
+     *            the new project name.
+     * @return <code>true</code> when the project name was replaced, <code>false</code> when the header does not contain the project name
+     *         <code>DC Build</code> (e.g. because the file was already updated).
+     * @throws IOException
+     *             when reading or writing the file fails.
+     */
+    static boolean update(final File buildXml, final String projectName) throws IOException {
+        final File temp = new File(buildXml.getParentFile(), buildXml.getName() + ".tmp");
+        boolean moved = false;
+
+        try {
+            if (!writeUpdatedCopy(buildXml, temp, projectName)) {
+                return false;
+            }
+
+            try {
+                Files.move(temp.toPath(), buildXml.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), buildXml.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            moved = true;
+        }
+        finally {
+            if (!moved) {
+                Files.deleteIfExists(temp.toPath());
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Write a copy of the given <code>build.xml</code> with the project name replaced in its header to the given file.
+     *
+     * @param buildXml
+     *            the <code>build.xml</code> to copy.
+     * @param temp
+     *            file to write the copy to.
+     * @param projectName
+     *            the new project name.
+     * @return <code>true</code> when the copy was written, <code>false</code> when the header does not contain the project name
+     *         <code>DC Build</code>.
+     * @throws IOException
+     *             when reading or writing fails.
+     */
+    private static boolean writeUpdatedCopy(final File buildXml, final File temp, final String projectName) throws IOException {
+        final FileChannel in = FileChannel.open(buildXml.toPath(), StandardOpenOption.READ);
+
+        try {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+            while (header.hasRemaining() && in.read(header) >= 0) {
+                // fill header
+            }
+
+            header.flip();
+            final int index = indexOf(header, PROJECT_NAME);
+
+            if (index < 0) {
+                return false;
+            }
+
+            final FileChannel out =
+                FileChannel.open(temp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+            try {
+                final ByteBuffer head = header.duplicate();
+                head.limit(index);
+                writeFully(out, head);
+                writeFully(out, ByteBuffer.wrap(String.format("project name=\"%s\"", projectName).getBytes(UTF8)));
+                header.position(index + PROJECT_NAME.length);
+                writeFully(out, header);
+
+                final long size = in.size();
+                long position = in.position();
+
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+            }
+            finally {
+                out.close();
+            }
+        }
+        finally {
+            in.close();
+        }
+
+        return true;
+    }
+
+    /**
+     * Write the remaining bytes of the given buffer to the given channel.
+     *
+     * @param out
+     *            channel to write to.
+     * @param buffer
+     *            buffer to write.
+     * @throws IOException
+     *             when writing fails.
+     */
+    private static void writeFully(final FileChannel out, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Determine the index of the first occurrence of the given token in the given buffer.
+     *
+     * @param buffer
+     *            buffer to search (between its position and limit).
+     * @param token
+     *            token to search for.
+     * @return index of the first occurrence of the token or <code>-1</code> when it does not occur.
+     */
+    private static int indexOf(final ByteBuffer buffer, final byte[] token) {
+        final int last = buffer.limit() - token.length;
+
+        for (int i = buffer.position(); i <= last; i++) {
+            int j = 0;
+
+            while (j < token.length && buffer.get(i + j) == token[j]) {
+                j++;
+            }
+
+            if (j == token.length) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Summary of updating <code>build.xml</code> files.
+     *
+     * @author Dirk Weigenand
+     */
+    static final class Summary implements Serializable {
+        /**
+         * serialization UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * number of updated <code>build.xml</code> files.
+         */
+        private int updated;
+
+        /**
+         * number of <code>build.xml</code> files not containing the project name <code>DC Build</code>.
+         */
+        private int unchanged;
+
+        /**
+         * number of <code>build.xml</code> files that do not exist.
+         */
+        private int missing;
+
+        /**
+         * descriptions of failed updates.
+         */
+        private final List<String> failures = new ArrayList<String>();
+
+        /**
+         * @return the number of updated <code>build.xml</code> files.
+         */
+        int getUpdated() {
+            return updated;
+        }
+
+        /**
+         * @return the number of <code>build.xml</code> files not containing the project name <code>DC Build</code>.
+         */
+        int getUnchanged() {
+            return unchanged;
+        }
+
+        /**
+         * @return the number of <code>build.xml</code> files that do not exist.
+         */
+        int getMissing() {
+            return missing;
+        }
+
+        /**
+         * @return the descriptions of failed updates.
+         */
+        List<String> getFailures() {
+            return Collections.unmodifiableList(failures);
+        }
+    }
+}
@@ -3,11 +3,14 @@
  */
 package org.arachna.netweaver.hudson.nwdi;
 
+import javax.xml.stream.XMLStreamReader;
+
 import org.apache.commons.digester3.Rule;
 import org.apache.commons.digester3.binder.AbstractRulesModule;
 import org.apache.commons.digester3.binder.RulesModule;
 import org.arachna.netweaver.dc.types.DevelopmentComponent;
-import org.arachna.xml.RulesModuleProducer;
+import org.arachna.xml.StaxReader;
+import org.arachna.xml.StaxReaderProducer;
 import org.xml.sax.Attributes;
 
 /**
@@ -16,7 +19,7 @@ import org.xml.sax.Attributes;
  * 
  * @author Dirk Weigenand
  */
-public final class BuildXmlRulesModuleProducer implements RulesModuleProducer {
+public final class BuildXmlRulesModuleProducer implements StaxReaderProducer<DevelopmentComponent> {
     /**
      * finder to determine whether folders contain unit tests.
      */
@@ -69,6 +72,34 @@ public final class BuildXmlRulesModuleProducer implements RulesModuleProducer {
         };
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StaxReader<DevelopmentComponent> createStaxReader() {
+        return new BuildXmlStaxReader(testFolderFinder);
+    }
+
+    /**
+     * Add the given source folder to the given development component either as test source folder or as source folder.
+     * 
+     * @param testFolderFinder
+     *            finder to determine whether folders contain unit tests.
+     * @param component
+     *            development component the source folder belongs to.
+     * @param sourceFolder
+     *            source folder to add.
+     */
+    private static void addSourceFolder(final TestFolderFinder testFolderFinder, final DevelopmentComponent component,
+        final String sourceFolder) {
+        if (testFolderFinder.isTestFolder(component.getSourceEncoding(), sourceFolder)) {
+            component.addTestSourceFolder(sourceFolder);
+        }
+        else {
+            component.addSourceFolder(sourceFolder);
+        }
+    }
+
     /**
      * Rule for handling the 'src' path attributes.
      * 
@@ -92,14 +123,42 @@ public final class BuildXmlRulesModuleProducer implements RulesModuleProducer {
 
         @Override
         public void begin(final String namespace, final String name, final Attributes attributes) throws Exception {
-            final DevelopmentComponent component = getDigester().peek();
-            final String sourceFolder = attributes.getValue("path");
+            addSourceFolder(testFolderFinder, getDigester().<DevelopmentComponent> peek(), attributes.getValue("path"));
+        }
+    }
 
-            if (testFolderFinder.isTestFolder(component.getSourceEncoding(), sourceFolder)) {
-                component.addTestSourceFolder(sourceFolder);
+    /**
+     * StAX reader for the <code>build.xml</code> of a development component. Equivalent to the rules module of the enclosing producer.
+     * 
+     * @author Dirk Weigenand
+     */
+    private static final class BuildXmlStaxReader extends StaxReader<DevelopmentComponent> {
+        /**
+         * finder to determine whether folders contain unit tests.
+         */
+        private final TestFolderFinder testFolderFinder;
+
+        /**
+         * Create reader using the given <code>TestFolderFinder</code>.
+         * 
+         * @param testFolderFinder
+         *            finder to determine whether folders contain unit tests.
+         */
+        BuildXmlStaxReader(final TestFolderFinder testFolderFinder) {
+            this.testFolderFinder = testFolderFinder;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void startElement(final String path, final XMLStreamReader reader) {
+            if ("project/target/javac".equals(path)) {
+                getResult().setSourceEncoding(getAttributeValue(reader, "encoding"));
+                getResult().setOutputFolder(getAttributeValue(reader, "destdir"));
             }
-            else {
-                component.addSourceFolder(sourceFolder);
+            else if ("project/target/javac/src".equals(path)) {
+                addSourceFolder(testFolderFinder, getResult(), getAttributeValue(reader, "path"));
             }
         }
     }
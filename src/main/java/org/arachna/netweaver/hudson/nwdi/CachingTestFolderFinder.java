@@ -0,0 +1,234 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.arachna.util.io.FileFinder;
+
+/**
+ * {@link TestFolderFinder} remembering the classification of source folders in a file in the workspace.
+ *
+ * A classification is keyed by the path of the source folder. It is reused as long as the fingerprint of the folder (names, sizes and
+ * modification times of the contained <code>.java</code> files and the source encoding) did not change. Otherwise the folder is scanned
+ * again using the given {@link TestFolderFinder}.
+ *
+ * @author Dirk Weigenand
+ */
+class CachingTestFolderFinder extends TestFolderFinder {
+    /**
+     * name of the file containing the classifications (relative to the workspace).
+     */
+    static final String FILE_NAME = ".testFolders.bin";
+
+    /**
+     * magic number identifying a classification file.
+     */
+    private static final int MAGIC = 0x54464344;
+
+    /**
+     * version of the classification file format.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * charset used for calculating fingerprints.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * file containing the classifications.
+     */
+    private final File file;
+
+    /**
+     * finder used for scanning source folders whose fingerprint changed.
+     */
+    private final TestFolderFinder finder;
+
+    /**
+     * classifications read from the file mapped by source folder.
+     */
+    private final Map<String, Classification> classifications = new ConcurrentHashMap<String, Classification>();
+
+    /**
+     * source folders classified since the file was read.
+     */
+    private final Set<String> classifiedFolders = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Create a finder remembering classifications in the given file.
+     *
+     * @param file
+     *            file containing the classifications.
+     * @param finder
+     *            finder used for scanning source folders whose fingerprint changed.
+     */
+    CachingTestFolderFinder(final File file, final TestFolderFinder finder) {
+        this.file = file;
+        this.finder = finder;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Reuses the remembered classification when the fingerprint of the source folder did not change.
+     */
+    @Override
+    boolean isTestFolder(final String encoding, final String sourceFolder) {
+        final String fingerprint = getFingerprint(encoding, sourceFolder);
+        final Classification classification = classifications.get(sourceFolder);
+        classifiedFolders.add(sourceFolder);
+
+        if (classification != null && classification.fingerprint.equals(fingerprint)) {
+            return classification.testFolder;
+        }
+
+        final boolean testFolder = finder.isTestFolder(encoding, sourceFolder);
+        classifications.put(sourceFolder, new Classification(fingerprint, testFolder));
+
+        return testFolder;
+    }
+
+    /**
+     * Read the classifications remembered in the file (if it exists).
+     *
+     * @throws IOException
+     *             when reading the file fails or it is no classification file.
+     */
+    void read() throws IOException {
+        classifications.clear();
+
+        if (!file.exists()) {
+            return;
+        }
+
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException(String.format("%s is not a supported test folder classification file.", file));
+            }
+
+            final int count = in.readInt();
+
+            for (int i = 0; i < count; i++) {
+                classifications.put(in.readUTF(), new Classification(in.readUTF(), in.readBoolean()));
+            }
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Write the classifications of the source folders classified since the file was read to the file.
+     *
+     * @throws IOException
+     *             when writing the file fails.
+     */
+    void write() throws IOException {
+        classifications.keySet().retainAll(classifiedFolders);
+
+        final File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+
+        try {
+            final Map<String, Classification> snapshot = new TreeMap<String, Classification>(classifications);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(snapshot.size());
+
+            for (final Map.Entry<String, Classification> entry : snapshot.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue().fingerprint);
+                out.writeBoolean(entry.getValue().testFolder);
+            }
+        }
+        finally {
+            out.close();
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Calculate the fingerprint of the given source folder from the names, sizes and modification times of the contained
+     * <code>.java</code> files and the given encoding.
+     *
+     * @param encoding
+     *            encoding of source files.
+     * @param sourceFolder
+     *            source folder to calculate the fingerprint of.
+     * @return SHA-1 hash of the names, sizes and modification times of the contained <code>.java</code> files.
+     */
+    private String getFingerprint(final String encoding, final String sourceFolder) {
+        final MessageDigest digest = DigestUtils.getSha1Digest();
+        final List<File> sources = new ArrayList<File>(new FileFinder(new File(sourceFolder), ".*\\.java", PRUNED_DIRECTORIES).find());
+        Collections.sort(sources);
+        digest.update(String.valueOf(encoding).getBytes(UTF8));
+
+        for (final File source : sources) {
+            digest.update(String.format("\n%s|%d|%d", source.getPath(), source.length(), source.lastModified()).getBytes(UTF8));
+        }
+
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Classification of a source folder.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class Classification {
+        /**
+         * fingerprint of the source folder when it was classified.
+         */
+        private final String fingerprint;
+
+        /**
+         * whether the source folder contains unit tests.
+         */
+        private final boolean testFolder;
+
+        /**
+         * Create a classification of a source folder.
+         *
+         * @param fingerprint
+         *            fingerprint of the source folder when it was classified.
+         * @param testFolder
+         *            whether the source folder contains unit tests.
+         */
+        Classification(final String fingerprint, final boolean testFolder) {
+            this.fingerprint = fingerprint;
+            this.testFolder = testFolder;
+        }
+    }
+}
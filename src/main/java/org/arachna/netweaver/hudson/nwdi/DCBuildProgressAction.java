@@ -0,0 +1,357 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import hudson.model.Run;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jenkins.model.RunAction2;
+
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+
+/**
+ * Action showing the progress of building development components while the build is running and the build durations of the individual
+ * development components afterwards.
+ *
+ * The durations are persisted with the build and can be used to estimate the cost of building a development component in later
+ * builds.
+ *
+ * @author Dirk Weigenand
+ */
+public final class DCBuildProgressAction implements RunAction2, DCBuildProgressListener {
+    /**
+     * Outcome of building a development component.
+     *
+     * @author Dirk Weigenand
+     */
+    public enum Outcome {
+        /**
+         * the development component was built successfully.
+         */
+        SUCCESS,
+
+        /**
+         * the build of the development component failed.
+         */
+        FAILED,
+
+        /**
+         * the development component was not built since a development component it depends on failed to build.
+         */
+        SKIPPED,
+
+        /**
+         * the development component was not built since the API of the development components it uses did not change.
+         */
+        NOT_NEEDED;
+    }
+
+    /**
+     * number of development components to build.
+     */
+    private final int total;
+
+    /**
+     * development components that finished building (or were skipped).
+     */
+    private final List<Entry> entries = new ArrayList<Entry>();
+
+    /**
+     * development components currently being built mapped to the start time of their build.
+     */
+    private transient Map<String, Long> running;
+
+    /**
+     * the build this action belongs to.
+     */
+    private transient Run<?, ?> build;
+
+    /**
+     * Create an action for the progress of building the given number of development components.
+     *
+     * @param total
+     *            number of development components to build.
+     */
+    public DCBuildProgressAction(final int total) {
+        this.total = total;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void buildStarted(final DevelopmentComponent component) {
+        getRunningBuilds().put(getKey(component), System.currentTimeMillis());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void buildFinished(final DevelopmentComponent component, final boolean successful, final long duration) {
+        getRunningBuilds().remove(getKey(component));
+        entries.add(new Entry(component, successful ? Outcome.SUCCESS : Outcome.FAILED, duration));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void buildSkipped(final DevelopmentComponent component) {
+        entries.add(new Entry(component, Outcome.SKIPPED, 0));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void buildNotNeeded(final DevelopmentComponent component) {
+        entries.add(new Entry(component, Outcome.NOT_NEEDED, 0));
+    }
+
+    /**
+     * Returns the number of development components to build.
+     *
+     * @return the number of development components to build.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the number of development components that finished building (or were skipped).
+     *
+     * @return the number of development components that finished building (or were skipped).
+     */
+    public synchronized int getFinished() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of development components whose build failed.
+     *
+     * @return the number of development components whose build failed.
+     */
+    public synchronized int getFailed() {
+        int failed = 0;
+
+        for (final Entry entry : entries) {
+            if (Outcome.FAILED.equals(entry.getOutcome())) {
+                failed++;
+            }
+        }
+
+        return failed;
+    }
+
+    /**
+     * Returns the development components currently being built mapped to the time elapsed since their build started (in milliseconds).
+     *
+     * @return the development components currently being built mapped to the time elapsed since their build started.
+     */
+    public synchronized Map<String, Long> getRunning() {
+        final Map<String, Long> elapsed = new LinkedHashMap<String, Long>();
+        final long now = System.currentTimeMillis();
+
+        for (final Map.Entry<String, Long> entry : getRunningBuilds().entrySet()) {
+            elapsed.put(entry.getKey(), now - entry.getValue());
+        }
+
+        return elapsed;
+    }
+
+    /**
+     * Returns the development components that finished building (or were skipped) in the order they finished.
+     *
+     * @return the development components that finished building (or were skipped).
+     */
+    public synchronized List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<Entry>(entries));
+    }
+
+    /**
+     * Returns the duration of the build of the given development component in milliseconds.
+     *
+     * @param component
+     *            development component to look up.
+     * @return duration of the build of the given development component or <code>-1</code> when it was not built with this build.
+     */
+    public synchronized long getDuration(final DevelopmentComponent component) {
+        for (final Entry entry : entries) {
+            if (entry.getVendor().equals(component.getVendor()) && entry.getName().equals(component.getName())
+                && (Outcome.SUCCESS.equals(entry.getOutcome()) || Outcome.FAILED.equals(entry.getOutcome()))) {
+                return entry.getDuration();
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns whether the build this action belongs to is still running.
+     *
+     * @return <code>true</code> when the build is still running, <code>false</code> otherwise.
+     */
+    public boolean isBuilding() {
+        return build != null && build.isBuilding();
+    }
+
+    /**
+     * Returns the build this action belongs to.
+     *
+     * @return the build this action belongs to.
+     */
+    public Run<?, ?> getBuild() {
+        return build;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getIconFileName() {
+        return "clock.png";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getDisplayName() {
+        return Messages.DCBuildProgressAction_display_name();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getUrlName() {
+        return "buildProgress";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onAttached(final Run<?, ?> r) {
+        build = r;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLoad(final Run<?, ?> r) {
+        build = r;
+    }
+
+    /**
+     * Returns the development components currently being built (the map is not persisted with the build).
+     *
+     * @return the development components currently being built mapped to the start time of their build.
+     */
+    private Map<String, Long> getRunningBuilds() {
+        if (running == null) {
+            running = new LinkedHashMap<String, Long>();
+        }
+
+        return running;
+    }
+
+    /**
+     * Returns the key for the given development component.
+     *
+     * @param component
+     *            development component.
+     * @return key for the given development component.
+     */
+    private static String getKey(final DevelopmentComponent component) {
+        return String.format("%s:%s", component.getVendor(), component.getName());
+    }
+
+    /**
+     * Build duration and outcome of a development component.
+     *
+     * @author Dirk Weigenand
+     */
+    public static final class Entry {
+        /**
+         * vendor of development component.
+         */
+        private final String vendor;
+
+        /**
+         * name of development component.
+         */
+        private final String name;
+
+        /**
+         * outcome of build.
+         */
+        private final Outcome outcome;
+
+        /**
+         * duration of build in milliseconds.
+         */
+        private final long duration;
+
+        /**
+         * Create an entry for the given development component.
+         *
+         * @param component
+         *            development component.
+         * @param outcome
+         *            outcome of build.
+         * @param duration
+         *            duration of build in milliseconds.
+         */
+        Entry(final DevelopmentComponent component, final Outcome outcome, final long duration) {
+            vendor = component.getVendor();
+            name = component.getName();
+            this.outcome = outcome;
+            this.duration = duration;
+        }
+
+        /**
+         * Returns the vendor of the development component.
+         *
+         * @return the vendor of the development component.
+         */
+        public String getVendor() {
+            return vendor;
+        }
+
+        /**
+         * Returns the name of the development component.
+         *
+         * @return the name of the development component.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the outcome of the build.
+         *
+         * @return the outcome of the build.
+         */
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * Returns the duration of the build in milliseconds.
+         *
+         * @return the duration of the build in milliseconds.
+         */
+        public long getDuration() {
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+
+/**
+ * Listener for the progress of building development components. The events are emitted while the DC tool is running (possibly from
+ * several threads when building with more than one DC tool process).
+ *
+ * @author Dirk Weigenand
+ */
+public interface DCBuildProgressListener {
+    /**
+     * The build of the given development component has been started.
+     *
+     * @param component
+     *            development component being built.
+     */
+    void buildStarted(DevelopmentComponent component);
+
+    /**
+     * The build of the given development component has finished.
+     *
+     * @param component
+     *            development component that was built.
+     * @param successful
+     *            <code>true</code> when the development component was built successfully, <code>false</code> otherwise.
+     * @param duration
+     *            duration of the build in milliseconds.
+     */
+    void buildFinished(DevelopmentComponent component, boolean successful, long duration);
+
+    /**
+     * The given development component will not be built since a development component it depends on could not be built.
+     *
+     * @param component
+     *            development component that will not be built.
+     */
+    void buildSkipped(DevelopmentComponent component);
+
+    /**
+     * The given development component will not be built since the API of the development components it uses did not change.
+     *
+     * @param component
+     *            development component that will not be built.
+     */
+    void buildNotNeeded(DevelopmentComponent component);
+}
@@ -7,6 +7,9 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -14,13 +17,14 @@ import java.util.regex.Pattern;
 import org.arachna.netweaver.dc.types.Compartment;
 import org.arachna.netweaver.dc.types.DevelopmentComponent;
 import org.arachna.netweaver.dc.types.DevelopmentConfiguration;
+import org.arachna.netweaver.tools.OutputLineConsumer;
 
 /**
- * Parser for output of the DC tool 'builddc' command.
+ * Parser for output of the DC tool 'builddc' command. The parser can be fed the output line by line while the DC tool is running.
  * 
  * @author Dirk Weigenand
  */
-public class DCBuildResultParser {
+public class DCBuildResultParser implements OutputLineConsumer {
     /**
      * Regex matching failed builds.
      */
@@ -33,12 +37,61 @@ public class DCBuildResultParser {
     private final Pattern dcNameAndCompartmentPattern = Pattern
         .compile("\"Build of DC \"(.*?)\" from  compartment \"(.*?)\" based on sync mode \"SYNCHED_AS_INACTIVE_SOURCE\"\\s+$");
 
+    /**
+     * Regex matching the summary of a 'builddc' command (successful or not).
+     */
+    private final Pattern buildSummaryRegex = Pattern
+        .compile("\\d+ build\\(s\\) succeeded \\(or yield warnings\\), \\d+ build\\(s\\) failed\\.$");
+
+    /**
+     * Regex matching the first line of output of a 'builddc' command.
+     */
+    private final Pattern buildStartRegex = Pattern.compile("^(dc>)*Retrieving / updating DC meta data for compartment .*");
+
     /**
      * development configuration to determine development components by their
      * name and containing compartment.
      */
     private final DevelopmentConfiguration developmentConfiguration;
 
+    /**
+     * results of the builds parsed so far.
+     */
+    private final BuildResults results = new BuildResults();
+
+    /**
+     * name of compartment of the DC currently being built.
+     */
+    private String compartmentName;
+
+    /**
+     * name of the DC currently being built.
+     */
+    private String dcName;
+
+    /**
+     * development components in the order they are built (used to determine
+     * the DC a 'builddc' command is started for).
+     */
+    private final Iterator<DevelopmentComponent> componentsToBuild;
+
+    /**
+     * listener for build progress events.
+     */
+    private final DCBuildProgressListener listener;
+
+    /**
+     * the development component currently being built (<code>null</code>
+     * when unknown).
+     */
+    private DevelopmentComponent currentComponent;
+
+    /**
+     * start of the current build or end of the previous one (milliseconds
+     * since epoch).
+     */
+    private long startTime = System.currentTimeMillis();
+
     /**
      * Create a parser for output of a sequence of DC tools 'builddc' commands.
      * 
@@ -47,7 +100,37 @@ public class DCBuildResultParser {
      *            output.
      */
     public DCBuildResultParser(final DevelopmentConfiguration developmentConfiguration) {
+        this(developmentConfiguration, Collections.<DevelopmentComponent> emptyList(), null);
+    }
+
+    /**
+     * Create a parser for output of a sequence of DC tools 'builddc' commands
+     * notifying the given listener about the progress of the build.
+     * 
+     * @param developmentConfiguration
+     *            a development configuration to determine DCs parsed from the
+     *            output.
+     * @param components
+     *            development components in the order they are passed to
+     *            the 'builddc' commands.
+     * @param listener
+     *            listener for build progress events (may be
+     *            <code>null</code>).
+     */
+    public DCBuildResultParser(final DevelopmentConfiguration developmentConfiguration,
+        final Collection<DevelopmentComponent> components, final DCBuildProgressListener listener) {
         this.developmentConfiguration = developmentConfiguration;
+        final List<DevelopmentComponent> buildableComponents = new ArrayList<DevelopmentComponent>(components.size());
+
+        // DCs without compartment are not passed to 'builddc'
+        for (final DevelopmentComponent component : components) {
+            if (component.getCompartment() != null) {
+                buildableComponents.add(component);
+            }
+        }
+
+        componentsToBuild = buildableComponents.iterator();
+        this.listener = listener;
     }
 
     /**
@@ -60,36 +143,12 @@ public class DCBuildResultParser {
      * @return a container of build results.
      */
     public BuildResults parse(final Reader buildLog) {
-        final BuildResults results = new BuildResults();
-
         final BufferedReader reader = new BufferedReader(buildLog);
         String line;
-        String compartmentName = null;
-        String dcName = null;
 
         try {
             while (null != (line = reader.readLine())) {
-                final Matcher m = dcNameAndCompartmentPattern.matcher(line);
-
-                if (m.matches()) {
-                    dcName = m.group(1);
-                    compartmentName = m.group(2);
-                }
-
-                if (dcName != null && compartmentName != null && failedBuildResultRegex.matcher(line).matches()) {
-                    final Compartment compartment = developmentConfiguration.getCompartment(compartmentName);
-                    final DevelopmentComponent component = compartment.getDevelopmentComponent(dcName);
-
-                    if (component == null) {
-                        throw new IllegalStateException(String.format("Compartment %s does not contain development component '%s'!",
-                            compartmentName, dcName));
-                    }
-
-                    results.addFailedBuildFor(component);
-                    // reset
-                    compartmentName = null;
-                    dcName = null;
-                }
+                consume(line);
             }
         }
         catch (final IOException e) {
@@ -107,6 +166,91 @@ public class DCBuildResultParser {
         return results;
     }
 
+    /**
+     * Parse the given line of a build log while the DC tool is running.
+     * 
+     * @param line
+     *            a line of the DC tool output.
+     */
+    @Override
+    public void consume(final String line) {
+        if (buildStartRegex.matcher(line).matches()) {
+            buildStarted();
+        }
+
+        final Matcher m = dcNameAndCompartmentPattern.matcher(line);
+
+        if (m.matches()) {
+            dcName = m.group(1);
+            compartmentName = m.group(2);
+        }
+
+        if (dcName != null && compartmentName != null && buildSummaryRegex.matcher(line).find()) {
+            final Compartment compartment = developmentConfiguration.getCompartment(compartmentName);
+            final DevelopmentComponent component = compartment.getDevelopmentComponent(dcName);
+
+            if (component == null) {
+                throw new IllegalStateException(String.format("Compartment %s does not contain development component '%s'!",
+                    compartmentName, dcName));
+            }
+
+            final boolean failed = failedBuildResultRegex.matcher(line).matches();
+
+            if (failed) {
+                results.addFailedBuildFor(component);
+            }
+
+            buildFinished(component, !failed);
+            // reset
+            compartmentName = null;
+            dcName = null;
+        }
+    }
+
+    /**
+     * A 'builddc' command has been started. Notify the listener about the
+     * next development component to be built.
+     */
+    private void buildStarted() {
+        if (currentComponent == null && componentsToBuild.hasNext()) {
+            currentComponent = componentsToBuild.next();
+            startTime = System.currentTimeMillis();
+
+            if (listener != null) {
+                listener.buildStarted(currentComponent);
+            }
+        }
+    }
+
+    /**
+     * The build of the given development component finished. Notify the
+     * listener.
+     * 
+     * @param component
+     *            development component that was built.
+     * @param successful
+     *            whether the development component was built successfully.
+     */
+    private void buildFinished(final DevelopmentComponent component, final boolean successful) {
+        final long now = System.currentTimeMillis();
+
+        if (listener != null) {
+            listener.buildFinished(component, successful, now - startTime);
+        }
+
+        currentComponent = null;
+        startTime = now;
+    }
+
+    /**
+     * Returns the results of the builds parsed so far.
+     * 
+     * @return a container of build results.
+     */
+    public BuildResults getBuildResults() {
+        return results;
+    }
+
     /**
      * Collection of build results.
      * 
@@ -6,8 +6,11 @@ package org.arachna.netweaver.hudson.nwdi;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.logging.Level;
@@ -19,6 +22,7 @@ import org.arachna.netweaver.dc.types.CompartmentState;
 import org.arachna.netweaver.dc.types.DevelopmentComponent;
 import org.arachna.netweaver.dc.types.DevelopmentConfiguration;
 import org.arachna.netweaver.dc.types.DevelopmentConfigurationVisitor;
+import org.arachna.netweaver.hudson.util.ParallelDevelopmentComponentProcessor;
 import org.arachna.xml.DigesterHelper;
 
 /**
@@ -32,11 +36,15 @@ final class DevelopmentComponentPropertiesUpdater implements DevelopmentConfigur
      */
     private final AntHelper antHelper;
 
+    /**
+     * finder for test folders remembering the classification of source folders in the workspace.
+     */
+    private final CachingTestFolderFinder testFolderFinder;
+
     /**
      * parser for <code>build.xml</code> files.
      */
-    private final DigesterHelper<DevelopmentComponent> digesterHelper =
-        new DigesterHelper<DevelopmentComponent>(new BuildXmlRulesModuleProducer());
+    private final DigesterHelper<DevelopmentComponent> digesterHelper;
 
     /**
      * Create updater for development component properties with the given {@link AntHelper} instance.
@@ -46,6 +54,47 @@ final class DevelopmentComponentPropertiesUpdater implements DevelopmentConfigur
      */
     DevelopmentComponentPropertiesUpdater(final AntHelper antHelper) {
         this.antHelper = antHelper;
+        final File classifications = new File(antHelper.getPathToWorkspace(), CachingTestFolderFinder.FILE_NAME);
+        testFolderFinder = new CachingTestFolderFinder(classifications, new TestFolderFinder());
+        digesterHelper = new DigesterHelper<DevelopmentComponent>(new BuildXmlRulesModuleProducer(testFolderFinder));
+    }
+
+    /**
+     * Update the development components of the given development configuration using at most the given number of threads. Source folders
+     * are only scanned for unit tests when they changed since the last update.
+     *
+     * @param configuration
+     *            development configuration whose development components shall be updated.
+     * @param parallelism
+     *            maximum number of threads used for updating development components.
+     */
+    void execute(final DevelopmentConfiguration configuration, final int parallelism) {
+        final Collection<DevelopmentComponent> components = new ArrayList<DevelopmentComponent>();
+
+        for (final Compartment compartment : configuration.getCompartments()) {
+            components.addAll(compartment.getDevelopmentComponents());
+        }
+
+        try {
+            testFolderFinder.read();
+        }
+        catch (final IOException e) {
+            Logger.getLogger(getClass().getName()).log(Level.WARNING, "Could not read test folder classifications.", e);
+        }
+
+        new ParallelDevelopmentComponentProcessor(new ParallelDevelopmentComponentProcessor.Processor() {
+            @Override
+            public void process(final DevelopmentComponent component) {
+                visit(component);
+            }
+        }, parallelism).execute(components);
+
+        try {
+            testFolderFinder.write();
+        }
+        catch (final IOException e) {
+            Logger.getLogger(getClass().getName()).log(Level.WARNING, "Could not write test folder classifications.", e);
+        }
     }
 
     /**
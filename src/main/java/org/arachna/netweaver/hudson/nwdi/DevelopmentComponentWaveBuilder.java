@@ -0,0 +1,344 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.arachna.netweaver.dc.types.DevelopmentConfiguration;
+import org.arachna.netweaver.dc.types.PublicPartReference;
+import org.arachna.netweaver.tools.DIToolCommandExecutionResult;
+import org.arachna.netweaver.tools.OutputLineConsumer;
+
+/**
+ * Builds development components wave by wave (see {@link TopoSortResult#getWaves()}) using several <code>dctool</code> processes
+ * concurrently.
+ *
+ * The development components of a wave are distributed over the configured number of workers. The next wave is started when all builds
+ * of the current wave have finished. Development components depending (directly or indirectly) on a development component whose build
+ * failed are not built.
+ *
+ * @author Dirk Weigenand
+ */
+final class DevelopmentComponentWaveBuilder {
+    /**
+     * executor for building a list of development components in one <code>dctool</code> process.
+     */
+    private final BuildExecutor buildExecutor;
+
+    /**
+     * registry for development components (used to resolve dependencies).
+     */
+    private final DevelopmentComponentFactory dcFactory;
+
+    /**
+     * development configuration to determine failed builds from <code>dctool</code> output.
+     */
+    private final DevelopmentConfiguration developmentConfiguration;
+
+    /**
+     * number of concurrent <code>dctool</code> processes.
+     */
+    private final int workers;
+
+    /**
+     * logger for build messages.
+     */
+    private final PrintStream logger;
+
+    /**
+     * listener for build progress events.
+     */
+    private final DCBuildProgressListener listener;
+
+    /**
+     * tracker for API changes used to skip development components whose used DCs did not change their API (<code>null</code> when all
+     * development components shall be built).
+     */
+    private ApiChangeTracker apiChangeTracker;
+
+    /**
+     * Create a builder for development components.
+     *
+     * @param buildExecutor
+     *            executor for building a list of development components in one <code>dctool</code> process.
+     * @param dcFactory
+     *            registry for development components (used to resolve dependencies).
+     * @param developmentConfiguration
+     *            development configuration to determine failed builds from <code>dctool</code> output.
+     * @param workers
+     *            number of concurrent <code>dctool</code> processes (values lower than one are treated as one).
+     * @param logger
+     *            logger for build messages.
+     * @param listener
+     *            listener for build progress events.
+     */
+    DevelopmentComponentWaveBuilder(final BuildExecutor buildExecutor, final DevelopmentComponentFactory dcFactory,
+        final DevelopmentConfiguration developmentConfiguration, final int workers, final PrintStream logger,
+        final DCBuildProgressListener listener) {
+        this.buildExecutor = buildExecutor;
+        this.dcFactory = dcFactory;
+        this.developmentConfiguration = developmentConfiguration;
+        this.workers = Math.max(1, workers);
+        this.logger = logger;
+        this.listener = listener;
+    }
+
+    /**
+     * Build the given waves of development components.
+     *
+     * @param waves
+     *            development components grouped by dependency level.
+     * @return the result of the build. The exit code is not zero when at least one execution failed or development components failed to
+     *         build. The output of the <code>dctool</code> executions is not retained (it is written to the build log).
+     * @throws IOException
+     *             re-thrown from dctool execution
+     * @throws InterruptedException
+     *             when the build was interrupted
+     */
+    DIToolCommandExecutionResult build(final List<Collection<DevelopmentComponent>> waves) throws IOException, InterruptedException {
+        final Set<DevelopmentComponent> failed = new HashSet<DevelopmentComponent>();
+        int exitCode = 0;
+        final ExecutorService executor = Executors.newFixedThreadPool(workers);
+
+        try {
+            for (int wave = 0; wave < waves.size(); wave++) {
+                final List<DevelopmentComponent> components =
+                    getComponentsNeedingBuild(getBuildableComponents(waves.get(wave), failed));
+
+                if (components.isEmpty()) {
+                    continue;
+                }
+
+                final List<List<DevelopmentComponent>> chunks = split(components);
+                logger.println(Messages.NWDIBuild_building_wave(wave + 1, waves.size(), components.size(), chunks.size()));
+
+                if (apiChangeTracker != null) {
+                    apiChangeTracker.beforeBuild(components);
+                }
+
+                final List<Future<DIToolCommandExecutionResult>> futures = new ArrayList<Future<DIToolCommandExecutionResult>>();
+                final List<DCBuildResultParser> parsers = new ArrayList<DCBuildResultParser>();
+
+                for (final List<DevelopmentComponent> chunk : chunks) {
+                    final DCBuildResultParser parser = new DCBuildResultParser(developmentConfiguration, chunk, listener);
+                    parsers.add(parser);
+                    futures.add(executor.submit(new Callable<DIToolCommandExecutionResult>() {
+                        @Override
+                        public DIToolCommandExecutionResult call() throws IOException, InterruptedException {
+                            return buildExecutor.build(chunk, parser);
+                        }
+                    }));
+                }
+
+                for (int i = 0; i < futures.size(); i++) {
+                    final DIToolCommandExecutionResult result = waitFor(futures.get(i));
+
+                    if (result.isExitCodeOk()) {
+                        failed.addAll(parsers.get(i).getBuildResults().getDcsWithBuildErrors());
+                    }
+                    else {
+                        // the DCs built by a failed dctool execution can't be relied upon
+                        exitCode = result.getExitCode();
+                        failed.addAll(chunks.get(i));
+                    }
+                }
+
+                if (apiChangeTracker != null) {
+                    final List<DevelopmentComponent> built = new ArrayList<DevelopmentComponent>(components);
+                    built.removeAll(failed);
+                    apiChangeTracker.afterBuild(built);
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        if (exitCode == 0 && !failed.isEmpty()) {
+            exitCode = 1;
+        }
+
+        return new DIToolCommandExecutionResult("", exitCode);
+    }
+
+    /**
+     * Determine the development components of a wave that can be built, i.e. those that don't depend on development components that
+     * failed to build or were skipped. Skipped development components are added to the given set of failed DCs.
+     *
+     * @param wave
+     *            development components of a wave.
+     * @param failed
+     *            development components that failed to build or were skipped.
+     * @return development components that can be built.
+     */
+    private List<DevelopmentComponent> getBuildableComponents(final Collection<DevelopmentComponent> wave,
+        final Set<DevelopmentComponent> failed) {
+        final List<DevelopmentComponent> components = new ArrayList<DevelopmentComponent>(wave.size());
+
+        for (final DevelopmentComponent component : wave) {
+            if (dependsOnAny(component, failed)) {
+                logger.println(Messages.NWDIBuild_skipping_development_component(component.getVendor(), component.getName()));
+                listener.buildSkipped(component);
+                failed.add(component);
+            }
+            else {
+                components.add(component);
+            }
+        }
+
+        return components;
+    }
+
+    /**
+     * Determine the development components that need to be built, i.e. those that were changed themselves or use a development component
+     * whose API changed in this build (when an {@link ApiChangeTracker} is set).
+     *
+     * @param components
+     *            development components that can be built.
+     * @return development components that need to be built.
+     */
+    private List<DevelopmentComponent> getComponentsNeedingBuild(final List<DevelopmentComponent> components) {
+        if (apiChangeTracker == null) {
+            return components;
+        }
+
+        final List<DevelopmentComponent> needingBuild = new ArrayList<DevelopmentComponent>(components.size());
+
+        for (final DevelopmentComponent component : components) {
+            if (apiChangeTracker.needsBuild(component)) {
+                needingBuild.add(component);
+            }
+            else {
+                logger.println(Messages.NWDIBuild_api_unchanged(component.getVendor(), component.getName()));
+                listener.buildNotNeeded(component);
+            }
+        }
+
+        return needingBuild;
+    }
+
+    /**
+     * Set the tracker for API changes used to skip development components whose used DCs did not change their API.
+     *
+     * @param apiChangeTracker
+     *            tracker for API changes (<code>null</code> when all development components shall be built).
+     */
+    void setApiChangeTracker(final ApiChangeTracker apiChangeTracker) {
+        this.apiChangeTracker = apiChangeTracker;
+    }
+
+    /**
+     * Determine whether the given development component uses one of the given development components.
+     *
+     * @param component
+     *            development component to examine.
+     * @param components
+     *            development components to look for.
+     * @return <code>true</code> when the given development component uses one of the given development components, <code>false</code>
+     *         otherwise.
+     */
+    private boolean dependsOnAny(final DevelopmentComponent component, final Set<DevelopmentComponent> components) {
+        if (!components.isEmpty()) {
+            for (final PublicPartReference reference : component.getUsedDevelopmentComponents()) {
+                final DevelopmentComponent usedDC = dcFactory.get(reference);
+
+                if (usedDC != null && components.contains(usedDC)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Distribute the given development components over at most {@link #workers} lists.
+     *
+     * @param components
+     *            development components to distribute.
+     * @return the lists of development components to build with one <code>dctool</code> process each.
+     */
+    private List<List<DevelopmentComponent>> split(final List<DevelopmentComponent> components) {
+        final int chunkCount = Math.min(workers, components.size());
+        final List<List<DevelopmentComponent>> chunks = new ArrayList<List<DevelopmentComponent>>(chunkCount);
+
+        for (int i = 0; i < chunkCount; i++) {
+            chunks.add(new LinkedList<DevelopmentComponent>());
+        }
+
+        for (int i = 0; i < components.size(); i++) {
+            chunks.get(i % chunkCount).add(components.get(i));
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Wait for the given build to finish.
+     *
+     * @param future
+     *            the build to wait for.
+     * @return the result of the build.
+     * @throws IOException
+     *             re-thrown from dctool execution
+     * @throws InterruptedException
+     *             when the build was interrupted
+     */
+    private DIToolCommandExecutionResult waitFor(final Future<DIToolCommandExecutionResult> future) throws IOException,
+        InterruptedException {
+        try {
+            return future.get();
+        }
+        catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException)cause;
+            }
+
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Executor for building a list of development components in one <code>dctool</code> process.
+     *
+     * @author Dirk Weigenand
+     */
+    interface BuildExecutor {
+        /**
+         * Build the given development components.
+         *
+         * @param components
+         *            development components to build.
+         * @param consumer
+         *            consumer of the <code>dctool</code> output (a parser for the build results).
+         * @return the result of the <code>dctool</code> execution.
+         * @throws IOException
+         *             re-thrown from dctool execution
+         * @throws InterruptedException
+         *             when the build was interrupted
+         */
+        DIToolCommandExecutionResult build(Collection<DevelopmentComponent> components, OutputLineConsumer consumer) throws IOException,
+            InterruptedException;
+    }
+}
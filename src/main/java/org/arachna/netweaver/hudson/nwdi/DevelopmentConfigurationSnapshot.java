@@ -0,0 +1,658 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.arachna.netweaver.dc.types.BuildVariant;
+import org.arachna.netweaver.dc.types.Compartment;
+import org.arachna.netweaver.dc.types.CompartmentState;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.arachna.netweaver.dc.types.DevelopmentComponentType;
+import org.arachna.netweaver.dc.types.DevelopmentConfiguration;
+import org.arachna.netweaver.dc.types.PublicPart;
+import org.arachna.netweaver.dc.types.PublicPartReference;
+import org.arachna.netweaver.dc.types.PublicPartType;
+import org.arachna.netweaver.hudson.nwdi.dcupdater.ConfigurationFileStamps;
+
+/**
+ * Compact binary snapshot of a {@link DevelopmentConfiguration} and the development components registered with a
+ * {@link DevelopmentComponentFactory}.
+ *
+ * The snapshot is stored in the build directory. It is used to restore the model of historical builds without reading the
+ * <code>.confdef</code> and the DC configuration files from the workspace again and as starting point for the model of the next build.
+ * The configuration files recorded when reading the DC metadata are stored with the snapshot, so the next build only needs to read the
+ * metadata of development components whose configuration files changed.
+ *
+ * @author Dirk Weigenand
+ */
+final class DevelopmentConfigurationSnapshot {
+    /**
+     * name of snapshot file in build directory.
+     */
+    static final String FILE_NAME = "developmentConfiguration.bin";
+
+    /**
+     * marker at the beginning of a snapshot file.
+     */
+    private static final int MAGIC = 0x4e574449;
+
+    /**
+     * version of the snapshot format.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * version of the snapshot format without recorded configuration files.
+     */
+    private static final int FORMAT_VERSION_WITHOUT_STAMPS = 1;
+
+    /**
+     * charset used to encode strings.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * the snapshot file.
+     */
+    private final File file;
+
+    /**
+     * Create a snapshot stored in the given file.
+     *
+     * @param file
+     *            the snapshot file.
+     */
+    DevelopmentConfigurationSnapshot(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns whether the snapshot file exists.
+     *
+     * @return <code>true</code> when the snapshot file exists, <code>false</code> otherwise.
+     */
+    boolean exists() {
+        return file.isFile();
+    }
+
+    /**
+     * Write the given development configuration and the development components registered with the given factory to the snapshot file.
+     *
+     * @param config
+     *            development configuration to write.
+     * @param dcFactory
+     *            registry of development components to write.
+     * @param stamps
+     *            configuration files recorded when reading the metadata of the development components.
+     * @throws IOException
+     *             when writing the snapshot fails.
+     */
+    void write(final DevelopmentConfiguration config, final DevelopmentComponentFactory dcFactory, final ConfigurationFileStamps stamps)
+        throws IOException {
+        final File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        final DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(temp))));
+
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeConfiguration(out, config);
+            writeComponents(out, dcFactory.getAll());
+            stamps.write(out);
+        }
+        finally {
+            out.close();
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Read the development configuration from the snapshot file and register its development components with the given factory.
+     *
+     * @param dcFactory
+     *            registry to add the development components read to.
+     * @return the development configuration read.
+     * @throws IOException
+     *             when reading the snapshot fails or the file is not a snapshot of a supported format version.
+     */
+    DevelopmentConfiguration read(final DevelopmentComponentFactory dcFactory) throws IOException {
+        return read(dcFactory, new ConfigurationFileStamps());
+    }
+
+    /**
+     * Read the development configuration from the snapshot file, register its development components with the given factory and read
+     * the recorded configuration files into the given stamps.
+     *
+     * @param dcFactory
+     *            registry to add the development components read to.
+     * @param stamps
+     *            stamps to read the recorded configuration files into (left empty for snapshots without them).
+     * @return the development configuration read.
+     * @throws IOException
+     *             when reading the snapshot fails or the file is not a snapshot of a supported format version.
+     */
+    private DevelopmentConfiguration read(final DevelopmentComponentFactory dcFactory, final ConfigurationFileStamps stamps)
+        throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))));
+
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(String.format("%s is not a development configuration snapshot.", file));
+            }
+
+            final int version = in.readInt();
+
+            if (version != FORMAT_VERSION && version != FORMAT_VERSION_WITHOUT_STAMPS) {
+                throw new IOException(String.format("%s has the unsupported format version %d.", file, version));
+            }
+
+            final DevelopmentConfiguration config = readConfiguration(in);
+            readComponents(in, config, dcFactory);
+
+            if (version == FORMAT_VERSION) {
+                stamps.read(in);
+            }
+
+            return config;
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Initialize the development components registered with the given factory with the metadata (type, public parts, references,
+     * folders, etc.) of the development components of the same name contained in the snapshot.
+     *
+     * @param dcFactory
+     *            registry of development components to initialize.
+     * @param stamps
+     *            stamps to read the configuration files recorded for the initialized development components into.
+     * @return the number of development components initialized from the snapshot.
+     * @throws IOException
+     *             when reading the snapshot fails.
+     */
+    int update(final DevelopmentComponentFactory dcFactory, final ConfigurationFileStamps stamps) throws IOException {
+        final DevelopmentComponentFactory snapshot = new DevelopmentComponentFactory();
+        read(snapshot, stamps);
+        final Collection<DevelopmentComponent> updated = new ArrayList<DevelopmentComponent>();
+
+        for (final DevelopmentComponent component : dcFactory.getAll()) {
+            final DevelopmentComponent previous = snapshot.get(component.getVendor(), component.getName());
+
+            if (previous != null) {
+                copy(previous, component);
+                updated.add(component);
+            }
+        }
+
+        // DCs not initialized from the snapshot have to be read completely
+        stamps.retain(updated);
+
+        return updated.size();
+    }
+
+    /**
+     * Copy the metadata of the given development component read from the snapshot to the given development component.
+     *
+     * @param source
+     *            development component read from the snapshot.
+     * @param target
+     *            development component to initialize.
+     */
+    private void copy(final DevelopmentComponent source, final DevelopmentComponent target) {
+        if (target.getType() == null || DevelopmentComponentType.unknown.equals(target.getType())) {
+            target.setType(source.getType());
+        }
+
+        target.setCaption(source.getCaption());
+        target.setDescription(source.getDescription());
+        target.setDeprecated(source.isDeprecated());
+        target.setOutputFolder(source.getOutputFolder());
+        target.setSourceEncoding(source.getSourceEncoding());
+        target.setSourceFolders(source.getSourceFolders());
+        target.setTestSourceFolders(source.getTestSourceFolders());
+        target.setResourceFolders(source.getResourceFolders());
+        target.setPublicParts(source.getPublicParts());
+        target.setUsedComponents(source.getUsedDevelopmentComponents());
+        target.setBuildPlugin(source.getBuildPlugin());
+    }
+
+    /**
+     * Write the given development configuration and its compartments.
+     *
+     * @param out
+     *            stream to write to.
+     * @param config
+     *            development configuration to write.
+     * @throws IOException
+     *             when writing fails.
+     */
+    private void writeConfiguration(final DataOutputStream out, final DevelopmentConfiguration config) throws IOException {
+        writeString(out, config.getName());
+        writeString(out, config.getLocation());
+        writeString(out, config.getDescription());
+        writeString(out, config.getCaption());
+        writeString(out, config.getCmsUrl());
+        writeString(out, config.getBuildServer());
+        writeString(out, config.getVersion());
+        writeBuildVariant(out, config.getBuildVariant());
+
+        final Collection<Compartment> compartments = config.getCompartments();
+        out.writeInt(compartments.size());
+
+        for (final Compartment compartment : compartments) {
+            writeString(out, compartment.getName());
+            writeString(out, compartment.getState().name());
+            writeString(out, compartment.getVendor());
+            writeString(out, compartment.getCaption());
+            writeString(out, compartment.getSoftwareComponent());
+            writeString(out, compartment.getDtrUrl());
+            writeString(out, compartment.getInactiveLocation());
+
+            final Collection<BuildVariant> variants = compartment.getBuildVariants();
+            out.writeInt(variants.size());
+
+            for (final BuildVariant variant : variants) {
+                writeBuildVariant(out, variant);
+            }
+        }
+
+        // used compartments are written after all compartments so they can be resolved when reading
+        for (final Compartment compartment : compartments) {
+            final Collection<Compartment> usedCompartments = compartment.getUsedCompartments();
+            out.writeInt(usedCompartments.size());
+
+            for (final Compartment usedCompartment : usedCompartments) {
+                writeString(out, usedCompartment.getName());
+            }
+        }
+    }
+
+    /**
+     * Read a development configuration and its compartments.
+     *
+     * @param in
+     *            stream to read from.
+     * @return the development configuration read.
+     * @throws IOException
+     *             when reading fails.
+     */
+    private DevelopmentConfiguration readConfiguration(final DataInputStream in) throws IOException {
+        final DevelopmentConfiguration config = new DevelopmentConfiguration(readString(in));
+        config.setLocation(readString(in));
+        config.setDescription(readString(in));
+        config.setCaption(readString(in));
+        config.setCmsUrl(readString(in));
+        config.setBuildServer(readString(in));
+        config.setVersion(readString(in));
+        config.setBuildVariant(readBuildVariant(in));
+
+        final int compartmentCount = in.readInt();
+        final List<Compartment> compartments = new ArrayList<Compartment>(compartmentCount);
+
+        for (int i = 0; i < compartmentCount; i++) {
+            final String name = readString(in);
+            final CompartmentState state = CompartmentState.valueOf(readString(in));
+            final Compartment compartment = new Compartment(name, state, readString(in), readString(in), readString(in));
+            compartment.setDtrUrl(readString(in));
+            compartment.setInactiveLocation(readString(in));
+
+            final int variantCount = in.readInt();
+
+            for (int j = 0; j < variantCount; j++) {
+                compartment.add(readBuildVariant(in));
+            }
+
+            config.add(compartment);
+            compartments.add(compartment);
+        }
+
+        for (final Compartment compartment : compartments) {
+            final int usedCount = in.readInt();
+
+            for (int j = 0; j < usedCount; j++) {
+                final Compartment usedCompartment = config.getCompartment(readString(in));
+
+                if (usedCompartment != null) {
+                    compartment.add(usedCompartment);
+                }
+            }
+        }
+
+        return config;
+    }
+
+    /**
+     * Write the given development components.
+     *
+     * @param out
+     *            stream to write to.
+     * @param components
+     *            development components to write.
+     * @throws IOException
+     *             when writing fails.
+     */
+    private void writeComponents(final DataOutputStream out, final Collection<DevelopmentComponent> components) throws IOException {
+        out.writeInt(components.size());
+
+        for (final DevelopmentComponent component : components) {
+            writeString(out, component.getVendor());
+            writeString(out, component.getName());
+            writeString(out, component.getType() == null ? null : component.getType().name());
+            writeString(out, component.getCompartment() == null ? null : component.getCompartment().getName());
+            writeString(out, component.getCaption());
+            writeString(out, component.getDescription());
+            out.writeBoolean(component.isNeedsRebuild());
+            out.writeBoolean(component.isDeprecated());
+            writeString(out, component.getOutputFolder());
+            writeString(out, component.getSourceEncoding());
+            writeStrings(out, component.getSourceFolders());
+            writeStrings(out, component.getTestSourceFolders());
+            writeStrings(out, component.getResourceFolders());
+
+            final Collection<PublicPart> publicParts = component.getPublicParts();
+            out.writeInt(publicParts.size());
+
+            for (final PublicPart publicPart : publicParts) {
+                writeString(out, publicPart.getPublicPart());
+                writeString(out, publicPart.getCaption());
+                writeString(out, publicPart.getDescription());
+                writeString(out, publicPart.getType() == null ? null : publicPart.getType().name());
+            }
+
+            final Collection<PublicPartReference> references = component.getUsedDevelopmentComponents();
+            out.writeInt(references.size());
+
+            for (final PublicPartReference reference : references) {
+                writeReference(out, reference);
+            }
+
+            out.writeBoolean(component.getBuildPlugin() != null);
+
+            if (component.getBuildPlugin() != null) {
+                writeReference(out, component.getBuildPlugin());
+            }
+        }
+    }
+
+    /**
+     * Read development components, register them with the given factory and add them to their compartments.
+     *
+     * @param in
+     *            stream to read from.
+     * @param config
+     *            development configuration containing the compartments of the development components.
+     * @param dcFactory
+     *            registry to add the development components read to.
+     * @throws IOException
+     *             when reading fails.
+     */
+    private void readComponents(final DataInputStream in, final DevelopmentConfiguration config,
+        final DevelopmentComponentFactory dcFactory) throws IOException {
+        final int componentCount = in.readInt();
+
+        for (int i = 0; i < componentCount; i++) {
+            final String vendor = readString(in);
+            final String name = readString(in);
+            final String type = readString(in);
+            final DevelopmentComponent component =
+                dcFactory.create(vendor, name, type == null ? null : DevelopmentComponentType.valueOf(type));
+            final String compartmentName = readString(in);
+            component.setCaption(readString(in));
+            component.setDescription(readString(in));
+            component.setNeedsRebuild(in.readBoolean());
+            component.setDeprecated(in.readBoolean());
+            component.setOutputFolder(readString(in));
+            component.setSourceEncoding(readString(in));
+            component.setSourceFolders(readStrings(in));
+            component.setTestSourceFolders(readStrings(in));
+            component.setResourceFolders(readStrings(in));
+
+            final int publicPartCount = in.readInt();
+            final List<PublicPart> publicParts = new ArrayList<PublicPart>(publicPartCount);
+
+            for (int j = 0; j < publicPartCount; j++) {
+                publicParts.add(readPublicPart(in));
+            }
+
+            component.setPublicParts(publicParts);
+
+            final int referenceCount = in.readInt();
+
+            for (int j = 0; j < referenceCount; j++) {
+                component.add(readReference(in));
+            }
+
+            if (in.readBoolean()) {
+                component.setBuildPlugin(readReference(in));
+            }
+
+            final Compartment compartment = compartmentName == null ? null : config.getCompartment(compartmentName);
+
+            if (compartment != null) {
+                compartment.add(component);
+            }
+        }
+    }
+
+    /**
+     * Read a public part.
+     *
+     * @param in
+     *            stream to read from.
+     * @return the public part read.
+     * @throws IOException
+     *             when reading fails.
+     */
+    private PublicPart readPublicPart(final DataInputStream in) throws IOException {
+        final PublicPart publicPart = new PublicPart();
+        publicPart.setPublicPart(readString(in));
+        publicPart.setCaption(readString(in));
+        publicPart.setDescription(readString(in));
+
+        final String type = readString(in);
+
+        if (type != null) {
+            publicPart.setType(PublicPartType.valueOf(type));
+        }
+
+        return publicPart;
+    }
+
+    /**
+     * Write the given public part reference.
+     *
+     * @param out
+     *            stream to write to.
+     * @param reference
+     *            public part reference to write.
+     * @throws IOException
+     *             when writing fails.
+     */
+    private void writeReference(final DataOutputStream out, final PublicPartReference reference) throws IOException {
+        writeString(out, reference.getVendor());
+        writeString(out, reference.getComponentName());
+        writeString(out, reference.getName());
+        out.writeBoolean(reference.isAtBuildTime());
+        out.writeBoolean(reference.isAtRunTime());
+        out.writeBoolean(reference.isAtDeployTime());
+    }
+
+    /**
+     * Read a public part reference.
+     *
+     * @param in
+     *            stream to read from.
+     * @return the public part reference read.
+     * @throws IOException
+     *             when reading fails.
+     */
+    private PublicPartReference readReference(final DataInputStream in) throws IOException {
+        final PublicPartReference reference = new PublicPartReference(readString(in), readString(in), readString(in));
+        reference.setAtBuildTime(in.readBoolean());
+        reference.setAtRunTime(in.readBoolean());
+        reference.setAtDeployTime(in.readBoolean());
+
+        return reference;
+    }
+
+    /**
+     * Write the given build variant.
+     *
+     * @param out
+     *            stream to write to.
+     * @param variant
+     *            build variant to write (may be <code>null</code>).
+     * @throws IOException
+     *             when writing fails.
+     */
+    private void writeBuildVariant(final DataOutputStream out, final BuildVariant variant) throws IOException {
+        out.writeBoolean(variant != null);
+
+        if (variant != null) {
+            writeString(out, variant.getName());
+            out.writeBoolean(variant.isRequiredForActivation());
+
+            final Collection<String> optionNames = variant.getBuildOptionNames();
+            out.writeInt(optionNames.size());
+
+            for (final String optionName : optionNames) {
+                writeString(out, optionName);
+                writeString(out, variant.getBuildOption(optionName));
+            }
+        }
+    }
+
+    /**
+     * Read a build variant.
+     *
+     * @param in
+     *            stream to read from.
+     * @return the build variant read (may be <code>null</code>).
+     * @throws IOException
+     *             when reading fails.
+     */
+    private BuildVariant readBuildVariant(final DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        final BuildVariant variant = new BuildVariant(readString(in), in.readBoolean());
+        final int optionCount = in.readInt();
+
+        for (int i = 0; i < optionCount; i++) {
+            variant.addBuildOption(readString(in), readString(in));
+        }
+
+        return variant;
+    }
+
+    /**
+     * Write the given strings.
+     *
+     * @param out
+     *            stream to write to.
+     * @param strings
+     *            strings to write.
+     * @throws IOException
+     *             when writing fails.
+     */
+    private void writeStrings(final DataOutputStream out, final Collection<String> strings) throws IOException {
+        out.writeInt(strings.size());
+
+        for (final String string : strings) {
+            writeString(out, string);
+        }
+    }
+
+    /**
+     * Read strings.
+     *
+     * @param in
+     *            stream to read from.
+     * @return the strings read.
+     * @throws IOException
+     *             when reading fails.
+     */
+    private Set<String> readStrings(final DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        final Set<String> strings = new LinkedHashSet<String>();
+
+        for (int i = 0; i < count; i++) {
+            strings.add(readString(in));
+        }
+
+        return strings;
+    }
+
+    /**
+     * Write the given string (the length is written first, <code>-1</code> for <code>null</code>).
+     *
+     * @param out
+     *            stream to write to.
+     * @param value
+     *            string to write (may be <code>null</code>).
+     * @throws IOException
+     *             when writing fails.
+     */
+    private void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        }
+        else {
+            final byte[] bytes = value.getBytes(UTF8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Read a string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in
+     *            stream to read from.
+     * @return the string read (may be <code>null</code>).
+     * @throws IOException
+     *             when reading fails.
+     */
+    private String readString(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+
+        return new String(bytes, UTF8);
+    }
+}
@@ -0,0 +1,371 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.arachna.ant.AntHelper;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.arachna.netweaver.dc.types.NeedsRebuildCalculator;
+import org.arachna.netweaver.dc.types.PublicPartReference;
+
+/**
+ * Determines whether a development component needs to be rebuilt by comparing a fingerprint of its build inputs with the fingerprint
+ * recorded for its last successful build in a {@link BuildInputManifest}.
+ *
+ * The inputs of a development component are its <code>.dcdef</code>, the contents of its source and resource folders and the artifacts
+ * of the public parts it uses. Used development components in source state contribute their own input fingerprint instead of their
+ * artifacts, since those artifacts might be rebuilt in the same build.
+ *
+ * @author Dirk Weigenand
+ */
+final class InputFingerprintNeedsRebuildCalculator implements NeedsRebuildCalculator {
+    /**
+     * size of buffer used reading files.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * charset used for hashing names.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * helper for determining the locations of development components and their artifacts.
+     */
+    private final AntHelper antHelper;
+
+    /**
+     * registry for development components (used to resolve public part references).
+     */
+    private final DevelopmentComponentFactory dcFactory;
+
+    /**
+     * fingerprints of the last successful builds.
+     */
+    private final BuildInputManifest manifest;
+
+    /**
+     * fingerprints calculated so far.
+     */
+    private final Map<DevelopmentComponent, String> fingerprints = new HashMap<DevelopmentComponent, String>();
+
+    /**
+     * development components whose fingerprint is currently being calculated (used to break circular dependencies).
+     */
+    private final Set<DevelopmentComponent> inProgress = new HashSet<DevelopmentComponent>();
+
+    /**
+     * buffer used reading files.
+     */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * Create a calculator using the given manifest of fingerprints of the last successful builds.
+     *
+     * @param antHelper
+     *            helper for determining the locations of development components and their artifacts.
+     * @param dcFactory
+     *            registry for development components.
+     * @param manifest
+     *            fingerprints of the last successful builds.
+     */
+    InputFingerprintNeedsRebuildCalculator(final AntHelper antHelper, final DevelopmentComponentFactory dcFactory,
+        final BuildInputManifest manifest) {
+        this.antHelper = antHelper;
+        this.dcFactory = dcFactory;
+        this.manifest = manifest;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * A development component needs to be rebuilt when its outputs are missing or the fingerprint of its inputs differs from the one
+     * recorded for its last successful build.
+     */
+    @Override
+    public boolean needsRebuild(final DevelopmentComponent component) {
+        if (!new File(antHelper.getBaseLocation(component), "gen/default").exists()) {
+            return true;
+        }
+
+        return !getFingerprint(component).equals(manifest.get(component));
+    }
+
+    /**
+     * Record the fingerprint of the given development component as the one of its last successful build.
+     *
+     * @param component
+     *            development component that was built successfully.
+     */
+    void buildSucceeded(final DevelopmentComponent component) {
+        manifest.put(component, getFingerprint(component));
+    }
+
+    /**
+     * Forget the fingerprint of the given development component since its build failed.
+     *
+     * @param component
+     *            development component whose build failed.
+     */
+    void buildFailed(final DevelopmentComponent component) {
+        manifest.remove(component);
+    }
+
+    /**
+     * Persist the manifest of fingerprints.
+     *
+     * @throws IOException
+     *             when the manifest could not be written.
+     */
+    void save() throws IOException {
+        manifest.save();
+    }
+
+    /**
+     * Returns the fingerprint of the inputs of the given development component.
+     *
+     * @param component
+     *            development component to calculate the fingerprint for.
+     * @return fingerprint of the inputs of the given development component.
+     */
+    String getFingerprint(final DevelopmentComponent component) {
+        String fingerprint = fingerprints.get(component);
+
+        if (fingerprint == null) {
+            inProgress.add(component);
+
+            try {
+                fingerprint = calculateFingerprint(component);
+            }
+            catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+            finally {
+                inProgress.remove(component);
+            }
+
+            fingerprints.put(component, fingerprint);
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Calculate the fingerprint of the inputs of the given development component.
+     *
+     * @param component
+     *            development component to calculate the fingerprint for.
+     * @return fingerprint of the inputs of the given development component.
+     * @throws IOException
+     *             when an input could not be read.
+     */
+    private String calculateFingerprint(final DevelopmentComponent component) throws IOException {
+        final MessageDigest digest = DigestUtils.getSha1Digest();
+        final File baseLocation = new File(antHelper.getBaseLocation(component));
+        final File generated = new File(baseLocation, "gen");
+
+        update(digest, String.format("%s:%s", component.getVendor(), component.getName()));
+        updateWithFile(digest, baseLocation, new File(baseLocation, ".dcdef"));
+
+        final Set<File> folders = new TreeSet<File>();
+
+        for (final String folder : component.getSourceFolders()) {
+            folders.add(resolve(baseLocation, folder));
+        }
+
+        for (final String folder : component.getResourceFolders()) {
+            folders.add(resolve(baseLocation, folder));
+        }
+
+        for (final File directory : folders) {
+            // sources generated by a previous build are outputs, not inputs
+            if (!isInside(generated, directory)) {
+                update(digest, getRelativePath(baseLocation, directory));
+                updateWithDirectory(digest, directory, directory);
+            }
+        }
+
+        for (final PublicPartReference reference : getSortedReferences(component)) {
+            update(digest, reference.toString());
+            final DevelopmentComponent usedDC = dcFactory.get(reference);
+
+            if (usedDC == null || inProgress.contains(usedDC)) {
+                continue;
+            }
+
+            if (usedDC.getCompartment() != null && usedDC.getCompartment().isSourceState()) {
+                update(digest, getFingerprint(usedDC));
+            }
+            else {
+                final File artifacts = new File(antHelper.getBaseLocation(usedDC, reference.getName()));
+                updateWithDirectory(digest, artifacts, artifacts);
+            }
+        }
+
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Returns the public part references of the given development component in a stable order.
+     *
+     * @param component
+     *            development component.
+     * @return public part references of the given development component sorted by their string representation.
+     */
+    private List<PublicPartReference> getSortedReferences(final DevelopmentComponent component) {
+        final Map<String, PublicPartReference> references = new HashMap<String, PublicPartReference>();
+
+        for (final PublicPartReference reference : component.getUsedDevelopmentComponents()) {
+            references.put(reference.toString(), reference);
+        }
+
+        final List<PublicPartReference> sorted = new ArrayList<PublicPartReference>();
+
+        for (final String key : new TreeSet<String>(references.keySet())) {
+            sorted.add(references.get(key));
+        }
+
+        return sorted;
+    }
+
+    /**
+     * Resolve the given source or resource folder against the location of its development component. Folders read from
+     * <code>.dcdef</code> are relative to that location, folders computed from <code>build.xml</code> are absolute.
+     *
+     * @param baseLocation
+     *            location of development component.
+     * @param folder
+     *            source or resource folder.
+     * @return the absolute folder.
+     */
+    private File resolve(final File baseLocation, final String folder) {
+        final File directory = new File(folder);
+
+        return directory.isAbsolute() ? directory : new File(baseLocation, folder);
+    }
+
+    /**
+     * Returns the path of the given folder relative to the location of its development component (or its absolute path when it is
+     * located elsewhere). Keeps fingerprints independent of the workspace location.
+     *
+     * @param baseLocation
+     *            location of development component.
+     * @param directory
+     *            source or resource folder.
+     * @return path of the given folder relative to the location of its development component using '/' as separator.
+     */
+    private String getRelativePath(final File baseLocation, final File directory) {
+        final String path = directory.getAbsolutePath();
+
+        return (isInside(baseLocation, directory) ? path.substring(baseLocation.getAbsolutePath().length() + 1) : path).replace(
+            File.separatorChar, '/');
+    }
+
+    /**
+     * Determine whether the given file is located inside the given directory.
+     *
+     * @param directory
+     *            directory.
+     * @param file
+     *            file to examine.
+     * @return <code>true</code> when the file is located inside the given directory, <code>false</code> otherwise.
+     */
+    private boolean isInside(final File directory, final File file) {
+        return file.getAbsolutePath().startsWith(directory.getAbsolutePath() + File.separator);
+    }
+
+    /**
+     * Update the digest with the paths and contents of all files below the given directory.
+     *
+     * @param digest
+     *            digest to update.
+     * @param root
+     *            directory paths are calculated relative to.
+     * @param directory
+     *            directory to hash.
+     * @throws IOException
+     *             when a file could not be read.
+     */
+    private void updateWithDirectory(final MessageDigest digest, final File root, final File directory) throws IOException {
+        final File[] files = directory.listFiles();
+
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files);
+
+        for (final File file : files) {
+            if (file.isDirectory()) {
+                updateWithDirectory(digest, root, file);
+            }
+            else {
+                updateWithFile(digest, root, file);
+            }
+        }
+    }
+
+    /**
+     * Update the digest with the path (relative to the given root) and content of the given file.
+     *
+     * @param digest
+     *            digest to update.
+     * @param root
+     *            directory the path is calculated relative to.
+     * @param file
+     *            file to hash.
+     * @throws IOException
+     *             when the file could not be read.
+     */
+    private void updateWithFile(final MessageDigest digest, final File root, final File file) throws IOException {
+        if (!file.isFile()) {
+            return;
+        }
+
+        update(digest, file.getAbsolutePath().substring(root.getAbsolutePath().length()).replace(File.separatorChar, '/'));
+        final InputStream in = new FileInputStream(file);
+
+        try {
+            int read = in.read(buffer);
+
+            while (read != -1) {
+                digest.update(buffer, 0, read);
+                read = in.read(buffer);
+            }
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Update the digest with the given text (terminated by a zero byte to separate it from the following input).
+     *
+     * @param digest
+     *            digest to update.
+     * @param text
+     *            text to hash.
+     */
+    private void update(final MessageDigest digest, final String text) {
+        digest.update(text.getBytes(UTF8));
+        digest.update((byte)0);
+    }
+}
@@ -22,9 +22,13 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.annotation.Nonnull;
 import javax.xml.stream.XMLStreamException;
@@ -39,10 +43,13 @@ import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
 import org.arachna.netweaver.dc.types.DevelopmentConfiguration;
 import org.arachna.netweaver.dc.types.IDevelopmentComponentFilter;
 import org.arachna.netweaver.hudson.nwdi.DCBuildResultParser.BuildResults;
-import org.arachna.netweaver.hudson.nwdi.TopoSortResult.CircularDependency;
+import org.arachna.netweaver.hudson.nwdi.cache.BuildOutputCache;
 import org.arachna.netweaver.hudson.nwdi.changelog.DtrChangeLogParser;
+import org.arachna.netweaver.hudson.nwdi.dcupdater.ConfigurationFileStamps;
 import org.arachna.netweaver.hudson.util.FilePathHelper;
+import org.arachna.netweaver.hudson.util.ParallelDevelopmentComponentProcessor;
 import org.arachna.netweaver.tools.DIToolCommandExecutionResult;
+import org.arachna.netweaver.tools.OutputLineConsumer;
 import org.arachna.netweaver.tools.cbs.CBSToolCommandExecutor;
 import org.arachna.netweaver.tools.dc.DCToolCommandExecutor;
 
@@ -52,6 +59,17 @@ import org.arachna.netweaver.tools.dc.DCToolCommandExecutor;
  * @author Dirk Weigenand
  */
 public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(NWDIBuild.class.getName());
+
+    /**
+     * Name of system property for the number of threads used to read the metadata of development components (defaults to the number of
+     * available processors).
+     */
+    private static final String DC_UPDATER_THREADS = "nwdibuild.dc.updater.threads";
+
     /**
      * the development configuration this build will process.
      */
@@ -60,13 +78,46 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
     /**
      * Registry for development components.
      */
-    private final transient DevelopmentComponentFactory dcFactory = new DevelopmentComponentFactory();
+    private transient DevelopmentComponentFactory dcFactory;
+
+    /**
+     * configuration files recorded when reading the metadata of the development components of this build.
+     */
+    private transient ConfigurationFileStamps configurationFileStamps;
+
+    /**
+     * executor keeping dctool processes running throughout this build (only used when enabled in the global configuration or several
+     * dctool workers are configured).
+     */
+    private transient DCToolCommandExecutor dcToolExecutor;
 
     /**
      * development components affected by activities leading to this build.
      */
     private transient Collection<DevelopmentComponent> affectedComponents;
 
+    /**
+     * development components changed by activities leading to this build (i.e. before adding the DCs using them).
+     */
+    private transient Collection<DevelopmentComponent> changedComponents;
+
+    /**
+     * development components affected by activities leading to this build that have to be built with <code>dctool</code> (i.e. the
+     * affected DCs without those whose builds can be avoided).
+     */
+    private transient Collection<DevelopmentComponent> componentsToBuild;
+
+    /**
+     * development components to build grouped into waves of DCs that can be built independently of each other.
+     */
+    private transient List<Collection<DevelopmentComponent>> buildWaves;
+
+    /**
+     * coordinator for skipping builds of unchanged development components and reusing build outputs (<code>null</code> when neither is
+     * configured).
+     */
+    private transient BuildAvoidanceCoordinator buildAvoidance;
+
     /**
      * Factory for generating ant excludes based on development component type.
      */
@@ -109,6 +160,10 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
      * @return the <code>DevelopmentConfiguration</code> used throughout this build.
      */
     public DevelopmentConfiguration getDevelopmentConfiguration() {
+        if (developmentConfiguration == null) {
+            developmentConfiguration = readDevelopmentConfigurationSnapshot();
+        }
+
         if (developmentConfiguration == null) {
             try {
                 developmentConfiguration = new ConfDefReader().execute(new StringReader(getDtcFolder().child(".confdef").readToString()));
@@ -121,6 +176,104 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
         return developmentConfiguration;
     }
 
+    /**
+     * Read the development configuration and development components of this build from the snapshot in the build directory.
+     *
+     * @return the development configuration read from the snapshot or <code>null</code> when there is no snapshot or it could not be
+     *         read.
+     */
+    private DevelopmentConfiguration readDevelopmentConfigurationSnapshot() {
+        final DevelopmentConfigurationSnapshot snapshot = getDevelopmentConfigurationSnapshot();
+
+        if (snapshot.exists()) {
+            try {
+                final DevelopmentComponentFactory components = new DevelopmentComponentFactory();
+                final DevelopmentConfiguration config = snapshot.read(components);
+                dcFactory = components;
+
+                return config;
+            }
+            catch (final IOException e) {
+                LOGGER.log(Level.WARNING,
+                    String.format("Could not read development configuration snapshot of %s.", getFullDisplayName()), e);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Write a snapshot of the development configuration and development components of this build to the build directory.
+     *
+     * @param logger
+     *            Logger to log errors writing the snapshot to.
+     */
+    void saveDevelopmentConfigurationSnapshot(final PrintStream logger) {
+        try {
+            getDevelopmentConfigurationSnapshot().write(getDevelopmentConfiguration(), getDevelopmentComponentFactory(),
+                getConfigurationFileStamps());
+        }
+        catch (final IOException e) {
+            logger.println(Messages.NWDIBuild_snapshot_error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Initialize the development components of this build with the metadata of the development components of the previous build read
+     * from its snapshot. Afterwards the DC metadata is read from the workspace only for DCs whose configuration files changed.
+     *
+     * @param logger
+     *            Logger to log the number of initialized development components and errors reading the snapshot to.
+     */
+    void initializeDevelopmentComponentsFromPreviousBuild(final PrintStream logger) {
+        final NWDIBuild previousBuild = getPreviousBuild();
+
+        if (previousBuild == null || !previousBuild.getDevelopmentConfigurationSnapshot().exists()) {
+            return;
+        }
+
+        try {
+            final int initialized =
+                previousBuild.getDevelopmentConfigurationSnapshot().update(getDevelopmentComponentFactory(),
+                    getConfigurationFileStamps());
+            logger.println(Messages.NWDIBuild_initialized_development_components(initialized, previousBuild.getNumber()));
+        }
+        catch (final IOException e) {
+            logger.println(Messages.NWDIBuild_snapshot_error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Returns the number of threads used to read the metadata of development components.
+     *
+     * @return the number of threads used to read the metadata of development components.
+     */
+    int getDcUpdaterParallelism() {
+        return Integer.getInteger(DC_UPDATER_THREADS, ParallelDevelopmentComponentProcessor.getDefaultParallelism()).intValue();
+    }
+
+    /**
+     * Returns the configuration files recorded when reading the metadata of the development components of this build.
+     *
+     * @return the configuration files recorded when reading the metadata of the development components of this build.
+     */
+    ConfigurationFileStamps getConfigurationFileStamps() {
+        if (configurationFileStamps == null) {
+            configurationFileStamps = new ConfigurationFileStamps();
+        }
+
+        return configurationFileStamps;
+    }
+
+    /**
+     * Returns the snapshot of the development configuration and development components in the build directory.
+     *
+     * @return the snapshot of the development configuration and development components of this build.
+     */
+    private DevelopmentConfigurationSnapshot getDevelopmentConfigurationSnapshot() {
+        return new DevelopmentConfigurationSnapshot(new File(getRootDir(), DevelopmentConfigurationSnapshot.FILE_NAME));
+    }
+
     /**
      * Calculate build sequence for development components affected by activities that triggered this build.
      *
@@ -131,7 +284,7 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
     public Collection<DevelopmentComponent> getAffectedDevelopmentComponents(final PrintStream logger) {
         if (affectedComponents == null) {
             final Collection<DevelopmentComponent> components = new LinkedList<DevelopmentComponent>();
-            final AntHelper antHelper = new AntHelper(FilePathHelper.makeAbsolute(getWorkspace()), dcFactory);
+            final AntHelper antHelper = new AntHelper(FilePathHelper.makeAbsolute(getWorkspace()), getDevelopmentComponentFactory());
 
             for (final DevelopmentComponent component : getDevelopmentComponentsThatNeedRebuild()) {
                 if (component.getCompartment() != null && new File(antHelper.getBaseLocation(component)).exists()) {
@@ -140,24 +293,36 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
                 else {
                     // remove DCs from build that might have come from
                     // activities but are deleted.
-                    dcFactory.remove(component);
+                    getDevelopmentComponentFactory().remove(component);
                 }
             }
 
+            changedComponents = new ArrayList<DevelopmentComponent>(components);
+
             // update usage relations from public part references.
-            dcFactory.updateUsingDCs();
+            getDevelopmentComponentFactory().updateUsingDCs();
 
-            final TopoSort topoSort = new TopoSort(dcFactory, logger);
+            final TopoSort topoSort =
+                new TopoSort(getDevelopmentComponentFactory(), logger, getProject().isBuildTimeDependenciesOnly());
             final TopoSortResult topoSortResult = topoSort.sort(components);
             affectedComponents = topoSortResult.getDevelopmentComponents();
 
+            componentsToBuild = affectedComponents;
+            buildWaves = topoSortResult.getWaves();
+            excludeDevelopmentComponentsNotNeedingBuild(antHelper, logger);
+
             // Log circular dependencies to build logger.
-            if (logger != null && !topoSortResult.getCircularDependencies().isEmpty()) {
-                final StringBuilder dependencies = new StringBuilder("There are circular dependencies in this track:");
+            if (logger != null && !topoSortResult.getCycles().isEmpty()) {
+                final StringBuilder dependencies = new StringBuilder("There are circular dependencies in this track:\n");
+
+                for (final Collection<DevelopmentComponent> cycle : topoSortResult.getCycles()) {
+                    dependencies.append(String.format("  %d development components depend on each other:", cycle.size()));
 
-                for (final CircularDependency dependency : topoSortResult.getCircularDependencies()) {
-                    dependencies.append(String.format("  %s:%s has circular dependency to %s:%s.\n", dependency.getComponent().getVendor(),
-                        dependency.getComponent().getName(), dependency.getDependency().getVendor(), dependency.getDependency().getName()));
+                    for (final DevelopmentComponent component : cycle) {
+                        dependencies.append(String.format(" %s:%s", component.getVendor(), component.getName()));
+                    }
+
+                    dependencies.append('\n');
                 }
 
                 logger.println(dependencies.toString());
@@ -167,6 +332,117 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
         return affectedComponents;
     }
 
+    /**
+     * Exclude the development components whose inputs did not change since their last successful build (when enabled for the project) or
+     * whose outputs could be restored from the build output cache (when configured globally) from the development components
+     * to build and the build waves. The affected development components are left as they are.
+     *
+     * @param antHelper
+     *            helper for determining the locations of development components and their artifacts.
+     * @param logger
+     *            Logger to log the number of excluded development components to (may be <code>null</code>).
+     */
+    private void excludeDevelopmentComponentsNotNeedingBuild(final AntHelper antHelper, final PrintStream logger) {
+        final boolean skipUnchanged = getProject().isSkipUnchangedDevelopmentComponents();
+        final BuildOutputCache outputCache = NWDIProject.DescriptorImpl.DESCRIPTOR.createBuildOutputCache();
+
+        if (!skipUnchanged && outputCache == null) {
+            return;
+        }
+
+        buildAvoidance = new BuildAvoidanceCoordinator(antHelper, getDevelopmentComponentFactory(), skipUnchanged, outputCache);
+        excludeFromBuild(buildAvoidance.getDevelopmentComponentsNotNeedingBuild(affectedComponents, logger));
+    }
+
+    /**
+     * Exclude the given development components from the development components to build and the build waves.
+     *
+     * @param components
+     *            development components that need not be built.
+     */
+    private void excludeFromBuild(final Set<DevelopmentComponent> components) {
+        if (components.isEmpty()) {
+            return;
+        }
+
+        final Collection<DevelopmentComponent> remaining = new LinkedList<DevelopmentComponent>(affectedComponents);
+        remaining.removeAll(components);
+        componentsToBuild = remaining;
+
+        final List<Collection<DevelopmentComponent>> waves = new ArrayList<Collection<DevelopmentComponent>>();
+
+        for (final Collection<DevelopmentComponent> wave : buildWaves) {
+            final Collection<DevelopmentComponent> remainingInWave = new LinkedList<DevelopmentComponent>(wave);
+            remainingInWave.removeAll(components);
+
+            if (!remainingInWave.isEmpty()) {
+                waves.add(remainingInWave);
+            }
+        }
+
+        buildWaves = waves;
+    }
+
+    /**
+     * Create a tracker for changes of the API of the development components built with this build.
+     *
+     * @return tracker for changes of the API of the development components built with this build.
+     */
+    ApiChangeTracker createApiChangeTracker() {
+        final AntHelper antHelper = new AntHelper(FilePathHelper.makeAbsolute(getWorkspace()), getDevelopmentComponentFactory());
+
+        final Set<DevelopmentComponent> restoredComponents =
+            buildAvoidance == null ? Collections.<DevelopmentComponent> emptySet() : buildAvoidance.getRestoredComponents();
+
+        return new ApiChangeTracker(new ApiFingerprintCalculator(antHelper), getDevelopmentComponentFactory(), changedComponents,
+            restoredComponents);
+    }
+
+    /**
+     * Record the input fingerprints of the development components built successfully and publish their outputs to the build output
+     * cache (when skipping unchanged development components is enabled or a build output cache is configured).
+     *
+     * @param progress
+     *            outcome of the builds of development components.
+     * @param logger
+     *            Logger to log cache errors to.
+     * @throws IOException
+     *             when the manifest of input fingerprints could not be written.
+     */
+    void recordBuildResults(final DCBuildProgressAction progress, final PrintStream logger) throws IOException {
+        if (buildAvoidance != null) {
+            buildAvoidance.recordBuildResults(progress, logger);
+        }
+    }
+
+    /**
+     * Returns the development components affected by activities that triggered this build that have to be built with <code>dctool</code>
+     * in build order. Development components whose builds can be avoided (see {@link BuildAvoidanceCoordinator}) are not contained.
+     *
+     * @param logger
+     *            Logger to log circular dependencies to.
+     * @return development components to build in build order.
+     */
+    Collection<DevelopmentComponent> getDevelopmentComponentsToBuild(final PrintStream logger) {
+        getAffectedDevelopmentComponents(logger);
+
+        return componentsToBuild;
+    }
+
+    /**
+     * Returns the development components to build grouped into waves. The development components of a wave only depend on development
+     * components of earlier waves and can be built concurrently.
+     *
+     * @param logger
+     *            Logger to log circular dependencies to.
+     * @return development components to build grouped into waves.
+     */
+    List<Collection<DevelopmentComponent>> getBuildWaves(final PrintStream logger) {
+        getAffectedDevelopmentComponents(logger);
+
+        return buildWaves;
+    }
+
     /**
      * Return the set of development components that were marked as needing a rebuild previously.
      *
@@ -231,6 +507,15 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
      * @return <code>DevelopmentComponentFactory</code> used as registry for development components.
      */
     public DevelopmentComponentFactory getDevelopmentComponentFactory() {
+        if (dcFactory == null && developmentConfiguration == null) {
+            // historical builds restore their development components from the snapshot
+            developmentConfiguration = readDevelopmentConfigurationSnapshot();
+        }
+
+        if (dcFactory == null) {
+            dcFactory = new DevelopmentComponentFactory();
+        }
+
         return dcFactory;
     }
 
@@ -253,6 +538,17 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
     DCToolCommandExecutor getDCToolExecutor(final Launcher launcher) {
         final DevelopmentConfiguration configuration = getDevelopmentConfiguration();
         final NWDIProject.DescriptorImpl descriptor = NWDIProject.DescriptorImpl.DESCRIPTOR;
+
+        // concurrent workers always use sessions: the sessions load the configuration one after another
+        if (descriptor.isKeepDcToolRunning() || getProject().getDcToolWorkers() > 1) {
+            // keep the dctool processes (and their loaded configuration) for the whole build
+            if (dcToolExecutor == null) {
+                dcToolExecutor = new DCToolCommandExecutor(launcher, getWorkspace(), descriptor.getDIToolDescriptor(), configuration, true);
+            }
+
+            return dcToolExecutor;
+        }
+
         return new DCToolCommandExecutor(launcher, getWorkspace(), descriptor.getDIToolDescriptor(), configuration);
     }
 
@@ -293,7 +589,7 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
          */
         @Override
         protected Result doRun(final BuildListener listener) throws Exception {
-            final AntHelper antHelper = new AntHelper(FilePathHelper.makeAbsolute(getWorkspace()), dcFactory);
+            final AntHelper antHelper = new AntHelper(FilePathHelper.makeAbsolute(getWorkspace()), getDevelopmentComponentFactory());
             final NWDIProject project = (NWDIProject)getProject();
             Result result = Result.SUCCESS;
 
@@ -362,45 +658,71 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
 
             saveDevelopmentConfigurationToWorkspace(nwdiBuild);
 
-            final Collection<DevelopmentComponent> affectedComponents = nwdiBuild.getAffectedDevelopmentComponents(logger);
+            final Collection<DevelopmentComponent> componentsToBuild = nwdiBuild.getDevelopmentComponentsToBuild(logger);
             DIToolCommandExecutionResult result = new DIToolCommandExecutionResult("", 0);
             final boolean dryRun = Boolean.getBoolean("nwdibuild.dry.run");
 
-            if (!dryRun && !affectedComponents.isEmpty()) {
-                logger.println(Messages.NWDIBuild_building_development_components(affectedComponents.size()));
+            if (!dryRun && !componentsToBuild.isEmpty()) {
+                logger.println(Messages.NWDIBuild_building_development_components(componentsToBuild.size()));
 
-                for (final DevelopmentComponent component : affectedComponents) {
+                for (final DevelopmentComponent component : componentsToBuild) {
                     logger.println(component.getName());
                 }
 
-                result = getDCToolExecutor(launcher).buildDevelopmentComponents(affectedComponents);
-                final DCBuildResultParser buildResultParser = new DCBuildResultParser(nwdiBuild.getDevelopmentConfiguration());
-                final BuildResults buildResults = buildResultParser.parse(new StringReader(result.getOutput()));
-
-                if (buildResults.hasBuildErrors()) {
-                    // any value other than 0 signifies an error
-                    result = new DIToolCommandExecutionResult(result.getOutput(), 1);
+                final int workers = ((NWDIProject)getProject()).getDcToolWorkers();
+                final DCBuildProgressAction progress = new DCBuildProgressAction(componentsToBuild.size());
+                nwdiBuild.addAction(progress);
+
+                final boolean apiChangesOnly = ((NWDIProject)getProject()).isApiChangesOnly();
+
+                if (workers > 1 || apiChangesOnly) {
+                    // building only on API changes implies building in waves, the wave builder determines failed builds itself
+                    final DCToolCommandExecutor executor = getDCToolExecutor(launcher);
+                    final DevelopmentComponentWaveBuilder waveBuilder =
+                        new DevelopmentComponentWaveBuilder(new DevelopmentComponentWaveBuilder.BuildExecutor() {
+                            @Override
+                            public DIToolCommandExecutionResult build(final Collection<DevelopmentComponent> components,
+                                final OutputLineConsumer consumer) throws IOException, InterruptedException {
+                                return executor.buildDevelopmentComponents(components, consumer);
+                            }
+                        }, nwdiBuild.getDevelopmentComponentFactory(), nwdiBuild.getDevelopmentConfiguration(), workers, logger,
+                            progress);
+
+                    if (apiChangesOnly) {
+                        waveBuilder.setApiChangeTracker(nwdiBuild.createApiChangeTracker());
+                    }
 
-                    // for (final DevelopmentComponent dcWithFailedBuild : buildResults.getDcsWithBuildErrors()) {
-                    // nwdiBuild.addAction(new FailedBuildsAction(dcWithFailedBuild));
-                    // }
+                    result = waveBuilder.build(nwdiBuild.getBuildWaves(logger));
+                }
+                else {
+                    final DCBuildResultParser buildResultParser =
+                        new DCBuildResultParser(nwdiBuild.getDevelopmentConfiguration(), componentsToBuild, progress);
+                    result = getDCToolExecutor(launcher).buildDevelopmentComponents(componentsToBuild, buildResultParser);
+                    final BuildResults buildResults = buildResultParser.getBuildResults();
+
+                    if (buildResults.hasBuildErrors()) {
+                        // any value other than 0 signifies an error
+                        result = new DIToolCommandExecutionResult(result.getOutput(), 1);
+
+                        // for (final DevelopmentComponent dcWithFailedBuild : buildResults.getDcsWithBuildErrors()) {
+                        // nwdiBuild.addAction(new FailedBuildsAction(dcWithFailedBuild));
+                        // }
+                    }
                 }
+
+                nwdiBuild.recordBuildResults(progress, logger);
             }
 
-            if (result.isExitCodeOk()) {
+            if (result.isExitCodeOk() && !componentsToBuild.isEmpty()) {
                 // update the generated build.xml files project tag for the
                 // static analysis tools to recognize modules.
-                for (final DevelopmentComponent component : affectedComponents) {
-                    final FilePath buildXml =
-                        nwdiBuild.getDtcFolder().child(
-                            String.format("DCs/%s/%s/_comp/gen/default/logs/build.xml", component.getVendor(), component.getName()));
-
-                    if (buildXml.exists()) {
-                        final String content =
-                            buildXml.readToString().replaceFirst("project name=\"DC Build\"",
-                                String.format("project name=\"%s~%s\"", component.getVendor(), component.getName().replace('/', '~')));
-                        buildXml.write(content, DEFAULT_ENCODING);
-                    }
+                final BuildXmlProjectNameUpdater.Summary summary =
+                    nwdiBuild.getDtcFolder().act(new BuildXmlProjectNameUpdater(componentsToBuild, getDcUpdaterParallelism()));
+                logger.println(Messages.NWDIBuild_updated_build_xml(summary.getUpdated(), summary.getUnchanged(), summary.getMissing(),
+                    summary.getFailures().size()));
+
+                for (final String failure : summary.getFailures()) {
+                    logger.println(Messages.NWDIBuild_build_xml_error(failure));
                 }
             }
 
@@ -438,7 +760,7 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
          *            {@link AntHelper} to compute the base location of development components.
          */
         private void updateSourceCodeLocations(final AntHelper antHelper) {
-            getDevelopmentConfiguration().accept(new DevelopmentComponentPropertiesUpdater(antHelper));
+            new DevelopmentComponentPropertiesUpdater(antHelper).execute(getDevelopmentConfiguration(), getDcUpdaterParallelism());
         }
 
         @Override
@@ -452,12 +774,28 @@ public final class NWDIBuild extends AbstractBuild<NWDIProject, NWDIBuild> {
             }
         }
 
+        /**
+         * Terminate the dctool processes kept running throughout this build and run the remaining publishers.
+         *
+         * @param listener
+         *            the {@link BuildListener} to use for e.g. reporting.
+         * @throws Exception
+         *             forward all Exceptions thrown by underlying code
+         */
         @Override
         public void cleanUp(@Nonnull final BuildListener listener) throws Exception {
-            // at this point it's too late to mark the build as a failure, so ignore return value.
-            performAllBuildSteps(listener, project.getPublishersList(), false);
-            performAllBuildSteps(listener, project.getProperties(), false);
-            super.cleanUp(listener);
+            try {
+                if (dcToolExecutor != null) {
+                    dcToolExecutor.close();
+                    dcToolExecutor = null;
+                }
+            }
+            finally {
+                // at this point it's too late to mark the build as a failure, so ignore return value.
+                performAllBuildSteps(listener, project.getPublishersList(), false);
+                performAllBuildSteps(listener, project.getProperties(), false);
+                super.cleanUp(listener);
+            }
         }
     }
 
@@ -52,9 +52,12 @@ import net.sf.json.JSONObject;
 import org.apache.commons.lang.StringUtils;
 import org.arachna.netweaver.dc.types.DevelopmentConfiguration;
 import org.arachna.netweaver.dc.types.JdkHomePaths;
+import org.arachna.netweaver.hudson.nwdi.cache.BuildOutputCache;
+import org.arachna.netweaver.hudson.nwdi.cache.LocalDirectoryBuildOutputCache;
 import org.arachna.netweaver.tools.DIToolCommandExecutionResult;
 import org.arachna.netweaver.tools.DIToolDescriptor;
 import org.arachna.netweaver.tools.cbs.CBSToolCommandExecutor;
+import org.arachna.xml.DigesterHelper;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest;
@@ -86,6 +89,26 @@ public class NWDIProject extends AbstractProject<NWDIProject, NWDIBuild> impleme
      */
     private boolean cleanCopy;
 
+    /**
+     * number of <code>dctool</code> processes to use for building independent development components concurrently.
+     */
+    private int dcToolWorkers = 1;
+
+    /**
+     * propagate rebuilds only to development components using a changed DC at build time when <code>true</code>.
+     */
+    private boolean buildTimeDependenciesOnly;
+
+    /**
+     * skip building development components none of whose used DCs changed their API during the build when <code>true</code>.
+     */
+    private boolean apiChangesOnly;
+
+    /**
+     * skip building development components whose inputs did not change since their last successful build when <code>true</code>.
+     */
+    private boolean skipUnchangedDevelopmentComponents;
+
     /**
      * List of active {@link Builder}s configured for this project.
      */
@@ -201,8 +224,13 @@ public class NWDIProject extends AbstractProject<NWDIProject, NWDIBuild> impleme
         final DIToolCommandExecutionResult result =
             getDescriptor().createCBSToolExecutor(dtcFolder).updateDevelopmentConfiguration(buildSpaceName, ".confdef");
 
-        if (!result.isExitCodeOk()) {
-            logger.println(result.getOutput());
+        try {
+            if (!result.isExitCodeOk()) {
+                logger.println(result.getOutput());
+            }
+        }
+        finally {
+            result.dispose();
         }
     }
 
@@ -245,6 +273,10 @@ public class NWDIProject extends AbstractProject<NWDIProject, NWDIBuild> impleme
         final JSONObject json = req.getSubmittedForm();
         cleanCopy = json.getBoolean(PARAMETER_CLEAN_COPY);
         buildSpaceName = json.getString("buildSpaceName");
+        dcToolWorkers = Math.max(1, json.optInt("dcToolWorkers", 1));
+        buildTimeDependenciesOnly = json.optBoolean("buildTimeDependenciesOnly", false);
+        apiChangesOnly = json.optBoolean("apiChangesOnly", false);
+        skipUnchangedDevelopmentComponents = json.optBoolean("skipUnchangedDevelopmentComponents", false);
         setScm(new NWDIScm(cleanCopy, getDescriptor().getUser(), getDescriptor().getPassword()));
 
         buildWrappers.rebuild(req, json, BuildWrappers.getFor(this));
@@ -343,6 +375,16 @@ public class NWDIProject extends AbstractProject<NWDIProject, NWDIBuild> impleme
          */
         private static final String DC_SUB_FOLDER = "dc";
 
+        /**
+         * Default maximum size of the build output cache in MiB.
+         */
+        private static final long DEFAULT_OUTPUT_CACHE_SIZE = 10240;
+
+        /**
+         * number of bytes in a MiB.
+         */
+        private static final long MIB = 1024 * 1024;
+
         /**
          * UME user to use when connecting to NWDI.
          */
@@ -373,11 +415,37 @@ public class NWDIProject extends AbstractProject<NWDIProject, NWDIBuild> impleme
          */
         private String cbsUrl;
 
+        /**
+         * folder used as build output cache shared between jobs and workspaces (empty when no build output cache shall be used).
+         */
+        private String outputCacheDir;
+
+        /**
+         * maximum size of the build output cache in MiB.
+         */
+        private long outputCacheSize = DEFAULT_OUTPUT_CACHE_SIZE;
+
+        /**
+         * whether credentials are sent with the first request to the DTR instead of waiting for it to request authentication.
+         */
+        private boolean dtrPreemptiveAuthentication;
+
+        /**
+         * whether configuration files of development components are read using StAX readers instead of Digester.
+         */
+        private boolean useStaxReaders;
+
+        /**
+         * whether <code>dctool</code> processes are kept running (with the development configuration loaded) throughout a build.
+         */
+        private boolean keepDcToolRunning;
+
         /**
          * Create descriptor for NWDI-Projects and load global configuration data.
          */
         public DescriptorImpl() {
             load();
+            DigesterHelper.setStaxReadersEnabled(useStaxReaders);
         }
 
         /**
@@ -482,6 +550,11 @@ public class NWDIProject extends AbstractProject<NWDIProject, NWDIBuild> impleme
             user = Util.fixNull(json.getString("user"));
             password = Util.fixNull(json.getString("password"));
             cbsUrl = Util.fixNull(json.getString("cbsUrl"));
+            outputCacheDir = Util.fixNull(json.optString("outputCacheDir"));
+            outputCacheSize = json.optLong("outputCacheSize", DEFAULT_OUTPUT_CACHE_SIZE);
+            dtrPreemptiveAuthentication = json.optBoolean("dtrPreemptiveAuthentication", false);
+            setUseStaxReaders(json.optBoolean("useStaxReaders", false));
+            keepDcToolRunning = json.optBoolean("keepDcToolRunning", false);
 
             save();
 
@@ -526,6 +599,17 @@ public class NWDIProject extends AbstractProject<NWDIProject, NWDIBuild> impleme
             return result;
         }
 
+        /**
+         * Validate the 'outputCacheSize' parameter.
+         * 
+         * @param value
+         *            the form value for the 'outputCacheSize' field.
+         * @return the form validation value.
+         */
+        public FormValidation doCheckOutputCacheSize(@QueryParameter final String value) {
+            return FormValidation.validatePositiveInteger(value);
+        }
+
         /**
          * Validate that the given folder name contains the NWDI tools.
          * 
@@ -754,6 +838,119 @@ public class NWDIProject extends AbstractProject<NWDIProject, NWDIBuild> impleme
         public void setCbsUrl(final String cbsUrl) {
             this.cbsUrl = cbsUrl;
         }
+
+        /**
+         * Returns the folder used as build output cache shared between jobs and workspaces.
+         * 
+         * @return the folder used as build output cache (empty when no build output cache shall be used).
+         */
+        public String getOutputCacheDir() {
+            return StringUtils.trimToEmpty(outputCacheDir);
+        }
+
+        /**
+         * Sets the folder used as build output cache shared between jobs and workspaces.
+         * 
+         * @param outputCacheDir
+         *            the folder used as build output cache (empty when no build output cache shall be used).
+         */
+        public void setOutputCacheDir(final String outputCacheDir) {
+            this.outputCacheDir = outputCacheDir;
+        }
+
+        /**
+         * Returns the maximum size of the build output cache in MiB.
+         * 
+         * @return the maximum size of the build output cache in MiB.
+         */
+        public long getOutputCacheSize() {
+            return outputCacheSize > 0 ? outputCacheSize : DEFAULT_OUTPUT_CACHE_SIZE;
+        }
+
+        /**
+         * Sets the maximum size of the build output cache in MiB.
+         * 
+         * @param outputCacheSize
+         *            the maximum size of the build output cache in MiB.
+         */
+        public void setOutputCacheSize(final long outputCacheSize) {
+            this.outputCacheSize = outputCacheSize;
+        }
+
+        /**
+         * Returns whether credentials are sent with the first request to the DTR instead of waiting for it to request authentication.
+         * 
+         * @return <code>true</code> when credentials are sent preemptively, <code>false</code> otherwise.
+         */
+        public boolean isDtrPreemptiveAuthentication() {
+            return dtrPreemptiveAuthentication;
+        }
+
+        /**
+         * Sets whether credentials are sent with the first request to the DTR instead of waiting for it to request authentication.
+         * 
+         * @param dtrPreemptiveAuthentication
+         *            <code>true</code> when credentials shall be sent preemptively.
+         */
+        public void setDtrPreemptiveAuthentication(final boolean dtrPreemptiveAuthentication) {
+            this.dtrPreemptiveAuthentication = dtrPreemptiveAuthentication;
+        }
+
+        /**
+         * Returns whether configuration files of development components are read using StAX readers instead of Digester.
+         * 
+         * @return <code>true</code> when StAX readers are used, <code>false</code> otherwise.
+         */
+        public boolean isUseStaxReaders() {
+            return useStaxReaders;
+        }
+
+        /**
+         * Sets whether configuration files of development components are read using StAX readers instead of Digester.
+         * 
+         * @param useStaxReaders
+         *            <code>true</code> when StAX readers shall be used.
+         */
+        public void setUseStaxReaders(final boolean useStaxReaders) {
+            this.useStaxReaders = useStaxReaders;
+            DigesterHelper.setStaxReadersEnabled(useStaxReaders);
+        }
+
+        /**
+         * Returns whether <code>dctool</code> processes are kept running (with the development configuration loaded) throughout a build
+         * instead of starting a new process for every batch of <code>dctool</code> commands. Processes are always kept running when a
+         * project uses several <code>dctool</code> processes.
+         * 
+         * @return <code>true</code> when <code>dctool</code> processes are kept running throughout a build, <code>false</code> otherwise.
+         */
+        public boolean isKeepDcToolRunning() {
+            return keepDcToolRunning;
+        }
+
+        /**
+         * Sets whether <code>dctool</code> processes are kept running (with the development configuration loaded) throughout a build.
+         * 
+         * @param keepDcToolRunning
+         *            <code>true</code> when <code>dctool</code> processes shall be kept running throughout a build.
+         */
+        public void setKeepDcToolRunning(final boolean keepDcToolRunning) {
+            this.keepDcToolRunning = keepDcToolRunning;
+        }
+
+        /**
+         * Create the build output cache shared between jobs and workspaces.
+         * 
+         * @return the build output cache or <code>null</code> when no folder for it is configured.
+         */
+        public BuildOutputCache createBuildOutputCache() {
+            final String cacheDir = getOutputCacheDir();
+
+            if (cacheDir.isEmpty()) {
+                return null;
+            }
+
+            return new LocalDirectoryBuildOutputCache(new File(cacheDir), getOutputCacheSize() * MIB);
+        }
     }
 
     @Override
@@ -798,4 +995,89 @@ public class NWDIProject extends AbstractProject<NWDIProject, NWDIBuild> impleme
     public void setBuildSpaceName(final String buildSpaceName) {
         this.buildSpaceName = buildSpaceName;
     }
+
+    /**
+     * Returns the number of <code>dctool</code> processes to use for building independent development components concurrently.
+     * 
+     * Several processes are kept running throughout the build. They load the development configuration one after another and write their
+     * own spool and trace files.
+     * 
+     * @return number of <code>dctool</code> processes to use (at least one).
+     */
+    public int getDcToolWorkers() {
+        return Math.max(1, dcToolWorkers);
+    }
+
+    /**
+     * Sets the number of <code>dctool</code> processes to use for building independent development components concurrently.
+     * 
+     * @param dcToolWorkers
+     *            number of <code>dctool</code> processes to use.
+     */
+    public void setDcToolWorkers(final int dcToolWorkers) {
+        this.dcToolWorkers = dcToolWorkers;
+    }
+
+    /**
+     * Returns whether rebuilds are propagated only to development components using a changed DC at build time (instead of all using DCs).
+     * 
+     * @return <code>true</code> when rebuilds are propagated only along build time dependencies, <code>false</code> otherwise.
+     */
+    public boolean isBuildTimeDependenciesOnly() {
+        return buildTimeDependenciesOnly;
+    }
+
+    /**
+     * Sets whether rebuilds are propagated only to development components using a changed DC at build time.
+     * 
+     * @param buildTimeDependenciesOnly
+     *            <code>true</code> when rebuilds shall be propagated only along build time dependencies.
+     */
+    public void setBuildTimeDependenciesOnly(final boolean buildTimeDependenciesOnly) {
+        this.buildTimeDependenciesOnly = buildTimeDependenciesOnly;
+    }
+
+    /**
+     * Returns whether development components are skipped when none of the development components they use changed its API during the
+     * build (i.e. only changes of the API of a DC are propagated to the DCs using it).
+     * 
+     * Enabling this option implies building development components in waves (as with several dctool processes) even when only one
+     * dctool process is configured, since the API changes of a wave are determined before building the next one.
+     * 
+     * @return <code>true</code> when development components are rebuilt only when the API of a used DC changed, <code>false</code>
+     *         otherwise.
+     */
+    public boolean isApiChangesOnly() {
+        return apiChangesOnly;
+    }
+
+    /**
+     * Sets whether development components are skipped when none of the development components they use changed its API during the build.
+     * 
+     * @param apiChangesOnly
+     *            <code>true</code> when development components shall be rebuilt only when the API of a used DC changed.
+     */
+    public void setApiChangesOnly(final boolean apiChangesOnly) {
+        this.apiChangesOnly = apiChangesOnly;
+    }
+
+    /**
+     * Returns whether development components whose inputs (sources, configuration files and the public parts of used DCs) did not change
+     * since their last successful build in the workspace are skipped.
+     * 
+     * @return <code>true</code> when unchanged development components are not built, <code>false</code> otherwise.
+     */
+    public boolean isSkipUnchangedDevelopmentComponents() {
+        return skipUnchangedDevelopmentComponents;
+    }
+
+    /**
+     * Sets whether development components whose inputs did not change since their last successful build in the workspace are skipped.
+     * 
+     * @param skipUnchangedDevelopmentComponents
+     *            <code>true</code> when unchanged development components shall not be built.
+     */
+    public void setSkipUnchangedDevelopmentComponents(final boolean skipUnchangedDevelopmentComponents) {
+        this.skipUnchangedDevelopmentComponents = skipUnchangedDevelopmentComponents;
+    }
 }
@@ -8,7 +8,10 @@ import hudson.scm.SCMRevisionState;
 import java.io.Serializable;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.arachna.netweaver.hudson.dtr.browser.Activity;
 
@@ -34,6 +37,13 @@ public final class NWDIRevisionState extends SCMRevisionState implements Seriali
      */
     private final Date creationDate;
 
+    /**
+     * Highest integration sequence number of activities seen per compartment
+     * (keyed by the compartment's name). May be <code>null</code> for states
+     * persisted by earlier versions of the plugin.
+     */
+    private final HashMap<String, Integer> integrationSequenceNumbers;
+
     /**
      * Create an instance of <code>NWDIRevisionState</code> with the given
      * collection of activities.
@@ -53,6 +63,18 @@ public final class NWDIRevisionState extends SCMRevisionState implements Seriali
         this(Calendar.getInstance().getTime());
     }
 
+    /**
+     * Create an instance of <code>NWDIRevisionState</code> with the current
+     * date and time and the given integration sequence numbers.
+     * 
+     * @param integrationSequenceNumbers
+     *            highest integration sequence number of activities seen per
+     *            compartment.
+     */
+    public NWDIRevisionState(final Map<String, Integer> integrationSequenceNumbers) {
+        this(Calendar.getInstance().getTime(), integrationSequenceNumbers);
+    }
+
     /**
      * Create state with the given date.
      * 
@@ -60,7 +82,23 @@ public final class NWDIRevisionState extends SCMRevisionState implements Seriali
      *            the date this state was created.
      */
     private NWDIRevisionState(final Date creationDate) {
+        this(creationDate, null);
+    }
+
+    /**
+     * Create state with the given date and integration sequence numbers.
+     * 
+     * @param creationDate
+     *            the date this state was created.
+     * @param integrationSequenceNumbers
+     *            highest integration sequence number of activities seen per
+     *            compartment (may be <code>null</code>).
+     */
+    private NWDIRevisionState(final Date creationDate, final Map<String, Integer> integrationSequenceNumbers) {
         this.creationDate = creationDate;
+        this.integrationSequenceNumbers =
+            integrationSequenceNumbers == null ? new HashMap<String, Integer>() : new HashMap<String, Integer>(
+                integrationSequenceNumbers);
     }
 
     /**
@@ -73,4 +111,16 @@ public final class NWDIRevisionState extends SCMRevisionState implements Seriali
     public Date getCreationDate() {
         return new Date(creationDate.getTime());
     }
+
+    /**
+     * Returns the highest integration sequence number of activities seen per
+     * compartment (keyed by the compartment's name).
+     * 
+     * @return the highest integration sequence number of activities seen per
+     *         compartment. Empty when none were recorded.
+     */
+    public Map<String, Integer> getIntegrationSequenceNumbers() {
+        return integrationSequenceNumbers == null ? Collections.<String, Integer> emptyMap() : Collections
+            .unmodifiableMap(integrationSequenceNumbers);
+    }
 }
@@ -22,8 +22,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import net.sf.json.JSONObject;
 
@@ -121,15 +123,19 @@ public class NWDIScm extends SCM {
         project.updateDevelopmentConfiguration(logger, currentBuild.getDtcFolder());
 
         final Collection<Activity> activities = new LinkedList<Activity>();
+        final Map<String, Integer> integrationSequenceNumbers = new HashMap<String, Integer>();
         final DCToolCommandExecutor executor = currentBuild.getDCToolExecutor(launcher);
 
         final DevelopmentComponentFactory dcFactory = currentBuild.getDevelopmentComponentFactory();
 
         DIToolCommandExecutionResult result = currentBuild.getCBSToolExecutor(launcher).listDevelopmentComponents(dcFactory);
         final AntHelper antHelper = new AntHelper(FilePathHelper.makeAbsolute(workspace), dcFactory);
-        final DevelopmentComponentUpdater updater = new DevelopmentComponentUpdater(antHelper);
+        final DevelopmentComponentUpdater updater =
+            new DevelopmentComponentUpdater(antHelper, currentBuild.getConfigurationFileStamps(), currentBuild.getDcUpdaterParallelism());
 
         if (result.isExitCodeOk()) {
+            currentBuild.initializeDevelopmentComponentsFromPreviousBuild(logger);
+
             final NWDIBuild lastSuccessfulBuild = project.getLastSuccessfulBuild();
 
             if (lastSuccessfulBuild != null) {
@@ -142,7 +148,9 @@ public class NWDIScm extends SCM {
             final NWDIRevisionState state =
                 lastSuccessfulBuild == null ? NWDIRevisionState.START_STATE : lastSuccessfulBuild.getAction(NWDIRevisionState.class);
             final DevelopmentConfiguration config = currentBuild.getDevelopmentConfiguration();
-            activities.addAll(getActivities(logger, getDtrBrowser(config), dcFactory, state));
+            final DtrBrowser browser = getDtrBrowser(config);
+            activities.addAll(getActivities(logger, browser, dcFactory, state));
+            integrationSequenceNumbers.putAll(browser.getIntegrationSequenceNumbers());
 
             final boolean cleanCopy = currentBuild.getPreviousBuild() == null || this.cleanCopy;
 
@@ -164,8 +172,9 @@ public class NWDIScm extends SCM {
         }
 
         updater.execute(dcFactory.getAll());
+        currentBuild.saveDevelopmentConfigurationSnapshot(logger);
 
-        build.addAction(new NWDIRevisionState());
+        build.addAction(new NWDIRevisionState(integrationSequenceNumbers));
         writeChangeLog(build, changelogFile, activities);
 
         return result.isExitCodeOk();
@@ -201,7 +210,8 @@ public class NWDIScm extends SCM {
         final Change changeState = activities.isEmpty() ? Change.NONE : Change.SIGNIFICANT;
         logger.println(Messages.NWDIScm_found_changes(changeState.toString()));
 
-        return new PollingResult(baseLine, new NWDIRevisionState(), changeState);
+        return new PollingResult(baseLine, new NWDIRevisionState(((NWDIRevisionState)baseLine).getIntegrationSequenceNumbers()),
+            changeState);
     }
 
     /**
@@ -275,10 +285,11 @@ public class NWDIScm extends SCM {
 
         if (!dryRun) {
             if (dcFactory == null) {
-                activities.addAll(browser.getActivities(state.getCreationDate()));
+                activities.addAll(browser.getActivities(state.getCreationDate(), state.getIntegrationSequenceNumbers()));
             }
             else {
-                activities.addAll(browser.getActivitiesWithResourcesAndDevelopmentComponents(dcFactory, state.getCreationDate()));
+                activities.addAll(browser.getActivitiesWithResourcesAndDevelopmentComponents(dcFactory, state.getCreationDate(),
+                    state.getIntegrationSequenceNumbers()));
             }
         }
 
@@ -302,7 +313,7 @@ public class NWDIScm extends SCM {
      * @return the {@link DtrBrowser} for browsing the DTR for activities.
      */
     private DtrBrowser getDtrBrowser(final DevelopmentConfiguration config) {
-        return new DtrBrowser(config, dtrUser, password);
+        return new DtrBrowser(config, dtrUser, password, NWDIProject.DescriptorImpl.DESCRIPTOR.isDtrPreemptiveAuthentication());
     }
 
     /**
@@ -3,13 +3,16 @@
  */
 package org.arachna.netweaver.hudson.nwdi;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -30,13 +33,24 @@ import org.arachna.util.io.FileFinder;
  * @author Dirk Weigenand
  */
 class TestFolderFinder {
+    /**
+     * initial size of buffer for reading source files.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * names of directories (regular expressions) not to search for source files (version control meta data).
+     */
+    static final String[] PRUNED_DIRECTORIES = { "\\.svn", "\\.git", "CVS" };
+
     /**
      * Logger.
      */
     private final Logger logger = Logger.getLogger(this.getClass().getName());
 
     /**
-     * Determine whether the given source folder contains unit tests.
+     * Determine whether the given source folder contains unit tests. Only source files passing the lexical check of
+     * {@link TestSourcePreScanner} are parsed.
      *
      * @param encoding
      *            encoding to use for reading of source files.
@@ -45,10 +59,20 @@ class TestFolderFinder {
      * @return <code>true</code> when there are sources in the given folder containing unit tests, <code>false</code> else.
      */
     boolean isTestFolder(final String encoding, final String sourceFolder) {
+        final Charset charset = Charset.forName(StringUtils.isEmpty(encoding) ? "UTF-8" : encoding);
+        final TestSourcePreScanner preScanner = new TestSourcePreScanner(charset);
+        ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
         for (final FileDescriptor source : getJavaSources(encoding, sourceFolder)) {
             try {
-                String enc = StringUtils.isEmpty(encoding) ? "UTF-8" : encoding;
-                final CompilationUnit compilationUnit = JavaParser.parse(source.getContent(), Charset.forName(enc));
+                buffer = source.read(buffer);
+
+                if (!preScanner.mayContainTest(buffer)) {
+                    continue;
+                }
+
+                final CompilationUnit compilationUnit =
+                    JavaParser.parse(new ByteArrayInputStream(buffer.array(), buffer.arrayOffset(), buffer.limit()), charset);
                 final Optional<PackageDeclaration> packageDescriptor = compilationUnit.getPackageDeclaration();
 
                 if (packageDescriptor != null && compilationUnitContainsJUnitTest(compilationUnit, packageDescriptor.get())) {
@@ -63,15 +87,42 @@ class TestFolderFinder {
         return false;
     }
 
-    protected Collection<FileDescriptor> getJavaSources(final String encoding, final String sourceFolder) {
-        final FileFinder finder = new FileFinder(new File(sourceFolder), ".*\\.java");
-        final Collection<FileDescriptor> sources = new ArrayList<FileDescriptor>();
+    /**
+     * Returns the Java source files in the given source folder. Source files are found lazily, so scanning stops at the first source file
+     * containing a unit test.
+     *
+     * @param encoding
+     *            encoding of source files.
+     * @param sourceFolder
+     *            source folder from <code>build.xml</code>.
+     * @return the Java source files in the given source folder.
+     */
+    protected Iterable<FileDescriptor> getJavaSources(final String encoding, final String sourceFolder) {
+        final FileFinder finder = new FileFinder(new File(sourceFolder), ".*\\.java", PRUNED_DIRECTORIES);
+
+        return new Iterable<FileDescriptor>() {
+            @Override
+            public Iterator<FileDescriptor> iterator() {
+                final Iterator<File> files = finder.iterator();
+
+                return new Iterator<FileDescriptor>() {
+                    @Override
+                    public boolean hasNext() {
+                        return files.hasNext();
+                    }
 
-        for (final File file : finder.find()) {
-            sources.add(new FileDescriptor(file));
-        }
+                    @Override
+                    public FileDescriptor next() {
+                        return new FileDescriptor(files.next());
+                    }
 
-        return sources;
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
     }
 
     /**
@@ -121,6 +172,39 @@ class TestFolderFinder {
             return new FileInputStream(file);
         }
 
+        /**
+         * Read the content of the file into the given buffer. The buffer is replaced with a larger one when the content does not fit.
+         * 
+         * @param buffer
+         *            buffer to read the content into.
+         * @return buffer containing the content of the file (between position 0 and its limit).
+         * @throws IOException
+         *             when reading the file fails.
+         */
+        ByteBuffer read(final ByteBuffer buffer) throws IOException {
+            final ReadableByteChannel channel = Channels.newChannel(getContent());
+            ByteBuffer content = buffer;
+            content.clear();
+
+            try {
+                while (channel.read(content) >= 0) {
+                    if (!content.hasRemaining()) {
+                        final ByteBuffer larger = ByteBuffer.allocate(content.capacity() * 2);
+                        content.flip();
+                        larger.put(content);
+                        content = larger;
+                    }
+                }
+            }
+            finally {
+                channel.close();
+            }
+
+            content.flip();
+
+            return content;
+        }
+
         String getAbsolutePath() {
             return file.getAbsolutePath();
         }
@@ -0,0 +1,188 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * Cheap lexical check whether a Java source file may contain a JUnit 3 or 4 test, i.e. contains one of the tokens <code>@Test</code>,
+ * <code>TestCase</code> or <code>org.junit</code>. Only source files passing this check need to be parsed.
+ *
+ * For encodings that represent the tokens as ASCII bytes (UTF-8, ISO-8859-*, windows-125*, ...) the raw bytes are scanned. Other
+ * encodings (e.g. UTF-16) are decoded into a character buffer first. No strings are built in either case.
+ *
+ * @author Dirk Weigenand
+ */
+final class TestSourcePreScanner {
+    /**
+     * tokens of which at least one occurs in every source file containing a JUnit 3 or 4 test.
+     */
+    private static final String[] TOKENS = { "@Test", "TestCase", "org.junit" };
+
+    /**
+     * US-ASCII charset.
+     */
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    /**
+     * tokens encoded as bytes or <code>null</code> when the encoding of the source files does not represent them as ASCII bytes.
+     */
+    private final byte[][] byteTokens;
+
+    /**
+     * decoder for source files whose encoding does not represent the tokens as ASCII bytes.
+     */
+    private final CharsetDecoder decoder;
+
+    /**
+     * Create a pre scanner for source files using the given encoding.
+     *
+     * @param charset
+     *            encoding of source files.
+     */
+    TestSourcePreScanner(final Charset charset) {
+        byteTokens = encodeTokens(charset);
+        decoder =
+            byteTokens == null ? charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE) : null;
+    }
+
+    /**
+     * Determine whether the given content of a source file may contain a JUnit test.
+     *
+     * @param content
+     *            content of a source file (its position is not changed).
+     * @return <code>true</code> when the content contains one of the tokens identifying JUnit tests, <code>false</code> otherwise.
+     */
+    boolean mayContainTest(final ByteBuffer content) {
+        if (byteTokens != null) {
+            return containsToken(content);
+        }
+
+        try {
+            return containsToken(decoder.decode(content.duplicate()));
+        }
+        catch (final CharacterCodingException e) {
+            // malformed input is replaced, so this should not happen. Let the parser decide.
+            return true;
+        }
+    }
+
+    /**
+     * Determine whether the given bytes contain one of the tokens.
+     *
+     * @param content
+     *            content of a source file.
+     * @return <code>true</code> when the content contains one of the tokens identifying JUnit tests, <code>false</code> otherwise.
+     */
+    private boolean containsToken(final ByteBuffer content) {
+        final int limit = content.limit();
+
+        for (int i = content.position(); i < limit; i++) {
+            final byte current = content.get(i);
+
+            for (final byte[] token : byteTokens) {
+                if (current == token[0] && i + token.length <= limit && matches(content, i, token)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Determine whether the given token occurs in the given bytes at the given index.
+     *
+     * @param content
+     *            content of a source file.
+     * @param index
+     *            index to compare the token at.
+     * @param token
+     *            the token to compare.
+     * @return <code>true</code> when the token occurs at the given index, <code>false</code> otherwise.
+     */
+    private boolean matches(final ByteBuffer content, final int index, final byte[] token) {
+        for (int j = 1; j < token.length; j++) {
+            if (content.get(index + j) != token[j]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Determine whether the given characters contain one of the tokens.
+     *
+     * @param content
+     *            decoded content of a source file.
+     * @return <code>true</code> when the content contains one of the tokens identifying JUnit tests, <code>false</code> otherwise.
+     */
+    private boolean containsToken(final CharBuffer content) {
+        final int limit = content.limit();
+
+        for (int i = content.position(); i < limit; i++) {
+            for (final String token : TOKENS) {
+                if (content.get(i) == token.charAt(0) && i + token.length() <= limit && matches(content, i, token)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Determine whether the given token occurs in the given characters at the given index.
+     *
+     * @param content
+     *            decoded content of a source file.
+     * @param index
+     *            index to compare the token at.
+     * @param token
+     *            the token to compare.
+     * @return <code>true</code> when the token occurs at the given index, <code>false</code> otherwise.
+     */
+    private boolean matches(final CharBuffer content, final int index, final String token) {
+        for (int j = 1; j < token.length(); j++) {
+            if (content.get(index + j) != token.charAt(j)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Encode the tokens using the given encoding.
+     *
+     * @param charset
+     *            encoding of source files.
+     * @return the tokens encoded as bytes or <code>null</code> when the given encoding does not represent them as ASCII bytes.
+     */
+    private static byte[][] encodeTokens(final Charset charset) {
+        if (!charset.canEncode()) {
+            return null;
+        }
+
+        final byte[][] tokens = new byte[TOKENS.length][];
+
+        for (int i = 0; i < TOKENS.length; i++) {
+            tokens[i] = TOKENS[i].getBytes(charset);
+
+            if (!Arrays.equals(tokens[i], TOKENS[i].getBytes(US_ASCII))) {
+                return null;
+            }
+        }
+
+        return tokens;
+    }
+}
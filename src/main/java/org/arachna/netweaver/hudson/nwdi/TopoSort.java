@@ -5,13 +5,18 @@ package org.arachna.netweaver.hudson.nwdi;
 
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 
+import org.arachna.netweaver.dc.types.DependencyKind;
 import org.arachna.netweaver.dc.types.DevelopmentComponent;
 import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
 import org.arachna.netweaver.dc.types.PublicPartReference;
@@ -19,9 +24,19 @@ import org.arachna.netweaver.dc.types.PublicPartReference;
 /**
  * Sort a collection of development components topologically wrt. their dependency relations.
  *
+ * The build order is determined using Kahn's algorithm: development components whose used DCs have all been sorted are taken from a
+ * queue, each sorted DC decrements the count of unsorted used DCs of its using DCs. Development components that remain unsorted are
+ * part of or depend on circular dependencies. These are determined as strongly connected components using Tarjan's algorithm. Both
+ * run in linear time wrt. the number of development components and dependencies and use no recursion.
+ *
  * @author Dirk Weigenand
  */
 public class TopoSort {
+    /**
+     * marks a node not yet visited by Tarjan's algorithm.
+     */
+    private static final int UNVISITED = -1;
+
     /**
      * registry/factory for development components.
      */
@@ -32,6 +47,11 @@ public class TopoSort {
      */
     private final PrintStream logger;
 
+    /**
+     * whether rebuilds are propagated only to development components using a DC at build time.
+     */
+    private final boolean buildTimeDependenciesOnly;
+
     /**
      * Create an instance of the TopoSort class using the given registry/factory for development components.
      *
@@ -40,8 +60,23 @@ public class TopoSort {
      * @param logger logger to log messages into
      */
     public TopoSort(final DevelopmentComponentFactory dcFactory, final PrintStream logger) {
+        this(dcFactory, logger, false);
+    }
+
+    /**
+     * Create an instance of the TopoSort class using the given registry/factory for development components.
+     *
+     * @param dcFactory
+     *            registry/factory for development components.
+     * @param logger logger to log messages into
+     * @param buildTimeDependenciesOnly
+     *            <code>true</code> when rebuilds shall only be propagated to development components using a DC at build time,
+     *            <code>false</code> when all using DCs shall be rebuilt.
+     */
+    public TopoSort(final DevelopmentComponentFactory dcFactory, final PrintStream logger, final boolean buildTimeDependenciesOnly) {
         this.dcFactory = dcFactory;
         this.logger = logger;
+        this.buildTimeDependenciesOnly = buildTimeDependenciesOnly;
     }
 
     /**
@@ -53,322 +88,407 @@ public class TopoSort {
      */
     public TopoSortResult sort(final Collection<DevelopmentComponent> components) {
         final TopoSortResult topoSortResult = new TopoSortResult();
-        final Map<String, ComponentWrapper> itemMap = getComponentsToRebuild(components);
+        final Graph graph = new Graph(getComponentsToRebuild(components));
+        final int[] unsortedUsedDCs = topoSort(topoSortResult, graph);
 
-        topoSort(topoSortResult, itemMap, new ArrayList<ComponentWrapper>(itemMap.values()));
+        if (topoSortResult.getDevelopmentComponents().size() < graph.size()) {
+            findCircularDependencies(topoSortResult, graph, unsortedUsedDCs);
+        }
+
+        log(topoSortResult, graph);
 
         return topoSortResult;
     }
 
     /**
-     * Do a topological sort wrt. to dependencies on the given list of items (wrapper around {@link DevelopmentComponent} to facilitate the
-     * removal of dependencies for the purpose of sorting). Store the result of the sort in the {@link TopoSortResult}. If there are still
-     * items in the list when no progress can be made on the sort, extract circular dependencies and report those in the given
-     * {@link TopoSortResult} parameter.
+     * Sort the nodes of the given graph topologically using Kahn's algorithm and add them to the given {@link TopoSortResult} in build
+     * order. Each node is assigned to the wave following the highest wave of the nodes it uses.
      *
      * @param topoSortResult
-     *            Collector object for results of the topological sort and circular dependencies.
-     * @param itemMap
-     *            a map of all items for reference.
-     * @param items
-     *            list of items to be sorted topologically.
+     *            Collector object for results of the topological sort.
+     * @param graph
+     *            dependency graph of development components to sort.
+     * @return number of used DCs not sorted per node (nodes with a count greater than zero are part of or depend on a cycle).
      */
-    private void topoSort(final TopoSortResult topoSortResult, final Map<String, ComponentWrapper> itemMap,
-        final List<ComponentWrapper> items) {
-        final ListIterator<ComponentWrapper> iterator = items.listIterator();
-        final int oldSize = topoSortResult.getDevelopmentComponents().size();
+    private int[] topoSort(final TopoSortResult topoSortResult, final Graph graph) {
+        final int[] unsortedUsedDCs = new int[graph.size()];
+        final int[] waves = new int[graph.size()];
+        final LinkedList<Integer> queue = new LinkedList<Integer>();
 
-        while (iterator.hasNext()) {
-            final ComponentWrapper item = iterator.next();
+        for (int node = 0; node < graph.size(); node++) {
+            unsortedUsedDCs[node] = graph.getUsedDCs(node).length;
 
-            // remove usedDCs that don't need rebuilding from dependencies.
-            Collection<DevelopmentComponent> usedDCs = new ArrayList<DevelopmentComponent>(item.getUsedDCs());
-
-            for (DevelopmentComponent usedDC : usedDCs) {
-                if (!usedDC.isNeedsRebuild()) {
-                    item.removeUsedDC(usedDC);
-                }
+            if (unsortedUsedDCs[node] == 0) {
+                queue.add(node);
             }
+        }
 
-            if (!item.hasUsedDCs()) {
-                final DevelopmentComponent component = item.getComponent();
-                topoSortResult.add(component);
-                iterator.remove();
+        while (!queue.isEmpty()) {
+            final int node = queue.removeFirst();
+            topoSortResult.addToWave(waves[node], graph.getComponent(node));
 
-                for (final DevelopmentComponent usingDC : item.getUsingDCs()) {
-                    String componentName = getComponentName(usingDC);
-                    logger.println(String.format("Attempt to remove usage of '%s' from '%s'.", component.getNormalizedName("~"), componentName));
-                    ComponentWrapper componentItem = itemMap.get(componentName);
+            for (final int usingDC : graph.getUsingDCs(node)) {
+                unsortedUsedDCs[usingDC]--;
+                waves[usingDC] = Math.max(waves[usingDC], waves[node] + 1);
 
-                    if (componentItem != null) {
-                        componentItem.removeUsedDC(component);
-                    }
-                    else {
-                        logger.println(String.format("Could not find '%s' in using DCs.", componentName));
-                    }
+                if (unsortedUsedDCs[usingDC] == 0) {
+                    queue.add(usingDC);
                 }
             }
         }
 
-        if (oldSize == topoSortResult.getDevelopmentComponents().size()) {
-            findCircularDependencies(topoSortResult, itemMap, items);
-        }
-        else {
-            if (!items.isEmpty()) {
-                topoSort(topoSortResult, itemMap, items);
-            }
-        }
+        return unsortedUsedDCs;
     }
 
     /**
-     * Create key for item map from vendor and component name.
-     *
-     * @param usingDC
-     *            development component to create key from.
-     * @return vendor + ":" + name of development component.
-     */
-    private String getComponentName(final DevelopmentComponent usingDC) {
-        return usingDC.getVendor() + ":" + usingDC.getName();
-    }
-
-    /**
-     * Find circular dependencies in the given list of items.
+     * Determine the strongly connected components among the nodes that could not be sorted (using an iterative variant of Tarjan's
+     * algorithm) and report those forming a cycle (i.e. containing more than one node or a node using itself) to the given
+     * {@link TopoSortResult}.
      *
      * @param topoSortResult
      *            collector object to report the found circular dependencies to.
-     * @param itemMap
-     *            map of names to item for looking up items by name.
-     * @param items
-     *            list of items to inspect for circular dependencies.
+     * @param graph
+     *            dependency graph of development components.
+     * @param unsortedUsedDCs
+     *            number of used DCs not sorted per node.
      */
-    private void findCircularDependencies(final TopoSortResult topoSortResult, final Map<String, ComponentWrapper> itemMap,
-        final List<ComponentWrapper> items) {
-        for (final ComponentWrapper item : items) {
-            findRecursivelyInUsedDCs(0, item.getComponent(), item, itemMap, topoSortResult, new HashSet<DevelopmentComponent>());
+    private void findCircularDependencies(final TopoSortResult topoSortResult, final Graph graph, final int[] unsortedUsedDCs) {
+        final int size = graph.size();
+        final int[] index = new int[size];
+        final int[] lowLink = new int[size];
+        final int[] nextEdge = new int[size];
+        final boolean[] onStack = new boolean[size];
+        final int[] sccStack = new int[size];
+        final int[] callStack = new int[size];
+        int sccStackSize = 0;
+        int nextIndex = 0;
+
+        Arrays.fill(index, UNVISITED);
+
+        for (int root = 0; root < size; root++) {
+            if (unsortedUsedDCs[root] == 0 || index[root] != UNVISITED) {
+                continue;
+            }
+
+            int callStackSize = 0;
+            callStack[callStackSize++] = root;
+            index[root] = nextIndex;
+            lowLink[root] = nextIndex++;
+            sccStack[sccStackSize++] = root;
+            onStack[root] = true;
+
+            while (callStackSize > 0) {
+                final int node = callStack[callStackSize - 1];
+                final int[] usedDCs = graph.getUsedDCs(node);
+
+                if (nextEdge[node] < usedDCs.length) {
+                    final int usedDC = usedDCs[nextEdge[node]++];
+
+                    if (unsortedUsedDCs[usedDC] == 0) {
+                        // sorted nodes can't be part of a cycle
+                        continue;
+                    }
+
+                    if (index[usedDC] == UNVISITED) {
+                        index[usedDC] = nextIndex;
+                        lowLink[usedDC] = nextIndex++;
+                        sccStack[sccStackSize++] = usedDC;
+                        onStack[usedDC] = true;
+                        callStack[callStackSize++] = usedDC;
+                    }
+                    else if (onStack[usedDC]) {
+                        lowLink[node] = Math.min(lowLink[node], index[usedDC]);
+                    }
+                }
+                else {
+                    callStackSize--;
+
+                    if (callStackSize > 0) {
+                        final int parent = callStack[callStackSize - 1];
+                        lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                    }
+
+                    if (lowLink[node] == index[node]) {
+                        final List<Integer> scc = new ArrayList<Integer>();
+                        int member;
+
+                        do {
+                            member = sccStack[--sccStackSize];
+                            onStack[member] = false;
+                            scc.add(member);
+                        }
+                        while (member != node);
+
+                        if (scc.size() > 1 || graph.uses(node, node)) {
+                            addCycle(topoSortResult, graph, scc);
+                        }
+                    }
+                }
+            }
         }
     }
 
     /**
-     * Inspect the given item whether the given component is contained in the used DCs of the item. Skip the visit if the given item has
-     * been visited or the component is marked as having a circular dependency already .
+     * Report the given strongly connected component as cycle to the given {@link TopoSortResult}. Each dependency between the members of
+     * the cycle is reported as circular dependency.
      *
-     * @param component
-     *            development component that is to be checked for having circular dependencies.
-     * @param parent
-     *            development component (wrapper) that is to be searched for usage relations with the given component.
-     * @param itemMap
-     *            name -> item map for lookup of items by name.
      * @param topoSortResult
-     *            result collector to report circular dependencies to.
-     * @param visitedParents
-     *            collector object to avoid multiple visits on items (and infinite recursion aka StackOverflowError).
+     *            collector object to report the cycle to.
+     * @param graph
+     *            dependency graph of development components.
+     * @param scc
+     *            nodes of strongly connected component forming a cycle.
      */
-    private void findRecursivelyInUsedDCs(final int depth, final DevelopmentComponent component, final ComponentWrapper parent,
-        final Map<String, ComponentWrapper> itemMap, final TopoSortResult topoSortResult,
-        final Collection<DevelopmentComponent> visitedParents) {
-        if (topoSortResult.hasCircularDependency(component) || (parent != null && visitedParents.contains(parent.getComponent()))) {
-            return;
-        }
-
-        visitedParents.add(parent.getComponent());
+    private void addCycle(final TopoSortResult topoSortResult, final Graph graph, final List<Integer> scc) {
+        final Collection<Integer> members = new HashSet<Integer>(scc);
+        final List<DevelopmentComponent> cycle = new ArrayList<DevelopmentComponent>(scc.size());
 
-        if (parent.getUsedDCs().contains(component)) {
-            topoSortResult.add(component, parent.getComponent());
+        for (final int node : scc) {
+            cycle.add(graph.getComponent(node));
         }
 
-        for (final DevelopmentComponent usedDC : parent.getUsedDCs()) {
-            final String componentName = getComponentName(usedDC);
-            final ComponentWrapper dependency = itemMap.get(componentName);
+        Collections.sort(cycle, new Comparator<DevelopmentComponent>() {
+            @Override
+            public int compare(final DevelopmentComponent first, final DevelopmentComponent second) {
+                return getComponentName(first).compareTo(getComponentName(second));
+            }
+        });
+        topoSortResult.addCycle(cycle);
 
-            findRecursivelyInUsedDCs(depth + 1, component, dependency, itemMap, topoSortResult, visitedParents);
+        for (final int node : scc) {
+            for (final int usedDC : graph.getUsedDCs(node)) {
+                if (members.contains(usedDC)) {
+                    topoSortResult.add(graph.getComponent(node), graph.getComponent(usedDC));
+                }
+            }
         }
     }
 
     /**
-     * Calculate development components that will need to be rebuilt and build a mapping of name to item wrapper.
+     * Log a summary of the sort to the console.
      *
-     * @param componentsToRebuild
-     *            list of components that should be rebuilt.
-     * @return mapping of name to item wrapper of components (and components depending on them) need to be rebuilt.
+     * @param topoSortResult
+     *            result of the sort.
+     * @param graph
+     *            dependency graph of development components.
      */
-    private Map<String, ComponentWrapper> getComponentsToRebuild(final Collection<DevelopmentComponent> componentsToRebuild) {
-        final Map<String, ComponentWrapper> components = new HashMap<String, ComponentWrapper>();
+    private void log(final TopoSortResult topoSortResult, final Graph graph) {
+        if (logger != null) {
+            int componentsInCycles = 0;
 
-        for (final DevelopmentComponent dc : componentsToRebuild) {
-            calculateDevelopmentComponentsThatNeedRebuilding(components, dc);
-        }
+            for (final Collection<DevelopmentComponent> cycle : topoSortResult.getCycles()) {
+                componentsInCycles += cycle.size();
+            }
 
-        return components;
+            logger.println(String.format("Sorted %d of %d development components (%d dependencies) into build order (%d waves).",
+                topoSortResult.getDevelopmentComponents().size(), graph.size(), graph.getDependencyCount(), topoSortResult.getWaves()
+                    .size()));
+
+            if (!topoSortResult.getCycles().isEmpty()) {
+                logger.println(String.format(
+                    "Found %d circular dependencies containing %d development components, %d further development components depend on them.",
+                    topoSortResult.getCycles().size(), componentsInCycles, graph.size() - topoSortResult.getDevelopmentComponents().size()
+                        - componentsInCycles));
+            }
+        }
     }
 
     /**
-     * Update the <code>needsRebuild</code> property recursively for the given components using DCs.
+     * Create key for item map from vendor and component name.
      *
-     * @param components
-     *            map of components processed so far.
-     * @param component
-     *            the development component whose using DCs have to be set up as needing a rebuild.
+     * @param usingDC
+     *            development component to create key from.
+     * @return vendor + ":" + name of development component.
      */
-    private void calculateDevelopmentComponentsThatNeedRebuilding(final Map<String, ComponentWrapper> components,
-        final DevelopmentComponent component) {
-        if (component.getCompartment() != null && !components.containsKey(getComponentName(component))) {
-            component.setNeedsRebuild(true);
-            final ComponentWrapper i = new ComponentWrapper(component, createListOfUsedDCs(component));
-            components.put(i.getName(), i);
-
-            for (final DevelopmentComponent usingDC : i.getUsingDCs()) {
-                calculateDevelopmentComponentsThatNeedRebuilding(components, usingDC);
-            }
-        }
+    private static String getComponentName(final DevelopmentComponent usingDC) {
+        return usingDC.getVendor() + ":" + usingDC.getName();
     }
 
     /**
-     * Create a collection of used DCs from the public part references of the given component.
+     * Calculate development components that will need to be rebuilt (i.e. the given ones and, transitively, the DCs using them) and mark
+     * them as needing a rebuild. When {@link #buildTimeDependenciesOnly} is set, only DCs using a DC at build time are considered.
      *
-     * @param component
-     *            the component whose referenced development components are requested.
-     * @return collection of used DCs.
+     * @param componentsToRebuild
+     *            list of components that should be rebuilt.
+     * @return mapping of name to components (and components depending on them) that need to be rebuilt.
      */
-    private Collection<DevelopmentComponent> createListOfUsedDCs(final DevelopmentComponent component) {
-        final Collection<DevelopmentComponent> usedDCs = new HashSet<DevelopmentComponent>(component.getUsedDevelopmentComponents().size());
-
-        for (final PublicPartReference reference : component.getUsedDevelopmentComponents()) {
-            final DevelopmentComponent e = dcFactory.get(reference);
-
-            // only look at DCs that are in source state and need rebuilding themselves.
-            if (e != null && e.getCompartment().isSourceState()) {
-                usedDCs.add(e);
+    private Map<String, DevelopmentComponent> getComponentsToRebuild(final Collection<DevelopmentComponent> componentsToRebuild) {
+        final Map<String, DevelopmentComponent> components = new LinkedHashMap<String, DevelopmentComponent>();
+        final LinkedList<DevelopmentComponent> queue = new LinkedList<DevelopmentComponent>(componentsToRebuild);
+
+        while (!queue.isEmpty()) {
+            final DevelopmentComponent component = queue.removeFirst();
+
+            if (component.getCompartment() != null && !components.containsKey(getComponentName(component))) {
+                component.setNeedsRebuild(true);
+                components.put(getComponentName(component), component);
+                queue.addAll(buildTimeDependenciesOnly ? component.getUsingDevelopmentComponents(DependencyKind.BUILD_TIME) : component
+                    .getUsingDevelopmentComponents());
             }
         }
 
-        return usedDCs;
+        return components;
     }
 
     /**
-     * Wrapper around a development component (used for performance reasons).
+     * Dependency graph of the development components to rebuild. Nodes are represented by their index.
      *
      * @author Dirk Weigenand
      */
-    private static final class ComponentWrapper implements Comparable<ComponentWrapper> {
+    private final class Graph {
         /**
-         * Combination of vendor and component name.
+         * development components by node.
          */
-        private final String name;
+        private final List<DevelopmentComponent> components;
 
         /**
-         * the component itself.
+         * nodes used per node.
          */
-        private final DevelopmentComponent component;
+        private final int[][] usedDCs;
 
         /**
-         * components using this component.
+         * nodes using a node.
          */
-        private final Collection<DevelopmentComponent> usingDCs = new HashSet<DevelopmentComponent>();
+        private final int[][] usingDCs;
 
         /**
-         * components used by this component.
+         * number of dependencies (edges) in graph.
          */
-        private final Collection<DevelopmentComponent> usedDCs = new HashSet<DevelopmentComponent>();
+        private int dependencyCount;
 
         /**
-         * Create a new wrapper instance around the given component.
+         * Create the dependency graph for the given development components. Only dependencies between the given DCs are considered.
          *
-         * @param component
-         *            the component to wrap.
-         * @param usedDCs
-         *            components used by this DC so that they don't need to be recomputed from the public part reference.
+         * @param nodes
+         *            mapping of name to development components that need to be rebuilt.
          */
-        ComponentWrapper(final DevelopmentComponent component, final Collection<DevelopmentComponent> usedDCs) {
-            this.component = component;
-            name = component.getVendor() + ":" + component.getName();
+        Graph(final Map<String, DevelopmentComponent> nodes) {
+            components = new ArrayList<DevelopmentComponent>(nodes.values());
+            final Map<String, Integer> indexes = new LinkedHashMap<String, Integer>();
 
-            usingDCs.addAll(component.getUsingDevelopmentComponents());
-            this.usedDCs.addAll(usedDCs);
-        }
+            for (int node = 0; node < components.size(); node++) {
+                indexes.put(getComponentName(components.get(node)), node);
+            }
 
-        /**
-         * @return the usedDCs
-         */
-        public boolean hasUsedDCs() {
-            return !usedDCs.isEmpty();
+            usedDCs = new int[components.size()][];
+            final int[] usingDCCounts = new int[components.size()];
+
+            for (int node = 0; node < components.size(); node++) {
+                usedDCs[node] = createListOfUsedDCs(components.get(node), indexes);
+                dependencyCount += usedDCs[node].length;
+
+                for (final int usedDC : usedDCs[node]) {
+                    usingDCCounts[usedDC]++;
+                }
+            }
+
+            usingDCs = new int[components.size()][];
+
+            for (int node = 0; node < components.size(); node++) {
+                usingDCs[node] = new int[usingDCCounts[node]];
+                usingDCCounts[node] = 0;
+            }
+
+            for (int node = 0; node < components.size(); node++) {
+                for (final int usedDC : usedDCs[node]) {
+                    usingDCs[usedDC][usingDCCounts[usedDC]++] = node;
+                }
+            }
         }
 
         /**
+         * Create the list of nodes used by the given component from its public part references. Only DCs that are in source state and
+         * need to be rebuilt are considered.
          *
-         * @param usedDC
+         * @param component
+         *            the component whose referenced development components are requested.
+         * @param indexes
+         *            mapping of name to node of development components that need to be rebuilt.
+         * @return nodes used by the given component (without duplicates).
          */
-        public void removeUsedDC(final DevelopmentComponent usedDC) {
-            usedDCs.remove(usedDC);
+        private int[] createListOfUsedDCs(final DevelopmentComponent component, final Map<String, Integer> indexes) {
+            final Collection<Integer> nodes = new LinkedHashSet<Integer>();
+
+            for (final PublicPartReference reference : component.getUsedDevelopmentComponents()) {
+                final DevelopmentComponent usedDC = dcFactory.get(reference);
+
+                if (usedDC != null && usedDC.getCompartment() != null && usedDC.getCompartment().isSourceState()) {
+                    final Integer node = indexes.get(getComponentName(usedDC));
+
+                    if (node != null) {
+                        nodes.add(node);
+                    }
+                }
+            }
+
+            final int[] result = new int[nodes.size()];
+            int i = 0;
+
+            for (final Integer node : nodes) {
+                result[i++] = node.intValue();
+            }
+
+            return result;
         }
 
         /**
-         * @return the usedDCs
+         * @return the number of nodes
          */
-        public Collection<DevelopmentComponent> getUsingDCs() {
-            return component.getUsingDevelopmentComponents();
+        int size() {
+            return components.size();
         }
 
         /**
-         * @return the component
+         * @return the number of dependencies
          */
-        public DevelopmentComponent getComponent() {
-            return component;
+        int getDependencyCount() {
+            return dependencyCount;
         }
 
         /**
-         * @return the name
+         * @param node
+         *            node to get the development component for.
+         * @return the development component represented by the given node.
          */
-        public String getName() {
-            return name;
-        }
-
-        @Override
-        public int hashCode() {
-            return component == null ? 0 : component.hashCode();
-        }
-
-        @Override
-        public boolean equals(final Object obj) {
-            if (this == obj) {
-                return true;
-            }
-            if (obj == null) {
-                return false;
-            }
-            if (getClass() != obj.getClass()) {
-                return false;
-            }
-            final ComponentWrapper other = (ComponentWrapper)obj;
-            if (component == null) {
-                if (other.component != null) {
-                    return false;
-                }
-            }
-
-            return !component.equals(other.component);
+        DevelopmentComponent getComponent(final int node) {
+            return components.get(node);
         }
 
         /**
-         * {@inheritDoc}
+         * @param node
+         *            node to get the used nodes for.
+         * @return the nodes used by the given node.
          */
-        @Override
-        public String toString() {
-            return "Item [name=" + name + "]\n";
+        int[] getUsedDCs(final int node) {
+            return usedDCs[node];
         }
 
         /**
-         * {@inheritDoc}
+         * @param node
+         *            node to get the using nodes for.
+         * @return the nodes using the given node.
          */
-        @Override
-        public int compareTo(final ComponentWrapper o) {
-            return getName().compareTo(o.getName());
+        int[] getUsingDCs(final int node) {
+            return usingDCs[node];
         }
 
         /**
-         * @return the usedDCs
+         * Determine whether the first node uses the second one.
+         *
+         * @param node
+         *            the using node.
+         * @param usedDC
+         *            the used node.
+         * @return <code>true</code> when the first node uses the second, <code>false</code> otherwise.
          */
-        public Collection<DevelopmentComponent> getUsedDCs() {
-            return usedDCs;
+        boolean uses(final int node, final int usedDC) {
+            for (final int dc : usedDCs[node]) {
+                if (dc == usedDC) {
+                    return true;
+                }
+            }
+
+            return false;
         }
     }
 }
@@ -3,9 +3,11 @@
  */
 package org.arachna.netweaver.hudson.nwdi;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
 
 import org.arachna.netweaver.dc.types.DevelopmentComponent;
 
@@ -20,11 +22,22 @@ public class TopoSortResult {
      */
     private final Collection<DevelopmentComponent> components = new LinkedList<DevelopmentComponent>();
 
+    /**
+     * development components grouped by dependency level (waves). The development components of a wave depend only on development
+     * components of previous waves.
+     */
+    private final List<Collection<DevelopmentComponent>> waves = new ArrayList<Collection<DevelopmentComponent>>();
+
     /**
      * list of components with circular dependencies.
      */
     private final Collection<CircularDependency> circularDependencies = new LinkedList<CircularDependency>();
 
+    /**
+     * cycles (strongly connected components) of development components.
+     */
+    private final Collection<Collection<DevelopmentComponent>> cycles = new LinkedList<Collection<DevelopmentComponent>>();
+
     /**
      * Add the given development component to list of development components in build order.
      *
@@ -35,6 +48,41 @@ public class TopoSortResult {
         components.add(component);
     }
 
+    /**
+     * Add the given development component to list of development components in build order and to the given wave.
+     *
+     * @param wave
+     *            dependency level of the given development component (i.e. the length of the longest path of dependencies to a development
+     *            component not depending on any development component to be built).
+     * @param component
+     *            development component to add.
+     */
+    public void addToWave(final int wave, final DevelopmentComponent component) {
+        add(component);
+
+        while (waves.size() <= wave) {
+            waves.add(new LinkedList<DevelopmentComponent>());
+        }
+
+        waves.get(wave).add(component);
+    }
+
+    /**
+     * Get the development components in build order grouped by their dependency level (waves). Development components of a wave can be
+     * built independently of each other as soon as the development components of the previous waves have been built.
+     *
+     * @return development components grouped by their dependency level.
+     */
+    public List<Collection<DevelopmentComponent>> getWaves() {
+        final List<Collection<DevelopmentComponent>> result = new ArrayList<Collection<DevelopmentComponent>>(waves.size());
+
+        for (final Collection<DevelopmentComponent> wave : waves) {
+            result.add(Collections.unmodifiableCollection(wave));
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+
     /**
      * Get the collection of development components in build order.
      *
@@ -65,6 +113,26 @@ public class TopoSortResult {
         return Collections.unmodifiableCollection(circularDependencies);
     }
 
+    /**
+     * Add the given development components as a cycle (i.e. each of them depends transitively on all the others) to this
+     * <code>TopoSortResult</code>.
+     *
+     * @param cycle
+     *            development components forming a cycle.
+     */
+    public void addCycle(final Collection<DevelopmentComponent> cycle) {
+        cycles.add(Collections.unmodifiableCollection(cycle));
+    }
+
+    /**
+     * Get the cycles (strongly connected components) of development components contained in this <code>TopoSortResult</code>.
+     *
+     * @return cycles of development components contained in this <code>TopoSortResult</code>.
+     */
+    public Collection<Collection<DevelopmentComponent>> getCycles() {
+        return Collections.unmodifiableCollection(cycles);
+    }
+
     /**
      * A circular dependency.
      *
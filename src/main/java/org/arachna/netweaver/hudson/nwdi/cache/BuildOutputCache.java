@@ -0,0 +1,40 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi.cache;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Content addressed cache for build outputs of development components. Entries are keyed by a fingerprint of the inputs of a
+ * development component build, so outputs can be shared between jobs and workspaces building the same sources.
+ *
+ * @author Dirk Weigenand
+ */
+public interface BuildOutputCache {
+    /**
+     * Restore the outputs stored under the given key into the given directory. Existing content of the directory is replaced.
+     *
+     * @param key
+     *            fingerprint of the inputs of the build.
+     * @param target
+     *            directory to restore the outputs to.
+     * @return <code>true</code> when the outputs were restored, <code>false</code> when the cache contains no outputs for the given key.
+     * @throws IOException
+     *             when the outputs could not be restored.
+     */
+    boolean restore(String key, File target) throws IOException;
+
+    /**
+     * Store the content of the given directory under the given key. Nothing is stored when an entry for the key already exists.
+     *
+     * @param key
+     *            fingerprint of the inputs of the build.
+     * @param source
+     *            directory containing the outputs of the build.
+     * @throws IOException
+     *             when the outputs could not be stored.
+     */
+    void publish(String key, File source) throws IOException;
+}
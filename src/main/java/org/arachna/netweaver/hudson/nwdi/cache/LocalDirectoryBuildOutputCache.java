@@ -0,0 +1,280 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link BuildOutputCache} storing build outputs in a local directory (which might be shared between several jobs). When the total size
+ * of the cached outputs exceeds the configured maximum, the least recently used entries are evicted.
+ *
+ * Each entry is a directory named after its key containing the outputs (<code>data</code>) and their size in bytes (<code>size</code>).
+ * The last modification time of the entry directory is updated whenever the entry is used.
+ *
+ * @author Dirk Weigenand
+ */
+public final class LocalDirectoryBuildOutputCache implements BuildOutputCache {
+    /**
+     * name of folder containing the outputs of an entry.
+     */
+    private static final String DATA = "data";
+
+    /**
+     * name of file containing the size of the outputs of an entry.
+     */
+    private static final String SIZE = "size";
+
+    /**
+     * prefix of folders entries are prepared in before they are published.
+     */
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    /**
+     * charset used for writing sizes.
+     */
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(LocalDirectoryBuildOutputCache.class.getName());
+
+    /**
+     * lock for evicting entries (per JVM).
+     */
+    private static final Object EVICTION_LOCK = new Object();
+
+    /**
+     * root folder of the cache.
+     */
+    private final File root;
+
+    /**
+     * maximum size of all entries in bytes.
+     */
+    private final long maxSize;
+
+    /**
+     * Create a cache in the given directory.
+     *
+     * @param root
+     *            root folder of the cache (created when missing).
+     * @param maxSize
+     *            maximum size of all entries in bytes.
+     */
+    public LocalDirectoryBuildOutputCache(final File root, final long maxSize) {
+        this.root = root;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean restore(final String key, final File target) throws IOException {
+        final File entry = new File(root, key);
+        final File data = new File(entry, DATA);
+
+        if (!data.isDirectory()) {
+            return false;
+        }
+
+        delete(target.toPath());
+        copy(data.toPath(), target.toPath());
+        touch(entry);
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final String key, final File source) throws IOException {
+        final File entry = new File(root, key);
+
+        if (entry.isDirectory()) {
+            touch(entry);
+            return;
+        }
+
+        if (!root.isDirectory() && !root.mkdirs() && !root.isDirectory()) {
+            throw new IOException(String.format("Could not create cache folder %s!", root.getAbsolutePath()));
+        }
+
+        final Path temp = new File(root, TEMP_PREFIX + UUID.randomUUID().toString()).toPath();
+
+        try {
+            final long size = copy(source.toPath(), temp.resolve(DATA));
+            Files.write(temp.resolve(SIZE), Long.toString(size).getBytes(US_ASCII));
+            Files.move(temp, entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final FileAlreadyExistsException e) {
+            // published concurrently by another build
+            LOGGER.log(Level.FINE, String.format("Entry %s has been published concurrently.", key), e);
+        }
+        catch (final IOException e) {
+            if (!entry.isDirectory()) {
+                throw e;
+            }
+        }
+        finally {
+            delete(temp);
+        }
+
+        evict();
+    }
+
+    /**
+     * Evict the least recently used entries until the total size of all entries does not exceed the maximum size.
+     *
+     * @throws IOException
+     *             when an entry could not be deleted.
+     */
+    void evict() throws IOException {
+        synchronized (EVICTION_LOCK) {
+            final List<File> entries = new ArrayList<File>();
+            long totalSize = 0;
+            final File[] files = root.listFiles();
+
+            if (files == null) {
+                return;
+            }
+
+            for (final File file : files) {
+                if (file.isDirectory() && !file.getName().startsWith(TEMP_PREFIX)) {
+                    entries.add(file);
+                    totalSize += getSize(file);
+                }
+            }
+
+            Collections.sort(entries, new Comparator<File>() {
+                @Override
+                public int compare(final File first, final File second) {
+                    return Long.compare(first.lastModified(), second.lastModified());
+                }
+            });
+
+            for (final File entry : entries) {
+                if (totalSize <= maxSize) {
+                    break;
+                }
+
+                totalSize -= getSize(entry);
+                delete(entry.toPath());
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the outputs of the given entry.
+     *
+     * @param entry
+     *            entry folder.
+     * @return size of the outputs of the given entry in bytes (<code>0</code> when the size is unknown).
+     */
+    private long getSize(final File entry) {
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(new File(entry, SIZE).toPath()), US_ASCII).trim());
+        }
+        catch (final IOException e) {
+            return 0;
+        }
+        catch (final NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Mark the given entry as recently used.
+     *
+     * @param entry
+     *            entry folder.
+     */
+    private void touch(final File entry) {
+        if (!entry.setLastModified(System.currentTimeMillis())) {
+            LOGGER.log(Level.FINE, String.format("Could not update last modification time of %s.", entry.getAbsolutePath()));
+        }
+    }
+
+    /**
+     * Copy the given directory tree.
+     *
+     * @param source
+     *            directory to copy.
+     * @param target
+     *            directory to copy to.
+     * @return number of bytes copied.
+     * @throws IOException
+     *             when copying fails.
+     */
+    private long copy(final Path source, final Path target) throws IOException {
+        final long[] size = new long[1];
+
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING);
+                size[0] += attrs.size();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return size[0];
+    }
+
+    /**
+     * Delete the given file or directory tree (if it exists).
+     *
+     * @param path
+     *            file or directory to delete.
+     * @throws IOException
+     *             when deleting fails.
+     */
+    private void delete(final Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path dir, final IOException e) throws IOException {
+                if (e != null) {
+                    throw e;
+                }
+
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Caches for build outputs of development components shared between jobs and workspaces.
+ */
+package org.arachna.netweaver.hudson.nwdi.cache;
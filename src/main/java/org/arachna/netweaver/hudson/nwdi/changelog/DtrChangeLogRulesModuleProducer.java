@@ -9,7 +9,7 @@ import org.apache.commons.digester3.binder.AbstractRulesModule;
 import org.apache.commons.digester3.binder.RulesModule;
 import org.arachna.netweaver.hudson.nwdi.changelog.DtrChangeLogEntry.Action;
 import org.arachna.netweaver.hudson.nwdi.changelog.DtrChangeLogEntry.Item;
-import org.arachna.xml.RulesModuleProducer;
+import org.arachna.xml.StatelessRulesModuleProducer;
 import org.xml.sax.Attributes;
 
 /**
@@ -17,7 +17,7 @@ import org.xml.sax.Attributes;
  * 
  * @author Dirk Weigenand
  */
-public class DtrChangeLogRulesModuleProducer implements RulesModuleProducer {
+public class DtrChangeLogRulesModuleProducer implements StatelessRulesModuleProducer {
     /**
      * method name for adding items.
      */
@@ -0,0 +1,243 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi.dcupdater;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+
+/**
+ * Size, modification time and content hash of the configuration files (<code>.dcdef</code>, public part definitions, type specific
+ * configuration) of development components recorded when their metadata was read.
+ *
+ * A development component whose configuration files did not change since they were recorded need not be read again. Size and
+ * modification time are compared first, the content hash is only calculated when they differ (e.g. after syncing a DC again).
+ *
+ * @author Dirk Weigenand
+ */
+public final class ConfigurationFileStamps {
+    /**
+     * stamps of configuration files (relative to the DC base location) of development components mapped by 'vendor:name'.
+     */
+    private final Map<String, SortedMap<String, Stamp>> stamps = new ConcurrentHashMap<String, SortedMap<String, Stamp>>();
+
+    /**
+     * Determine whether the given configuration files of the given development component are the ones recorded for it and did not change
+     * since.
+     *
+     * @param component
+     *            development component to examine.
+     * @param baseLocation
+     *            base location of the development component.
+     * @param configFiles
+     *            paths of the existing configuration files of the development component relative to its base location.
+     * @return <code>true</code> when the configuration files did not change since they were recorded, <code>false</code> otherwise.
+     * @throws IOException
+     *             when calculating the content hash of a configuration file fails.
+     */
+    boolean isUnchanged(final DevelopmentComponent component, final File baseLocation, final Collection<String> configFiles)
+        throws IOException {
+        final SortedMap<String, Stamp> recorded = stamps.get(getKey(component));
+
+        if (recorded == null || !recorded.keySet().equals(new TreeSet<String>(configFiles))) {
+            return false;
+        }
+
+        final SortedMap<String, Stamp> current = new TreeMap<String, Stamp>(recorded);
+
+        for (final Map.Entry<String, Stamp> entry : recorded.entrySet()) {
+            final File configFile = new File(baseLocation, entry.getKey());
+            final Stamp stamp = entry.getValue();
+
+            if (configFile.length() != stamp.size) {
+                return false;
+            }
+
+            if (configFile.lastModified() != stamp.lastModified) {
+                final String hash = hash(configFile);
+
+                if (!hash.equals(stamp.hash)) {
+                    return false;
+                }
+
+                current.put(entry.getKey(), new Stamp(configFile.length(), configFile.lastModified(), hash));
+            }
+        }
+
+        stamps.put(getKey(component), current);
+
+        return true;
+    }
+
+    /**
+     * Record the given configuration files of the given development component.
+     *
+     * @param component
+     *            development component whose metadata was read.
+     * @param baseLocation
+     *            base location of the development component.
+     * @param configFiles
+     *            paths of the existing configuration files of the development component relative to its base location.
+     * @throws IOException
+     *             when calculating the content hash of a configuration file fails.
+     */
+    void record(final DevelopmentComponent component, final File baseLocation, final Collection<String> configFiles)
+        throws IOException {
+        final SortedMap<String, Stamp> current = new TreeMap<String, Stamp>();
+
+        for (final String path : configFiles) {
+            final File configFile = new File(baseLocation, path);
+            current.put(path, new Stamp(configFile.length(), configFile.lastModified(), hash(configFile)));
+        }
+
+        stamps.put(getKey(component), current);
+    }
+
+    /**
+     * Keep only the configuration files recorded for the given development components.
+     *
+     * @param components
+     *            development components whose recorded configuration files shall be kept.
+     */
+    public void retain(final Collection<DevelopmentComponent> components) {
+        final Collection<String> keys = new TreeSet<String>();
+
+        for (final DevelopmentComponent component : components) {
+            keys.add(getKey(component));
+        }
+
+        stamps.keySet().retainAll(keys);
+    }
+
+    /**
+     * Write the recorded configuration files to the given stream.
+     *
+     * @param out
+     *            stream to write to.
+     * @throws IOException
+     *             when writing fails.
+     */
+    public void write(final DataOutputStream out) throws IOException {
+        final Map<String, SortedMap<String, Stamp>> snapshot = new TreeMap<String, SortedMap<String, Stamp>>(stamps);
+        out.writeInt(snapshot.size());
+
+        for (final Map.Entry<String, SortedMap<String, Stamp>> component : snapshot.entrySet()) {
+            out.writeUTF(component.getKey());
+            out.writeInt(component.getValue().size());
+
+            for (final Map.Entry<String, Stamp> configFile : component.getValue().entrySet()) {
+                out.writeUTF(configFile.getKey());
+                out.writeLong(configFile.getValue().size);
+                out.writeLong(configFile.getValue().lastModified);
+                out.writeUTF(configFile.getValue().hash);
+            }
+        }
+    }
+
+    /**
+     * Read configuration files recorded by {@link #write(DataOutputStream)} from the given stream (replacing the ones recorded so far).
+     *
+     * @param in
+     *            stream to read from.
+     * @throws IOException
+     *             when reading fails.
+     */
+    public void read(final DataInputStream in) throws IOException {
+        stamps.clear();
+        final int componentCount = in.readInt();
+
+        for (int i = 0; i < componentCount; i++) {
+            final String key = in.readUTF();
+            final int fileCount = in.readInt();
+            final SortedMap<String, Stamp> configFiles = new TreeMap<String, Stamp>();
+
+            for (int j = 0; j < fileCount; j++) {
+                configFiles.put(in.readUTF(), new Stamp(in.readLong(), in.readLong(), in.readUTF()));
+            }
+
+            stamps.put(key, configFiles);
+        }
+    }
+
+    /**
+     * Calculate the content hash of the given file.
+     *
+     * @param file
+     *            file to hash.
+     * @return SHA-1 hash of the content of the given file.
+     * @throws IOException
+     *             when reading the file fails.
+     */
+    private String hash(final File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+
+        try {
+            return DigestUtils.sha1Hex(in);
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Returns the key for the given development component.
+     *
+     * @param component
+     *            development component.
+     * @return key for the given development component.
+     */
+    private String getKey(final DevelopmentComponent component) {
+        return String.format("%s:%s", component.getVendor(), component.getName());
+    }
+
+    /**
+     * Size, modification time and content hash of a configuration file.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class Stamp {
+        /**
+         * size of file.
+         */
+        private final long size;
+
+        /**
+         * modification time of file.
+         */
+        private final long lastModified;
+
+        /**
+         * SHA-1 hash of file content.
+         */
+        private final String hash;
+
+        /**
+         * Create a stamp of a configuration file.
+         *
+         * @param size
+         *            size of file.
+         * @param lastModified
+         *            modification time of file.
+         * @param hash
+         *            SHA-1 hash of file content.
+         */
+        Stamp(final long size, final long lastModified, final String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
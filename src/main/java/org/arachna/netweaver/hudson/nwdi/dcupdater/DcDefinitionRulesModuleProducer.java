@@ -1,16 +1,21 @@
 package org.arachna.netweaver.hudson.nwdi.dcupdater;
 
+import javax.xml.stream.XMLStreamReader;
+
 import org.apache.commons.digester3.binder.AbstractRulesModule;
 import org.apache.commons.digester3.binder.RulesModule;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
 import org.arachna.netweaver.dc.types.PublicPartReference;
-import org.arachna.xml.RulesModuleProducer;
+import org.arachna.xml.StatelessRulesModuleProducer;
+import org.arachna.xml.StaxReader;
+import org.arachna.xml.StaxReaderProducer;
 
 /**
  * Update a given development component from its corresponding '.dcdef' file.
  * 
  * @author Dirk Weigenand
  */
-class DcDefinitionRulesModuleProducer implements RulesModuleProducer {
+class DcDefinitionRulesModuleProducer implements StatelessRulesModuleProducer, StaxReaderProducer<DevelopmentComponent> {
     /**
      * Create a rules module for parsing a <code>.dcdef</code> development
      * component configuration file.
@@ -63,4 +68,180 @@ class DcDefinitionRulesModuleProducer implements RulesModuleProducer {
             }
         };
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StaxReader<DevelopmentComponent> createStaxReader() {
+        return new DcDefinitionStaxReader();
+    }
+
+    /**
+     * StAX reader updating a development component from its <code>.dcdef</code> file. Equivalent to the rules module of the enclosing
+     * producer.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class DcDefinitionStaxReader extends StaxReader<DevelopmentComponent> {
+        /**
+         * prefix of elements describing the build plugin.
+         */
+        private static final String BUILD_PLUGIN = "development-component/build-plugin";
+
+        /**
+         * prefix of elements describing a dependency.
+         */
+        private static final String DEPENDENCY = "development-component/dependencies/dependency";
+
+        /**
+         * type of component read from <code>component-type/type</code>.
+         */
+        private String type;
+
+        /**
+         * sub type of component read from <code>component-type/sub-type</code>.
+         */
+        private String subType;
+
+        /**
+         * vendor of the referenced DC of the current dependency or build plugin.
+         */
+        private String vendor;
+
+        /**
+         * name of the referenced DC of the current dependency or build plugin.
+         */
+        private String name;
+
+        /**
+         * name of the referenced public part of the current dependency or build plugin.
+         */
+        private String publicPart;
+
+        /**
+         * whether the current dependency is needed at build time.
+         */
+        private boolean atBuildTime;
+
+        /**
+         * whether the current dependency is needed at run time.
+         */
+        private boolean atRunTime;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void startElement(final String path, final XMLStreamReader reader) {
+            if ("development-component/component-type".equals(path)) {
+                type = null;
+                subType = null;
+            }
+            else if (BUILD_PLUGIN.equals(path) || DEPENDENCY.equals(path)) {
+                vendor = null;
+                name = null;
+                publicPart = null;
+                atBuildTime = false;
+                atRunTime = false;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void endElement(final String path, final String text) {
+            final DevelopmentComponent component = getResult();
+
+            if ("development-component/name".equals(path)) {
+                component.setName(text.trim());
+            }
+            else if ("development-component/vendor".equals(path)) {
+                component.setVendor(text.trim());
+            }
+            else if ("development-component/caption".equals(path)) {
+                component.setCaption(text.trim());
+            }
+            else if ("development-component/description".equals(path)) {
+                component.setDescription(text.trim());
+            }
+            else if ("development-component/component-type/type".equals(path)) {
+                type = text.trim();
+            }
+            else if ("development-component/component-type/sub-type".equals(path)) {
+                subType = text.trim();
+            }
+            else if ("development-component/component-type".equals(path)) {
+                component.setType(type, subType);
+            }
+            else if ("development-component/folders/package-folder".equals(path)) {
+                component.addSourceFolder(text.trim());
+            }
+            else if ("development-component/folders/source-folder".equals(path)) {
+                component.addResourceFolder(text.trim());
+            }
+            else if (BUILD_PLUGIN.equals(path)) {
+                component.setBuildPlugin(createReference());
+            }
+            else if (DEPENDENCY.equals(path)) {
+                component.add(createReference());
+            }
+            else if (path.startsWith(BUILD_PLUGIN + '/')) {
+                endReferenceElement(path.substring(BUILD_PLUGIN.length()), text.trim());
+            }
+            else if (path.startsWith(DEPENDENCY + '/')) {
+                endReferenceElement(path.substring(DEPENDENCY.length()), text.trim());
+            }
+        }
+
+        /**
+         * Handle the end of an element describing a dependency or the build plugin.
+         *
+         * @param path
+         *            path of element relative to the dependency or build plugin element (starting with '/').
+         * @param text
+         *            trimmed body text of element.
+         */
+        private void endReferenceElement(final String path, final String text) {
+            if ("/dc-ref/vendor".equals(path)) {
+                vendor = text;
+            }
+            else if ("/dc-ref/name".equals(path)) {
+                name = text;
+            }
+            else if ("/pp-ref".equals(path)) {
+                publicPart = text;
+            }
+            else if ("/at-build-time".equals(path)) {
+                atBuildTime = true;
+            }
+            else if ("/at-run-time".equals(path)) {
+                atRunTime = true;
+            }
+        }
+
+        /**
+         * Create a reference to a public part from the elements read for the current dependency or build plugin.
+         *
+         * @return reference to a public part.
+         */
+        private PublicPartReference createReference() {
+            final PublicPartReference reference = new PublicPartReference(vendor, name);
+
+            if (publicPart != null) {
+                reference.setName(publicPart);
+            }
+
+            if (atBuildTime) {
+                reference.setAtBuildTime();
+            }
+
+            if (atRunTime) {
+                reference.setAtRunTime();
+            }
+
+            return reference;
+        }
+    }
 }
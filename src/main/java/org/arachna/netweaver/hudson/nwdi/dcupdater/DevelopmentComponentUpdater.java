@@ -6,16 +6,21 @@ package org.arachna.netweaver.hudson.nwdi.dcupdater;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.arachna.ant.AntHelper;
 import org.arachna.netweaver.dc.types.DevelopmentComponent;
 import org.arachna.netweaver.dc.types.DevelopmentComponentType;
+import org.arachna.netweaver.dc.types.PublicPartReference;
+import org.arachna.netweaver.hudson.util.ParallelDevelopmentComponentProcessor;
 import org.arachna.xml.DigesterHelper;
 import org.arachna.xml.RulesModuleProducer;
 
@@ -31,6 +36,17 @@ public final class DevelopmentComponentUpdater {
      */
     private final AntHelper antHelper;
 
+    /**
+     * configuration files recorded when the metadata of development components was read (<code>null</code> to read the metadata of all
+     * development components).
+     */
+    private final ConfigurationFileStamps stamps;
+
+    /**
+     * maximum number of threads used for reading the metadata of development components.
+     */
+    private final int parallelism;
+
     /**
      * Create an instance of <code>DevelopmentComponentUpdater</code>.
      *
@@ -38,31 +54,175 @@ public final class DevelopmentComponentUpdater {
      *            Helper class for gathering information development components.
      */
     public DevelopmentComponentUpdater(final AntHelper antHelper) {
+        this(antHelper, null);
+    }
+
+    /**
+     * Create an instance of <code>DevelopmentComponentUpdater</code> that reads the metadata only of development components whose
+     * configuration files changed since they were recorded in the given stamps.
+     *
+     * @param antHelper
+     *            Helper class for gathering information development components.
+     * @param stamps
+     *            configuration files recorded when the metadata of development components was read.
+     */
+    public DevelopmentComponentUpdater(final AntHelper antHelper, final ConfigurationFileStamps stamps) {
+        this(antHelper, stamps, 1);
+    }
+
+    /**
+     * Create an instance of <code>DevelopmentComponentUpdater</code> that reads the metadata only of development components whose
+     * configuration files changed since they were recorded in the given stamps using the given number of threads.
+     *
+     * @param antHelper
+     *            Helper class for gathering information development components.
+     * @param stamps
+     *            configuration files recorded when the metadata of development components was read.
+     * @param parallelism
+     *            maximum number of threads used for reading the metadata of development components.
+     */
+    public DevelopmentComponentUpdater(final AntHelper antHelper, final ConfigurationFileStamps stamps, final int parallelism) {
         this.antHelper = antHelper;
+        this.stamps = stamps;
+        this.parallelism = parallelism;
     }
 
     /**
      * Loops through all components and updates information read from dc tool with information from file system (i.e. configuration data of
      * DCs: .dcdef, Project.wdproperties, etc.)
      *
+     * The development components are independent of each other and are updated concurrently when more than one thread shall be used.
+     *
      * @param components
      *            collection of development components to update.
      */
     public void execute(final Collection<DevelopmentComponent> components) {
-        for (final DevelopmentComponent component : components) {
-            DcPropertiesReaderDescriptor.All.update(antHelper, component);
+        new ParallelDevelopmentComponentProcessor(new ParallelDevelopmentComponentProcessor.Processor() {
+            @Override
+            public void process(final DevelopmentComponent component) {
+                update(component);
+            }
+        }, parallelism).execute(components);
+    }
+
+    /**
+     * Update the given development component with the information from its configuration files, unless they did not change since they
+     * were recorded.
+     *
+     * @param component
+     *            development component to update.
+     */
+    private void update(final DevelopmentComponent component) {
+        final File baseLocation = new File(antHelper.getBaseLocation(component));
+        final Collection<String> configFiles = getConfigFiles(baseLocation);
+
+        if (isUnchanged(component, baseLocation, configFiles)) {
+            return;
+        }
+
+        reset(component);
+        DcPropertiesReaderDescriptor.All.update(antHelper, component);
+
+        for (final DcPropertiesReaderDescriptor descriptor : DcPropertiesReaderDescriptor.values()) {
+            if (descriptor.dcType != null && descriptor.dcType.equals(component.getType())) {
+                descriptor.update(antHelper, component);
+                break;
+            }
+        }
+
+        readPublicParts(component);
+        record(component, baseLocation, configFiles);
+    }
+
+    /**
+     * Determine the existing configuration files of a development component, i.e. <code>.dcdef</code>, the type specific configuration
+     * files and the public part definitions.
+     *
+     * @param baseLocation
+     *            base location of development component.
+     * @return paths of the existing configuration files relative to the base location.
+     */
+    private Collection<String> getConfigFiles(final File baseLocation) {
+        final Collection<String> configFiles = new TreeSet<String>();
+
+        for (final DcPropertiesReaderDescriptor descriptor : DcPropertiesReaderDescriptor.values()) {
+            if (new File(baseLocation, descriptor.configFile).isFile()) {
+                configFiles.add(descriptor.configFile);
+            }
+        }
+
+        final File[] publicParts = new File(baseLocation, "def").listFiles();
 
-            for (final DcPropertiesReaderDescriptor descriptor : DcPropertiesReaderDescriptor.values()) {
-                if (descriptor.dcType != null && descriptor.dcType.equals(component.getType())) {
-                    descriptor.update(antHelper, component);
-                    break;
+        if (publicParts != null) {
+            for (final File publicPart : publicParts) {
+                if (publicPart.isFile() && publicPart.getName().endsWith(".pp")) {
+                    configFiles.add("def/" + publicPart.getName());
                 }
             }
+        }
+
+        return configFiles;
+    }
+
+    /**
+     * Determine whether the configuration files of the given development component did not change since its metadata was read.
+     *
+     * @param component
+     *            development component to examine.
+     * @param baseLocation
+     *            base location of development component.
+     * @param configFiles
+     *            existing configuration files of development component.
+     * @return <code>true</code> when the metadata of the development component need not be read again, <code>false</code> otherwise.
+     */
+    private boolean isUnchanged(final DevelopmentComponent component, final File baseLocation, final Collection<String> configFiles) {
+        try {
+            return stamps != null && stamps.isUnchanged(component, baseLocation, configFiles);
+        }
+        catch (final IOException e) {
+            Logger.getLogger(getClass().getName()).log(Level.WARNING,
+                String.format("Error checking configuration files of DC %s!", component.getNormalizedName("~")), e);
 
-            readPublicParts(component);
+            return false;
         }
     }
 
+    /**
+     * Record the configuration files of the given development component after reading its metadata.
+     *
+     * @param component
+     *            development component whose metadata was read.
+     * @param baseLocation
+     *            base location of development component.
+     * @param configFiles
+     *            existing configuration files of development component.
+     */
+    private void record(final DevelopmentComponent component, final File baseLocation, final Collection<String> configFiles) {
+        if (stamps != null) {
+            try {
+                stamps.record(component, baseLocation, configFiles);
+            }
+            catch (final IOException e) {
+                Logger.getLogger(getClass().getName()).log(Level.WARNING,
+                    String.format("Error recording configuration files of DC %s!", component.getNormalizedName("~")), e);
+            }
+        }
+    }
+
+    /**
+     * Remove the information read from the configuration files of the given development component, so that information removed from
+     * those files (or carried over from a previous build) does not linger.
+     *
+     * @param component
+     *            development component to reset.
+     */
+    private void reset(final DevelopmentComponent component) {
+        component.setUsedComponents(Collections.<PublicPartReference> emptyList());
+        component.setBuildPlugin(null);
+        component.setSourceFolders(null);
+        component.setResourceFolders(null);
+    }
+
     /**
      * Descriptor for configuration files to update a development component from.
      *
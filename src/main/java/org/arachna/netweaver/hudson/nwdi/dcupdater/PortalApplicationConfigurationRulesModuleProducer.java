@@ -7,11 +7,16 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 
+import javax.xml.stream.XMLStreamReader;
+
 import org.apache.commons.digester3.AbstractObjectCreationFactory;
 import org.apache.commons.digester3.binder.AbstractRulesModule;
 import org.apache.commons.digester3.binder.RulesModule;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
 import org.arachna.netweaver.dc.types.PublicPartReference;
-import org.arachna.xml.RulesModuleProducer;
+import org.arachna.xml.StatelessRulesModuleProducer;
+import org.arachna.xml.StaxReader;
+import org.arachna.xml.StaxReaderProducer;
 import org.xml.sax.Attributes;
 
 /**
@@ -20,7 +25,8 @@ import org.xml.sax.Attributes;
  * 
  * @author Dirk Weigenand
  */
-final class PortalApplicationConfigurationRulesModuleProducer implements RulesModuleProducer {
+final class PortalApplicationConfigurationRulesModuleProducer implements StatelessRulesModuleProducer,
+    StaxReaderProducer<DevelopmentComponent> {
     /**
      * constant for attribute 'value'.
      */
@@ -59,6 +65,63 @@ final class PortalApplicationConfigurationRulesModuleProducer implements RulesMo
         };
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StaxReader<DevelopmentComponent> createStaxReader() {
+        return new PortalApplicationConfigurationStaxReader();
+    }
+
+    /**
+     * Create {@link PublicPartReference} objects from the value of an application property when it describes
+     * <code>SharingReference</code>s.
+     * 
+     * @param factory
+     *            factory for {@link PublicPartReference} objects.
+     * @param name
+     *            value of the property name attribute.
+     * @param value
+     *            value of the property value attribute.
+     * @return references to the shared applications or an empty collection when the property does not describe sharing references.
+     */
+    private static Collection<PublicPartReference> createSharingReferences(final PublicPartReferenceFactory factory, final String name,
+        final String value) {
+        if (hasSharingReferenceAttribute(name)) {
+            final Collection<PublicPartReference> references = new LinkedList<PublicPartReference>();
+
+            for (final String sharingReference : value.split(",\\s*")) {
+                final PublicPartReference publicPartReference = factory.create(SharingReferencePrefix.getReference(sharingReference));
+                publicPartReference.setAtRunTime();
+
+                references.add(publicPartReference);
+            }
+
+            return references;
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Determine whether the property name attribute describes a
+     * <code>SharingReference</code> or <code>PrivateSharingReference</code>
+     * .
+     * 
+     * @param nameAttribute
+     *            value of the name attribute of an application property config element.
+     * @return <code>true</code> when the property name attribute has the
+     *         value {@see #PortalApplicationConfigurationReader.
+     *         PRIVATE_SHARING_REFERENCE_ATTRIBUTE_VALUE} or {@see
+     *         #PortalApplicationConfigurationReader.
+     *         SHARING_REFERENCE_ATTRIBUTE_VALUE}
+     */
+    private static boolean hasSharingReferenceAttribute(final String nameAttribute) {
+        return nameAttribute != null
+            && (SHARING_REFERENCE_ATTRIBUTE_VALUE.equals(nameAttribute) || PRIVATE_SHARING_REFERENCE_ATTRIBUTE_VALUE
+                .equals(nameAttribute));
+    }
+
     /**
      * Factory for creating {@link PublicPartReference} objects from a
      * <code>ProjectProperties.wdproperties</code> file.
@@ -80,42 +143,30 @@ final class PortalApplicationConfigurationRulesModuleProducer implements RulesMo
          */
         @Override
         public Collection<PublicPartReference> createObject(final Attributes attributes) throws Exception {
-            if (hasSharingReferenceAttribute(attributes)) {
-                final Collection<PublicPartReference> references = new LinkedList<PublicPartReference>();
-
-                for (final String sharingReference : attributes.getValue(VALUE).split(",\\s*")) {
-                    final PublicPartReference publicPartReference =
-                        factory.create(SharingReferencePrefix.getReference(sharingReference));
-                    publicPartReference.setAtRunTime();
-
-                    references.add(publicPartReference);
-                }
-
-                return references;
-            }
-
-            return Collections.emptyList();
+            return createSharingReferences(factory, attributes.getValue(NAME), attributes.getValue(VALUE));
         }
+    }
 
+    /**
+     * StAX reader for <code>portalapp.xml</code> configuration files. Equivalent to the rules module of the enclosing producer.
+     * 
+     * @author Dirk Weigenand
+     */
+    private static final class PortalApplicationConfigurationStaxReader extends StaxReader<DevelopmentComponent> {
         /**
-         * Determine whether the property name attribute describes a
-         * <code>SharingReference</code> or <code>PrivateSharingReference</code>
-         * .
-         * 
-         * @param attributes
-         *            SAX attributes of an application property config element.
-         * @return <code>true</code> when the property name attribute has the
-         *         value {@see #PortalApplicationConfigurationReader.
-         *         PRIVATE_SHARING_REFERENCE_ATTRIBUTE_VALUE} or {@see
-         *         #PortalApplicationConfigurationReader.
-         *         SHARING_REFERENCE_ATTRIBUTE_VALUE}
+         * Factory for {@link PublicPartReference} objects.
          */
-        private boolean hasSharingReferenceAttribute(final Attributes attributes) {
-            final String nameAttribute = attributes.getValue(NAME);
+        private final PublicPartReferenceFactory factory = new PublicPartReferenceFactory();
 
-            return nameAttribute != null
-                && (SHARING_REFERENCE_ATTRIBUTE_VALUE.equals(nameAttribute) || PRIVATE_SHARING_REFERENCE_ATTRIBUTE_VALUE
-                    .equals(nameAttribute));
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void startElement(final String path, final XMLStreamReader reader) {
+            if ("application/application-config/property".equals(path)) {
+                getResult().addAll(
+                    createSharingReferences(factory, getAttributeValue(reader, NAME), getAttributeValue(reader, VALUE)));
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -3,19 +3,23 @@
  */
 package org.arachna.netweaver.hudson.nwdi.dcupdater;
 
+import javax.xml.stream.XMLStreamReader;
+
 import org.apache.commons.digester3.Rule;
 import org.apache.commons.digester3.binder.AbstractRulesModule;
 import org.apache.commons.digester3.binder.RulesModule;
 import org.arachna.netweaver.dc.types.PublicPart;
 import org.arachna.netweaver.dc.types.PublicPartType;
-import org.arachna.xml.RulesModuleProducer;
+import org.arachna.xml.StatelessRulesModuleProducer;
+import org.arachna.xml.StaxReader;
+import org.arachna.xml.StaxReaderProducer;
 
 /**
  * Reader for PublicPart descriptions.
  * 
  * @author Dirk Weigenand
  */
-final class PublicPartRulesModuleProducer implements RulesModuleProducer {
+final class PublicPartRulesModuleProducer implements StatelessRulesModuleProducer, StaxReaderProducer<PublicPart> {
     /**
      * Rule to parse the purpose of a public part, i.e. its type.
      * 
@@ -52,4 +56,48 @@ final class PublicPartRulesModuleProducer implements RulesModuleProducer {
             }
         };
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StaxReader<PublicPart> createStaxReader() {
+        return new PublicPartStaxReader();
+    }
+
+    /**
+     * StAX reader for public part descriptions. Equivalent to the rules module of the enclosing producer.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class PublicPartStaxReader extends StaxReader<PublicPart> {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void startElement(final String path, final XMLStreamReader reader) {
+            if ("public-part".equals(path)) {
+                setResult(new PublicPart());
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void endElement(final String path, final String text) {
+            if ("public-part/name".equals(path)) {
+                getResult().setPublicPart(text.trim());
+            }
+            else if ("public-part/caption".equals(path)) {
+                getResult().setCaption(text.trim());
+            }
+            else if ("public-part/description".equals(path)) {
+                getResult().setDescription(text.trim());
+            }
+            else if ("public-part/purpose".equals(path)) {
+                getResult().setType(PublicPartType.fromString(text));
+            }
+        }
+    }
 }
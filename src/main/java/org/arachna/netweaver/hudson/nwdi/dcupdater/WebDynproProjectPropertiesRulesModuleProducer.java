@@ -3,11 +3,16 @@
  */
 package org.arachna.netweaver.hudson.nwdi.dcupdater;
 
+import javax.xml.stream.XMLStreamReader;
+
 import org.apache.commons.digester3.AbstractObjectCreationFactory;
 import org.apache.commons.digester3.binder.AbstractRulesModule;
 import org.apache.commons.digester3.binder.RulesModule;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
 import org.arachna.netweaver.dc.types.PublicPartReference;
-import org.arachna.xml.RulesModuleProducer;
+import org.arachna.xml.StatelessRulesModuleProducer;
+import org.arachna.xml.StaxReader;
+import org.arachna.xml.StaxReaderProducer;
 import org.xml.sax.Attributes;
 
 /**
@@ -15,7 +20,8 @@ import org.xml.sax.Attributes;
  * 
  * @author Dirk Weigenand
  */
-final class WebDynproProjectPropertiesRulesModuleProducer implements RulesModuleProducer {
+final class WebDynproProjectPropertiesRulesModuleProducer implements StatelessRulesModuleProducer,
+    StaxReaderProducer<DevelopmentComponent> {
     /**
      * prefix used to reference portal applications/services.
      */
@@ -83,4 +89,36 @@ final class WebDynproProjectPropertiesRulesModuleProducer implements RulesModule
             return factory.create(attributes.getValue(LIBRARY_NAME).replace(PORTAL_PREFIX, ""));
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StaxReader<DevelopmentComponent> createStaxReader() {
+        return new ProjectPropertiesStaxReader();
+    }
+
+    /**
+     * StAX reader for <code>ProjectProperties.wdproperties</code> configuration files. Equivalent to the rules module of the enclosing
+     * producer.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class ProjectPropertiesStaxReader extends StaxReader<DevelopmentComponent> {
+        /**
+         * Factory for {@link PublicPartReference} objects.
+         */
+        private final PublicPartReferenceFactory factory = new PublicPartReferenceFactory();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void startElement(final String path, final XMLStreamReader reader) {
+            if ("ProjectProperties/ProjectProperties.LibraryReferences/LibraryReference".equals(path)
+                || "ProjectProperties/ProjectProperties.SharingReferences/LibraryReference".equals(path)) {
+                getResult().add(factory.create(getAttributeValue(reader, LIBRARY_NAME).replace(PORTAL_PREFIX, "")));
+            }
+        }
+    }
 }
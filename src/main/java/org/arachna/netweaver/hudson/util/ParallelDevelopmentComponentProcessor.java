@@ -0,0 +1,160 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+
+/**
+ * Process independent development components in parallel using a bounded {@link ForkJoinPool}.
+ *
+ * The development components are split recursively into slices of at most {@link #THRESHOLD} DCs that are processed by the threads of
+ * the pool. Processing falls back to the calling thread when only one thread shall be used or there are too few DCs to split.
+ *
+ * @author Dirk Weigenand
+ */
+public final class ParallelDevelopmentComponentProcessor {
+    /**
+     * maximum number of development components processed sequentially by one task.
+     */
+    private static final int THRESHOLD = 8;
+
+    /**
+     * the processing applied to each development component.
+     */
+    private final Processor processor;
+
+    /**
+     * maximum number of threads used for processing.
+     */
+    private final int parallelism;
+
+    /**
+     * Create a processor applying the given processing to development components using at most the given number of threads.
+     *
+     * @param processor
+     *            the processing applied to each development component. Must be thread safe.
+     * @param parallelism
+     *            maximum number of threads used for processing (values less than 2 mean sequential processing).
+     */
+    public ParallelDevelopmentComponentProcessor(final Processor processor, final int parallelism) {
+        this.processor = processor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Process the given development components.
+     *
+     * @param components
+     *            development components to process.
+     */
+    public void execute(final Collection<DevelopmentComponent> components) {
+        final List<DevelopmentComponent> dcs = new ArrayList<DevelopmentComponent>(components);
+
+        if (parallelism < 2 || dcs.size() <= THRESHOLD) {
+            for (final DevelopmentComponent component : dcs) {
+                processor.process(component);
+            }
+
+            return;
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            pool.invoke(new ProcessingTask(dcs, 0, dcs.size()));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the default number of threads used for processing development components, i.e. the number of available processors.
+     *
+     * @return the default number of threads used for processing development components.
+     */
+    public static int getDefaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Processing applied to each development component.
+     *
+     * @author Dirk Weigenand
+     */
+    public interface Processor {
+        /**
+         * Process the given development component.
+         *
+         * @param component
+         *            development component to process.
+         */
+        void process(DevelopmentComponent component);
+    }
+
+    /**
+     * Task processing a slice of the development components.
+     *
+     * @author Dirk Weigenand
+     */
+    private final class ProcessingTask extends RecursiveAction {
+        /**
+         * serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * development components to process.
+         */
+        private final List<DevelopmentComponent> components;
+
+        /**
+         * index of first development component of slice.
+         */
+        private final int from;
+
+        /**
+         * index after last development component of slice.
+         */
+        private final int to;
+
+        /**
+         * Create a task processing the given slice of the given development components.
+         *
+         * @param components
+         *            development components to process.
+         * @param from
+         *            index of first development component of slice.
+         * @param to
+         *            index after last development component of slice.
+         */
+        ProcessingTask(final List<DevelopmentComponent> components, final int from, final int to) {
+            this.components = components;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    processor.process(components.get(i));
+                }
+            }
+            else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new ProcessingTask(components, from, middle), new ProcessingTask(components, middle, to));
+            }
+        }
+    }
+}
@@ -10,7 +10,6 @@ import hudson.util.ArgumentListBuilder;
 import hudson.util.ForkOutputStream;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -96,32 +95,93 @@ public abstract class AbstractDIToolExecutor {
      *             might be thrown be the {@link ProcStarter} used to execute the DC tool commands.
      */
     public DIToolCommandExecutionResult execute(final DIToolCommandBuilder commandBuilder) throws IOException {
-        final List<String> commands = commandBuilder.execute();
-        final ByteArrayOutputStream result = new ByteArrayOutputStream();
-        int exitCode = 0;
-
-        if (!commands.isEmpty()) {
-            final ProcStarter starter = launcher.launch();
-            starter.pwd(workspace);
-            starter.envs(createEnvironment());
-            final ArgumentListBuilder toolCommand = createToolCommand();
-            starter.cmds(toolCommand);
-            starter.stdin(createCommandInputStream(commands));
+        return execute(commandBuilder, new DIToolOutputStream(true));
+    }
 
-            final ForkOutputStream tee = new ForkOutputStream(launcher.getListener().getLogger(), result);
-            starter.stdout(tee);
+    /**
+     * Execute dc tool with the given {@link DIToolCommandBuilder} feeding its output line by line to the given consumers while it is
+     * running.
+     *
+     * @param commandBuilder
+     *            builder for dc tool commands
+     * @param retainOutput
+     *            whether the complete output shall be made available through the returned result.
+     * @param consumers
+     *            consumers to feed the tool output to.
+     * @return exit code of the executed dc tool (and its output when <code>retainOutput</code> is <code>true</code>).
+     * @throws IOException
+     *             might be thrown be the {@link ProcStarter} used to execute the DC tool commands.
+     */
+    public DIToolCommandExecutionResult execute(final DIToolCommandBuilder commandBuilder, final boolean retainOutput,
+        final OutputLineConsumer... consumers) throws IOException {
+        return execute(commandBuilder, new DIToolOutputStream(retainOutput, consumers));
+    }
 
-            exitCode = -1;
+    /**
+     * Execute dc tool with the given {@link DIToolCommandBuilder} writing its output to the given stream.
+     *
+     * @param commandBuilder
+     *            builder for dc tool commands
+     * @param output
+     *            stream receiving the tool output.
+     * @return result of the executed dc tool.
+     * @throws IOException
+     *             might be thrown be the {@link ProcStarter} used to execute the DC tool commands.
+     */
+    private DIToolCommandExecutionResult execute(final DIToolCommandBuilder commandBuilder, final DIToolOutputStream output)
+        throws IOException {
+        final List<String> commands = commandBuilder.execute();
+        int exitCode = 0;
 
-            try {
-                exitCode = starter.join();
-            }
-            catch (final InterruptedException e) {
-                result.write("\nOperation has been interrupted!".getBytes(Charset.defaultCharset()));
+        try {
+            if (!commands.isEmpty()) {
+                final ProcStarter starter = launcher.launch();
+                starter.pwd(workspace);
+                starter.envs(createEnvironment());
+                final ArgumentListBuilder toolCommand = createToolCommand();
+                starter.cmds(toolCommand);
+                starter.stdin(createCommandInputStream(commands));
+
+                final ForkOutputStream tee = new ForkOutputStream(launcher.getListener().getLogger(), output);
+                starter.stdout(tee);
+
+                exitCode = -1;
+
+                try {
+                    exitCode = starter.join();
+                }
+                catch (final InterruptedException e) {
+                    output.write("\nOperation has been interrupted!".getBytes(Charset.defaultCharset()));
+                }
             }
+
+            return output.createResult(exitCode);
         }
+        finally {
+            output.close();
+        }
+    }
 
-        return new DIToolCommandExecutionResult(result.toString(Charset.defaultCharset().name()), exitCode);
+    /**
+     * Create a session keeping the NWDI tool running between command batches.
+     *
+     * @param initialCommands
+     *            commands to execute whenever the tool process is (re)started (e.g. loading the development configuration).
+     * @param prompt
+     *            the prompt printed by the tool when it is waiting for a command.
+     * @param exitCommand
+     *            command to make the tool exit.
+     * @param startLock
+     *            lock held while the tool process is started and the initial commands are executed (shared by sessions running in the same
+     *            workspace).
+     * @param logPrefix
+     *            prefix for each line of tool output copied to the build log.
+     * @return a session for the NWDI tool. The tool process is started when the first command batch is executed.
+     */
+    protected final DIToolSession createSession(final List<String> initialCommands, final String prompt, final String exitCommand,
+        final Object startLock, final String logPrefix) {
+        return new DIToolSession(launcher, workspace, createEnvironment(), createToolCommand(), initialCommands, prompt, exitCommand,
+            isUnix() ? "\n" : "\r\n", logger, startLock, logPrefix);
     }
 
     /**
@@ -3,6 +3,17 @@
  */
 package org.arachna.netweaver.tools;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 /**
  * Capture the result of dc tool execution.
  *
@@ -10,10 +21,15 @@ package org.arachna.netweaver.tools;
  */
 public final class DIToolCommandExecutionResult {
     /**
-     * captured output of dc tool.
+     * captured output of dc tool (<code>null</code> when the output was spooled to a file).
      */
     private final String output;
 
+    /**
+     * file the output of the dc tool was spooled to (<code>null</code> when the output is held in memory).
+     */
+    private final File outputFile;
+
     /**
      * result of dc tool execution.
      */
@@ -30,17 +46,73 @@ public final class DIToolCommandExecutionResult {
      */
     public DIToolCommandExecutionResult(final String output, final int exitCode) {
         this.output = output;
+        this.outputFile = null;
         this.exitCode = exitCode;
+    }
 
+    /**
+     * Create an instance of <code>DcToolCommandExecutionResult</code> using the
+     * given output file and exit code.
+     *
+     * @param outputFile
+     *            file containing the output produced by dc tool
+     * @param exitCode
+     *            the exit code returned by dc tool
+     */
+    DIToolCommandExecutionResult(final File outputFile, final int exitCode) {
+        this.output = null;
+        this.outputFile = outputFile;
+        this.exitCode = exitCode;
     }
 
     /**
-     * Returns the captured output of a dc tool execution.
+     * Returns the captured output of a dc tool execution. The output is empty when it was not retained during execution.
+     *
+     * Prefer {@link #getOutputReader()} for output that might be large.
      *
      * @return captured output of a dc tool execution.
      */
     public String getOutput() {
-        return this.output;
+        if (outputFile == null) {
+            return this.output;
+        }
+
+        try {
+            return new String(Files.readAllBytes(outputFile.toPath()), Charset.defaultCharset());
+        }
+        catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns a reader for the captured output of a dc tool execution.
+     *
+     * @return reader for the captured output of a dc tool execution.
+     * @throws IOException
+     *             when the file the output was spooled to could not be opened
+     */
+    public Reader getOutputReader() throws IOException {
+        if (outputFile == null) {
+            return new StringReader(this.output);
+        }
+
+        return new InputStreamReader(new FileInputStream(outputFile), Charset.defaultCharset());
+    }
+
+    /**
+     * Release the file the output was spooled to (if any). The output is not available afterwards.
+     */
+    public void dispose() {
+        if (outputFile != null) {
+            try {
+                Files.deleteIfExists(outputFile.toPath());
+            }
+            catch (final IOException e) {
+                Logger.getLogger(DIToolCommandExecutionResult.class.getName()).log(Level.WARNING,
+                    String.format("Could not delete %s.", outputFile), e);
+            }
+        }
     }
 
     /**
@@ -0,0 +1,224 @@
+/**
+ *
+ */
+package org.arachna.netweaver.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stream receiving the output of an NWDI tool. The output is split into lines which are fed to the registered
+ * {@link OutputLineConsumer}s as soon as they are complete.
+ *
+ * Retaining the complete output is optional. Retained output is kept in memory up to {@link #MEMORY_THRESHOLD} bytes and spooled to a
+ * temporary file beyond that. Callers retaining output have to {@link DIToolCommandExecutionResult#dispose()} the result.
+ *
+ * @author Dirk Weigenand
+ */
+public final class DIToolOutputStream extends OutputStream {
+    /**
+     * maximum number of bytes of retained output to keep in memory.
+     */
+    static final int MEMORY_THRESHOLD = 1024 * 1024;
+
+    /**
+     * consumers to feed the tool output to.
+     */
+    private final List<OutputLineConsumer> consumers;
+
+    /**
+     * whether the complete output shall be retained.
+     */
+    private final boolean retainOutput;
+
+    /**
+     * charset used by the tool.
+     */
+    private final Charset charset = Charset.defaultCharset();
+
+    /**
+     * bytes of the current (incomplete) line.
+     */
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+    /**
+     * retained output while it is kept in memory.
+     */
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+
+    /**
+     * file retained output is spooled to (<code>null</code> while it is kept in memory).
+     */
+    private File spoolFile;
+
+    /**
+     * stream to spool file.
+     */
+    private OutputStream spool;
+
+    /**
+     * Create a stream for tool output.
+     *
+     * @param retainOutput
+     *            whether the complete output shall be retained (and be made available through
+     *            {@link DIToolCommandExecutionResult#getOutput()}).
+     * @param consumers
+     *            consumers to feed the tool output to.
+     */
+    public DIToolOutputStream(final boolean retainOutput, final OutputLineConsumer... consumers) {
+        this(retainOutput, Arrays.asList(consumers));
+    }
+
+    /**
+     * Create a stream for tool output.
+     *
+     * @param retainOutput
+     *            whether the complete output shall be retained (and be made available through
+     *            {@link DIToolCommandExecutionResult#getOutput()}).
+     * @param consumers
+     *            consumers to feed the tool output to.
+     */
+    public DIToolOutputStream(final boolean retainOutput, final Collection<OutputLineConsumer> consumers) {
+        this.retainOutput = retainOutput;
+        this.consumers = new ArrayList<OutputLineConsumer>(consumers);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[] { (byte)b }, 0, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+        retain(buffer, offset, length);
+
+        if (consumers.isEmpty()) {
+            return;
+        }
+
+        int start = offset;
+
+        for (int i = offset; i < offset + length; i++) {
+            if (buffer[i] == '\n') {
+                line.write(buffer, start, i - start);
+                dispatchLine();
+                start = i + 1;
+            }
+        }
+
+        line.write(buffer, start, offset + length - start);
+    }
+
+    /**
+     * Feed a trailing incomplete line to the consumers and return the result of the tool execution.
+     *
+     * @param exitCode
+     *            exit code of the tool.
+     * @return the result of the tool execution.
+     * @throws IOException
+     *             when the spool file could not be written
+     */
+    public DIToolCommandExecutionResult createResult(final int exitCode) throws IOException {
+        if (line.size() > 0) {
+            dispatchLine();
+        }
+
+        if (spool != null) {
+            spool.close();
+            spool = null;
+            final File outputFile = spoolFile;
+            spoolFile = null;
+
+            return new DIToolCommandExecutionResult(outputFile, exitCode);
+        }
+
+        return new DIToolCommandExecutionResult(retainOutput ? memory.toString(charset.name()) : "", exitCode);
+    }
+
+    /**
+     * Release the spool file of output not handed out through {@link #createResult(int)} (e.g. because the tool execution failed). Spool
+     * files handed out are released through {@link DIToolCommandExecutionResult#dispose()}.
+     *
+     * @throws IOException
+     *             when the spool file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (spool != null) {
+            try {
+                spool.close();
+            }
+            finally {
+                spool = null;
+                Files.deleteIfExists(spoolFile.toPath());
+                spoolFile = null;
+            }
+        }
+    }
+
+    /**
+     * Retain the given output (if requested) spooling it to a temporary file when the in memory threshold is exceeded.
+     *
+     * @param buffer
+     *            buffer containing output.
+     * @param offset
+     *            offset of output in buffer.
+     * @param length
+     *            length of output.
+     * @throws IOException
+     *             when the spool file could not be written
+     */
+    private void retain(final byte[] buffer, final int offset, final int length) throws IOException {
+        if (!retainOutput) {
+            return;
+        }
+
+        if (spool == null && memory.size() + length > MEMORY_THRESHOLD) {
+            spoolFile = File.createTempFile("nwdi-tool-output", ".log");
+            spool = new FileOutputStream(spoolFile);
+            memory.writeTo(spool);
+            memory = null;
+        }
+
+        if (spool != null) {
+            spool.write(buffer, offset, length);
+        }
+        else {
+            memory.write(buffer, offset, length);
+        }
+    }
+
+    /**
+     * Feed the current line to the consumers.
+     */
+    private void dispatchLine() {
+        final byte[] bytes = line.toByteArray();
+        int length = bytes.length;
+
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+
+        final String text = new String(bytes, 0, length, charset);
+        line.reset();
+
+        for (final OutputLineConsumer consumer : consumers) {
+            consumer.consume(text);
+        }
+    }
+}
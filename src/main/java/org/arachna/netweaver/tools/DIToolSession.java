@@ -0,0 +1,732 @@
+/**
+ *
+ */
+package org.arachna.netweaver.tools;
+
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.Launcher.ProcStarter;
+import hudson.Proc;
+import hudson.util.ArgumentListBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * A long lived NWDI tool process (e.g. <code>dctool</code>) reading its commands from a pipe.
+ *
+ * The initial commands (e.g. <code>loadconfig</code>) are executed once when the process is started. Subsequent command batches are
+ * streamed to the running process. The end of a batch is detected by counting the prompts the tool prints before reading each command.
+ *
+ * When the process dies it is restarted (replaying the initial commands) before the next batch is executed. A batch executing while the
+ * process dies is reported with a non zero exit code. Since the process does not exit after each batch, a batch is also reported with a
+ * non zero exit code when the tool printed an error line (a line starting with <code>error</code> ignoring case, prompts and an opening
+ * bracket) while executing it or while executing the initial commands reported with it. Failed builds of development components are not
+ * considered errors of the tool, they have to be determined from the build summary (see <code>DCBuildResultParser</code>).
+ *
+ * A tool process not printing anything for {@link #getInactivityTimeout()} seconds while executing a batch is considered hung. It is
+ * killed, the batch is reported with a non zero exit code and the next batch starts a new process.
+ *
+ * Sessions are not meant to be used by several threads concurrently. Use one session per thread. Sessions running in the same workspace
+ * should share a start lock: the initial commands (e.g. <code>loadconfig</code>) write to the configuration in the workspace and are
+ * executed by one session at a time. The tool output is copied line by line to the logger, so several sessions can share one build log.
+ *
+ * @author Dirk Weigenand
+ */
+public final class DIToolSession {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(DIToolSession.class.getName());
+
+    /**
+     * default time a tool process may not print anything while executing commands before it is killed (in seconds).
+     */
+    public static final int DEFAULT_INACTIVITY_TIMEOUT = 30 * 60;
+
+    /**
+     * time to wait for the tool to exit after sending the exit command (in seconds).
+     */
+    private static final int EXIT_TIMEOUT = 30;
+
+    /**
+     * exit code reported for batches the tool printed errors for.
+     */
+    static final int ERROR_EXIT_CODE = 1;
+
+    /**
+     * pattern for error lines printed by the tool (prompts at the beginning of a line have been removed).
+     */
+    private static final Pattern ERROR_LINE = Pattern.compile("^\\s*\\[?error\\b.*", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * size of buffer for reading tool output.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * launcher to use for starting the tool.
+     */
+    private final Launcher launcher;
+
+    /**
+     * workspace to start the tool in.
+     */
+    private final FilePath workspace;
+
+    /**
+     * environment for tool process.
+     */
+    private final Map<String, String> environment;
+
+    /**
+     * command line to start the tool.
+     */
+    private final ArgumentListBuilder toolCommand;
+
+    /**
+     * commands to execute whenever the tool process is (re)started.
+     */
+    private final List<String> initialCommands;
+
+    /**
+     * the prompt printed by the tool when it is waiting for a command.
+     */
+    private final byte[] prompt;
+
+    /**
+     * command to make the tool exit.
+     */
+    private final String exitCommand;
+
+    /**
+     * line separator for commands.
+     */
+    private final String lineSeparator;
+
+    /**
+     * logger to copy tool output to.
+     */
+    private final PrintStream logger;
+
+    /**
+     * stream copying complete lines of the tool output to the logger.
+     */
+    private final PrefixedLineOutputStream log;
+
+    /**
+     * lock held while the tool process is started and the initial commands are executed.
+     */
+    private final Object startLock;
+
+    /**
+     * the running tool process (<code>null</code> when not started yet or closed).
+     */
+    private Proc process;
+
+    /**
+     * the tool output.
+     */
+    private InputStream output;
+
+    /**
+     * output of the initial commands not yet reported with a batch result.
+     */
+    private byte[] pendingOutput = new byte[0];
+
+    /**
+     * whether the last byte read from the tool output terminated a line or a prompt.
+     */
+    private boolean atLineStart;
+
+    /**
+     * number of times the tool process has been started.
+     */
+    private int starts;
+
+    /**
+     * time the tool process may not print anything while executing commands before it is killed (in seconds).
+     */
+    private int inactivityTimeout = DEFAULT_INACTIVITY_TIMEOUT;
+
+    /**
+     * whether the tool process was killed because it did not print anything for {@link #inactivityTimeout} seconds.
+     */
+    private boolean timedOut;
+
+    /**
+     * Create a session for the given tool command. The process is started lazily when the first batch is executed.
+     *
+     * @param launcher
+     *            launcher to use for starting the tool.
+     * @param workspace
+     *            workspace to start the tool in.
+     * @param environment
+     *            environment for tool process.
+     * @param toolCommand
+     *            command line to start the tool.
+     * @param initialCommands
+     *            commands to execute whenever the tool process is (re)started.
+     * @param prompt
+     *            the prompt printed by the tool when it is waiting for a command.
+     * @param exitCommand
+     *            command to make the tool exit.
+     * @param lineSeparator
+     *            line separator for commands.
+     * @param logger
+     *            logger to copy tool output to.
+     */
+    DIToolSession(final Launcher launcher, final FilePath workspace, final Map<String, String> environment,
+        final ArgumentListBuilder toolCommand, final List<String> initialCommands, final String prompt, final String exitCommand,
+        final String lineSeparator, final PrintStream logger) {
+        this(launcher, workspace, environment, toolCommand, initialCommands, prompt, exitCommand, lineSeparator, logger, new Object(), "");
+    }
+
+    /**
+     * Create a session for the given tool command. The process is started lazily when the first batch is executed.
+     *
+     * @param launcher
+     *            launcher to use for starting the tool.
+     * @param workspace
+     *            workspace to start the tool in.
+     * @param environment
+     *            environment for tool process.
+     * @param toolCommand
+     *            command line to start the tool.
+     * @param initialCommands
+     *            commands to execute whenever the tool process is (re)started.
+     * @param prompt
+     *            the prompt printed by the tool when it is waiting for a command.
+     * @param exitCommand
+     *            command to make the tool exit.
+     * @param lineSeparator
+     *            line separator for commands.
+     * @param logger
+     *            logger to copy tool output to.
+     * @param startLock
+     *            lock held while the tool process is started and the initial commands are executed (shared by sessions running in the same
+     *            workspace).
+     * @param logPrefix
+     *            prefix for each line of tool output copied to the logger (e.g. to tell apart several sessions writing to the same log).
+     */
+    DIToolSession(final Launcher launcher, final FilePath workspace, final Map<String, String> environment,
+        final ArgumentListBuilder toolCommand, final List<String> initialCommands, final String prompt, final String exitCommand,
+        final String lineSeparator, final PrintStream logger, final Object startLock, final String logPrefix) {
+        this.launcher = launcher;
+        this.workspace = workspace;
+        this.environment = environment;
+        this.toolCommand = toolCommand;
+        this.initialCommands = new ArrayList<String>(initialCommands);
+        this.prompt = prompt.getBytes(Charset.defaultCharset());
+        this.exitCommand = exitCommand;
+        this.lineSeparator = lineSeparator;
+        this.logger = logger;
+        this.startLock = startLock;
+        log = new PrefixedLineOutputStream(logger, logPrefix);
+    }
+
+    /**
+     * Execute the given commands in the running tool process (starting it if necessary).
+     *
+     * @param commands
+     *            commands to execute.
+     * @return output of the given commands (prefixed with the output of the initial commands when the process had to be (re)started) and
+     *         exit code. The exit code is not zero when the tool process died while executing the commands.
+     * @throws IOException
+     *             when the tool process could not be started or communicated with
+     * @throws InterruptedException
+     *             when waiting for the tool was interrupted
+     */
+    public DIToolCommandExecutionResult execute(final List<String> commands) throws IOException, InterruptedException {
+        return execute(commands, true);
+    }
+
+    /**
+     * Execute the given commands in the running tool process (starting it if necessary) feeding the output line by line to the given
+     * consumers.
+     *
+     * @param commands
+     *            commands to execute.
+     * @param retainOutput
+     *            whether the complete output shall be made available through the returned result.
+     * @param consumers
+     *            consumers to feed the tool output to.
+     * @return exit code (and output when <code>retainOutput</code> is <code>true</code>) of the given commands (the output is prefixed
+     *         with the output of the initial commands when the process had to be (re)started). The exit code is not zero when the tool
+     *         process died or hung while executing the commands or printed an error line.
+     * @throws IOException
+     *             when the tool process could not be started or communicated with
+     * @throws InterruptedException
+     *             when waiting for the tool was interrupted
+     */
+    public synchronized DIToolCommandExecutionResult execute(final List<String> commands, final boolean retainOutput,
+        final OutputLineConsumer... consumers) throws IOException, InterruptedException {
+        final List<String> batch = removeBlankCommands(commands);
+        final ErrorLineDetector errors = new ErrorLineDetector();
+        final List<OutputLineConsumer> allConsumers = new ArrayList<OutputLineConsumer>(Arrays.asList(consumers));
+        allConsumers.add(errors);
+        final DIToolOutputStream result = new DIToolOutputStream(retainOutput, allConsumers);
+
+        try {
+            if (batch.isEmpty()) {
+                return result.createResult(0);
+            }
+
+            ensureStarted();
+
+            result.write(pendingOutput);
+            pendingOutput = new byte[0];
+
+            if (!send(batch, result)) {
+                final String message =
+                    timedOut ? String.format("%nThe tool process did not print anything for %d seconds. It was killed and will be restarted.",
+                        inactivityTimeout) : "\nThe tool process terminated unexpectedly and will be restarted.";
+                result.write(message.getBytes(Charset.defaultCharset()));
+                logger.println(message.trim());
+
+                return result.createResult(stop());
+            }
+
+            return result.createResult(errors.hasErrors() ? ERROR_EXIT_CODE : 0);
+        }
+        finally {
+            result.close();
+        }
+    }
+
+    /**
+     * Returns the number of times the tool process has been started.
+     *
+     * @return number of times the tool process has been started.
+     */
+    public synchronized int getStarts() {
+        return starts;
+    }
+
+    /**
+     * Returns the time the tool process may not print anything while executing commands before it is killed.
+     *
+     * @return the inactivity timeout in seconds.
+     */
+    public synchronized int getInactivityTimeout() {
+        return inactivityTimeout;
+    }
+
+    /**
+     * Sets the time the tool process may not print anything while executing commands before it is killed.
+     *
+     * @param inactivityTimeout
+     *            the inactivity timeout in seconds (must be positive).
+     */
+    public synchronized void setInactivityTimeout(final int inactivityTimeout) {
+        if (inactivityTimeout <= 0) {
+            throw new IllegalArgumentException(String.format("Inactivity timeout must be positive: %d", inactivityTimeout));
+        }
+
+        this.inactivityTimeout = inactivityTimeout;
+    }
+
+    /**
+     * Make the tool process exit (killing it if it does not exit within {@link #EXIT_TIMEOUT} seconds).
+     *
+     * @throws IOException
+     *             when the tool process could not be communicated with
+     * @throws InterruptedException
+     *             when waiting for the tool was interrupted
+     */
+    public synchronized void close() throws IOException, InterruptedException {
+        log.close();
+
+        if (process == null) {
+            return;
+        }
+
+        try {
+            if (process.isAlive()) {
+                final OutputStream stdin = process.getStdin();
+                stdin.write((exitCommand + lineSeparator).getBytes(Charset.defaultCharset()));
+                stdin.close();
+            }
+        }
+        catch (final IOException e) {
+            // process already gone
+        }
+        finally {
+            if (process.joinWithTimeout(EXIT_TIMEOUT, TimeUnit.SECONDS, launcher.getListener()) != 0) {
+                logger.println(String.format("%s did not exit cleanly.", toolCommand.toString()));
+            }
+
+            process = null;
+            output = null;
+        }
+    }
+
+    /**
+     * Start the tool process and execute the initial commands when the process is not running (anymore). Other sessions sharing the start
+     * lock can't start their process meanwhile.
+     *
+     * @throws IOException
+     *             when the tool process could not be started
+     * @throws InterruptedException
+     *             when waiting for the tool was interrupted
+     */
+    private void ensureStarted() throws IOException, InterruptedException {
+        if (process != null && process.isAlive()) {
+            return;
+        }
+
+        if (process != null) {
+            stop();
+        }
+
+        synchronized (startLock) {
+            start();
+        }
+    }
+
+    /**
+     * Start the tool process and execute the initial commands.
+     *
+     * @throws IOException
+     *             when the tool process could not be started
+     * @throws InterruptedException
+     *             when waiting for the tool was interrupted
+     */
+    private void start() throws IOException, InterruptedException {
+        final ProcStarter starter = launcher.launch();
+        starter.pwd(workspace);
+        starter.envs(environment);
+        starter.cmds(toolCommand);
+        starter.writeStdin();
+        starter.readStdout();
+
+        process = starter.start();
+        output = process.getStdout();
+        atLineStart = true;
+        starts++;
+
+        final ByteArrayOutputStream initialOutput = new ByteArrayOutputStream();
+
+        // the tool prints a prompt before reading the first command
+        if (!waitForPrompts(1, initialOutput) || !send(removeBlankCommands(initialCommands), initialOutput)) {
+            final int exitCode = stop();
+            throw new IOException(String.format("%s terminated with exit code %d while loading its configuration:%n%s", toolCommand,
+                exitCode, initialOutput.toString(Charset.defaultCharset().name())));
+        }
+
+        pendingOutput = initialOutput.toByteArray();
+    }
+
+    /**
+     * Send the given commands to the tool and wait for their completion.
+     *
+     * @param commands
+     *            commands to send.
+     * @param result
+     *            stream receiving the tool output.
+     * @return <code>true</code> when the commands were executed, <code>false</code> when the tool process terminated.
+     * @throws IOException
+     *             when the tool process could not be communicated with
+     */
+    private boolean send(final List<String> commands, final OutputStream result) throws IOException {
+        if (commands.isEmpty()) {
+            return true;
+        }
+
+        final OutputStream stdin = process.getStdin();
+
+        try {
+            stdin.write((StringUtils.join(commands, lineSeparator) + lineSeparator).getBytes(Charset.defaultCharset()));
+            stdin.flush();
+        }
+        catch (final IOException e) {
+            // process died before reading the commands
+            return false;
+        }
+
+        return waitForPrompts(commands.size(), result);
+    }
+
+    /**
+     * Read tool output until the given number of prompts has been printed.
+     *
+     * A prompt is only recognized at the beginning of a line or directly following another prompt. The tool process is killed when it does
+     * not print anything for {@link #inactivityTimeout} seconds.
+     *
+     * @param count
+     *            number of prompts to wait for.
+     * @param result
+     *            stream receiving the tool output.
+     * @return <code>true</code> when the given number of prompts were read, <code>false</code> when the tool output ended before (e.g.
+     *         because the hung tool process was killed).
+     * @throws IOException
+     *             when reading the tool output failed
+     */
+    private boolean waitForPrompts(final int count, final OutputStream result) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int prompts = 0;
+        int matched = 0;
+        final InactivityWatchdog watchdog = new InactivityWatchdog(process, TimeUnit.SECONDS.toMillis(inactivityTimeout));
+        final Thread watchdogThread = new Thread(watchdog, String.format("inactivity watchdog for %s", toolCommand));
+        watchdogThread.setDaemon(true);
+        watchdogThread.start();
+        timedOut = false;
+
+        try {
+            while (prompts < count) {
+                // the tool waits for input after printing the last prompt, so reading never blocks beyond it
+                final int read = output.read(buffer);
+
+                if (read < 0) {
+                    timedOut = watchdog.isExpired();
+                    return false;
+                }
+
+                watchdog.touch();
+
+                for (int i = 0; i < read; i++) {
+                    final byte b = buffer[i];
+
+                    if (atLineStart && b == prompt[matched]) {
+                        matched++;
+
+                        if (matched == prompt.length) {
+                            prompts++;
+                            matched = 0;
+                        }
+                    }
+                    else {
+                        matched = 0;
+                        atLineStart = b == '\n';
+                    }
+                }
+
+                result.write(buffer, 0, read);
+                log.write(buffer, 0, read);
+            }
+        }
+        catch (final IOException e) {
+            if (watchdog.isExpired()) {
+                // reading was aborted by killing the process
+                timedOut = true;
+                return false;
+            }
+
+            throw e;
+        }
+        finally {
+            watchdog.cancel();
+        }
+
+        return true;
+    }
+
+    /**
+     * Stop the tool process (killing it if necessary) and return its exit code.
+     *
+     * @return exit code of tool process.
+     * @throws IOException
+     *             when the tool process could not be killed
+     * @throws InterruptedException
+     *             when waiting for the tool was interrupted
+     */
+    private int stop() throws IOException, InterruptedException {
+        int exitCode = -1;
+
+        if (process != null) {
+            if (process.isAlive()) {
+                process.kill();
+            }
+
+            exitCode = process.join();
+            // the process was not asked to exit, so report an error even if it claims success
+            exitCode = exitCode == 0 ? -1 : exitCode;
+            process = null;
+            output = null;
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Remove blank commands from the given list of commands and strip trailing line breaks since each line sent to the tool is answered
+     * with a prompt.
+     *
+     * @param commands
+     *            list of commands.
+     * @return list of commands without blank ones.
+     */
+    private static List<String> removeBlankCommands(final List<String> commands) {
+        final List<String> result = new ArrayList<String>(commands.size());
+
+        for (final String command : commands) {
+            if (StringUtils.isNotBlank(command)) {
+                result.add(StringUtils.stripEnd(command, "\r\n"));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Watchdog killing a tool process that did not print anything for a given time.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class InactivityWatchdog implements Runnable {
+        /**
+         * the watched tool process.
+         */
+        private final Proc process;
+
+        /**
+         * time the tool process may not print anything before it is killed (in milliseconds).
+         */
+        private final long timeout;
+
+        /**
+         * time the tool process printed something last.
+         */
+        private long lastActivity = System.currentTimeMillis();
+
+        /**
+         * whether watching the process has been cancelled.
+         */
+        private boolean cancelled;
+
+        /**
+         * whether the timeout expired (and the process was killed).
+         */
+        private boolean expired;
+
+        /**
+         * Create a watchdog for the given tool process.
+         *
+         * @param process
+         *            the tool process to watch.
+         * @param timeout
+         *            time the tool process may not print anything before it is killed (in milliseconds).
+         */
+        InactivityWatchdog(final Proc process, final long timeout) {
+            this.process = process;
+            this.timeout = timeout;
+        }
+
+        /**
+         * Wait until the watchdog is cancelled or the timeout expired. Kill the process in the latter case.
+         */
+        @Override
+        public void run() {
+            synchronized (this) {
+                long remaining = timeout;
+
+                while (!cancelled && remaining > 0) {
+                    try {
+                        wait(remaining);
+                    }
+                    catch (final InterruptedException e) {
+                        return;
+                    }
+
+                    remaining = lastActivity + timeout - System.currentTimeMillis();
+                }
+
+                if (cancelled) {
+                    return;
+                }
+
+                expired = true;
+            }
+
+            try {
+                process.kill();
+            }
+            catch (final IOException e) {
+                LOGGER.log(Level.WARNING, "Could not kill hung tool process.", e);
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Record that the tool process printed something.
+         */
+        synchronized void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        /**
+         * Stop watching the tool process.
+         */
+        synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        /**
+         * Returns whether the timeout expired (and the process was killed).
+         *
+         * @return <code>true</code> when the timeout expired, <code>false</code> otherwise.
+         */
+        synchronized boolean isExpired() {
+            return expired;
+        }
+    }
+
+    /**
+     * Consumer of tool output recording whether the tool printed an error line.
+     *
+     * @author Dirk Weigenand
+     */
+    private final class ErrorLineDetector implements OutputLineConsumer {
+        /**
+         * the prompt printed by the tool.
+         */
+        private final String promptText = new String(prompt, Charset.defaultCharset());
+
+        /**
+         * whether an error line was consumed.
+         */
+        private boolean errors;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void consume(final String line) {
+            String text = line;
+
+            while (text.startsWith(promptText)) {
+                text = text.substring(promptText.length());
+            }
+
+            if (ERROR_LINE.matcher(text).matches()) {
+                errors = true;
+            }
+        }
+
+        /**
+         * Returns whether the tool printed an error line.
+         *
+         * @return <code>true</code> when an error line was consumed, <code>false</code> otherwise.
+         */
+        boolean hasErrors() {
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ *
+ */
+package org.arachna.netweaver.tools;
+
+/**
+ * Consumer of the output of an NWDI tool (e.g. a parser or a progress tracker). The consumer is fed line by line while the tool is
+ * running.
+ *
+ * @author Dirk Weigenand
+ */
+public interface OutputLineConsumer {
+    /**
+     * Process a line of output of an NWDI tool.
+     *
+     * @param line
+     *            a line of tool output (without line terminator).
+     */
+    void consume(String line);
+}
@@ -0,0 +1,111 @@
+/**
+ *
+ */
+package org.arachna.netweaver.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+
+/**
+ * Output stream copying whole lines to a (shared) {@link PrintStream} prefixing each line with a given text.
+ *
+ * Bytes are buffered until a line is complete. The line is written while holding the lock of the print stream (the same lock
+ * {@link PrintStream#println(String)} uses), so lines written by several tool processes to the same build log are not mixed.
+ *
+ * @author Dirk Weigenand
+ */
+final class PrefixedLineOutputStream extends OutputStream {
+    /**
+     * initial size of line buffer.
+     */
+    private static final int LINE_BUFFER_SIZE = 256;
+
+    /**
+     * stream to write complete lines to.
+     */
+    private final PrintStream target;
+
+    /**
+     * prefix for each line.
+     */
+    private final byte[] prefix;
+
+    /**
+     * the current (incomplete) line.
+     */
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(LINE_BUFFER_SIZE);
+
+    /**
+     * Create a stream writing whole lines prefixed with the given text to the given print stream.
+     *
+     * @param target
+     *            stream to write complete lines to.
+     * @param prefix
+     *            prefix for each line.
+     */
+    PrefixedLineOutputStream(final PrintStream target, final String prefix) {
+        this.target = target;
+        this.prefix = prefix.getBytes(Charset.defaultCharset());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final int b) {
+        line.write(b);
+
+        if (b == '\n') {
+            writeLine();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length) {
+        final int end = offset + length;
+        int start = offset;
+
+        for (int i = offset; i < end; i++) {
+            if (buffer[i] == '\n') {
+                line.write(buffer, start, i + 1 - start);
+                writeLine();
+                start = i + 1;
+            }
+        }
+
+        line.write(buffer, start, end - start);
+    }
+
+    /**
+     * Write the incomplete line (if any) terminated by a line break. The stream can still be used afterwards, the target stream is not
+     * closed.
+     *
+     * @throws IOException
+     *             never thrown
+     */
+    @Override
+    public void close() throws IOException {
+        if (line.size() > 0) {
+            write('\n');
+        }
+    }
+
+    /**
+     * Write the current line to the target stream.
+     */
+    private void writeLine() {
+        synchronized (target) {
+            target.write(prefix, 0, prefix.length);
+            target.write(line.toByteArray(), 0, line.size());
+            target.flush();
+        }
+
+        line.reset();
+    }
+}
@@ -9,12 +9,14 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.arachna.netweaver.tools.OutputLineConsumer;
+
 /**
- * Parser for output of cbstool 'listbuildspaces' command.
+ * Parser for output of cbstool 'listbuildspaces' command. The parser can be fed the output line by line while the cbstool is running.
  *
  * @author Dirk Weigenand
  */
-final class BuildSpaceParser {
+final class BuildSpaceParser implements OutputLineConsumer {
 
     /**
      * Regular expression to match output of the 'listbuildspaces' cbstool command.
@@ -26,6 +28,18 @@ final class BuildSpaceParser {
      */
     private final String buildSpaceList;
 
+    /**
+     * names of (development) build spaces parsed so far.
+     */
+    private final List<String> buildSpaces = new LinkedList<String>();
+
+    /**
+     * Create a new <code>BuildSpaceParser</code> instance to be fed the output of the 'listbuildspaces' cbstool command line by line.
+     */
+    BuildSpaceParser() {
+        this("");
+    }
+
     /**
      * Create a new <code>BuildSpaceParser</code> instance with the given output of the 'listbuildspaces' cbstool command.
      *
@@ -43,16 +57,34 @@ final class BuildSpaceParser {
      * @return a collection of recognized (development) build space names (those ending with _D).
      */
     Collection<String> parse() {
-        final List<String> buildSpaces = new LinkedList<String>();
-
         for (final String output : buildSpaceList.split("\n")) {
-            final Matcher matcher = buildSpaceRegex.matcher(output.trim());
+            consume(output);
+        }
 
-            if (matcher.matches()) {
-                buildSpaces.add(matcher.group(1));
-            }
+        return getBuildSpaces();
+    }
+
+    /**
+     * Extract the name of a development build space from the given line of the 'listbuildspaces' cbstool command output.
+     *
+     * @param line
+     *            a line of the 'listbuildspaces' cbstool command output.
+     */
+    @Override
+    public void consume(final String line) {
+        final Matcher matcher = buildSpaceRegex.matcher(line.trim());
+
+        if (matcher.matches()) {
+            buildSpaces.add(matcher.group(1));
         }
+    }
 
+    /**
+     * Returns the names of development build spaces parsed so far.
+     *
+     * @return a collection of recognized (development) build space names (those ending with _D).
+     */
+    Collection<String> getBuildSpaces() {
         return buildSpaces;
     }
 }
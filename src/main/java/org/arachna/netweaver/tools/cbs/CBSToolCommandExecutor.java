@@ -10,7 +10,6 @@ import hudson.Util;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Collection;
 
@@ -66,15 +65,14 @@ public final class CBSToolCommandExecutor extends AbstractDIToolExecutor {
         DIToolCommandExecutionResult result = null;
 
         if (CbsToolVersion.CE.equals(cbsToolVersion)) {
-            result = execute(new DCLister(config, getDiToolDescriptor()));
-            new DCListReader(config, dcFactory).execute(new StringReader(result.getOutput()));
+            result = execute(new DCLister(config, getDiToolDescriptor()), false, new DCListReader(config, dcFactory));
         }
         else if (CbsToolVersion.PRE_CE.equals(cbsToolVersion)) {
-            result = execute(new ListCompartments(config.getCmsUrl(), config.getName(), getDiToolDescriptor()));
+            // only the exit code is of interest, so don't retain the output
+            result = execute(new ListCompartments(config.getCmsUrl(), config.getName(), getDiToolDescriptor()), false);
 
             if (result.isExitCodeOk()) {
-                result = execute(new PreCeDCLister(config, getDiToolDescriptor()));
-                new PreCeDCListReader(config, dcFactory).execute(new StringReader(result.getOutput()));
+                result = execute(new PreCeDCLister(config, getDiToolDescriptor()), false, new PreCeDCListReader(config, dcFactory));
             }
         }
 
@@ -113,9 +111,10 @@ public final class CBSToolCommandExecutor extends AbstractDIToolExecutor {
      */
     public Collection<String> getBuildSpaceNames() throws IOException, InterruptedException {
         final DevelopmentConfiguration config = getDevelopmentConfiguration();
-        final DIToolCommandExecutionResult result = execute(new ListBuildSpaces(config.getCmsUrl(), getDiToolDescriptor()));
+        final BuildSpaceParser parser = new BuildSpaceParser();
+        execute(new ListBuildSpaces(config.getCmsUrl(), getDiToolDescriptor()), false, parser);
 
-        return new BuildSpaceParser(result.getOutput()).parse();
+        return parser.getBuildSpaces();
     }
 
     /**
@@ -8,6 +8,7 @@ import hudson.Launcher;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -20,6 +21,8 @@ import org.arachna.netweaver.tools.AbstractDIToolExecutor;
 import org.arachna.netweaver.tools.DIToolCommandBuilder;
 import org.arachna.netweaver.tools.DIToolCommandExecutionResult;
 import org.arachna.netweaver.tools.DIToolDescriptor;
+import org.arachna.netweaver.tools.DIToolSession;
+import org.arachna.netweaver.tools.OutputLineConsumer;
 
 /**
  * Execute a DC Tool.
@@ -27,6 +30,11 @@ import org.arachna.netweaver.tools.DIToolDescriptor;
  * @author Dirk Weigenand
  */
 public final class DCToolCommandExecutor extends AbstractDIToolExecutor {
+    /**
+     * the prompt printed by the dctool when waiting for a command.
+     */
+    static final String PROMPT = "dc>";
+
     /**
      * Factory for creating DC tool commands.
      */
@@ -37,6 +45,33 @@ public final class DCToolCommandExecutor extends AbstractDIToolExecutor {
      */
     private final LoadConfigCommandBuilder loadConfigCommandBuilder;
 
+    /**
+     * whether dctool processes shall be kept running between commands.
+     */
+    private final boolean useSessions;
+
+    /**
+     * dctool sessions currently not executing commands.
+     */
+    private final LinkedList<DIToolSession> idleSessions = new LinkedList<DIToolSession>();
+
+    /**
+     * all dctool sessions created by this executor.
+     */
+    private final List<DIToolSession> sessions = new LinkedList<DIToolSession>();
+
+    /**
+     * lock shared by the dctool sessions of this executor. Only one session at a time loads the development configuration since
+     * <code>loadconfig</code> writes to the configuration in the workspace.
+     */
+    private final Object loadConfigLock = new Object();
+
+    /**
+     * numbers of the workers currently executing dctool processes without sessions (used to give each concurrent process its own spool and
+     * trace file).
+     */
+    private final BitSet busyWorkers = new BitSet();
+
     /**
      * create DC tool executor with the given command line generator and given command build.
      *
@@ -51,7 +86,28 @@ public final class DCToolCommandExecutor extends AbstractDIToolExecutor {
      */
     public DCToolCommandExecutor(final Launcher launcher, final FilePath workspace, final DIToolDescriptor diToolDescriptor,
         final DevelopmentConfiguration developmentConfiguration) {
+        this(launcher, workspace, diToolDescriptor, developmentConfiguration, false);
+    }
+
+    /**
+     * create DC tool executor with the given command line generator and given command build.
+     *
+     * @param launcher
+     *            the launcher to use executing the DC tool.
+     * @param workspace
+     *            the workspace where the DC tool should be executed.
+     * @param diToolDescriptor
+     *            descriptor for various parameters needed for DC tool execution.
+     * @param developmentConfiguration
+     *            {@link DevelopmentConfiguration} to use executing the DC tool.
+     * @param useSessions
+     *            keep dctool processes running between commands (the development configuration is loaded only once per process). The
+     *            processes must be terminated using {@link #close()}.
+     */
+    public DCToolCommandExecutor(final Launcher launcher, final FilePath workspace, final DIToolDescriptor diToolDescriptor,
+        final DevelopmentConfiguration developmentConfiguration, final boolean useSessions) {
         super(launcher, workspace, diToolDescriptor, developmentConfiguration);
+        this.useSessions = useSessions;
         commandFactory = new CommandFactory(developmentConfiguration);
         loadConfigCommandBuilder =
             new LoadConfigCommandBuilder(diToolDescriptor, LoadConfigTemplate.fromJdkHomeAlias(developmentConfiguration.getJdkHomeAlias()));
@@ -65,7 +121,7 @@ public final class DCToolCommandExecutor extends AbstractDIToolExecutor {
      * @param antHelper
      *            helper to determine location of development components in workspace.
      * @param components List of development components to synchronize (in Archive State).
-     * @return the result of the syncdc-command operation.
+     * @return the result of the syncdc-command operation (the output is not retained, it is only written to the build log).
      * @throws IOException
      *             re-thrown from dctool execution
      * @throws InterruptedException
@@ -76,7 +132,8 @@ public final class DCToolCommandExecutor extends AbstractDIToolExecutor {
         final long startSyncDCs = System.currentTimeMillis();
         log(Messages.DCToolCommandExecutor_synchronizing_development_components());
         final DIToolCommandExecutionResult result =
-            wrapAndExecute(commandFactory.createSyncDevelopmentComponentsInArchiveStateCommandBuilder(dcFactory, antHelper, components));
+            wrapAndExecute(commandFactory.createSyncDevelopmentComponentsInArchiveStateCommandBuilder(dcFactory, antHelper, components),
+                false);
         duration(startSyncDCs, Messages.DCToolCommandExecutor_done_synchronizing_development_components());
 
         return result;
@@ -87,7 +144,7 @@ public final class DCToolCommandExecutor extends AbstractDIToolExecutor {
      *
      * @param cleanCopy
      *            indicate whether the sources are to be synchronized unconditionally.
-     * @return the result of the syncdc-command operation.
+     * @return the result of the syncdc-command operation (the output is not retained, it is only written to the build log).
      * @throws IOException
      *             re-thrown from dctool execution
      * @throws InterruptedException
@@ -98,28 +155,31 @@ public final class DCToolCommandExecutor extends AbstractDIToolExecutor {
         final long startSyncDCs = System.currentTimeMillis();
         log(Messages.DCToolCommandExecutor_synchronizing_development_components());
         final DIToolCommandExecutionResult result =
-            wrapAndExecute(commandFactory.createSyncDevelopmentComponentsInSourceStateCommandBuilder(cleanCopy));
+            wrapAndExecute(commandFactory.createSyncDevelopmentComponentsInSourceStateCommandBuilder(cleanCopy), false);
         duration(startSyncDCs, Messages.DCToolCommandExecutor_done_synchronizing_development_components());
 
         return result;
     }
 
     /**
-     * Build the given development components.
+     * Build the given development components feeding the dctool output line by line to the given consumers (e.g. a parser for build
+     * results). The output is not retained in the returned result.
      *
      * @param affectedComponents
      *            development components to build.
+     * @param consumers
+     *            consumers of the dctool output.
      * @return the result of the builddc operation.
      * @throws IOException
      *             re-thrown from dctool execution
      * @throws InterruptedException
      *             re-thrown from dctool execution
      */
-    public DIToolCommandExecutionResult buildDevelopmentComponents(final Collection<DevelopmentComponent> affectedComponents)
-        throws IOException, InterruptedException {
+    public DIToolCommandExecutionResult buildDevelopmentComponents(final Collection<DevelopmentComponent> affectedComponents,
+        final OutputLineConsumer... consumers) throws IOException, InterruptedException {
         final long start = System.currentTimeMillis();
         final DIToolCommandExecutionResult result =
-            wrapAndExecute(commandFactory.createBuildDevelopmentComponentsCommandBuilder(affectedComponents));
+            wrapAndExecute(commandFactory.createBuildDevelopmentComponentsCommandBuilder(affectedComponents), false, consumers);
         duration(start, Messages.DCToolCommandExecutor_done_building_development_components());
 
         return result;
@@ -131,14 +191,129 @@ public final class DCToolCommandExecutor extends AbstractDIToolExecutor {
      *
      * @param builder
      *            builder for dctool commands.
+     * @param retainOutput
+     *            whether the complete output shall be made available through the returned result.
+     * @param consumers
+     *            consumers of the dctool output.
+     * @return result object with return code and output of dctool commands.
+     * @throws IOException
+     *             re-thrown from dctool execution
+     * @throws InterruptedException
+     *             re-thrown from dctool execution
+     */
+    private DIToolCommandExecutionResult wrapAndExecute(final DIToolCommandBuilder builder, final boolean retainOutput,
+        final OutputLineConsumer... consumers) throws IOException, InterruptedException {
+        if (useSessions) {
+            return executeInSession(builder.execute(), retainOutput, consumers);
+        }
+
+        final int worker = acquireWorker();
+
+        try {
+            return execute(new DCToolCommandBuilderWrapper(loadConfigCommandBuilder, worker, builder), retainOutput, consumers);
+        }
+        finally {
+            releaseWorker(worker);
+        }
+    }
+
+    /**
+     * Acquire the lowest worker number not used by a concurrently running dctool process.
+     *
+     * @return worker number to use for the next dctool process.
+     */
+    private int acquireWorker() {
+        synchronized (busyWorkers) {
+            final int worker = busyWorkers.nextClearBit(0);
+            busyWorkers.set(worker);
+
+            return worker;
+        }
+    }
+
+    /**
+     * Release the given worker number.
+     *
+     * @param worker
+     *            worker number of a finished dctool process.
+     */
+    private void releaseWorker(final int worker) {
+        synchronized (busyWorkers) {
+            busyWorkers.clear(worker);
+        }
+    }
+
+    /**
+     * Execute the given commands in an idle dctool session. A new session is created when all sessions are busy (i.e. when commands are
+     * executed concurrently).
+     *
+     * Each session writes its own spool and trace file. Its output is copied line by line to the build log, each line prefixed with the
+     * number of the session. The sessions load the development configuration one after another, the commands
+     * executed concurrently afterwards (<code>builddc</code> of development components not depending on each other) write their results
+     * to the folders of the respective development components.
+     *
+     * @param commands
+     *            dctool commands to execute.
+     * @param retainOutput
+     *            whether the complete output shall be made available through the returned result.
+     * @param consumers
+     *            consumers of the dctool output.
      * @return result object with return code and output of dctool commands.
      * @throws IOException
      *             re-thrown from dctool execution
      * @throws InterruptedException
      *             re-thrown from dctool execution
      */
-    private DIToolCommandExecutionResult wrapAndExecute(final DIToolCommandBuilder builder) throws IOException, InterruptedException {
-        return execute(new DCToolCommandBuilderWrapper(loadConfigCommandBuilder, builder));
+    private DIToolCommandExecutionResult executeInSession(final List<String> commands, final boolean retainOutput,
+        final OutputLineConsumer... consumers) throws IOException, InterruptedException {
+        if (commands.isEmpty()) {
+            return new DIToolCommandExecutionResult("", 0);
+        }
+
+        DIToolSession session;
+
+        synchronized (idleSessions) {
+            session = idleSessions.poll();
+
+            if (session == null) {
+                final int worker = sessions.size();
+                session =
+                    createSession(loadConfigCommandBuilder.execute(worker), PROMPT, loadConfigCommandBuilder.getExitCommand(),
+                        loadConfigLock, String.format("[dctool %d] ", worker + 1));
+                sessions.add(session);
+            }
+        }
+
+        try {
+            return session.execute(commands, retainOutput, consumers);
+        }
+        finally {
+            synchronized (idleSessions) {
+                idleSessions.add(session);
+            }
+        }
+    }
+
+    /**
+     * Terminate the dctool processes kept running by this executor.
+     *
+     * @throws IOException
+     *             re-thrown from terminating dctool
+     * @throws InterruptedException
+     *             re-thrown from terminating dctool
+     */
+    public void close() throws IOException, InterruptedException {
+        final List<DIToolSession> sessionsToClose;
+
+        synchronized (idleSessions) {
+            sessionsToClose = new LinkedList<DIToolSession>(sessions);
+            sessions.clear();
+            idleSessions.clear();
+        }
+
+        for (final DIToolSession session : sessionsToClose) {
+            session.close();
+        }
     }
 
     /**
@@ -173,6 +348,11 @@ public final class DCToolCommandExecutor extends AbstractDIToolExecutor {
          */
         private final LoadConfigCommandBuilder loadConfigCommandBuilder;
 
+        /**
+         * number of the worker executing the commands.
+         */
+        private final int worker;
+
         /**
          * builder to be wrapped.
          */
@@ -183,11 +363,15 @@ public final class DCToolCommandExecutor extends AbstractDIToolExecutor {
          *
          * @param loadConfigCommandBuilder
          *            builder for connecting/disconnecting to/from the NDWI.
+         * @param worker
+         *            number of the worker executing the commands (determines the names of spool and trace file).
          * @param wrappedBuilder
          *            builder to wrap.
          */
-        DCToolCommandBuilderWrapper(final LoadConfigCommandBuilder loadConfigCommandBuilder, final DIToolCommandBuilder wrappedBuilder) {
+        DCToolCommandBuilderWrapper(final LoadConfigCommandBuilder loadConfigCommandBuilder, final int worker,
+            final DIToolCommandBuilder wrappedBuilder) {
             this.loadConfigCommandBuilder = loadConfigCommandBuilder;
+            this.worker = worker;
             this.wrappedBuilder = wrappedBuilder;
         }
 
@@ -205,7 +389,7 @@ public final class DCToolCommandExecutor extends AbstractDIToolExecutor {
             final List<String> wrappedCommands = wrappedBuilder.execute();
 
             if (!wrappedCommands.isEmpty()) {
-                commands.addAll(loadConfigCommandBuilder.execute());
+                commands.addAll(loadConfigCommandBuilder.execute(worker));
                 commands.addAll(wrappedCommands);
 
                 commands.add(loadConfigCommandBuilder.getExitCommand());
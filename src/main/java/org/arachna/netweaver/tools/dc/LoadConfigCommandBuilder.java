@@ -41,15 +41,43 @@ class LoadConfigCommandBuilder implements DIToolCommandBuilder {
      */
     @Override
     public final List<String> execute() {
+        return execute(0);
+    }
+
+    /**
+     * Create the commands for loading the development configuration in the <code>dctool</code> process of the given worker.
+     *
+     * Each worker writes its own spool and trace file (<code>spool-&lt;worker&gt;.txt</code>, <code>tracefile-&lt;worker&gt;.txt</code>)
+     * so concurrent <code>dctool</code> processes started in the same workspace don't overwrite each other's files. The first worker
+     * (<code>0</code>) keeps using <code>spool.txt</code> and <code>tracefile.txt</code>.
+     *
+     * @param worker
+     *            number of the worker (<code>0</code> for the first or only <code>dctool</code> process).
+     * @return commands for loading the development configuration.
+     */
+    final List<String> execute(final int worker) {
         final List<String> commands = new ArrayList<String>();
-        commands.add(template.getSpoolCommand());
-        commands.add(template.getTracefileCommand());
+        commands.add(template.getSpoolCommand(getFileName("spool", worker)));
+        commands.add(template.getTracefileCommand(getFileName("tracefile", worker)));
         commands.add(template.getTimingCommand());
         commands.add(getLoadConfigCommand());
 
         return commands;
     }
 
+    /**
+     * Returns the name of the spool or trace file for the given worker.
+     *
+     * @param prefix
+     *            prefix of the file name.
+     * @param worker
+     *            number of the worker.
+     * @return name of the spool or trace file for the given worker.
+     */
+    private String getFileName(final String prefix, final int worker) {
+        return worker == 0 ? prefix + ".txt" : String.format("%s-%d.txt", prefix, worker);
+    }
+
     /**
      * Get the command for loading a development configuration.
      *
@@ -14,11 +14,11 @@ enum LoadConfigTemplate {
     /**
      * template for connecting and disconnecting a dctool to/from the NWDI (NetWeaver 7.0).
      */
-    V70("loadconfig -u %s -p %s -c \"%s\" -r \"%s\";\n", "exectime -m on;", "spool spool.txt;", "tracefile tracefile.txt;", "exit;"),
+    V70("loadconfig -u %s -p %s -c \"%s\" -r \"%s\";\n", "exectime -m on;", "spool %s;", "tracefile %s;", "exit;"),
     /**
      * template for connecting and disconnecting a dctool to/from the NWDI (NetWeaver 7.1 and onwards).
      */
-    V71("loadconfig -u %s -p %s -v \"%s\" -l \"%s\"", "timing on", "spool spool.txt", "tracefile tracefile.txt", "exit");
+    V71("loadconfig -u %s -p %s -v \"%s\" -l \"%s\"", "timing on", "spool %s", "tracefile %s", "exit");
 
     /**
      * template string for generation of a <code>loadconfig</code> command.
@@ -36,12 +36,12 @@ enum LoadConfigTemplate {
     private final String exitCommand;
 
     /**
-     * command to enable writing into a spool file.
+     * template string for generation of a command to enable writing into a spool file.
      */
     private final String spoolCommand;
 
     /**
-     * command to enable writing into a trace file.
+     * template string for generation of a command to enable writing into a trace file.
      */
     private final String tracefileCommand;
 
@@ -51,8 +51,8 @@ enum LoadConfigTemplate {
      *
      * @param loadConfigCommand template string for generation of a <code>loadconfig</code> command.
      * @param timingCommand     template string for generation of a <code>timing</code> command.
-     * @param spoolCommand      command to enable writing into a spool file.
-     * @param tracefileCommand  command to enable writing into a trace file.
+     * @param spoolCommand      template string for generation of a command to enable writing into a spool file.
+     * @param tracefileCommand  template string for generation of a command to enable writing into a trace file.
      * @param exitCommand       exit command.
      */
     LoadConfigTemplate(final String loadConfigCommand, final String timingCommand, final String spoolCommand,
@@ -86,17 +86,19 @@ enum LoadConfigTemplate {
     }
 
     /**
+     * @param fileName name of the spool file.
      * @return the spoolCommand
      */
-    public String getSpoolCommand() {
-        return spoolCommand;
+    public String getSpoolCommand(final String fileName) {
+        return String.format(spoolCommand, fileName);
     }
 
     /**
+     * @param fileName name of the trace file.
      * @return the tracefileCommand
      */
-    public String getTracefileCommand() {
-        return tracefileCommand;
+    public String getTracefileCommand(final String fileName) {
+        return String.format(tracefileCommand, fileName);
     }
 
     /**
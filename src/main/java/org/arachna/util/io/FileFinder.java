@@ -4,17 +4,29 @@
 package org.arachna.util.io;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Finder for file objects. Scans the given directory recursively for files
  * whose names match the given pattern.
  *
+ * Directories are listed lazily while iterating, using one listing pass per
+ * directory. Directories whose names match one of the given prune rules are
+ * not descended into. Directories that cannot be listed are skipped.
+ *
  * @author Dirk Weigenand
  */
-public final class FileFinder {
+public final class FileFinder implements Iterable<File> {
 
     /**
      * base directory from where to start the search.
@@ -22,19 +34,14 @@ public final class FileFinder {
     private final File baseDir;
 
     /**
-     * Filter used to filter out directories.
-     */
-    private final DirectoryFilter directoryFilter = new DirectoryFilter();
-
-    /**
-     * Filter for file names matching a regular expression.
+     * pattern for file names to match.
      */
-    private final FileNameFilter fileNameFilter;
+    private final Pattern fileNamePattern;
 
     /**
-     * List of matching files.
+     * patterns for names of directories not to descend into.
      */
-    private final List<File> matchingFiles = new ArrayList<File>();
+    private final List<Pattern> prunedDirectoryPatterns = new ArrayList<Pattern>();
 
     /**
      * create a FileFinder instance with a base directory from where to start
@@ -42,10 +49,16 @@ public final class FileFinder {
      *
      * @param baseDir base directory from where to start the search from
      * @param regex   regular expression to match file names against
+     * @param prunedDirectories regular expressions for names of directories
+     *                not to descend into (e.g. <code>\\.svn</code>).
      */
-    public FileFinder(final File baseDir, final String regex) {
+    public FileFinder(final File baseDir, final String regex, final String... prunedDirectories) {
         this.baseDir = baseDir;
-        this.fileNameFilter = new FileNameFilter(regex);
+        this.fileNamePattern = Pattern.compile(regex);
+
+        for (final String prunedDirectory : prunedDirectories) {
+            this.prunedDirectoryPatterns.add(Pattern.compile(prunedDirectory));
+        }
     }
 
     /**
@@ -54,48 +67,152 @@ public final class FileFinder {
      * @return List&lt;File&gt; of matching files.
      */
     public List<File> find() {
-        this.matchingFiles.clear();
-        this.find(this.baseDir);
+        final List<File> matchingFiles = new ArrayList<File>();
 
-        return this.matchingFiles;
-    }
-
-    /**
-     * search for files matching <code>this.pattern</code> recursively starting
-     * at <code>baseDir</code>.
-     *
-     * @param baseDir directory where to start scanning for matching files.
-     * @return list of files matching pattern or empty list
-     */
-    private List<File> find(final File baseDir) {
-        findInDirectories(baseDir.listFiles(this.directoryFilter));
-        addMatchingFiles(baseDir.listFiles(this.fileNameFilter));
+        for (final File file : this) {
+            matchingFiles.add(file);
+        }
 
         return matchingFiles;
     }
 
     /**
-     * Add the given entries to the list of matching files if argument ist not
-     * <code>null</code>.
+     * Returns a lazy iterator over the files matching the given regular
+     * expression. Directories are only listed when the files found so far
+     * have been consumed, so callers can stop at the first hit.
      *
-     * @param entries files to add to the list of matching files
+     * @return lazy iterator over matching files.
      */
-    private void addMatchingFiles(final File[] entries) {
-        if (entries != null) {
-            this.matchingFiles.addAll(Arrays.asList(entries));
-        }
+    @Override
+    public Iterator<File> iterator() {
+        return new FileIterator();
     }
 
     /**
-     * Filter files in the given sub directories.
+     * Lazy iterator over matching files.
      *
-     * @param entries sub directories to filter files in.
+     * @author Dirk Weigenand
      */
-    private void findInDirectories(final File[] entries) {
-        if (entries != null) {
-            for (File entry : entries) {
-                this.find(entry);
+    private final class FileIterator implements Iterator<File> {
+        /**
+         * directories not yet listed.
+         */
+        private final LinkedList<Path> pendingDirectories = new LinkedList<Path>();
+
+        /**
+         * matching files found in the directory listed last and not yet returned.
+         */
+        private final LinkedList<File> matchingFiles = new LinkedList<File>();
+
+        /**
+         * matcher for file names.
+         */
+        private final Matcher fileNameMatcher = fileNamePattern.matcher("");
+
+        /**
+         * matchers for names of directories not to descend into.
+         */
+        private final List<Matcher> prunedDirectoryMatchers = new ArrayList<Matcher>();
+
+        /**
+         * Create an iterator starting at the base directory.
+         */
+        FileIterator() {
+            if (baseDir != null) {
+                pendingDirectories.add(baseDir.toPath());
+            }
+
+            for (final Pattern pattern : prunedDirectoryPatterns) {
+                prunedDirectoryMatchers.add(pattern.matcher(""));
             }
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            while (matchingFiles.isEmpty() && !pendingDirectories.isEmpty()) {
+                list(pendingDirectories.removeFirst());
+            }
+
+            return !matchingFiles.isEmpty();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public File next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return matchingFiles.removeFirst();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * List the given directory. Add matching files to the files to return
+         * and sub directories not pruned to the directories to list.
+         *
+         * @param directory directory to list.
+         */
+        private void list(final Path directory) {
+            final List<Path> subDirectories = new ArrayList<Path>();
+
+            try {
+                final DirectoryStream<Path> entries = Files.newDirectoryStream(directory);
+
+                try {
+                    for (final Path entry : entries) {
+                        final String name = entry.getFileName().toString();
+
+                        if (Files.isDirectory(entry)) {
+                            if (!isPruned(name)) {
+                                subDirectories.add(entry);
+                            }
+                        }
+                        else if (fileNameMatcher.reset(name).matches()) {
+                            matchingFiles.add(entry.toFile());
+                        }
+                    }
+                }
+                finally {
+                    entries.close();
+                }
+            }
+            catch (final IOException e) {
+                // directory can't be listed: skip it like File.listFiles did.
+                return;
+            }
+
+            pendingDirectories.addAll(0, subDirectories);
+        }
+
+        /**
+         * Determine whether the directory with the given name shall not be
+         * descended into.
+         *
+         * @param name name of directory.
+         * @return <code>true</code> when the name matches a prune rule,
+         *         <code>false</code> otherwise.
+         */
+        private boolean isPruned(final String name) {
+            for (final Matcher matcher : prunedDirectoryMatchers) {
+                if (matcher.reset(name).matches()) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
     }
 }
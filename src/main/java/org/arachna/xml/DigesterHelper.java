@@ -5,9 +5,13 @@ package org.arachna.xml;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.apache.commons.digester3.Digester;
 import org.apache.commons.digester3.binder.DigesterLoader;
 import org.apache.commons.io.IOUtils;
@@ -17,9 +21,37 @@ import org.xml.sax.SAXException;
 /**
  * Helper class for parsing XML files using Digester3.
  * 
+ * Compiling the rules of a <code>RulesModule</code> into a Digester is expensive compared to parsing the small configuration files this
+ * helper is used for. Digesters are therefore reused per thread (after clearing them) for all documents parsed by this helper. Digesters
+ * for {@link StatelessRulesModuleProducer}s are reused for all instances of the producer class. Digesters are not shared between
+ * threads since rules bound as instances are attached to exactly one Digester.
+ * 
+ * When the use of StAX readers is enabled (see {@link #setStaxReadersEnabled(boolean)}) documents are read using the hand written
+ * {@link StaxReader} of {@link StaxReaderProducer}s instead of Digester.
+ * 
  * @author Dirk Weigenand
  */
 public final class DigesterHelper<T> {
+    /**
+     * whether documents are read using the StAX readers of {@link StaxReaderProducer}s instead of Digester.
+     */
+    private static volatile boolean staxReadersEnabled;
+
+    /**
+     * Digesters reused by the current thread mapped by the class of the {@link StatelessRulesModuleProducer} they were created for.
+     */
+    private static final ThreadLocal<Map<Class<?>, Digester>> SHARED_DIGESTERS = new ThreadLocal<Map<Class<?>, Digester>>() {
+        @Override
+        protected Map<Class<?>, Digester> initialValue() {
+            return new HashMap<Class<?>, Digester>();
+        }
+    };
+
+    /**
+     * Digester reused by the current thread for producers whose rules depend on the producer instance.
+     */
+    private final ThreadLocal<Digester> digesters = new ThreadLocal<Digester>();
+
     /**
      * producer for <code>RulesModule</code> instances that should be used to control the parsing process.
      */
@@ -49,7 +81,15 @@ public final class DigesterHelper<T> {
      */
     public T execute(final Reader reader) {
         try {
-            return createDigester().<T> parse(reader);
+            if (isStaxReaderUsed()) {
+                return createStaxReader().read(reader, null);
+            }
+
+            final Digester digester = acquireDigester();
+            final T result = digester.<T> parse(reader);
+            releaseDigester(digester);
+
+            return result;
         }
         catch (final SAXException e) {
             Logger logger = Logger.getLogger(getClass().getName());
@@ -67,6 +107,9 @@ public final class DigesterHelper<T> {
         catch (final IOException e) {
             throw new IllegalStateException(e);
         }
+        catch (final XMLStreamException e) {
+            throw new IllegalStateException(e);
+        }
         finally {
             try {
                 reader.close();
@@ -88,10 +131,17 @@ public final class DigesterHelper<T> {
      */
     public T update(final Reader reader, final T updatee) {
         try {
-            final Digester digester = createDigester();
+            if (isStaxReaderUsed()) {
+                return createStaxReader().read(reader, updatee);
+            }
+
+            final Digester digester = acquireDigester();
             digester.push(updatee);
 
-            return digester.<T> parse(reader);
+            final T result = digester.<T> parse(reader);
+            releaseDigester(digester);
+
+            return result;
         }
         catch (final SAXException e) {
             Logger logger = Logger.getLogger(getClass().getName());
@@ -103,6 +153,9 @@ public final class DigesterHelper<T> {
         catch (final IOException e) {
             throw new IllegalStateException(e);
         }
+        catch (final XMLStreamException e) {
+            throw new IllegalStateException(e);
+        }
         finally {
             try {
                 reader.close();
@@ -113,6 +166,89 @@ public final class DigesterHelper<T> {
         }
     }
 
+    /**
+     * Determine whether documents shall be read using the StAX reader of the <code>rulesProducer</code>.
+     * 
+     * @return <code>true</code> when the <code>rulesProducer</code> provides a StAX reader and their use is enabled, <code>false</code>
+     *         otherwise.
+     */
+    private boolean isStaxReaderUsed() {
+        return rulesProducer instanceof StaxReaderProducer && staxReadersEnabled;
+    }
+
+    /**
+     * Returns whether documents are read using the StAX readers of {@link StaxReaderProducer}s instead of Digester.
+     * 
+     * @return <code>true</code> when StAX readers are used, <code>false</code> otherwise.
+     */
+    public static boolean isStaxReadersEnabled() {
+        return staxReadersEnabled;
+    }
+
+    /**
+     * Sets whether documents shall be read using the StAX readers of {@link StaxReaderProducer}s instead of Digester. The setting
+     * applies to all <code>DigesterHelper</code> instances.
+     * 
+     * @param enabled
+     *            <code>true</code> when StAX readers shall be used, <code>false</code> when documents shall be read using Digester.
+     */
+    public static void setStaxReadersEnabled(final boolean enabled) {
+        staxReadersEnabled = enabled;
+    }
+
+    /**
+     * Create a StAX reader using the <code>rulesProducer</code>.
+     * 
+     * @return a new StAX reader.
+     */
+    @SuppressWarnings("unchecked")
+    private StaxReader<T> createStaxReader() {
+        return ((StaxReaderProducer<T>)rulesProducer).createStaxReader();
+    }
+
+    /**
+     * Take a <code>Digester</code> for the <code>rulesProducer</code> from the pool of the current thread or create a new one when there is
+     * none. The Digester is removed from the pool while in use so nested parsing with the same rules gets its own instance.
+     * 
+     * @return a Digester for the <code>RulesModule</code> of the <code>rulesProducer</code>.
+     */
+    private Digester acquireDigester() {
+        Digester digester;
+
+        if (rulesProducer instanceof StatelessRulesModuleProducer) {
+            digester = SHARED_DIGESTERS.get().remove(rulesProducer.getClass());
+        }
+        else {
+            digester = digesters.get();
+            digesters.remove();
+        }
+
+        if (digester == null) {
+            digester = createDigester();
+        }
+
+        return digester;
+    }
+
+    /**
+     * Clear the given <code>Digester</code> and return it to the pool of the current thread. Only Digesters that parsed a document
+     * successfully are returned, Digesters that failed are left to the garbage collector.
+     * 
+     * @param digester
+     *            Digester that finished parsing a document.
+     */
+    private void releaseDigester(final Digester digester) {
+        digester.clear();
+        digester.resetRoot();
+
+        if (rulesProducer instanceof StatelessRulesModuleProducer) {
+            SHARED_DIGESTERS.get().put(rulesProducer.getClass(), digester);
+        }
+        else {
+            digesters.set(digester);
+        }
+    }
+
     /**
      * Create a <code>Digester</code> using the <code>RulesModule</code> from the <code>rulesProducer</code>.
      * 
@@ -0,0 +1,15 @@
+/**
+ *
+ */
+package org.arachna.xml;
+
+/**
+ * Marker interface for {@link RulesModuleProducer}s whose rules do not depend on the state of the producer instance.
+ *
+ * The rules of such producers are compiled once per thread and producer class. The resulting Digester is reused for all instances of
+ * the producer class by {@link DigesterHelper}.
+ *
+ * @author Dirk Weigenand
+ */
+public interface StatelessRulesModuleProducer extends RulesModuleProducer {
+}
@@ -0,0 +1,191 @@
+/**
+ *
+ */
+package org.arachna.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.util.LinkedList;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Base class for hand written StAX pull readers of small XML configuration files.
+ *
+ * Elements are reported by their path relative to the document (e.g. <code>development-component/name</code>) like the patterns of a
+ * Digester <code>RulesModule</code>. The body text passed to {@link #endElement(String, String)} is the text directly contained in the
+ * element (untrimmed). Names are not namespace aware (i.e. qualified names are used).
+ *
+ * Instances keep state while reading a document and must not be shared between threads. Use one instance per document.
+ *
+ * @param <T>
+ *            type of object read or updated.
+ * @author Dirk Weigenand
+ */
+public abstract class StaxReader<T> {
+    /**
+     * factory for stream readers (not namespace aware, external entities resolved to empty documents).
+     */
+    private static final XMLInputFactory FACTORY = createInputFactory();
+
+    /**
+     * the object read or updated.
+     */
+    private T result;
+
+    /**
+     * Read the document from the given reader.
+     *
+     * @param reader
+     *            reader for the XML document.
+     * @param updatee
+     *            object to update from the document or <code>null</code> when the reader creates the object itself.
+     * @return the object read or updated from the document.
+     * @throws XMLStreamException
+     *             when the document is not well formed or processing an element fails.
+     */
+    public final T read(final Reader reader, final T updatee) throws XMLStreamException {
+        final XMLStreamReader xml = FACTORY.createXMLStreamReader(reader);
+        final LinkedList<StringBuilder> bodies = new LinkedList<StringBuilder>();
+        String path = "";
+        result = updatee;
+
+        try {
+            while (xml.hasNext()) {
+                switch (xml.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        path = path.isEmpty() ? getName(xml) : path + '/' + getName(xml);
+                        bodies.push(new StringBuilder());
+                        startElement(path, xml);
+                        break;
+
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (!bodies.isEmpty()) {
+                            bodies.peek().append(xml.getText());
+                        }
+
+                        break;
+
+                    case XMLStreamConstants.END_ELEMENT:
+                        endElement(path, bodies.pop().toString());
+                        path = path.substring(0, Math.max(0, path.lastIndexOf('/')));
+                        break;
+
+                    default:
+                        break;
+                }
+            }
+
+            return result;
+        }
+        finally {
+            xml.close();
+        }
+    }
+
+    /**
+     * Called when an element starts. Attributes can be read from the given stream reader.
+     *
+     * @param path
+     *            path of the element.
+     * @param reader
+     *            stream reader positioned at the start of the element.
+     * @throws XMLStreamException
+     *             when processing the element fails.
+     */
+    protected void startElement(final String path, final XMLStreamReader reader) throws XMLStreamException {
+    }
+
+    /**
+     * Called when an element ends.
+     *
+     * @param path
+     *            path of the element.
+     * @param text
+     *            body text directly contained in the element.
+     * @throws XMLStreamException
+     *             when processing the element fails.
+     */
+    protected void endElement(final String path, final String text) throws XMLStreamException {
+    }
+
+    /**
+     * Returns the object read or updated.
+     *
+     * @return the object read or updated.
+     */
+    protected final T getResult() {
+        return result;
+    }
+
+    /**
+     * Sets the object read from the document.
+     *
+     * @param result
+     *            the object read from the document.
+     */
+    protected final void setResult(final T result) {
+        this.result = result;
+    }
+
+    /**
+     * Returns the value of the attribute with the given (qualified) name of the current element.
+     *
+     * @param reader
+     *            stream reader positioned at the start of an element.
+     * @param name
+     *            name of attribute.
+     * @return the value of the attribute or <code>null</code> when the element has no such attribute.
+     */
+    protected final String getAttributeValue(final XMLStreamReader reader, final String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            final String prefix = reader.getAttributePrefix(i);
+            final String localName = reader.getAttributeLocalName(i);
+
+            if (name.equals(prefix == null || prefix.isEmpty() ? localName : prefix + ':' + localName)) {
+                return reader.getAttributeValue(i);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the qualified name of the current element.
+     *
+     * @param reader
+     *            stream reader positioned at the start of an element.
+     * @return the qualified name of the current element.
+     */
+    private String getName(final XMLStreamReader reader) {
+        final String prefix = reader.getPrefix();
+
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ':' + reader.getLocalName();
+    }
+
+    /**
+     * Create the factory for stream readers.
+     *
+     * @return factory for stream readers.
+     */
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setXMLResolver(new XMLResolver() {
+            @Override
+            public Object resolveEntity(final String publicID, final String systemID, final String baseURI, final String namespace)
+                throws XMLStreamException {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+        });
+
+        return factory;
+    }
+}
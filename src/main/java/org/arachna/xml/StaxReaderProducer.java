@@ -0,0 +1,23 @@
+/**
+ *
+ */
+package org.arachna.xml;
+
+/**
+ * {@link RulesModuleProducer} that also provides a hand written {@link StaxReader} for the documents its rules parse.
+ *
+ * {@link DigesterHelper} uses the StAX reader instead of Digester when StAX readers are enabled (see
+ * {@link DigesterHelper#setStaxReadersEnabled(boolean)}).
+ *
+ * @param <T>
+ *            type of object read or updated.
+ * @author Dirk Weigenand
+ */
+public interface StaxReaderProducer<T> extends RulesModuleProducer {
+    /**
+     * Create a new StAX reader equivalent to the rules of this producer.
+     *
+     * @return a new StAX reader for reading one document.
+     */
+    StaxReader<T> createStaxReader();
+}
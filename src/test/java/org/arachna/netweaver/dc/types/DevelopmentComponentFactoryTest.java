@@ -0,0 +1,174 @@
+/**
+ *
+ */
+package org.arachna.netweaver.dc.types;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DevelopmentComponentFactory}.
+ *
+ * @author Dirk Weigenand
+ */
+public class DevelopmentComponentFactoryTest {
+    /**
+     * number of development components in synthetic track.
+     */
+    private static final int COMPONENT_COUNT = 10000;
+
+    /**
+     * maximum number of public part references per development component.
+     */
+    private static final int MAX_REFERENCES = 6;
+
+    /**
+     * every n-th DC of the synthetic track is compared against the pairwise computation of its using DCs.
+     */
+    private static final int SAMPLE_RATE = 40;
+
+    /**
+     * vendors used in synthetic track.
+     */
+    private static final String[] VENDORS = { "example.com", "sap.com" };
+
+    /**
+     * registry for development components.
+     */
+    private DevelopmentComponentFactory dcFactory;
+
+    /**
+     * Set up fixture.
+     */
+    @Before
+    public void setUp() {
+        dcFactory = new DevelopmentComponentFactory();
+    }
+
+    /**
+     * Assert that a DC referenced by another DC gets the latter as using DC.
+     */
+    @Test
+    public void testUpdateUsingDCs() {
+        final DevelopmentComponent used = dcFactory.create("example.com", "used");
+        final DevelopmentComponent user =
+            dcFactory.create("example.com", "user", new PublicPart[0], new PublicPartReference[] {
+                new PublicPartReference("example.com", "used", "api"), new PublicPartReference("sap.com", "unknown", "api") });
+
+        dcFactory.updateUsingDCs();
+
+        assertThat(new ArrayList<DevelopmentComponent>(used.getUsingDevelopmentComponents()), equalTo(asList(user)));
+        assertThat(user.getUsingDevelopmentComponents().isEmpty(), equalTo(true));
+    }
+
+    /**
+     * Assert that the using DCs computed for a synthetic track of 10000 DCs are the same (and in the same order) as those determined by
+     * checking every DC's references against every other DC. The pairwise comparison is done for a sample of the DCs, the number of
+     * edges is verified for all of them.
+     */
+    @Test
+    public void testUpdateUsingDCsOnLargeTrackMatchesPairwiseComparison() {
+        final Random random = new Random(4711);
+
+        for (int i = 0; i < COMPONENT_COUNT; i++) {
+            final int referenceCount = random.nextInt(MAX_REFERENCES + 1);
+            final PublicPartReference[] references = new PublicPartReference[referenceCount];
+
+            for (int j = 0; j < referenceCount; j++) {
+                // include references to DCs not contained in the track
+                references[j] =
+                    new PublicPartReference(VENDORS[random.nextInt(VENDORS.length)], "dc" + random.nextInt(COMPONENT_COUNT + 100),
+                        "api");
+            }
+
+            dcFactory.create(VENDORS[i % VENDORS.length], "dc" + i, new PublicPart[0], references);
+        }
+
+        dcFactory.updateUsingDCs();
+
+        final List<DevelopmentComponent> components = new ArrayList<DevelopmentComponent>(dcFactory.getAll());
+        int expectedEdges = 0;
+        int edges = 0;
+
+        for (int i = 0; i < components.size(); i++) {
+            final DevelopmentComponent root = components.get(i);
+            edges += root.getUsingDevelopmentComponents().size();
+            expectedEdges += countResolvableReferences(root);
+
+            if (i % SAMPLE_RATE == 0) {
+                assertThat(root.getName(), new ArrayList<DevelopmentComponent>(root.getUsingDevelopmentComponents()),
+                    equalTo(getUsingDCsPairwise(components, root)));
+            }
+        }
+
+        assertThat(edges, equalTo(expectedEdges));
+    }
+
+    /**
+     * Count the distinct registered development components referenced by the given DC.
+     *
+     * @param component
+     *            development component whose references shall be counted.
+     * @return the number of distinct registered development components referenced by the given DC.
+     */
+    private int countResolvableReferences(final DevelopmentComponent component) {
+        final List<DevelopmentComponent> referenced = new ArrayList<DevelopmentComponent>();
+
+        for (final PublicPartReference reference : component.getUsedDevelopmentComponents()) {
+            final DevelopmentComponent usedComponent = dcFactory.get(reference);
+
+            if (usedComponent != null && !referenced.contains(usedComponent)) {
+                referenced.add(usedComponent);
+            }
+        }
+
+        return referenced.size();
+    }
+
+    /**
+     * Determine the using DCs of the given DC by checking the references of all given DCs.
+     *
+     * @param components
+     *            all registered development components.
+     * @param root
+     *            the development component whose using DCs shall be determined.
+     * @return the development components referencing the given one.
+     */
+    private List<DevelopmentComponent> getUsingDCsPairwise(final List<DevelopmentComponent> components, final DevelopmentComponent root) {
+        final List<DevelopmentComponent> usingDCs = new ArrayList<DevelopmentComponent>();
+
+        for (final DevelopmentComponent component : components) {
+            for (final PublicPartReference reference : component.getUsedDevelopmentComponents()) {
+                if (reference.references(root) && !usingDCs.contains(component)) {
+                    usingDCs.add(component);
+                }
+            }
+        }
+
+        return usingDCs;
+    }
+
+    /**
+     * Create a list containing the given development components.
+     *
+     * @param components
+     *            development components to put into the list.
+     * @return a list of the given development components.
+     */
+    private List<DevelopmentComponent> asList(final DevelopmentComponent... components) {
+        final List<DevelopmentComponent> list = new ArrayList<DevelopmentComponent>();
+
+        for (final DevelopmentComponent component : components) {
+            list.add(component);
+        }
+
+        return list;
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for the concurrent collection of development components by {@link DevelopmentComponentCollector}.
+ *
+ * @author Dirk Weigenand
+ */
+public class DevelopmentComponentCollectorTest {
+    /**
+     * number of activities used in tests.
+     */
+    private static final int ACTIVITY_COUNT = 4;
+
+    /**
+     * name of the development component in the example resource list.
+     */
+    private static final String EXAMPLE_DC = "example/development/component";
+
+    /**
+     * pattern extracting the number of the activity from queries.
+     */
+    private static final Pattern ACTIVITY_NUMBER = Pattern.compile("path=/act/a(\\d+)");
+
+    /**
+     * HTTP server standing in for the DTR.
+     */
+    private HttpServer server;
+
+    /**
+     * number of the activity whose details can't be read (0 when all activities can be read).
+     */
+    private volatile int failingActivity;
+
+    /**
+     * registry for development components.
+     */
+    private DevelopmentComponentFactory dcFactory;
+
+    /**
+     * Start the HTTP server standing in for the DTR. The resources of activities are sent with a delay decreasing with the number of the
+     * activity so queries for later activities complete first.
+     *
+     * @throws IOException
+     *             when the server could not be started
+     */
+    @Before
+    public void setUp() throws IOException {
+        dcFactory = new DevelopmentComponentFactory();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                respond(exchange);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Stop the server and close the HTTP clients.
+     */
+    @After
+    public void tearDown() {
+        server.stop(0);
+        DtrHttpClientRegistry.shutdown();
+    }
+
+    /**
+     * Assert that the development components are returned in the order of the activities regardless of the order the queries complete
+     * in.
+     */
+    @Test
+    public void developmentComponentsAreMergedInOrderOfActivities() {
+        assertThat(getNames(createCollector().collect(createActivities())), equalTo(getExpectedNames(0)));
+    }
+
+    /**
+     * Assert that an activity whose details can't be read does not prevent collecting the development components of the other
+     * activities.
+     */
+    @Test
+    public void failingActivityDoesNotDropOtherDevelopmentComponents() {
+        failingActivity = 2;
+
+        assertThat(getNames(createCollector().collect(createActivities())), equalTo(getExpectedNames(failingActivity)));
+    }
+
+    /**
+     * Assert that no development components are collected for an empty list of activities.
+     */
+    @Test
+    public void noDevelopmentComponentsForEmptyListOfActivities() {
+        assertThat(createCollector().collect(new ArrayList<Activity>()).isEmpty(), equalTo(true));
+    }
+
+    /**
+     * Create the collector under test.
+     *
+     * @return collector querying the HTTP server with {@link #ACTIVITY_COUNT} threads.
+     */
+    private DevelopmentComponentCollector createCollector() {
+        final String serverUrl = String.format("http://localhost:%d", server.getAddress().getPort());
+
+        return new DevelopmentComponentCollector(DtrHttpClientRegistry.get(serverUrl, "user", "secret", ACTIVITY_COUNT, false), serverUrl,
+            dcFactory, ACTIVITY_COUNT, null);
+    }
+
+    /**
+     * Create the activities used in tests.
+     *
+     * @return activities numbered from 1 to {@link #ACTIVITY_COUNT}.
+     */
+    private List<Activity> createActivities() {
+        final List<Activity> activities = new ArrayList<Activity>();
+
+        for (int i = 1; i <= ACTIVITY_COUNT; i++) {
+            activities.add(new Activity("/dtr/system-tools/reports/ResourceDetails?technical=false&path=/act/a" + i, new Principal(
+                "Developer"), "activity " + i, new Date()));
+        }
+
+        return activities;
+    }
+
+    /**
+     * Returns the names of the given development components in iteration order.
+     *
+     * @param components
+     *            development components.
+     * @return names of the given development components.
+     */
+    private List<String> getNames(final Iterable<DevelopmentComponent> components) {
+        final List<String> names = new ArrayList<String>();
+
+        for (final DevelopmentComponent component : components) {
+            names.add(component.getName());
+        }
+
+        return names;
+    }
+
+    /**
+     * Returns the names of the development components expected to be collected.
+     *
+     * @param skippedActivity
+     *            number of the activity whose development component is not expected (0 when all are expected).
+     * @return names of the development components of the activities in the order of the activities.
+     */
+    private List<String> getExpectedNames(final int skippedActivity) {
+        final List<String> names = new ArrayList<String>();
+
+        for (int i = 1; i <= ACTIVITY_COUNT; i++) {
+            if (i != skippedActivity) {
+                names.add("example/dc" + i);
+            }
+        }
+
+        return names;
+    }
+
+    /**
+     * Answer the given request with the example report matching it. The resources of activity <code>n</code> belong to the development
+     * component <code>example/dc&lt;n&gt;</code>.
+     *
+     * @param exchange
+     *            the request to answer.
+     * @throws IOException
+     *             when sending the response fails
+     */
+    private void respond(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        final String query = exchange.getRequestURI().getRawQuery();
+        final Matcher activity = ACTIVITY_NUMBER.matcher(query == null ? "" : query);
+        byte[] content = read("ResourceDetails1.html");
+
+        if (activity.find()) {
+            final int number = Integer.parseInt(activity.group(1));
+
+            if (number == failingActivity) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+
+            if (path.endsWith("/ResourceSetDetails")) {
+                delay(number);
+                content = new String(read("ResourceList.html"), "UTF-8").replace(EXAMPLE_DC, "example/dc" + number).getBytes("UTF-8");
+            }
+            else {
+                content = read("ResourceDetails.htm");
+            }
+        }
+
+        exchange.sendResponseHeaders(200, content.length);
+        final OutputStream body = exchange.getResponseBody();
+        body.write(content);
+        body.close();
+        exchange.close();
+    }
+
+    /**
+     * Delay the response for the given activity so that queries for later activities complete first.
+     *
+     * @param number
+     *            number of the activity.
+     */
+    private void delay(final int number) {
+        try {
+            Thread.sleep((ACTIVITY_COUNT - number + 1) * 100L);
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Read the given example report.
+     *
+     * @param page
+     *            name of the example report.
+     * @return content of the example report.
+     * @throws IOException
+     *             when reading the report fails
+     */
+    private byte[] read(final String page) throws IOException {
+        final InputStream input = getClass().getResourceAsStream(page);
+
+        try {
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int count;
+
+            while ((count = input.read(buffer)) != -1) {
+                content.write(buffer, 0, count);
+            }
+
+            return content.toByteArray();
+        }
+        finally {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.arachna.netweaver.dc.types.Compartment;
+import org.arachna.netweaver.dc.types.CompartmentState;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.arachna.netweaver.dc.types.DevelopmentConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for the incremental activity queries of {@link DtrBrowser}.
+ *
+ * @author Dirk Weigenand
+ */
+public class DtrBrowserTest {
+    /**
+     * inactive workspace of the compartment the example activities were integrated into (with ISN 30).
+     */
+    private static final String INACTIVE_LOCATION = "ws/Example/example.com_EXAMPLE_SC1/dev/inactive/";
+
+    /**
+     * HTTP server standing in for the DTR.
+     */
+    private HttpServer server;
+
+    /**
+     * queries of the activity reports received by the server.
+     */
+    private final List<String> activityQueries = Collections.synchronizedList(new ArrayList<String>());
+
+    /**
+     * the compartment activities are queried for.
+     */
+    private Compartment compartment;
+
+    /**
+     * browser under test.
+     */
+    private DtrBrowser browser;
+
+    /**
+     * Start the HTTP server standing in for the DTR and create the browser under test.
+     *
+     * @throws IOException
+     *             when the server could not be started
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                respond(exchange);
+            }
+        });
+        server.start();
+
+        final String cmsUrl = String.format("http://localhost:%d", server.getAddress().getPort());
+        final DevelopmentConfiguration config = new DevelopmentConfiguration("DI0_Example_D");
+        config.setCmsUrl(cmsUrl);
+        compartment = Compartment.create("example.com_EXAMPLE_SC1_1", CompartmentState.Source);
+        compartment.setDtrUrl(cmsUrl + "/dtr");
+        compartment.setInactiveLocation(INACTIVE_LOCATION);
+        config.add(compartment);
+        browser = new DtrBrowser(config, "user", "secret");
+    }
+
+    /**
+     * Stop the server and close the HTTP clients.
+     */
+    @After
+    public void tearDown() {
+        server.stop(0);
+        DtrHttpClientRegistry.shutdown();
+    }
+
+    /**
+     * Assert that the whole history of a compartment is queried when no integration sequence number was recorded for it.
+     */
+    @Test
+    public void allActivitiesAreQueriedWithoutIntegrationSequenceNumber() {
+        browser.getActivities(new Date(0), null);
+
+        assertThat(activityQueries.size(), equalTo(1));
+        assertThat(activityQueries.get(0), containsString("&isnFrom=&"));
+    }
+
+    /**
+     * Assert that only activities integrated after the recorded integration sequence number are queried.
+     */
+    @Test
+    public void activitiesAreQueriedFromNextIntegrationSequenceNumber() {
+        final Map<String, Integer> isns = new HashMap<String, Integer>();
+        isns.put(compartment.getName(), Integer.valueOf(41));
+
+        assertThat(browser.getActivities(new Date(0), isns).isEmpty(), equalTo(false));
+        assertThat(activityQueries.get(0), containsString("&isnFrom=42&"));
+    }
+
+    /**
+     * Assert that the highest integration sequence number of the activities read is recorded and used by the next query.
+     */
+    @Test
+    public void highestIntegrationSequenceNumberIsRecordedForNextQuery() {
+        final Map<String, Integer> isns = new HashMap<String, Integer>();
+        isns.put(compartment.getName(), Integer.valueOf(12));
+
+        browser.getActivitiesWithResourcesAndDevelopmentComponents(new DevelopmentComponentFactory(), new Date(0), isns);
+        final Map<String, Integer> recorded = browser.getIntegrationSequenceNumbers();
+        browser.getActivities(new Date(0), recorded);
+
+        assertThat(recorded.get(compartment.getName()), equalTo(Integer.valueOf(30)));
+        assertThat(activityQueries.get(0), containsString("&isnFrom=13&"));
+        assertThat(activityQueries.get(1), containsString("&isnFrom=31&"));
+    }
+
+    /**
+     * Assert that an integration sequence number is not lowered by activities integrated earlier.
+     */
+    @Test
+    public void higherIntegrationSequenceNumberIsKept() {
+        final Map<String, Integer> isns = new HashMap<String, Integer>();
+        isns.put(compartment.getName(), Integer.valueOf(50));
+
+        browser.getActivitiesWithResourcesAndDevelopmentComponents(new DevelopmentComponentFactory(), new Date(0), isns);
+
+        assertThat(browser.getIntegrationSequenceNumbers().get(compartment.getName()), equalTo(Integer.valueOf(50)));
+        assertThat(activityQueries.get(0), not(containsString("&isnFrom=&")));
+    }
+
+    /**
+     * Answer the given request with the example report matching it.
+     *
+     * @param exchange
+     *            the request to answer.
+     * @throws IOException
+     *             when sending the response fails
+     */
+    private void respond(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        final String query = exchange.getRequestURI().getRawQuery();
+        String page = "ResourceDetails1.html";
+
+        if (path.endsWith("/ActivityQuery")) {
+            activityQueries.add(query);
+            page = "ExampleTrackActivityQuery.html";
+        }
+        else if (path.endsWith("/ResourceSetDetails")) {
+            page = "ResourceList.html";
+        }
+        else if (query != null && query.contains("path=/act/")) {
+            page = "ResourceDetails.htm";
+        }
+
+        final byte[] content = read(page);
+        exchange.sendResponseHeaders(200, content.length);
+        final OutputStream body = exchange.getResponseBody();
+        body.write(content);
+        body.close();
+        exchange.close();
+    }
+
+    /**
+     * Read the given example report.
+     *
+     * @param page
+     *            name of the example report.
+     * @return content of the example report.
+     * @throws IOException
+     *             when reading the report fails
+     */
+    private byte[] read(final String page) throws IOException {
+        final InputStream input = getClass().getResourceAsStream(page);
+
+        try {
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int count;
+
+            while ((count = input.read(buffer)) != -1) {
+                content.write(buffer, 0, count);
+            }
+
+            return content.toByteArray();
+        }
+        finally {
+            input.close();
+        }
+    }
+}
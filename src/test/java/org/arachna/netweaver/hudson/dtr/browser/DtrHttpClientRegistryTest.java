@@ -0,0 +1,211 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for {@link DtrHttpClientRegistry}.
+ *
+ * @author Dirk Weigenand
+ */
+public class DtrHttpClientRegistryTest {
+    /**
+     * URL of DTR used in tests.
+     */
+    private static final String DTR_URL = "http://dtr.example.com:50000/dtr";
+
+    /**
+     * DTR user used in tests.
+     */
+    private static final String USER = "user";
+
+    /**
+     * password used in tests.
+     */
+    private static final String PASSWORD = "secret";
+
+    /**
+     * HTTP server standing in for the DTR.
+     */
+    private HttpServer server;
+
+    /**
+     * <code>Authorization</code> headers of the requests received by the server (<code>null</code> for requests without one).
+     */
+    private final List<String> authorizations = Collections.synchronizedList(new ArrayList<String>());
+
+    /**
+     * Start the HTTP server standing in for the DTR. It challenges requests without credentials.
+     *
+     * @throws IOException
+     *             when the server could not be started
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+                authorizations.add(authorization);
+
+                if (authorization == null) {
+                    exchange.getResponseHeaders().add("WWW-Authenticate", "Basic realm=\"DTR\"");
+                    exchange.sendResponseHeaders(401, -1);
+                }
+                else {
+                    final byte[] content = "ok".getBytes("UTF-8");
+                    exchange.sendResponseHeaders(200, content.length);
+                    final OutputStream body = exchange.getResponseBody();
+                    body.write(content);
+                    body.close();
+                }
+
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Stop the server and close all registered clients.
+     */
+    @After
+    public void tearDown() {
+        server.stop(0);
+        DtrHttpClientRegistry.shutdown();
+    }
+
+    /**
+     * Assert that the same client is returned for the same DTR host, user, password, number of connections and authentication mode.
+     */
+    @Test
+    public void clientIsReusedForSameHostAndCredentials() {
+        final DtrHttpClient client = DtrHttpClientRegistry.get(DTR_URL, USER, PASSWORD, 2, false);
+
+        assertThat(DtrHttpClientRegistry.get("http://dtr.example.com:50000/dtr/ws", USER, PASSWORD, 2, false), sameInstance(client));
+    }
+
+    /**
+     * Assert that clients for other hosts, users, numbers of connections or authentication modes are not shared.
+     */
+    @Test
+    public void clientsAreKeyedByHostUserConnectionsAndAuthenticationMode() {
+        final DtrHttpClient client = DtrHttpClientRegistry.get(DTR_URL, USER, PASSWORD, 2, false);
+
+        assertThat(DtrHttpClientRegistry.get("http://other.example.com:50000/dtr", USER, PASSWORD, 2, false), not(sameInstance(client)));
+        assertThat(DtrHttpClientRegistry.get(DTR_URL, "other", PASSWORD, 2, false), not(sameInstance(client)));
+        assertThat(DtrHttpClientRegistry.get(DTR_URL, USER, PASSWORD, 4, false), not(sameInstance(client)));
+        assertThat(DtrHttpClientRegistry.get(DTR_URL, USER, PASSWORD, 2, true), not(sameInstance(client)));
+        assertThat(DtrHttpClientRegistry.get(DTR_URL, USER, PASSWORD, 2, false), sameInstance(client));
+    }
+
+    /**
+     * Assert that the client registered for a user is closed and replaced when the user's password changes.
+     */
+    @Test
+    public void clientIsReplacedWhenPasswordChanges() {
+        final DtrHttpClient client = DtrHttpClientRegistry.get(getServerUrl(), USER, PASSWORD, 2, false);
+        final DtrHttpClient replacement = DtrHttpClientRegistry.get(getServerUrl(), USER, "changed", 2, false);
+
+        assertThat(replacement, not(sameInstance(client)));
+        assertThat(isClosed(client), equalTo(true));
+        assertThat(DtrHttpClientRegistry.get(getServerUrl(), USER, "changed", 2, false), sameInstance(replacement));
+    }
+
+    /**
+     * Assert that idle clients are closed and removed from the registry.
+     */
+    @Test
+    public void idleClientIsEvicted() {
+        final DtrHttpClient client = DtrHttpClientRegistry.get(getServerUrl(), USER, PASSWORD, 2, false);
+
+        DtrHttpClientRegistry.evictIdleClients(DtrHttpClientRegistry.MAX_IDLE_TIME);
+        assertThat(DtrHttpClientRegistry.get(getServerUrl(), USER, PASSWORD, 2, false), sameInstance(client));
+
+        DtrHttpClientRegistry.evictIdleClients(0);
+
+        assertThat(isClosed(client), equalTo(true));
+        assertThat(DtrHttpClientRegistry.get(getServerUrl(), USER, PASSWORD, 2, false), not(sameInstance(client)));
+    }
+
+    /**
+     * Assert that a client using preemptive authentication sends its credentials with the first request.
+     *
+     * @throws IOException
+     *             re-thrown from executing the request
+     */
+    @Test
+    public void preemptiveClientSendsCredentialsWithFirstRequest() throws IOException {
+        DtrHttpClientRegistry.get(getServerUrl(), USER, PASSWORD, 2, true).getContent(getServerUrl());
+
+        assertThat(authorizations.size(), equalTo(1));
+        assertThat(authorizations.get(0), not(nullValue()));
+    }
+
+    /**
+     * Assert that a client not using preemptive authentication sends its credentials after being challenged by the DTR.
+     *
+     * @throws IOException
+     *             re-thrown from executing the request
+     */
+    @Test
+    public void clientSendsCredentialsWhenChallenged() throws IOException {
+        DtrHttpClientRegistry.get(getServerUrl(), USER, PASSWORD, 2, false).getContent(getServerUrl());
+
+        assertThat(authorizations.size(), equalTo(2));
+        assertThat(authorizations.get(0), nullValue());
+        assertThat(authorizations.get(1), not(nullValue()));
+    }
+
+    /**
+     * Returns the URL of the HTTP server standing in for the DTR.
+     *
+     * @return URL of the HTTP server.
+     */
+    private String getServerUrl() {
+        return String.format("http://localhost:%d/dtr/", server.getAddress().getPort());
+    }
+
+    /**
+     * Determine whether the given client was closed, i.e. refuses to execute requests.
+     *
+     * @param client
+     *            client to examine.
+     * @return <code>true</code> when the client was closed, <code>false</code> otherwise.
+     */
+    private boolean isClosed(final DtrHttpClient client) {
+        try {
+            client.getContent(getServerUrl());
+
+            return false;
+        }
+        catch (final IllegalStateException e) {
+            return true;
+        }
+        catch (final IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ReportContentExtractor} (and {@link HtmlTokenizer}).
+ * 
+ * @author Dirk Weigenand
+ */
+public class ReportContentExtractorTest {
+    /**
+     * rows reported by the extractor (prefixed with their table depth).
+     */
+    private List<String> rows;
+
+    /**
+     * links reported by the extractor.
+     */
+    private List<String> anchors;
+
+    /**
+     */
+    @Before
+    public void setUp() {
+        rows = new ArrayList<String>();
+        anchors = new ArrayList<String>();
+    }
+
+    @Test
+    public void testUnclosedRowsAndCellsAreReported() throws IOException {
+        extract("<table><tr><th>Name<td>a<tr><td>b</table>");
+
+        assertEquals(2, rows.size());
+        assertEquals("1:[th]Name|a", rows.get(0));
+        assertEquals("1:b", rows.get(1));
+    }
+
+    @Test
+    public void testNestedTableTextGoesToInnermostCell() throws IOException {
+        extract("<TABLE><TR><TD>outer<table><tr><td>inner</td></tr></table></TD></TR></TABLE>");
+
+        assertEquals(2, rows.size());
+        assertEquals("2:inner", rows.get(0));
+        assertEquals("1:outer", rows.get(1));
+    }
+
+    @Test
+    public void testAnchorsAndEntities() throws IOException {
+        extract("<!-- <a href='x'>comment</a> --><script>var s = '<a href=\"y\">';</script>"
+            + "<table><tr><td><A HREF=\"/dtr?a=1&amp;b=2\">  S&uuml;d&nbsp;&#65; </a></td></tr></table>");
+
+        assertEquals(1, anchors.size());
+        assertEquals("/dtr?a=1&b=2=S\u00fcd A", anchors.get(0));
+        assertEquals("1:S\u00fcd A{/dtr?a=1&b=2}", rows.get(0));
+    }
+
+    /**
+     * Extract rows and links from the given HTML.
+     * 
+     * @param html
+     *            HTML to extract content from.
+     * @throws IOException
+     *             when reading the HTML fails.
+     */
+    private void extract(final String html) throws IOException {
+        new HtmlTokenizer(new StringReader(html)).parse(new ReportContentExtractor(new ReportContentListener() {
+            @Override
+            public void anchor(final String href, final String text) {
+                anchors.add(href + "=" + text);
+            }
+
+            @Override
+            public void row(final int tableDepth, final List<TableCell> cells) {
+                final StringBuilder row = new StringBuilder().append(tableDepth).append(':');
+
+                for (final TableCell cell : cells) {
+                    if (row.charAt(row.length() - 1) != ':') {
+                        row.append('|');
+                    }
+
+                    row.append(cell.isHeader() ? "[th]" : "").append(cell.getText());
+
+                    if (cell.getHref() != null) {
+                        row.append('{').append(cell.getHref()).append('}');
+                    }
+                }
+
+                rows.add(row.toString());
+            }
+
+            @Override
+            public void endTable(final int tableDepth) {
+            }
+        }));
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.dtr.browser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ResourceDetailsCache}.
+ *
+ * @author Dirk Weigenand
+ */
+public class ResourceDetailsCacheTest {
+    /**
+     * URL of DTR used in tests.
+     */
+    private static final String DTR_URL = "http://dtr.example.com:50000";
+
+    /**
+     * file the cache is stored in.
+     */
+    private File cacheFile;
+
+    /**
+     * activity resources are associated with.
+     */
+    private Activity activity;
+
+    /**
+     * @throws IOException
+     *             when the cache file could not be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        cacheFile = File.createTempFile("ResourceDetailsCacheTest", ".cache");
+        cacheFile.delete();
+        activity = new Activity(null, new Principal("name"), "description", new Date());
+    }
+
+    /**
+     */
+    @After
+    public void tearDown() {
+        cacheFile.delete();
+    }
+
+    @Test
+    public void testCachedDetailsArePersisted() {
+        final ResourceDetailsCache cache = new ResourceDetailsCache(cacheFile, ResourceDetailsCache.DEFAULT_MAX_ENTRIES);
+        cache.put(DTR_URL, createResource("4711", 10000, 20000, 3, true));
+        cache.save();
+
+        final ResourceDetailsCache reloaded = new ResourceDetailsCache(cacheFile, ResourceDetailsCache.DEFAULT_MAX_ENTRIES);
+        final ActivityResource resource = createResource("4711", 0, 0, null, false);
+
+        assertThat(reloaded.lookup(DTR_URL, resource), is(true));
+        assertThat(resource.getCreationDate(), equalTo(new Date(10000)));
+        assertThat(resource.getLastModified(), equalTo(new Date(20000)));
+        assertThat(resource.getSequenceNumber(), equalTo(Integer.valueOf(3)));
+        assertThat(resource.isDeleted(), equalTo(Boolean.TRUE));
+        assertThat(reloaded.lookup("http://other.example.com:50000", resource), is(false));
+        assertThat(reloaded.getHits(), equalTo(1L));
+        assertThat(reloaded.getMisses(), equalTo(1L));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        final ResourceDetailsCache cache = new ResourceDetailsCache(null, 2);
+        cache.put(DTR_URL, createResource("1", 1, 1, 1, false));
+        cache.put(DTR_URL, createResource("2", 2, 2, 2, false));
+        cache.lookup(DTR_URL, createResource("1", 0, 0, null, false));
+        cache.put(DTR_URL, createResource("3", 3, 3, 3, false));
+
+        assertThat(cache.size(), equalTo(2));
+        assertThat(cache.lookup(DTR_URL, createResource("1", 0, 0, null, false)), is(true));
+        assertThat(cache.lookup(DTR_URL, createResource("2", 0, 0, null, false)), is(false));
+        assertThat(cache.lookup(DTR_URL, createResource("3", 0, 0, null, false)), is(true));
+    }
+
+    /**
+     * Create a resource with the given details.
+     *
+     * @param id
+     *            ID of resource version.
+     * @param creationDate
+     *            creation date.
+     * @param lastModified
+     *            last modification date.
+     * @param sequenceNumber
+     *            sequence number.
+     * @param deleted
+     *            deletion flag.
+     * @return the resource created.
+     */
+    private ActivityResource createResource(final String id, final long creationDate, final long lastModified,
+        final Integer sequenceNumber, final boolean deleted) {
+        final ActivityResource resource = new ActivityResource(activity, null, "path", id);
+        resource.setCreationDate(new Date(creationDate));
+        resource.setLastModified(new Date(lastModified));
+        resource.setSequenceNumber(sequenceNumber);
+        resource.setDeleted(Boolean.valueOf(deleted));
+
+        return resource;
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import hudson.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.arachna.ant.AntHelper;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ApiFingerprintCalculator}.
+ *
+ * @author Dirk Weigenand
+ */
+public class ApiFingerprintCalculatorTest {
+    /**
+     * charset used for source files.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * folder containing sources and compiled classes.
+     */
+    private File testDirectory;
+
+    /**
+     * instance under test.
+     */
+    private ApiFingerprintCalculator calculator;
+
+    /**
+     * Set up fixture.
+     *
+     * @throws IOException
+     *             when creating the test folder fails.
+     */
+    @Before
+    public void setUp() throws IOException {
+        testDirectory = Util.createTempDir();
+        calculator = new ApiFingerprintCalculator(new AntHelper(testDirectory.getAbsolutePath(), new DevelopmentComponentFactory()));
+    }
+
+    /**
+     * Remove test folder.
+     */
+    @After
+    public void tearDown() {
+        Util.deleteRecursive(testDirectory);
+    }
+
+    /**
+     * Assert that changing the implementation of a method does not change the API fingerprint.
+     *
+     * @throws IOException
+     *             re-thrown from calculator
+     */
+    @Test
+    public void changedMethodBodyKeepsFingerprint() throws IOException {
+        final String before = calculator.calculate(compile("before", "public class Api { public int value() { return 1; } }"));
+        final String after = calculator.calculate(compile("after", "public class Api { public int value() { return 2; } }"));
+
+        assertThat(after, equalTo(before));
+    }
+
+    /**
+     * Assert that adding a private member does not change the API fingerprint.
+     *
+     * @throws IOException
+     *             re-thrown from calculator
+     */
+    @Test
+    public void addedPrivateMemberKeepsFingerprint() throws IOException {
+        final String before = calculator.calculate(compile("before", "public class Api { public int value() { return 1; } }"));
+        final String after =
+            calculator.calculate(compile("after",
+                "public class Api { private int cached; public int value() { return helper(); } private int helper() { return 1; } }"));
+
+        assertThat(after, equalTo(before));
+    }
+
+    /**
+     * Assert that changing the signature of a public method changes the API fingerprint.
+     *
+     * @throws IOException
+     *             re-thrown from calculator
+     */
+    @Test
+    public void changedSignatureChangesFingerprint() throws IOException {
+        final String before = calculator.calculate(compile("before", "public class Api { public int value() { return 1; } }"));
+        final String after = calculator.calculate(compile("after", "public class Api { public long value() { return 1; } }"));
+
+        assertThat(after, not(equalTo(before)));
+    }
+
+    /**
+     * Assert that changing the value of a public constant changes the API fingerprint (constants are inlined into using classes).
+     *
+     * @throws IOException
+     *             re-thrown from calculator
+     */
+    @Test
+    public void changedConstantChangesFingerprint() throws IOException {
+        final String before = calculator.calculate(compile("before", "public class Api { public static final int VALUE = 1; }"));
+        final String after = calculator.calculate(compile("after", "public class Api { public static final int VALUE = 2; }"));
+
+        assertThat(after, not(equalTo(before)));
+    }
+
+    /**
+     * Compile the given source of class <code>Api</code> into a folder of the given name.
+     *
+     * @param name
+     *            name of folder to compile the class into.
+     * @param source
+     *            source of class <code>Api</code>.
+     * @return folder containing the compiled class.
+     * @throws IOException
+     *             when writing the source file fails.
+     */
+    private File compile(final String name, final String source) throws IOException {
+        final File folder = new File(testDirectory, name);
+        final File sourceFile = new File(new File(testDirectory, name + "-src"), "Api.java");
+        sourceFile.getParentFile().mkdirs();
+        folder.mkdirs();
+        Files.write(sourceFile.toPath(), source.getBytes(UTF8));
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertThat(compiler.run(null, null, null, "-d", folder.getAbsolutePath(), sourceFile.getAbsolutePath()), equalTo(0));
+        Files.delete(sourceFile.toPath());
+
+        return folder;
+    }
+}
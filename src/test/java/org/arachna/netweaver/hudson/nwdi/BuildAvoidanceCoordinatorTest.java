@@ -0,0 +1,252 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import hudson.Util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.arachna.ant.AntHelper;
+import org.arachna.netweaver.dc.types.Compartment;
+import org.arachna.netweaver.dc.types.CompartmentState;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.arachna.netweaver.dc.types.PublicPart;
+import org.arachna.netweaver.dc.types.PublicPartReference;
+import org.arachna.netweaver.hudson.nwdi.cache.LocalDirectoryBuildOutputCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link BuildAvoidanceCoordinator}.
+ *
+ * @author Dirk Weigenand
+ */
+public class BuildAvoidanceCoordinatorTest {
+    /**
+     * vendor of development components used in tests.
+     */
+    private static final String EXAMPLE_ORG = "example.org";
+
+    /**
+     * maximum size of build output cache used in tests.
+     */
+    private static final long CACHE_SIZE = 1024 * 1024;
+
+    /**
+     * workspace to use for tests.
+     */
+    private File workspace;
+
+    /**
+     * folder of the build output cache.
+     */
+    private File cacheFolder;
+
+    /**
+     * registry for development components.
+     */
+    private DevelopmentComponentFactory dcFactory;
+
+    /**
+     * helper for determining the locations of development components.
+     */
+    private AntHelper antHelper;
+
+    /**
+     * development component used in tests.
+     */
+    private DevelopmentComponent component;
+
+    /**
+     * Set up fixture: a built development component in source state.
+     *
+     * @throws IOException
+     *             when creating the workspace fails.
+     */
+    @Before
+    public void setUp() throws IOException {
+        workspace = Util.createTempDir();
+        cacheFolder = Util.createTempDir();
+        dcFactory = new DevelopmentComponentFactory();
+        antHelper = new AntHelper(workspace.getAbsolutePath(), dcFactory);
+        component = createDC(antHelper, dcFactory);
+    }
+
+    /**
+     * Remove workspace and cache.
+     */
+    @After
+    public void tearDown() {
+        Util.deleteRecursive(workspace);
+        Util.deleteRecursive(cacheFolder);
+    }
+
+    /**
+     * Assert that a development component built successfully is not built again when its inputs did not change.
+     *
+     * @throws IOException
+     *             re-thrown from recording the build results
+     */
+    @Test
+    public void unchangedComponentIsNotBuiltAgain() throws IOException {
+        final BuildAvoidanceCoordinator first = new BuildAvoidanceCoordinator(antHelper, dcFactory, true, null);
+        assertThat(first.getDevelopmentComponentsNotNeedingBuild(asList(component), null).isEmpty(), equalTo(true));
+        first.recordBuildResults(createProgress(true), null);
+
+        final BuildAvoidanceCoordinator second = new BuildAvoidanceCoordinator(antHelper, dcFactory, true, null);
+
+        assertThat(second.getDevelopmentComponentsNotNeedingBuild(asList(component), null), equalTo(asSet(component)));
+        assertThat(second.getRestoredComponents().isEmpty(), equalTo(true));
+    }
+
+    /**
+     * Assert that a development component whose build failed is built again.
+     *
+     * @throws IOException
+     *             re-thrown from recording the build results
+     */
+    @Test
+    public void failedComponentIsBuiltAgain() throws IOException {
+        new BuildAvoidanceCoordinator(antHelper, dcFactory, true, null).recordBuildResults(createProgress(false), null);
+
+        assertThat(new BuildAvoidanceCoordinator(antHelper, dcFactory, true, null).getDevelopmentComponentsNotNeedingBuild(
+            asList(component), null).isEmpty(), equalTo(true));
+    }
+
+    /**
+     * Assert that the outputs of a development component built in one workspace are restored in another workspace with the same inputs.
+     *
+     * @throws IOException
+     *             re-thrown from recording the build results
+     */
+    @Test
+    public void outputsArePublishedAndRestoredInOtherWorkspace() throws IOException {
+        new BuildAvoidanceCoordinator(antHelper, dcFactory, false, createCache()).recordBuildResults(createProgress(true), null);
+
+        final File otherWorkspace = Util.createTempDir();
+
+        try {
+            final DevelopmentComponentFactory otherFactory = new DevelopmentComponentFactory();
+            final AntHelper otherAntHelper = new AntHelper(otherWorkspace.getAbsolutePath(), otherFactory);
+            final DevelopmentComponent otherDC = createDC(otherAntHelper, otherFactory);
+            final File output = new File(otherAntHelper.getBaseLocation(otherDC), "gen/default/public/api/lib/java/example.jar");
+            Util.deleteRecursive(new File(otherAntHelper.getBaseLocation(otherDC), "gen"));
+
+            final BuildAvoidanceCoordinator coordinator = new BuildAvoidanceCoordinator(otherAntHelper, otherFactory, false, createCache());
+
+            assertThat(coordinator.getDevelopmentComponentsNotNeedingBuild(asList(otherDC), null), equalTo(asSet(otherDC)));
+            assertThat(coordinator.getRestoredComponents(), equalTo(asSet(otherDC)));
+            assertThat(output.exists(), equalTo(true));
+        }
+        finally {
+            Util.deleteRecursive(otherWorkspace);
+        }
+    }
+
+    /**
+     * Create the build output cache.
+     *
+     * @return the build output cache.
+     */
+    private LocalDirectoryBuildOutputCache createCache() {
+        return new LocalDirectoryBuildOutputCache(cacheFolder, CACHE_SIZE);
+    }
+
+    /**
+     * Create the build progress of the development component under test.
+     *
+     * @param successful
+     *            whether the build of the development component succeeded.
+     * @return build progress.
+     */
+    private DCBuildProgressAction createProgress(final boolean successful) {
+        final DCBuildProgressAction progress = new DCBuildProgressAction(1);
+        progress.buildStarted(component);
+        progress.buildFinished(component, successful, 0);
+
+        return progress;
+    }
+
+    /**
+     * Create a development component with a <code>.dcdef</code>, a source file and build outputs in the workspace of the given helper.
+     *
+     * @param helper
+     *            helper for determining the locations of development components in the workspace.
+     * @param factory
+     *            registry for development components.
+     * @return the new development component.
+     * @throws IOException
+     *             when writing the files of the development component fails.
+     */
+    private DevelopmentComponent createDC(final AntHelper helper, final DevelopmentComponentFactory factory) throws IOException {
+        final DevelopmentComponent dc = factory.create(EXAMPLE_ORG, "dc", new PublicPart[0], new PublicPartReference[0]);
+        Compartment.create("example.org_EXAMPLE_SC_1", CompartmentState.Source).add(dc);
+        final File baseLocation = new File(helper.getBaseLocation(dc));
+
+        write(new File(baseLocation, ".dcdef"), "<development-component name=\"dc\"/>");
+        write(new File(baseLocation, "src/packages/Example.java"), "class Example {}");
+        write(new File(baseLocation, "gen/default/public/api/lib/java/example.jar"), "dc");
+        dc.addSourceFolder("src/packages");
+
+        return dc;
+    }
+
+    /**
+     * Returns the given development components as list.
+     *
+     * @param components
+     *            development components.
+     * @return list of the given development components.
+     */
+    private Collection<DevelopmentComponent> asList(final DevelopmentComponent... components) {
+        return Arrays.asList(components);
+    }
+
+    /**
+     * Returns the given development components as set.
+     *
+     * @param components
+     *            development components.
+     * @return set of the given development components.
+     */
+    private HashSet<DevelopmentComponent> asSet(final DevelopmentComponent... components) {
+        final HashSet<DevelopmentComponent> set = new HashSet<DevelopmentComponent>();
+        Collections.addAll(set, components);
+
+        return set;
+    }
+
+    /**
+     * Write the given content to the given file creating missing parent folders.
+     *
+     * @param file
+     *            file to write.
+     * @param content
+     *            content to write.
+     * @throws IOException
+     *             when writing the file fails.
+     */
+    private void write(final File file, final String content) throws IOException {
+        file.getParentFile().mkdirs();
+        final OutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(content.getBytes("UTF-8"));
+        }
+        finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import hudson.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link BuildXmlProjectNameUpdater}.
+ *
+ * @author Dirk Weigenand
+ */
+public class BuildXmlProjectNameUpdaterTest {
+    /**
+     * encoding of <code>build.xml</code> files.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * header of a generated <code>build.xml</code>.
+     */
+    private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project name=\"DC Build\" default=\"build\">\n";
+
+    /**
+     * DTC folder used in tests.
+     */
+    private File dtcFolder;
+
+    /**
+     * Create DTC folder.
+     *
+     * @throws IOException
+     *             when creating the folder fails.
+     */
+    @Before
+    public void setUp() throws IOException {
+        dtcFolder = Util.createTempDir();
+    }
+
+    /**
+     * Remove DTC folder.
+     */
+    @After
+    public void tearDown() {
+        Util.deleteRecursive(dtcFolder);
+    }
+
+    /**
+     * Assert that the project name is replaced and the rest of the file is kept.
+     *
+     * @throws IOException
+     *             when accessing the build.xml fails.
+     */
+    @Test
+    public void projectNameIsReplaced() throws IOException {
+        final StringBuilder body = new StringBuilder();
+
+        for (int i = 0; i < 2000; i++) {
+            body.append("  <target name=\"t").append(i).append("\"/>\n");
+        }
+
+        body.append("</project>\n");
+        final File buildXml = write(HEADER + body);
+
+        assertThat(BuildXmlProjectNameUpdater.update(buildXml, "example.org~dc~name"), equalTo(true));
+        assertThat(read(buildXml),
+            equalTo(HEADER.replace("project name=\"DC Build\"", "project name=\"example.org~dc~name\"") + body));
+        assertThat(new File(buildXml.getParentFile(), "build.xml.tmp").exists(), equalTo(false));
+    }
+
+    /**
+     * Assert that a file already updated is left untouched.
+     *
+     * @throws IOException
+     *             when accessing the build.xml fails.
+     */
+    @Test
+    public void updatedFileIsLeftUntouched() throws IOException {
+        final String content = "<project name=\"example.org~dc\">\n</project>\n";
+        final File buildXml = write(content);
+
+        assertThat(BuildXmlProjectNameUpdater.update(buildXml, "example.org~other"), equalTo(false));
+        assertThat(read(buildXml), equalTo(content));
+    }
+
+    /**
+     * Assert that the summary counts updated, already updated and missing <code>build.xml</code> files.
+     *
+     * @throws Exception
+     *             re-thrown from updater
+     */
+    @Test
+    public void summaryCountsBuildXmlFiles() throws Exception {
+        write("example.org", "dc/one", HEADER + "</project>\n");
+        write("example.org", "dc/two", "<project name=\"example.org~dc~two\">\n</project>\n");
+
+        final BuildXmlProjectNameUpdater.Summary summary =
+            new BuildXmlProjectNameUpdater(Arrays.asList(new DevelopmentComponent("dc/one", "example.org"), new DevelopmentComponent(
+                "dc/two", "example.org"), new DevelopmentComponent("dc/three", "example.org")), 2).invoke(dtcFolder, null);
+
+        assertThat(summary.getUpdated(), equalTo(1));
+        assertThat(summary.getUnchanged(), equalTo(1));
+        assertThat(summary.getMissing(), equalTo(1));
+        assertThat(summary.getFailures().isEmpty(), equalTo(true));
+        assertThat(read(getBuildXml("example.org", "dc/one")), equalTo("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<project name=\"example.org~dc~one\" default=\"build\">\n</project>\n"));
+    }
+
+    /**
+     * Write the given content to the <code>build.xml</code> of a development component named 'dc'.
+     *
+     * @param content
+     *            content to write.
+     * @return the written file.
+     * @throws IOException
+     *             when writing fails.
+     */
+    private File write(final String content) throws IOException {
+        return write("example.org", "dc", content);
+    }
+
+    /**
+     * Write the given content to the <code>build.xml</code> of the given development component.
+     *
+     * @param vendor
+     *            vendor of development component.
+     * @param name
+     *            name of development component.
+     * @param content
+     *            content to write.
+     * @return the written file.
+     * @throws IOException
+     *             when writing fails.
+     */
+    private File write(final String vendor, final String name, final String content) throws IOException {
+        final File buildXml = getBuildXml(vendor, name);
+        buildXml.getParentFile().mkdirs();
+        Files.write(buildXml.toPath(), content.getBytes(UTF8));
+
+        return buildXml;
+    }
+
+    /**
+     * Returns the <code>build.xml</code> of the given development component.
+     *
+     * @param vendor
+     *            vendor of development component.
+     * @param name
+     *            name of development component.
+     * @return the <code>build.xml</code> of the given development component.
+     */
+    private File getBuildXml(final String vendor, final String name) {
+        return new File(dtcFolder, String.format("DCs/%s/%s/_comp/gen/default/logs/build.xml", vendor, name));
+    }
+
+    /**
+     * Read the given file.
+     *
+     * @param file
+     *            file to read.
+     * @return content of file.
+     * @throws IOException
+     *             when reading fails.
+     */
+    private String read(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), UTF8);
+    }
+}
@@ -11,6 +11,8 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.Charset;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.arachna.netweaver.dc.types.DevelopmentComponent;
 import org.arachna.xml.DigesterHelper;
 import org.junit.After;
@@ -96,6 +98,24 @@ public class BuildXmlRulesModuleProducerTest {
             containsInAnyOrder("/home/weigo/tmp/hudson/workspace/EXAMPLE_TRACK/.dtc/DCs/arachna.org/spring_sap_jpa_support/_comp/test"));
     }
 
+    /**
+     * Assert that the StAX reader of {@link BuildXmlRulesModuleProducer} yields the same results as its rules module.
+     * 
+     * @throws XMLStreamException
+     *             re-thrown from StAX reader
+     */
+    @Test
+    public final void assertStaxReaderIsEquivalentToRulesModule() throws XMLStreamException {
+        final DevelopmentComponent staxComponent =
+            new BuildXmlRulesModuleProducer(new FakeTestFolderFinder()).createStaxReader().read(getBuildXml(),
+                new DevelopmentComponent("", ""));
+
+        assertThat(staxComponent.getSourceEncoding(), equalTo(component.getSourceEncoding()));
+        assertThat(staxComponent.getOutputFolder(), equalTo(component.getOutputFolder()));
+        assertThat(staxComponent.getSourceFolders(), equalTo(component.getSourceFolders()));
+        assertThat(staxComponent.getTestSourceFolders(), equalTo(component.getTestSourceFolders()));
+    }
+
     private Reader getBuildXml() {
         return new InputStreamReader(this.getClass()
             .getResourceAsStream("/org/arachna/netweaver/hudson/nwdi/build.xml"), Charset.forName(UTF_8));
@@ -0,0 +1,193 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import hudson.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CachingTestFolderFinder}.
+ *
+ * @author Dirk Weigenand
+ */
+public class CachingTestFolderFinderTest {
+    /**
+     * charset used for test files.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * folder containing the source folder and the classification file.
+     */
+    private File workspace;
+
+    /**
+     * source folder used in tests.
+     */
+    private File sourceFolder;
+
+    /**
+     * finder counting scans of source folders.
+     */
+    private CountingTestFolderFinder scanner;
+
+    /**
+     * instance under test.
+     */
+    private CachingTestFolderFinder finder;
+
+    /**
+     * Set up fixture: create a source folder containing one Java source.
+     *
+     * @throws IOException
+     *             when creating the source folder fails.
+     */
+    @Before
+    public void setUp() throws IOException {
+        workspace = Util.createTempDir();
+        sourceFolder = new File(workspace, "src");
+        write("org/example/ExampleTest.java", "public class ExampleTest {}");
+        scanner = new CountingTestFolderFinder();
+        finder = createFinder();
+        finder.read();
+    }
+
+    /**
+     * Remove test folder.
+     */
+    @After
+    public void tearDown() {
+        Util.deleteRecursive(workspace);
+    }
+
+    /**
+     * Assert that an unchanged source folder is scanned only once.
+     */
+    @Test
+    public void unchangedFolderIsScannedOnce() {
+        assertThat(finder.isTestFolder("UTF-8", sourceFolder.getAbsolutePath()), equalTo(true));
+        assertThat(finder.isTestFolder("UTF-8", sourceFolder.getAbsolutePath()), equalTo(true));
+        assertThat(scanner.scans, equalTo(1));
+    }
+
+    /**
+     * Assert that a source folder is scanned again when a source file was added.
+     *
+     * @throws IOException
+     *             when writing the source file fails.
+     */
+    @Test
+    public void changedFolderIsScannedAgain() throws IOException {
+        finder.isTestFolder("UTF-8", sourceFolder.getAbsolutePath());
+        write("org/example/OtherTest.java", "public class OtherTest {}");
+        finder.isTestFolder("UTF-8", sourceFolder.getAbsolutePath());
+
+        assertThat(scanner.scans, equalTo(2));
+    }
+
+    /**
+     * Assert that a source folder is scanned again when a different source encoding is used.
+     */
+    @Test
+    public void folderIsScannedAgainForOtherEncoding() {
+        finder.isTestFolder("UTF-8", sourceFolder.getAbsolutePath());
+        finder.isTestFolder("ISO-8859-1", sourceFolder.getAbsolutePath());
+
+        assertThat(scanner.scans, equalTo(2));
+    }
+
+    /**
+     * Assert that classifications are reused after writing and reading them.
+     *
+     * @throws IOException
+     *             re-thrown from finder
+     */
+    @Test
+    public void classificationsArePersisted() throws IOException {
+        finder.isTestFolder("UTF-8", sourceFolder.getAbsolutePath());
+        finder.write();
+
+        final CachingTestFolderFinder restored = createFinder();
+        restored.read();
+
+        assertThat(restored.isTestFolder("UTF-8", sourceFolder.getAbsolutePath()), equalTo(true));
+        assertThat(scanner.scans, equalTo(1));
+    }
+
+    /**
+     * Assert that classifications of source folders not classified since reading are not written again.
+     *
+     * @throws IOException
+     *             re-thrown from finder
+     */
+    @Test
+    public void unusedClassificationsAreDropped() throws IOException {
+        finder.isTestFolder("UTF-8", sourceFolder.getAbsolutePath());
+        finder.write();
+
+        CachingTestFolderFinder restored = createFinder();
+        restored.read();
+        restored.write();
+
+        restored = createFinder();
+        restored.read();
+        restored.isTestFolder("UTF-8", sourceFolder.getAbsolutePath());
+
+        assertThat(scanner.scans, equalTo(2));
+    }
+
+    /**
+     * Create a finder using the classification file in the workspace.
+     *
+     * @return a finder using the classification file in the workspace.
+     */
+    private CachingTestFolderFinder createFinder() {
+        return new CachingTestFolderFinder(new File(workspace, CachingTestFolderFinder.FILE_NAME), scanner);
+    }
+
+    /**
+     * Write the given content to the given source file.
+     *
+     * @param path
+     *            path of source file relative to the source folder.
+     * @param content
+     *            content to write.
+     * @throws IOException
+     *             when writing the file fails.
+     */
+    private void write(final String path, final String content) throws IOException {
+        final File file = new File(sourceFolder, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(UTF8));
+    }
+
+    /**
+     * Finder counting scans of source folders and classifying every folder as test folder.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class CountingTestFolderFinder extends TestFolderFinder {
+        /**
+         * number of scans.
+         */
+        private int scans;
+
+        @Override
+        boolean isTestFolder(final String encoding, final String sourceFolder) {
+            scans++;
+
+            return true;
+        }
+    }
+}
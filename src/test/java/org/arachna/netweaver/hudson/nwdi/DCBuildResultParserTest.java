@@ -8,9 +8,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.arachna.netweaver.dc.types.Compartment;
 import org.arachna.netweaver.dc.types.CompartmentState;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
 import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
 import org.arachna.netweaver.dc.types.DevelopmentConfiguration;
 import org.arachna.netweaver.hudson.nwdi.DCBuildResultParser.BuildResults;
@@ -38,6 +42,11 @@ public class DCBuildResultParserTest {
      */
     private DevelopmentConfiguration config;
 
+    /**
+     * development components in the order they are built in the sample log.
+     */
+    private List<DevelopmentComponent> components;
+
     /**
      * @throws java.lang.Exception
      */
@@ -47,9 +56,14 @@ public class DCBuildResultParserTest {
         final Compartment compartment = Compartment.create("example.org_EXAMPLE_SC_1", CompartmentState.Source);
         config.add(compartment);
         final DevelopmentComponentFactory dcFactory = new DevelopmentComponentFactory();
-        compartment.add(dcFactory.create(EXAMPLE_ORG, "sc/example_sc_description"));
-        compartment.add(dcFactory.create(EXAMPLE_ORG, "example/dc1"));
-        compartment.add(dcFactory.create(EXAMPLE_ORG, "example/dc2"));
+        components =
+            Arrays.asList(dcFactory.create(EXAMPLE_ORG, "sc/example_sc_description"), dcFactory.create(EXAMPLE_ORG, "example/dc1"),
+                dcFactory.create(EXAMPLE_ORG, "example/dc2"));
+
+        for (final DevelopmentComponent component : components) {
+            compartment.add(component);
+        }
+
         this.buildResultParser = new DCBuildResultParser(config);
     }
 
@@ -68,6 +82,18 @@ public class DCBuildResultParserTest {
         assertThat(results.hasBuildErrors(), equalTo(true));
     }
 
+    /**
+     * Assert that the listener is notified about start and end of each DC build.
+     */
+    @Test
+    public void progressIsReportedToListener() {
+        final RecordingListener listener = new RecordingListener();
+        new DCBuildResultParser(config, components, listener).parse(getBuildResultText("DCBuildResultWithBuildErrors.txt"));
+
+        assertThat(listener.events, equalTo(Arrays.asList("started sc/example_sc_description", "finished sc/example_sc_description true",
+            "started example/dc1", "finished example/dc1 false", "started example/dc2", "finished example/dc2 false")));
+    }
+
     /**
      * @return
      */
@@ -75,4 +101,47 @@ public class DCBuildResultParserTest {
         return new InputStreamReader(this.getClass().getResourceAsStream(String.format("/org/arachna/netweaver/hudson/nwdi/%s", buildLog)));
     }
 
+    /**
+     * Listener recording build progress events.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class RecordingListener implements DCBuildProgressListener {
+        /**
+         * events received.
+         */
+        private final List<String> events = new ArrayList<String>();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void buildStarted(final DevelopmentComponent component) {
+            events.add("started " + component.getName());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void buildFinished(final DevelopmentComponent component, final boolean successful, final long duration) {
+            events.add(String.format("finished %s %s", component.getName(), successful));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void buildSkipped(final DevelopmentComponent component) {
+            events.add("skipped " + component.getName());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void buildNotNeeded(final DevelopmentComponent component) {
+            events.add("not needed " + component.getName());
+        }
+    }
 }
@@ -0,0 +1,260 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.arachna.netweaver.dc.types.Compartment;
+import org.arachna.netweaver.dc.types.CompartmentState;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.arachna.netweaver.dc.types.DevelopmentConfiguration;
+import org.arachna.netweaver.dc.types.PublicPart;
+import org.arachna.netweaver.dc.types.PublicPartReference;
+import org.arachna.netweaver.tools.DIToolCommandExecutionResult;
+import org.arachna.netweaver.tools.OutputLineConsumer;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DevelopmentComponentWaveBuilder}.
+ *
+ * @author Dirk Weigenand
+ */
+public class DevelopmentComponentWaveBuilderTest {
+    /**
+     * vendor of development components used in tests.
+     */
+    private static final String EXAMPLE_ORG = "example.org";
+
+    /**
+     * name of compartment used in tests.
+     */
+    private static final String COMPARTMENT = "example.org_EXAMPLE_SC_1";
+
+    /**
+     * registry for development components.
+     */
+    private DevelopmentComponentFactory dcFactory;
+
+    /**
+     * development configuration used to determine failed builds.
+     */
+    private DevelopmentConfiguration config;
+
+    /**
+     * compartment containing the development components used in tests.
+     */
+    private Compartment compartment;
+
+    /**
+     * fake dctool execution.
+     */
+    private FakeBuildExecutor executor;
+
+    /**
+     * listener for build progress.
+     */
+    private DCBuildProgressAction progress;
+
+    /**
+     * Set up fixture.
+     */
+    @Before
+    public void setUp() {
+        dcFactory = new DevelopmentComponentFactory();
+        config = new DevelopmentConfiguration("DI0_Example_D");
+        compartment = Compartment.create(COMPARTMENT, CompartmentState.Source);
+        config.add(compartment);
+        executor = new FakeBuildExecutor();
+        progress = new DCBuildProgressAction(0);
+    }
+
+    /**
+     * Assert that the DCs of a wave are distributed over the workers and that later waves are built after earlier ones.
+     *
+     * @throws Exception
+     *             re-thrown from build
+     */
+    @Test
+    public void dcsOfWaveAreDistributedOverWorkers() throws Exception {
+        final DevelopmentComponent one = createDC("one");
+        final DevelopmentComponent two = createDC("two");
+        final DevelopmentComponent three = createDC("three");
+        final DevelopmentComponent four = createDC("four", "one", "three");
+
+        final DIToolCommandExecutionResult result = build(2, wave(one, two, three), wave(four));
+
+        assertThat(result.getExitCode(), equalTo(0));
+        assertThat(executor.chunks.size(), equalTo(3));
+        assertThat(new HashSet<List<DevelopmentComponent>>(executor.chunks.subList(0, 2)),
+            equalTo(new HashSet<List<DevelopmentComponent>>(Arrays.asList(Arrays.asList(one, three), Arrays.asList(two)))));
+        assertThat(executor.chunks.get(2), contains(four));
+    }
+
+    /**
+     * Assert that DCs depending on a DC whose build failed are skipped.
+     *
+     * @throws Exception
+     *             re-thrown from build
+     */
+    @Test
+    public void dependentsOfFailedDCAreSkipped() throws Exception {
+        final DevelopmentComponent one = createDC("one");
+        final DevelopmentComponent two = createDC("two");
+        final DevelopmentComponent three = createDC("three", "one");
+        final DevelopmentComponent four = createDC("four", "two");
+        final DevelopmentComponent five = createDC("five", "three");
+        executor.failing.add(one);
+
+        final DIToolCommandExecutionResult result = build(2, wave(one, two), wave(three, four), wave(five));
+
+        assertThat(result.isExitCodeOk(), equalTo(false));
+        assertThat(executor.getBuiltComponents(), containsInAnyOrder(one, two, four));
+        assertThat(progress.getFailed(), equalTo(1));
+        assertThat(progress.getFinished(), equalTo(5));
+        assertThat(progress.getDuration(four), greaterThanOrEqualTo(0L));
+        assertThat(progress.getDuration(five), equalTo(-1L));
+    }
+
+    /**
+     * Assert that the DCs built by a failed dctool execution are treated as failed.
+     *
+     * @throws Exception
+     *             re-thrown from build
+     */
+    @Test
+    public void dcsOfFailedExecutionAreTreatedAsFailed() throws Exception {
+        final DevelopmentComponent one = createDC("one");
+        final DevelopmentComponent two = createDC("two", "one");
+        executor.exitCode = 2;
+
+        final DIToolCommandExecutionResult result = build(4, wave(one), wave(two));
+
+        assertThat(result.getExitCode(), equalTo(2));
+        assertThat(executor.getBuiltComponents(), contains(one));
+    }
+
+    /**
+     * Build the given waves using the given number of workers.
+     *
+     * @param workers
+     *            number of workers.
+     * @param waves
+     *            waves of development components to build.
+     * @return result of build.
+     * @throws Exception
+     *             re-thrown from build
+     */
+    private DIToolCommandExecutionResult build(final int workers, final Collection<DevelopmentComponent>... waves) throws Exception {
+        dcFactory.updateUsingDCs();
+
+        return new DevelopmentComponentWaveBuilder(executor, dcFactory, config, workers, new PrintStream(new ByteArrayOutputStream()),
+            progress).build(Arrays.asList(waves));
+    }
+
+    /**
+     * Create a wave containing the given development components.
+     *
+     * @param components
+     *            development components of wave.
+     * @return the wave.
+     */
+    private Collection<DevelopmentComponent> wave(final DevelopmentComponent... components) {
+        return Arrays.asList(components);
+    }
+
+    /**
+     * Create a development component using the given development components and add it to the compartment.
+     *
+     * @param name
+     *            name of development component.
+     * @param usedDCs
+     *            names of development components used by the new one.
+     * @return the new development component.
+     */
+    private DevelopmentComponent createDC(final String name, final String... usedDCs) {
+        final PublicPartReference[] references = new PublicPartReference[usedDCs.length];
+
+        for (int i = 0; i < usedDCs.length; i++) {
+            references[i] = new PublicPartReference(EXAMPLE_ORG, usedDCs[i], "api");
+        }
+
+        final DevelopmentComponent component = dcFactory.create(EXAMPLE_ORG, name, new PublicPart[0], references);
+        compartment.add(component);
+
+        return component;
+    }
+
+    /**
+     * Fake dctool execution recording the built development components and feeding build results like dctool to the consumer.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class FakeBuildExecutor implements DevelopmentComponentWaveBuilder.BuildExecutor {
+        /**
+         * development components built per execution.
+         */
+        private final List<List<DevelopmentComponent>> chunks = Collections.synchronizedList(new ArrayList<List<DevelopmentComponent>>());
+
+        /**
+         * development components whose build shall fail.
+         */
+        private final Set<DevelopmentComponent> failing = new HashSet<DevelopmentComponent>();
+
+        /**
+         * exit code of dctool executions.
+         */
+        private int exitCode;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DIToolCommandExecutionResult build(final Collection<DevelopmentComponent> components, final OutputLineConsumer consumer) {
+            for (final DevelopmentComponent component : components) {
+                consumer.consume(String.format("dc>Retrieving / updating DC meta data for compartment %s, this may take a while ... ",
+                    COMPARTMENT));
+                consumer.consume(String.format(
+                    "\"Build of DC \"%s\" from  compartment \"%s\" based on sync mode \"SYNCHED_AS_INACTIVE_SOURCE\" ",
+                    component.getName(), COMPARTMENT));
+                consumer.consume(String.format("%d build(s) succeeded (or yield warnings), %d build(s) failed.",
+                    failing.contains(component) ? 0 : 1, failing.contains(component) ? 1 : 0));
+            }
+
+            chunks.add(new ArrayList<DevelopmentComponent>(components));
+
+            return new DIToolCommandExecutionResult("", exitCode);
+        }
+
+        /**
+         * Returns all development components built.
+         *
+         * @return all development components built.
+         */
+        List<DevelopmentComponent> getBuiltComponents() {
+            final List<DevelopmentComponent> components = new ArrayList<DevelopmentComponent>();
+
+            for (final List<DevelopmentComponent> chunk : chunks) {
+                components.addAll(chunk);
+            }
+
+            return components;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import hudson.Util;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.arachna.netweaver.dc.types.BuildVariant;
+import org.arachna.netweaver.dc.types.Compartment;
+import org.arachna.netweaver.dc.types.CompartmentState;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.arachna.netweaver.dc.types.DevelopmentComponentType;
+import org.arachna.netweaver.dc.types.DevelopmentConfiguration;
+import org.arachna.netweaver.dc.types.PublicPart;
+import org.arachna.netweaver.dc.types.PublicPartReference;
+import org.arachna.netweaver.dc.types.PublicPartType;
+import org.arachna.netweaver.hudson.nwdi.dcupdater.ConfigurationFileStamps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DevelopmentConfigurationSnapshot}.
+ *
+ * @author Dirk Weigenand
+ */
+public class DevelopmentConfigurationSnapshotTest {
+    /**
+     * vendor of development components used in tests.
+     */
+    private static final String EXAMPLE_ORG = "example.org";
+
+    /**
+     * folder containing the snapshot.
+     */
+    private File testDirectory;
+
+    /**
+     * instance under test.
+     */
+    private DevelopmentConfigurationSnapshot snapshot;
+
+    /**
+     * Set up fixture: write a snapshot of a development configuration with two compartments.
+     *
+     * @throws IOException
+     *             when writing the snapshot fails.
+     */
+    @Before
+    public void setUp() throws IOException {
+        testDirectory = Util.createTempDir();
+        snapshot = new DevelopmentConfigurationSnapshot(new File(testDirectory, DevelopmentConfigurationSnapshot.FILE_NAME));
+
+        final DevelopmentConfiguration config = new DevelopmentConfiguration("DI0_Example_D");
+        config.setCmsUrl("http://cms.example.org:50000");
+        config.setVersion("42");
+
+        final BuildVariant variant = new BuildVariant("default", true);
+        variant.addBuildOption(BuildVariant.COM_SAP_JDK_HOME_PATH_KEY, "JDK1.6.0_HOME");
+        config.setBuildVariant(variant);
+
+        final Compartment source = Compartment.create("example.org_EXAMPLE_SC_1", CompartmentState.Source);
+        source.setDtrUrl("http://dtr.example.org:50000/dtr");
+        source.add(variant);
+
+        final Compartment archive = Compartment.create("sap.com_FRAMEWORK_1", CompartmentState.Archive);
+        source.add(archive);
+        config.add(source);
+        config.add(archive);
+
+        final DevelopmentComponentFactory dcFactory = new DevelopmentComponentFactory();
+        final DevelopmentComponent component = dcFactory.create(EXAMPLE_ORG, "example/dc", DevelopmentComponentType.Java);
+        component.setCaption("Example DC");
+        component.addSourceFolder("src/packages");
+        component.addResourceFolder("src/resources");
+        component.add(new PublicPart("api", "API", "", PublicPartType.COMPILE));
+
+        final PublicPartReference reference = new PublicPartReference("sap.com", "tc/bl/logging/api", "api");
+        reference.setAtRunTime(true);
+        component.add(reference);
+        source.add(component);
+
+        snapshot.write(config, dcFactory, new ConfigurationFileStamps());
+    }
+
+    /**
+     * Remove test folder.
+     */
+    @After
+    public void tearDown() {
+        Util.deleteRecursive(testDirectory);
+    }
+
+    /**
+     * Assert that the development configuration and its development components are restored from the snapshot.
+     *
+     * @throws IOException
+     *             re-thrown from reading the snapshot
+     */
+    @Test
+    public void developmentConfigurationIsRestored() throws IOException {
+        final DevelopmentComponentFactory dcFactory = new DevelopmentComponentFactory();
+        final DevelopmentConfiguration config = snapshot.read(dcFactory);
+
+        assertThat(config.getName(), equalTo("DI0_Example_D"));
+        assertThat(config.getCmsUrl(), equalTo("http://cms.example.org:50000"));
+        assertThat(config.getVersion(), equalTo("42"));
+        assertThat(config.getBuildVariant().getJdkHomePath(), equalTo("JDK1.6.0_HOME"));
+
+        final Compartment source = config.getCompartment("example.org_EXAMPLE_SC_1");
+        assertThat(source.getDtrUrl(), equalTo("http://dtr.example.org:50000/dtr"));
+        assertThat(source.getUsedCompartments(), contains(config.getCompartment("sap.com_FRAMEWORK_1")));
+        assertThat(config.getCompartment("sap.com_FRAMEWORK_1").isArchiveState(), equalTo(true));
+
+        final DevelopmentComponent component = dcFactory.get(EXAMPLE_ORG, "example/dc");
+        assertThat(component.getCompartment(), equalTo(source));
+        assertThat(component.getType(), equalTo(DevelopmentComponentType.Java));
+        assertThat(component.getCaption(), equalTo("Example DC"));
+        assertThat(component.getSourceFolders(), contains("src/packages"));
+        assertThat(component.getResourceFolders(), contains("src/resources"));
+        assertThat(component.getPublicParts(), contains(new PublicPart("api", "API", "", PublicPartType.COMPILE)));
+
+        final PublicPartReference reference = component.getUsedDevelopmentComponents().iterator().next();
+        assertThat(reference, equalTo(new PublicPartReference("sap.com", "tc/bl/logging/api", "api")));
+        assertThat(reference.isAtRunTime(), equalTo(true));
+        assertThat(reference.isAtBuildTime(), equalTo(false));
+    }
+
+    /**
+     * Assert that development components listed for a new build are initialized with the metadata from the snapshot.
+     *
+     * @throws IOException
+     *             re-thrown from reading the snapshot
+     */
+    @Test
+    public void developmentComponentsAreInitializedFromSnapshot() throws IOException {
+        final DevelopmentComponentFactory dcFactory = new DevelopmentComponentFactory();
+        final DevelopmentComponent component = dcFactory.create(EXAMPLE_ORG, "example/dc");
+        dcFactory.create(EXAMPLE_ORG, "example/new");
+
+        assertThat(snapshot.update(dcFactory, new ConfigurationFileStamps()), equalTo(1));
+        assertThat(component.getType(), equalTo(DevelopmentComponentType.Java));
+        assertThat(component.getSourceFolders(), contains("src/packages"));
+        assertThat(component.getUsedDevelopmentComponents().size(), equalTo(1));
+    }
+}
@@ -0,0 +1,304 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import hudson.Util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.arachna.ant.AntHelper;
+import org.arachna.netweaver.dc.types.Compartment;
+import org.arachna.netweaver.dc.types.CompartmentState;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.arachna.netweaver.dc.types.PublicPart;
+import org.arachna.netweaver.dc.types.PublicPartReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link InputFingerprintNeedsRebuildCalculator}.
+ *
+ * @author Dirk Weigenand
+ */
+public class InputFingerprintNeedsRebuildCalculatorTest {
+    /**
+     * vendor of development components used in tests.
+     */
+    private static final String EXAMPLE_ORG = "example.org";
+
+    /**
+     * workspace to use for tests.
+     */
+    private File workspace;
+
+    /**
+     * registry for development components.
+     */
+    private DevelopmentComponentFactory dcFactory;
+
+    /**
+     * helper for determining the locations of development components.
+     */
+    private AntHelper antHelper;
+
+    /**
+     * development component used by {@link #usingDC}.
+     */
+    private DevelopmentComponent usedDC;
+
+    /**
+     * development component using {@link #usedDC}.
+     */
+    private DevelopmentComponent usingDC;
+
+    /**
+     * Set up fixture: two built development components in source state, one using the other.
+     *
+     * @throws IOException
+     *             when creating the workspace fails.
+     */
+    @Before
+    public void setUp() throws IOException {
+        workspace = Util.createTempDir();
+        dcFactory = new DevelopmentComponentFactory();
+        antHelper = new AntHelper(workspace.getAbsolutePath(), dcFactory);
+
+        final Compartment compartment = Compartment.create("example.org_EXAMPLE_SC_1", CompartmentState.Source);
+        usedDC = createDC("used", new PublicPartReference[0]);
+        usingDC = createDC("using", new PublicPartReference[] { new PublicPartReference(EXAMPLE_ORG, "used", "api") });
+        compartment.add(usedDC);
+        compartment.add(usingDC);
+    }
+
+    /**
+     * Remove workspace.
+     */
+    @After
+    public void tearDown() {
+        Util.deleteRecursive(workspace);
+    }
+
+    /**
+     * Assert that development components without recorded fingerprint need to be rebuilt.
+     */
+    @Test
+    public void componentsWithoutRecordedFingerprintNeedRebuild() {
+        final InputFingerprintNeedsRebuildCalculator calculator = createCalculator();
+
+        assertThat(calculator.needsRebuild(usedDC), equalTo(true));
+        assertThat(calculator.needsRebuild(usingDC), equalTo(true));
+    }
+
+    /**
+     * Assert that development components whose inputs did not change since their last successful build don't need to be rebuilt.
+     *
+     * @throws IOException
+     *             re-thrown from writing the manifest
+     */
+    @Test
+    public void unchangedComponentsDontNeedRebuild() throws IOException {
+        recordSuccessfulBuilds();
+
+        final InputFingerprintNeedsRebuildCalculator calculator = createCalculator();
+
+        assertThat(calculator.needsRebuild(usedDC), equalTo(false));
+        assertThat(calculator.needsRebuild(usingDC), equalTo(false));
+    }
+
+    /**
+     * Assert that changing a source file of a used development component leads to rebuilding it and its using development components.
+     *
+     * @throws IOException
+     *             re-thrown from writing files
+     */
+    @Test
+    public void changedSourcesOfUsedComponentLeadToRebuildOfUsingComponent() throws IOException {
+        recordSuccessfulBuilds();
+        write(new File(antHelper.getBaseLocation(usedDC), "src/packages/Example.java"), "class Example { int changed; }");
+
+        final InputFingerprintNeedsRebuildCalculator calculator = createCalculator();
+
+        assertThat(calculator.needsRebuild(usedDC), equalTo(true));
+        assertThat(calculator.needsRebuild(usingDC), equalTo(true));
+    }
+
+    /**
+     * Assert that development components whose outputs are missing need to be rebuilt.
+     *
+     * @throws IOException
+     *             re-thrown from writing the manifest
+     */
+    @Test
+    public void componentsWithMissingOutputsNeedRebuild() throws IOException {
+        recordSuccessfulBuilds();
+        Util.deleteRecursive(new File(antHelper.getBaseLocation(usingDC), "gen"));
+
+        final InputFingerprintNeedsRebuildCalculator calculator = createCalculator();
+
+        assertThat(calculator.needsRebuild(usedDC), equalTo(false));
+        assertThat(calculator.needsRebuild(usingDC), equalTo(true));
+    }
+
+    /**
+     * Assert that the same development component in two workspaces sharing its <code>.dcdef</code> but differing in its sources gets
+     * different fingerprints (i.e. keys in the build output cache).
+     *
+     * @throws IOException
+     *             re-thrown from writing files
+     */
+    @Test
+    public void sameDcdefWithDifferentSourcesHasDifferentFingerprints() throws IOException {
+        final File otherWorkspace = Util.createTempDir();
+
+        try {
+            final DevelopmentComponentFactory otherFactory = new DevelopmentComponentFactory();
+            final AntHelper otherAntHelper = new AntHelper(otherWorkspace.getAbsolutePath(), otherFactory);
+            final DevelopmentComponent otherDC = createDC(otherAntHelper, otherFactory, "used", new PublicPartReference[0]);
+            write(new File(otherAntHelper.getBaseLocation(otherDC), "src/packages/Example.java"), "class Example { int other; }");
+
+            assertThat(createCalculator(otherAntHelper, otherFactory, otherWorkspace).getFingerprint(otherDC).equals(
+                createCalculator().getFingerprint(usedDC)), equalTo(false));
+        }
+        finally {
+            Util.deleteRecursive(otherWorkspace);
+        }
+    }
+
+    /**
+     * Assert that the same development component in two workspaces with identical inputs gets the same fingerprint (so build outputs can
+     * be shared between workspaces).
+     *
+     * @throws IOException
+     *             re-thrown from writing files
+     */
+    @Test
+    public void sameInputsInOtherWorkspaceHaveSameFingerprint() throws IOException {
+        final File otherWorkspace = Util.createTempDir();
+
+        try {
+            final DevelopmentComponentFactory otherFactory = new DevelopmentComponentFactory();
+            final AntHelper otherAntHelper = new AntHelper(otherWorkspace.getAbsolutePath(), otherFactory);
+            final DevelopmentComponent otherDC = createDC(otherAntHelper, otherFactory, "used", new PublicPartReference[0]);
+
+            assertThat(createCalculator(otherAntHelper, otherFactory, otherWorkspace).getFingerprint(otherDC), equalTo(createCalculator()
+                .getFingerprint(usedDC)));
+        }
+        finally {
+            Util.deleteRecursive(otherWorkspace);
+        }
+    }
+
+    /**
+     * Record successful builds of both development components.
+     *
+     * @throws IOException
+     *             re-thrown from writing the manifest
+     */
+    private void recordSuccessfulBuilds() throws IOException {
+        final InputFingerprintNeedsRebuildCalculator calculator = createCalculator();
+        calculator.buildSucceeded(usedDC);
+        calculator.buildSucceeded(usingDC);
+        calculator.save();
+    }
+
+    /**
+     * Create a calculator reading the manifest from the workspace.
+     *
+     * @return the new calculator.
+     */
+    private InputFingerprintNeedsRebuildCalculator createCalculator() {
+        return createCalculator(antHelper, dcFactory, workspace);
+    }
+
+    /**
+     * Create a calculator for the given workspace reading the manifest from it.
+     *
+     * @param helper
+     *            helper for determining the locations of development components in the workspace.
+     * @param factory
+     *            registry for development components.
+     * @param folder
+     *            the workspace.
+     * @return the new calculator.
+     */
+    private InputFingerprintNeedsRebuildCalculator createCalculator(final AntHelper helper, final DevelopmentComponentFactory factory,
+        final File folder) {
+        return new InputFingerprintNeedsRebuildCalculator(helper, factory, new BuildInputManifest(new File(folder,
+            BuildInputManifest.FILE_NAME)));
+    }
+
+    /**
+     * Create a development component with a <code>.dcdef</code>, a source file and build outputs in the workspace.
+     *
+     * @param name
+     *            name of development component.
+     * @param references
+     *            public part references of development component.
+     * @return the new development component.
+     * @throws IOException
+     *             when writing the files of the development component fails.
+     */
+    private DevelopmentComponent createDC(final String name, final PublicPartReference[] references) throws IOException {
+        return createDC(antHelper, dcFactory, name, references);
+    }
+
+    /**
+     * Create a development component with a <code>.dcdef</code>, a source file and build outputs in the workspace of the given helper.
+     *
+     * @param helper
+     *            helper for determining the locations of development components in the workspace.
+     * @param factory
+     *            registry for development components.
+     * @param name
+     *            name of development component.
+     * @param references
+     *            public part references of development component.
+     * @return the new development component.
+     * @throws IOException
+     *             when writing the files of the development component fails.
+     */
+    private DevelopmentComponent createDC(final AntHelper helper, final DevelopmentComponentFactory factory, final String name,
+        final PublicPartReference[] references) throws IOException {
+        final DevelopmentComponent component = factory.create(EXAMPLE_ORG, name, new PublicPart[0], references);
+        final File baseLocation = new File(helper.getBaseLocation(component));
+        final File sources = new File(baseLocation, "src/packages");
+
+        write(new File(baseLocation, ".dcdef"), String.format("<development-component name=\"%s\"/>", name));
+        write(new File(sources, "Example.java"), "class Example {}");
+        write(new File(baseLocation, "gen/default/public/api/lib/java/example.jar"), name);
+        // relative like folders read from .dcdef
+        component.addSourceFolder("src/packages");
+
+        return component;
+    }
+
+    /**
+     * Write the given content to the given file creating missing parent folders.
+     *
+     * @param file
+     *            file to write.
+     * @param content
+     *            content to write.
+     * @throws IOException
+     *             when writing the file fails.
+     */
+    private void write(final File file, final String content) throws IOException {
+        file.getParentFile().mkdirs();
+        final OutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(content.getBytes("UTF-8"));
+        }
+        finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the integration sequence numbers recorded by {@link NWDIRevisionState}.
+ *
+ * @author Dirk Weigenand
+ */
+public class NWDIRevisionStateTest {
+    /**
+     * name of compartment used in tests.
+     */
+    private static final String COMPARTMENT = "example.com_EXAMPLE_SC1_1";
+
+    /**
+     * integration sequence numbers the state under test is created with.
+     */
+    private Map<String, Integer> integrationSequenceNumbers;
+
+    /**
+     * Set up fixture: integration sequence numbers of one compartment.
+     */
+    @Before
+    public void setUp() {
+        integrationSequenceNumbers = new HashMap<String, Integer>();
+        integrationSequenceNumbers.put(COMPARTMENT, Integer.valueOf(30));
+    }
+
+    /**
+     * Assert that the start state has no integration sequence numbers, so all activities are queried.
+     */
+    @Test
+    public void startStateHasNoIntegrationSequenceNumbers() {
+        assertThat(NWDIRevisionState.START_STATE.getIntegrationSequenceNumbers().isEmpty(), equalTo(true));
+    }
+
+    /**
+     * Assert that the state keeps the integration sequence numbers it was created with.
+     */
+    @Test
+    public void integrationSequenceNumbersAreRecorded() {
+        assertThat(new NWDIRevisionState(integrationSequenceNumbers).getIntegrationSequenceNumbers().get(COMPARTMENT),
+            equalTo(Integer.valueOf(30)));
+    }
+
+    /**
+     * Assert that later changes to the map the state was created with do not change the recorded integration sequence numbers.
+     */
+    @Test
+    public void integrationSequenceNumbersAreCopied() {
+        final NWDIRevisionState state = new NWDIRevisionState(integrationSequenceNumbers);
+        integrationSequenceNumbers.put(COMPARTMENT, Integer.valueOf(31));
+        integrationSequenceNumbers.put("example.com_EXAMPLE_SC2_1", Integer.valueOf(1));
+
+        assertThat(state.getIntegrationSequenceNumbers().get(COMPARTMENT), equalTo(Integer.valueOf(30)));
+        assertThat(state.getIntegrationSequenceNumbers().get("example.com_EXAMPLE_SC2_1"), nullValue());
+    }
+
+    /**
+     * Assert that the recorded integration sequence numbers can't be modified.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void integrationSequenceNumbersAreUnmodifiable() {
+        new NWDIRevisionState(integrationSequenceNumbers).getIntegrationSequenceNumbers().put(COMPARTMENT, Integer.valueOf(31));
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TestSourcePreScanner}.
+ *
+ * @author Dirk Weigenand
+ */
+public class TestSourcePreScannerTest {
+    /**
+     * source of a class without unit tests.
+     */
+    private static final String PRODUCTION_SOURCE =
+        "package org.example;\n\n/** Gr\u00f6\u00dfe. */\npublic class Example {\n    @Override\n    public String toString() {\n"
+            + "        return \"Test\";\n    }\n}\n";
+
+    /**
+     * source of a JUnit 4 test.
+     */
+    private static final String JUNIT4_SOURCE =
+        "package org.example;\n\nimport org.junit.Test;\n\npublic class ExampleTest {\n    @Test\n    public void test() {\n    }\n}\n";
+
+    /**
+     * source of a JUnit 3 test.
+     */
+    private static final String JUNIT3_SOURCE =
+        "package org.example;\n\npublic class ExampleTest extends junit.framework.TestCase {\n    public void testIt() {\n    }\n}\n";
+
+    /**
+     * Assert that sources without test tokens are rejected when scanning bytes.
+     */
+    @Test
+    public void productionSourceIsRejected() {
+        assertThat(mayContainTest("UTF-8", PRODUCTION_SOURCE), equalTo(false));
+        assertThat(mayContainTest("ISO-8859-1", PRODUCTION_SOURCE), equalTo(false));
+    }
+
+    /**
+     * Assert that sources containing JUnit 3 or 4 tests are accepted when scanning bytes.
+     */
+    @Test
+    public void testSourcesAreAccepted() {
+        assertThat(mayContainTest("UTF-8", JUNIT4_SOURCE), equalTo(true));
+        assertThat(mayContainTest("windows-1252", JUNIT3_SOURCE), equalTo(true));
+    }
+
+    /**
+     * Assert that sources in an encoding not representing the tokens as ASCII bytes are decoded before scanning.
+     */
+    @Test
+    public void utf16SourcesAreDecoded() {
+        assertThat(mayContainTest("UTF-16", PRODUCTION_SOURCE), equalTo(false));
+        assertThat(mayContainTest("UTF-16", JUNIT4_SOURCE), equalTo(true));
+        assertThat(mayContainTest("UTF-16LE", JUNIT3_SOURCE), equalTo(true));
+    }
+
+    /**
+     * Assert that the position of the scanned buffer is respected and not changed.
+     */
+    @Test
+    public void bufferPositionIsRespected() {
+        final ByteBuffer content = ByteBuffer.wrap(("@Test " + PRODUCTION_SOURCE).getBytes(Charset.forName("UTF-8")));
+        content.position(6);
+
+        assertThat(new TestSourcePreScanner(Charset.forName("UTF-8")).mayContainTest(content), equalTo(false));
+        assertThat(content.position(), equalTo(6));
+    }
+
+    /**
+     * Scan the given source encoded using the given encoding.
+     *
+     * @param encoding
+     *            encoding of source.
+     * @param source
+     *            source to scan.
+     * @return result of scanning the encoded source.
+     */
+    private boolean mayContainTest(final String encoding, final String source) {
+        final Charset charset = Charset.forName(encoding);
+
+        return new TestSourcePreScanner(charset).mayContainTest(ByteBuffer.wrap(source.getBytes(charset)));
+    }
+}
@@ -2,6 +2,10 @@ package org.arachna.netweaver.hudson.nwdi;
 
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 
@@ -64,14 +68,14 @@ public class TopoSortTest {
         return sorter.sort(Arrays.asList(component));
     }
 
-    //@Test
+    @Test
     public void noDCs() {
         final TopoSortResult result = sort();
         assertThat(result.getDevelopmentComponents(), empty());
         assertThat(result.getCircularDependencies(), empty());
     }
 
-    //@Test
+    @Test
     public void oneDC() {
         final DevelopmentComponent component = dcFactory.create("example.org", "one", DevelopmentComponentType.Java);
         sourceCompartment.add(component);
@@ -81,7 +85,7 @@ public class TopoSortTest {
         assertThat(result.getCircularDependencies(), empty());
     }
 
-//    @Test
+    @Test
     public void oneDCWithCircularDepToItself() {
         final DevelopmentComponent component = dcFactory.create("example.org", "one", DevelopmentComponentType.Java);
         sourceCompartment.add(component);
@@ -92,7 +96,7 @@ public class TopoSortTest {
         assertThat(result.getCircularDependencies(), hasItem(new CircularDependency(component, component)));
     }
 
-    //@Test
+    @Test
     public void twoDCs() {
         final DevelopmentComponent one = dcFactory.create("example.org", "one", DevelopmentComponentType.Java);
         sourceCompartment.add(one);
@@ -105,7 +109,7 @@ public class TopoSortTest {
         assertThat(result.getCircularDependencies(), empty());
     }
 
-    //@Test
+    @Test
     public void twoDCsDependingOnEachOther() {
         final DevelopmentComponent one = dcFactory.create("example.org", "one", DevelopmentComponentType.Java);
         sourceCompartment.add(one);
@@ -120,7 +124,7 @@ public class TopoSortTest {
         assertThat(result.getCircularDependencies(), hasItems(new CircularDependency(one, two), new CircularDependency(two, one)));
     }
 
-    //@Test
+    @Test
     public void threeDCs() {
         final DevelopmentComponent one = dcFactory.create("example.org", "one", DevelopmentComponentType.Java);
         sourceCompartment.add(one);
@@ -136,9 +140,12 @@ public class TopoSortTest {
         final TopoSortResult result = sort(one, two);
         assertThat(result.getDevelopmentComponents(), hasItems(one, two, three));
         assertThat(result.getCircularDependencies(), empty());
+        assertThat(result.getWaves().size(), equalTo(2));
+        assertThat(result.getWaves().get(0), containsInAnyOrder(one, two));
+        assertThat(result.getWaves().get(1), contains(three));
     }
 
-    //@Test
+    @Test
     public void fourDCs() {
         final DevelopmentComponent one = dcFactory.create("example.org", "one", DevelopmentComponentType.Java);
         sourceCompartment.add(one);
@@ -160,6 +167,123 @@ public class TopoSortTest {
         assertThat(result.getCircularDependencies(), empty());
     }
 
+    @Test
+    public void threeDCsInCycleAreReportedAsOneCycle() {
+        final DevelopmentComponent one = createDC("one", "two");
+        final DevelopmentComponent two = createDC("two", "three");
+        final DevelopmentComponent three = createDC("three", "one");
+        final DevelopmentComponent four = createDC("four", "three");
+        final DevelopmentComponent five = createDC("five");
+
+        final TopoSortResult result = sort(one, five);
+        assertThat(result.getDevelopmentComponents(), contains(five));
+        assertThat(result.getCycles().size(), equalTo(1));
+        assertThat(result.getCycles().iterator().next(), containsInAnyOrder(one, two, three));
+        assertThat(result.getCircularDependencies(), hasItems(new CircularDependency(one, two), new CircularDependency(two, three),
+            new CircularDependency(three, one)));
+        assertThat(result.getDevelopmentComponents(), not(hasItem(four)));
+    }
+
+    @Test
+    public void chainOfDCsIsSortedInBuildOrder() {
+        final int length = 20000;
+        final DevelopmentComponent[] components = new DevelopmentComponent[length];
+        components[0] = createDC("dc0");
+
+        for (int i = 1; i < length; i++) {
+            components[i] = createDC("dc" + i, "dc" + (i - 1));
+        }
+
+        final TopoSortResult result = sort(components[length - 1], components[0]);
+        assertThat(result.getDevelopmentComponents(), contains(components));
+        assertThat(result.getCycles(), empty());
+    }
+
+    @Test
+    public void longCycleDoesNotOverflowStack() {
+        final int length = 20000;
+
+        for (int i = 0; i < length; i++) {
+            createDC("dc" + i, "dc" + ((i + 1) % length));
+        }
+
+        final TopoSortResult result = sort(dcFactory.get("example.org", "dc0"));
+        assertThat(result.getDevelopmentComponents(), empty());
+        assertThat(result.getCycles().size(), equalTo(1));
+        assertThat(result.getCycles().iterator().next().size(), equalTo(length));
+    }
+
+    @Test
+    public void rebuildsArePropagatedAlongAllDependenciesByDefault() {
+        final DevelopmentComponent one = createDC("one");
+        final DevelopmentComponent atBuildTime = createDC("atBuildTime");
+        final DevelopmentComponent atRunTime = createDC("atRunTime");
+        atBuildTime.add(createReference("one", true));
+        atRunTime.add(createReference("one", false));
+
+        final TopoSortResult result = sort(one);
+        assertThat(result.getDevelopmentComponents(), containsInAnyOrder(one, atBuildTime, atRunTime));
+    }
+
+    @Test
+    public void rebuildsArePropagatedAlongBuildTimeDependenciesOnly() {
+        sorter = new TopoSort(dcFactory, System.err, true);
+        final DevelopmentComponent one = createDC("one");
+        final DevelopmentComponent atBuildTime = createDC("atBuildTime");
+        final DevelopmentComponent atRunTime = createDC("atRunTime");
+        final DevelopmentComponent usingAtRunTime = createDC("usingAtRunTime", "atRunTime");
+        atBuildTime.add(createReference("one", true));
+        atRunTime.add(createReference("one", false));
+
+        final TopoSortResult result = sort(one);
+        assertThat(result.getDevelopmentComponents(), contains(one, atBuildTime));
+        assertThat(atRunTime.isNeedsRebuild(), equalTo(false));
+        assertThat(usingAtRunTime.isNeedsRebuild(), equalTo(false));
+    }
+
+    /**
+     * Create a reference to the given development component used either at build time or at run and deploy time.
+     *
+     * @param usedDC
+     *            name of used development component.
+     * @param atBuildTime
+     *            <code>true</code> for a build time dependency, <code>false</code> for a run and deploy time dependency.
+     * @return the created public part reference.
+     */
+    private PublicPartReference createReference(final String usedDC, final boolean atBuildTime) {
+        final PublicPartReference reference = new PublicPartReference("example.org", usedDC);
+
+        if (atBuildTime) {
+            reference.setAtBuildTime();
+        }
+        else {
+            reference.setAtRunTime();
+            reference.setAtDeployTime(true);
+        }
+
+        return reference;
+    }
+
+    /**
+     * Create a development component in the source compartment using the given DCs.
+     *
+     * @param name
+     *            name of development component.
+     * @param usedDCs
+     *            names of used development components.
+     * @return the created development component.
+     */
+    private DevelopmentComponent createDC(final String name, final String... usedDCs) {
+        final DevelopmentComponent component = dcFactory.create("example.org", name, DevelopmentComponentType.Java);
+        sourceCompartment.add(component);
+
+        for (final String usedDC : usedDCs) {
+            component.add(new PublicPartReference("example.org", usedDC));
+        }
+
+        return component;
+    }
+
     @Test
     public void testXXX() {
         DevelopmentConfigurationReader reader = new DevelopmentConfigurationReader(this.dcFactory);
@@ -0,0 +1,170 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import hudson.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LocalDirectoryBuildOutputCache}.
+ *
+ * @author Dirk Weigenand
+ */
+public class LocalDirectoryBuildOutputCacheTest {
+    /**
+     * charset used for test files.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * folder containing cache, sources and targets.
+     */
+    private File testDirectory;
+
+    /**
+     * root folder of cache.
+     */
+    private File cacheDirectory;
+
+    /**
+     * Set up fixture.
+     *
+     * @throws IOException
+     *             when creating the test folder fails.
+     */
+    @Before
+    public void setUp() throws IOException {
+        testDirectory = Util.createTempDir();
+        cacheDirectory = new File(testDirectory, "cache");
+    }
+
+    /**
+     * Remove test folder.
+     */
+    @After
+    public void tearDown() {
+        Util.deleteRecursive(testDirectory);
+    }
+
+    /**
+     * Assert that published outputs are restored replacing the previous content of the target folder.
+     *
+     * @throws IOException
+     *             re-thrown from cache
+     */
+    @Test
+    public void publishedOutputsAreRestored() throws IOException {
+        final BuildOutputCache cache = new LocalDirectoryBuildOutputCache(cacheDirectory, 1024);
+        final File source = createOutputs("source", 10);
+        final File target = new File(testDirectory, "target");
+        write(new File(target, "stale.jar"), "stale");
+
+        cache.publish("abc", source);
+
+        assertThat(cache.restore("abc", target), equalTo(true));
+        assertThat(read(new File(target, "api/lib/java/example.jar")), equalTo(read(new File(source, "api/lib/java/example.jar"))));
+        assertThat(new File(target, "stale.jar").exists(), equalTo(false));
+    }
+
+    /**
+     * Assert that restoring an unknown key does not touch the target folder.
+     *
+     * @throws IOException
+     *             re-thrown from cache
+     */
+    @Test
+    public void restoringUnknownKeyLeavesTargetUntouched() throws IOException {
+        final BuildOutputCache cache = new LocalDirectoryBuildOutputCache(cacheDirectory, 1024);
+        final File target = createOutputs("target", 10);
+
+        assertThat(cache.restore("unknown", target), equalTo(false));
+        assertThat(new File(target, "api/lib/java/example.jar").exists(), equalTo(true));
+    }
+
+    /**
+     * Assert that the least recently used entries are evicted when the maximum size is exceeded.
+     *
+     * @throws IOException
+     *             re-thrown from cache
+     */
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() throws IOException {
+        final BuildOutputCache cache = new LocalDirectoryBuildOutputCache(cacheDirectory, 250);
+        final File target = new File(testDirectory, "target");
+
+        cache.publish("first", createOutputs("first", 100));
+        cache.publish("second", createOutputs("second", 100));
+        new File(cacheDirectory, "first").setLastModified(System.currentTimeMillis() - 20000);
+        new File(cacheDirectory, "second").setLastModified(System.currentTimeMillis() - 10000);
+        cache.restore("first", target);
+
+        cache.publish("third", createOutputs("third", 100));
+
+        assertThat(cache.restore("second", target), equalTo(false));
+        assertThat(cache.restore("first", target), equalTo(true));
+        assertThat(cache.restore("third", target), equalTo(true));
+    }
+
+    /**
+     * Create a folder containing a public part with an archive of the given size.
+     *
+     * @param name
+     *            name of folder.
+     * @param size
+     *            size of archive.
+     * @return the created folder.
+     * @throws IOException
+     *             when writing the archive fails.
+     */
+    private File createOutputs(final String name, final int size) throws IOException {
+        final File folder = new File(testDirectory, name);
+        final StringBuilder content = new StringBuilder();
+
+        while (content.length() < size) {
+            content.append(name.charAt(content.length() % name.length()));
+        }
+
+        write(new File(folder, "api/lib/java/example.jar"), content.toString());
+
+        return folder;
+    }
+
+    /**
+     * Write the given content to the given file creating missing parent folders.
+     *
+     * @param file
+     *            file to write.
+     * @param content
+     *            content to write.
+     * @throws IOException
+     *             when writing the file fails.
+     */
+    private void write(final File file, final String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(UTF8));
+    }
+
+    /**
+     * Read the given file.
+     *
+     * @param file
+     *            file to read.
+     * @return content of file.
+     * @throws IOException
+     *             when reading the file fails.
+     */
+    private String read(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), UTF8);
+    }
+}
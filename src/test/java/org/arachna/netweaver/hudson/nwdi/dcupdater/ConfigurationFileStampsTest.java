@@ -0,0 +1,167 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi.dcupdater;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import hudson.Util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ConfigurationFileStamps}.
+ *
+ * @author Dirk Weigenand
+ */
+public class ConfigurationFileStampsTest {
+    /**
+     * charset used for test files.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * configuration files of the development component used in tests.
+     */
+    private static final Collection<String> CONFIG_FILES = Arrays.asList(".dcdef", "def/api.pp");
+
+    /**
+     * base location of the development component used in tests.
+     */
+    private File baseLocation;
+
+    /**
+     * development component used in tests.
+     */
+    private DevelopmentComponent component;
+
+    /**
+     * instance under test.
+     */
+    private ConfigurationFileStamps stamps;
+
+    /**
+     * Set up fixture: record the configuration files of a development component.
+     *
+     * @throws IOException
+     *             when writing the configuration files fails.
+     */
+    @Before
+    public void setUp() throws IOException {
+        baseLocation = Util.createTempDir();
+        component = new DevelopmentComponent("example/dc", "example.org");
+        stamps = new ConfigurationFileStamps();
+
+        write(".dcdef", "<development-component/>");
+        write("def/api.pp", "<public-part/>");
+        stamps.record(component, baseLocation, CONFIG_FILES);
+    }
+
+    /**
+     * Remove test folder.
+     */
+    @After
+    public void tearDown() {
+        Util.deleteRecursive(baseLocation);
+    }
+
+    /**
+     * Assert that configuration files that were only touched (e.g. synced again) are considered unchanged.
+     *
+     * @throws IOException
+     *             re-thrown from stamps
+     */
+    @Test
+    public void touchedConfigFilesAreUnchanged() throws IOException {
+        new File(baseLocation, ".dcdef").setLastModified(System.currentTimeMillis() + 10000);
+
+        assertThat(stamps.isUnchanged(component, baseLocation, CONFIG_FILES), equalTo(true));
+    }
+
+    /**
+     * Assert that a changed configuration file is detected.
+     *
+     * @throws IOException
+     *             re-thrown from stamps
+     */
+    @Test
+    public void changedConfigFileIsDetected() throws IOException {
+        write(".dcdef", "<development-component></development-component>");
+
+        assertThat(stamps.isUnchanged(component, baseLocation, CONFIG_FILES), equalTo(false));
+    }
+
+    /**
+     * Assert that an added configuration file is detected.
+     *
+     * @throws IOException
+     *             re-thrown from stamps
+     */
+    @Test
+    public void addedConfigFileIsDetected() throws IOException {
+        write("def/impl.pp", "<public-part/>");
+
+        assertThat(stamps.isUnchanged(component, baseLocation, Arrays.asList(".dcdef", "def/api.pp", "def/impl.pp")), equalTo(false));
+    }
+
+    /**
+     * Assert that a development component whose configuration files were not recorded is considered changed.
+     *
+     * @throws IOException
+     *             re-thrown from stamps
+     */
+    @Test
+    public void unknownComponentIsChanged() throws IOException {
+        assertThat(stamps.isUnchanged(new DevelopmentComponent("example/other", "example.org"), baseLocation, CONFIG_FILES),
+            equalTo(false));
+    }
+
+    /**
+     * Assert that recorded configuration files survive writing and reading them.
+     *
+     * @throws IOException
+     *             re-thrown from stamps
+     */
+    @Test
+    public void recordedConfigFilesAreRestored() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        stamps.write(out);
+        out.close();
+
+        final ConfigurationFileStamps restored = new ConfigurationFileStamps();
+        restored.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(restored.isUnchanged(component, baseLocation, CONFIG_FILES), equalTo(true));
+    }
+
+    /**
+     * Write the given content to the given configuration file.
+     *
+     * @param path
+     *            path of configuration file relative to the base location.
+     * @param content
+     *            content to write.
+     * @throws IOException
+     *             when writing the file fails.
+     */
+    private void write(final String path, final String content) throws IOException {
+        final File file = new File(baseLocation, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(UTF8));
+    }
+}
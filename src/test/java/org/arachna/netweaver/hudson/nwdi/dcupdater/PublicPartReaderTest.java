@@ -34,9 +34,19 @@ public class PublicPartReaderTest {
     public void setUp() {
         final DigesterHelper<PublicPart> digesterHelper =
             new DigesterHelper<PublicPart>(new PublicPartRulesModuleProducer());
-        publicPart =
-            digesterHelper.execute(new InputStreamReader(this.getClass().getResourceAsStream(
-                "/org/arachna/netweaver/hudson/nwdi/dcupdater/API.pp")));
+        publicPart = read(digesterHelper);
+    }
+
+    /**
+     * Read the example public part using the given <code>DigesterHelper</code>.
+     * 
+     * @param digesterHelper
+     *            helper to use for reading the public part.
+     * @return the public part read from the example file.
+     */
+    private PublicPart read(final DigesterHelper<PublicPart> digesterHelper) {
+        return digesterHelper.execute(new InputStreamReader(this.getClass().getResourceAsStream(
+            "/org/arachna/netweaver/hudson/nwdi/dcupdater/API.pp")));
     }
 
     /**
@@ -90,4 +100,16 @@ public class PublicPartReaderTest {
         assertNotNull(publicPart);
         assertThat(publicPart.getType(), equalTo(PublicPartType.COMPILE));
     }
+
+    /**
+     * Assert that the reused Digester creates a new public part for every document it parses.
+     */
+    @Test
+    public final void testReusedDigesterCreatesNewPublicPart() {
+        final PublicPart other = read(new DigesterHelper<PublicPart>(new PublicPartRulesModuleProducer()));
+
+        assertThat(other, equalTo(publicPart));
+        assertThat(other == publicPart, equalTo(false));
+        assertThat(other.getType(), equalTo(PublicPartType.COMPILE));
+    }
 }
@@ -0,0 +1,198 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.nwdi.dcupdater;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.PublicPart;
+import org.arachna.netweaver.dc.types.PublicPartReference;
+import org.arachna.xml.DigesterHelper;
+import org.arachna.xml.StaxReaderProducer;
+import org.junit.Test;
+
+/**
+ * Assert that the StAX readers of the rules module producers for development component configuration files produce the same results as
+ * the Digester rules modules.
+ *
+ * @author Dirk Weigenand
+ */
+public class StaxReaderEquivalenceTest {
+    /**
+     * charset of example files.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Assert that reading the example <code>.dcdef</code> yields the same development component.
+     *
+     * @throws XMLStreamException
+     *             re-thrown from StAX reader
+     */
+    @Test
+    public void dcDefinitionIsReadEquivalently() throws XMLStreamException {
+        assertEquivalent(new DcDefinitionRulesModuleProducer(), "example.dcdef");
+    }
+
+    /**
+     * Assert that reading a <code>.dcdef</code> with whitespace around values and a missing sub type yields the same development
+     * component.
+     *
+     * @throws XMLStreamException
+     *             re-thrown from StAX reader
+     */
+    @Test
+    public void dcDefinitionWithWhitespaceIsReadEquivalently() throws XMLStreamException {
+        final String dcdef =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<development-component xmlns=\"http://xml.sap.com/2002/11/DevelopmentComponent\">"
+                + "<name>\n  example/dc </name><vendor> example.org</vendor><caption><![CDATA[ caption ]]></caption>"
+                + "<component-type><type>Java</type></component-type>"
+                + "<dependencies><dependency><dc-ref><name> dc </name><vendor>sap.com</vendor></dc-ref><at-run-time/></dependency>"
+                + "</dependencies><folders><package-folder> src/packages </package-folder><source-folder>res</source-folder></folders>"
+                + "</development-component>";
+        final DevelopmentComponent expected =
+            new DigesterHelper<DevelopmentComponent>(new DcDefinitionRulesModuleProducer()).update(new StringReader(dcdef),
+                new DevelopmentComponent("", ""));
+        final DevelopmentComponent actual =
+            new DcDefinitionRulesModuleProducer().createStaxReader().read(new StringReader(dcdef), new DevelopmentComponent("", ""));
+
+        assertEquivalent(expected, actual);
+    }
+
+    /**
+     * Assert that reading the example <code>ProjectProperties.wdproperties</code> yields the same development component.
+     *
+     * @throws XMLStreamException
+     *             re-thrown from StAX reader
+     */
+    @Test
+    public void webDynproProjectPropertiesAreReadEquivalently() throws XMLStreamException {
+        assertEquivalent(new WebDynproProjectPropertiesRulesModuleProducer(), "ProjectProperties.wdproperties");
+    }
+
+    /**
+     * Assert that reading the example <code>portalapp.xml</code> yields the same development component.
+     *
+     * @throws XMLStreamException
+     *             re-thrown from StAX reader
+     */
+    @Test
+    public void portalApplicationConfigurationIsReadEquivalently() throws XMLStreamException {
+        assertEquivalent(new PortalApplicationConfigurationRulesModuleProducer(), "portalapp.xml");
+    }
+
+    /**
+     * Assert that reading the example public part definition yields the same public part.
+     *
+     * @throws XMLStreamException
+     *             re-thrown from StAX reader
+     */
+    @Test
+    public void publicPartIsReadEquivalently() throws XMLStreamException {
+        final PublicPartRulesModuleProducer producer = new PublicPartRulesModuleProducer();
+        final PublicPart expected = new DigesterHelper<PublicPart>(producer).execute(getReader("API.pp"));
+        final PublicPart actual = producer.createStaxReader().read(getReader("API.pp"), null);
+
+        assertThat(actual, equalTo(expected));
+        assertThat(actual.getCaption(), equalTo(expected.getCaption()));
+        assertThat(actual.getDescription(), equalTo(expected.getDescription()));
+        assertThat(actual.getType(), equalTo(expected.getType()));
+    }
+
+    /**
+     * Assert that the given producer's StAX reader and Digester rules update a development component equivalently from the given example
+     * file.
+     *
+     * @param producer
+     *            producer of rules module and StAX reader.
+     * @param fileName
+     *            name of example file.
+     * @throws XMLStreamException
+     *             re-thrown from StAX reader
+     */
+    private void assertEquivalent(final StaxReaderProducer<DevelopmentComponent> producer, final String fileName)
+        throws XMLStreamException {
+        final DevelopmentComponent expected =
+            new DigesterHelper<DevelopmentComponent>(producer).update(getReader(fileName), new DevelopmentComponent("", ""));
+        final DevelopmentComponent actual = producer.createStaxReader().read(getReader(fileName), new DevelopmentComponent("", ""));
+
+        assertEquivalent(expected, actual);
+    }
+
+    /**
+     * Assert that the given development components have the same properties.
+     *
+     * @param expected
+     *            development component read using Digester.
+     * @param actual
+     *            development component read using the StAX reader.
+     */
+    private void assertEquivalent(final DevelopmentComponent expected, final DevelopmentComponent actual) {
+        assertThat(actual.getName(), equalTo(expected.getName()));
+        assertThat(actual.getVendor(), equalTo(expected.getVendor()));
+        assertThat(actual.getCaption(), equalTo(expected.getCaption()));
+        assertThat(actual.getDescription(), equalTo(expected.getDescription()));
+        assertThat(actual.getType(), equalTo(expected.getType()));
+        assertThat(actual.getSourceFolders(), equalTo(expected.getSourceFolders()));
+        assertThat(actual.getResourceFolders(), equalTo(expected.getResourceFolders()));
+        assertThat(describe(actual.getUsedDevelopmentComponents()), equalTo(describe(expected.getUsedDevelopmentComponents())));
+        assertThat(describe(asList(actual.getBuildPlugin())), equalTo(describe(asList(expected.getBuildPlugin()))));
+    }
+
+    /**
+     * Describe the given references including their build and run time flags.
+     *
+     * @param references
+     *            references to public parts.
+     * @return descriptions of the given references in iteration order.
+     */
+    private List<String> describe(final Iterable<PublicPartReference> references) {
+        final List<String> descriptions = new ArrayList<String>();
+
+        for (final PublicPartReference reference : references) {
+            descriptions.add(String.format("%s:%s:%s:%b:%b", reference.getVendor(), reference.getComponentName(), reference.getName(),
+                reference.isAtBuildTime(), reference.isAtRunTime()));
+        }
+
+        return descriptions;
+    }
+
+    /**
+     * Wrap the given reference into a list.
+     *
+     * @param reference
+     *            reference to a public part (may be <code>null</code>).
+     * @return a list containing the given reference or an empty list when it is <code>null</code>.
+     */
+    private List<PublicPartReference> asList(final PublicPartReference reference) {
+        final List<PublicPartReference> references = new ArrayList<PublicPartReference>();
+
+        if (reference != null) {
+            references.add(reference);
+        }
+
+        return references;
+    }
+
+    /**
+     * Returns a reader for the given example file.
+     *
+     * @param fileName
+     *            name of example file.
+     * @return a reader for the given example file.
+     */
+    private Reader getReader(final String fileName) {
+        return new InputStreamReader(getClass().getResourceAsStream("/org/arachna/netweaver/hudson/nwdi/dcupdater/" + fileName), UTF8);
+    }
+}
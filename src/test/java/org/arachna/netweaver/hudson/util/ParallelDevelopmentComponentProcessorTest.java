@@ -0,0 +1,128 @@
+/**
+ *
+ */
+package org.arachna.netweaver.hudson.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.arachna.netweaver.dc.types.Compartment;
+import org.arachna.netweaver.dc.types.CompartmentState;
+import org.arachna.netweaver.dc.types.DevelopmentComponent;
+import org.arachna.netweaver.dc.types.DevelopmentComponentFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ParallelDevelopmentComponentProcessor}.
+ *
+ * @author Dirk Weigenand
+ */
+public class ParallelDevelopmentComponentProcessorTest {
+    /**
+     * number of development components processed.
+     */
+    private static final int COMPONENT_COUNT = 1000;
+
+    /**
+     * number of threads used for processing.
+     */
+    private static final int PARALLELISM = 4;
+
+    /**
+     * development components to process.
+     */
+    private Collection<DevelopmentComponent> components;
+
+    /**
+     * number of times each development component was processed.
+     */
+    private ConcurrentMap<DevelopmentComponent, AtomicInteger> invocations;
+
+    /**
+     * Set up fixture.
+     */
+    @Before
+    public void setUp() {
+        components = new ArrayList<DevelopmentComponent>();
+        invocations = new ConcurrentHashMap<DevelopmentComponent, AtomicInteger>();
+
+        for (int i = 0; i < COMPONENT_COUNT; i++) {
+            components.add(new DevelopmentComponent("example/dc" + i, "example.org"));
+        }
+    }
+
+    /**
+     * Assert that each development component is processed exactly once when using several threads.
+     */
+    @Test
+    public void eachComponentIsProcessedOnce() {
+        process(PARALLELISM);
+
+        assertProcessedOnce();
+    }
+
+    /**
+     * Assert that each development component is processed exactly once when processing sequentially.
+     */
+    @Test
+    public void eachComponentIsProcessedOnceSequentially() {
+        process(1);
+
+        assertProcessedOnce();
+    }
+
+    /**
+     * Assert that development components registered and added to a compartment concurrently are all registered and added exactly once.
+     */
+    @Test
+    public void concurrentRegistrationIsConsistent() {
+        final DevelopmentComponentFactory dcFactory = new DevelopmentComponentFactory();
+        final Compartment compartment = Compartment.create("example.org_EXAMPLE_SC_1", CompartmentState.Source);
+
+        new ParallelDevelopmentComponentProcessor(new ParallelDevelopmentComponentProcessor.Processor() {
+            @Override
+            public void process(final DevelopmentComponent component) {
+                final DevelopmentComponent registered = dcFactory.create(component.getVendor(), component.getName());
+                compartment.add(dcFactory.create(component.getVendor(), component.getName()));
+                compartment.add(registered);
+            }
+        }, PARALLELISM).execute(components);
+
+        assertThat(dcFactory.getAll().size(), equalTo(COMPONENT_COUNT));
+        assertThat(compartment.getDevelopmentComponents().size(), equalTo(COMPONENT_COUNT));
+    }
+
+    /**
+     * Process the development components using the given number of threads counting invocations per development component.
+     *
+     * @param parallelism
+     *            number of threads used for processing.
+     */
+    private void process(final int parallelism) {
+        new ParallelDevelopmentComponentProcessor(new ParallelDevelopmentComponentProcessor.Processor() {
+            @Override
+            public void process(final DevelopmentComponent component) {
+                invocations.putIfAbsent(component, new AtomicInteger());
+                invocations.get(component).incrementAndGet();
+            }
+        }, parallelism).execute(components);
+    }
+
+    /**
+     * Assert that each development component was processed exactly once.
+     */
+    private void assertProcessedOnce() {
+        assertThat(invocations.size(), equalTo(COMPONENT_COUNT));
+
+        for (final AtomicInteger count : invocations.values()) {
+            assertThat(count.get(), equalTo(1));
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ *
+ */
+package org.arachna.netweaver.tools;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DIToolOutputStream}.
+ *
+ * @author Dirk Weigenand
+ */
+public class DIToolOutputStreamTest {
+    /**
+     * Assert that lines split across several writes are fed to the consumers as a whole.
+     *
+     * @throws IOException
+     *             re-thrown from stream
+     */
+    @Test
+    public void linesAreFedToConsumersAcrossWrites() throws IOException {
+        final LineCollector collector = new LineCollector();
+        final DIToolOutputStream stream = new DIToolOutputStream(false, collector);
+
+        write(stream, "dc>first ");
+        write(stream, "line\r\nsecond line\n\nthi");
+        write(stream, "rd line");
+        final DIToolCommandExecutionResult result = stream.createResult(0);
+
+        assertThat(collector.lines, contains("dc>first line", "second line", "", "third line"));
+        assertThat(result.getOutput(), equalTo(""));
+    }
+
+    /**
+     * Assert that retained output is available from the result.
+     *
+     * @throws IOException
+     *             re-thrown from stream
+     */
+    @Test
+    public void retainedOutputIsAvailableFromResult() throws IOException {
+        final DIToolOutputStream stream = new DIToolOutputStream(true);
+
+        write(stream, "line 1\nline 2\n");
+
+        assertThat(stream.createResult(1).getOutput(), equalTo("line 1\nline 2\n"));
+    }
+
+    /**
+     * Assert that large retained output is spooled to a file and can be read back.
+     *
+     * @throws IOException
+     *             re-thrown from stream
+     */
+    @Test
+    public void largeOutputIsSpooledToFile() throws IOException {
+        final LineCollector collector = new LineCollector();
+        final DIToolOutputStream stream = new DIToolOutputStream(true, collector);
+        final int lineCount = 2 * DIToolOutputStream.MEMORY_THRESHOLD / 10;
+
+        for (int i = 0; i < lineCount; i++) {
+            write(stream, String.format("%09d\n", i));
+        }
+
+        final DIToolCommandExecutionResult result = stream.createResult(0);
+        final BufferedReader reader = new BufferedReader(result.getOutputReader());
+        int lines = 0;
+
+        try {
+            String line = reader.readLine();
+
+            while (line != null) {
+                assertThat(line, equalTo(String.format("%09d", lines)));
+                lines++;
+                line = reader.readLine();
+            }
+        }
+        finally {
+            reader.close();
+            result.dispose();
+        }
+
+        assertThat(lines, equalTo(lineCount));
+        assertThat(collector.lines.size(), equalTo(lineCount));
+    }
+
+    /**
+     * Assert that closing the stream releases a spool file not handed out through a result and that disposing a result releases its
+     * spool file.
+     *
+     * @throws IOException
+     *             re-thrown from stream
+     */
+    @Test
+    public void spoolFilesAreReleased() throws IOException {
+        final Set<String> spoolFiles = getSpoolFiles();
+
+        DIToolOutputStream stream = createLargeOutput();
+        stream.close();
+        assertThat(getSpoolFiles(), equalTo(spoolFiles));
+
+        stream = createLargeOutput();
+        final DIToolCommandExecutionResult result = stream.createResult(0);
+        stream.close();
+        assertThat(result.getOutput().length(), equalTo((DIToolOutputStream.MEMORY_THRESHOLD / 10 + 1) * 10));
+
+        result.dispose();
+        assertThat(getSpoolFiles(), equalTo(spoolFiles));
+    }
+
+    /**
+     * Create a stream retaining output exceeding the in memory threshold.
+     *
+     * @return a stream retaining output exceeding the in memory threshold.
+     * @throws IOException
+     *             re-thrown from stream
+     */
+    private DIToolOutputStream createLargeOutput() throws IOException {
+        final DIToolOutputStream stream = new DIToolOutputStream(true);
+
+        for (int i = 0; i <= DIToolOutputStream.MEMORY_THRESHOLD / 10; i++) {
+            write(stream, String.format("%09d\n", i));
+        }
+
+        return stream;
+    }
+
+    /**
+     * Returns the names of the spool files in the temporary directory.
+     *
+     * @return names of the spool files in the temporary directory.
+     */
+    private Set<String> getSpoolFiles() {
+        final Set<String> names = new HashSet<String>();
+        final String[] files = new File(System.getProperty("java.io.tmpdir")).list();
+
+        if (files != null) {
+            for (final String name : files) {
+                if (name.startsWith("nwdi-tool-output")) {
+                    names.add(name);
+                }
+            }
+        }
+
+        return names;
+    }
+
+    /**
+     * Write the given text to the given stream.
+     *
+     * @param stream
+     *            stream to write to.
+     * @param text
+     *            text to write.
+     * @throws IOException
+     *             re-thrown from stream
+     */
+    private void write(final DIToolOutputStream stream, final String text) throws IOException {
+        stream.write(text.getBytes(Charset.defaultCharset()));
+    }
+
+    /**
+     * Consumer collecting all lines.
+     *
+     * @author Dirk Weigenand
+     */
+    private static final class LineCollector implements OutputLineConsumer {
+        /**
+         * lines consumed.
+         */
+        private final List<String> lines = new ArrayList<String>();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void consume(final String line) {
+            lines.add(line);
+        }
+    }
+}
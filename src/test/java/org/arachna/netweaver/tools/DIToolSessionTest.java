@@ -0,0 +1,188 @@
+/**
+ *
+ */
+package org.arachna.netweaver.tools;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assume.assumeTrue;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.Util;
+import hudson.util.ArgumentListBuilder;
+import hudson.util.StreamTaskListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DIToolSession}.
+ *
+ * @author Dirk Weigenand
+ */
+public class DIToolSessionTest {
+    /**
+     * default encoding.
+     */
+    private static final String UTF_8 = "UTF-8";
+
+    /**
+     * use base 8 for creating file system permissions.
+     */
+    private static final int OCTAL = 8;
+
+    /**
+     * fake dctool printing a prompt before reading each command and counting the loadconfig commands.
+     */
+    private static final String FAKE_DCTOOL = "#!/bin/sh\n" + "printf 'dc>'\n" + "while read line; do\n" + "  case \"$line\" in\n"
+        + "    exit*) exit 0;;\n" + "    die*) exit 3;;\n"
+        + "    fail*) echo \"ERROR: $line failed\";;\n" + "    hang*) exec sleep 600;;\n" + "    loadconfig*) echo x >> loadconfig.count; echo loaded;;\n"
+        + "    *) echo \"executed $line\";;\n" + "  esac\n" + "  printf 'dc>'\n" + "done\n";
+
+    /**
+     * The folder used for testing.
+     */
+    private File testDirectory;
+
+    /**
+     * session under test.
+     */
+    private DIToolSession session;
+
+    /**
+     * Create the fake dctool and the session under test.
+     *
+     * @throws IOException
+     *             when the test folder could not be created
+     * @throws InterruptedException
+     *             when the test was interrupted during file operations on the test scripts
+     */
+    @Before
+    public void setUp() throws IOException, InterruptedException {
+        final Launcher launcher = new Launcher.LocalLauncher(StreamTaskListener.fromStdout());
+        assumeTrue(launcher.isUnix());
+
+        testDirectory = Util.createTempDir();
+        final FilePath testFolder = new FilePath(testDirectory);
+        final FilePath dctool = testFolder.child("dctool.sh");
+        dctool.write(FAKE_DCTOOL, UTF_8);
+        dctool.chmod(Integer.parseInt("0700", OCTAL));
+
+        session =
+            new DIToolSession(launcher, testFolder, new HashMap<String, String>(), new ArgumentListBuilder(dctool.getRemote()),
+                Arrays.asList("timing on", "loadconfig -u user -p secret"), "dc>", "exit", "\n", new PrintStream(
+                    new ByteArrayOutputStream()));
+    }
+
+    /**
+     * Terminate session and clean up test folder.
+     *
+     * @throws Exception
+     *             when terminating the session or removing the test folder failed
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (session != null) {
+            session.close();
+            Util.deleteRecursive(testDirectory);
+        }
+    }
+
+    /**
+     * Assert that the configuration is loaded only once for several command batches.
+     *
+     * @throws Exception
+     *             re-thrown from session
+     */
+    @Test
+    public void configurationIsLoadedOnceForSeveralBatches() throws Exception {
+        final DIToolCommandExecutionResult first = session.execute(Arrays.asList("builddc one", "builddc two"));
+        final DIToolCommandExecutionResult second = session.execute(Arrays.asList("builddc three"));
+
+        assertThat(first.getExitCode(), equalTo(0));
+        assertThat(first.getOutput(), containsString("loaded"));
+        assertThat(first.getOutput(), containsString("executed builddc two"));
+        assertThat(second.getExitCode(), equalTo(0));
+        assertThat(second.getOutput(), not(containsString("loaded")));
+        assertThat(second.getOutput(), containsString("executed builddc three"));
+        assertThat(session.getStarts(), equalTo(1));
+        assertThat(getLoadConfigCount(), equalTo(1));
+    }
+
+    /**
+     * Assert that a dying tool process is reported and restarted for the next batch.
+     *
+     * @throws Exception
+     *             re-thrown from session
+     */
+    @Test
+    public void processIsRestartedAfterItDied() throws Exception {
+        final DIToolCommandExecutionResult failed = session.execute(Arrays.asList("builddc one", "die", "builddc two"));
+        final DIToolCommandExecutionResult next = session.execute(Arrays.asList("builddc three"));
+
+        assertThat(failed.getExitCode(), equalTo(3));
+        assertThat(failed.getOutput(), not(containsString("executed builddc two")));
+        assertThat(next.getExitCode(), equalTo(0));
+        assertThat(next.getOutput(), containsString("executed builddc three"));
+        assertThat(session.getStarts(), equalTo(2));
+        assertThat(getLoadConfigCount(), equalTo(2));
+    }
+
+    /**
+     * Assert that a batch the tool printed an error for is reported as failed while the process keeps running.
+     *
+     * @throws Exception
+     *             re-thrown from session
+     */
+    @Test
+    public void batchWithErrorIsReportedAsFailed() throws Exception {
+        final DIToolCommandExecutionResult failed = session.execute(Arrays.asList("syncdc one", "fail builddc two"));
+        final DIToolCommandExecutionResult next = session.execute(Arrays.asList("builddc three"));
+
+        assertThat(failed.getExitCode(), equalTo(DIToolSession.ERROR_EXIT_CODE));
+        assertThat(failed.getOutput(), containsString("ERROR: fail builddc two failed"));
+        assertThat(next.getExitCode(), equalTo(0));
+        assertThat(session.getStarts(), equalTo(1));
+    }
+
+    /**
+     * Assert that a tool process not printing anything is killed, the batch is reported as failed and the next batch starts a new process.
+     *
+     * @throws Exception
+     *             re-thrown from session
+     */
+    @Test
+    public void hungProcessIsKilledAndRestarted() throws Exception {
+        session.setInactivityTimeout(1);
+        final DIToolCommandExecutionResult hung = session.execute(Arrays.asList("builddc one", "hang"));
+        final DIToolCommandExecutionResult next = session.execute(Arrays.asList("builddc two"));
+
+        assertThat(hung.getExitCode(), not(equalTo(0)));
+        assertThat(hung.getOutput(), containsString("executed builddc one"));
+        assertThat(hung.getOutput(), containsString("did not print anything for 1 seconds"));
+        assertThat(next.getExitCode(), equalTo(0));
+        assertThat(next.getOutput(), containsString("executed builddc two"));
+        assertThat(session.getStarts(), equalTo(2));
+    }
+
+    /**
+     * Determine how often the fake dctool executed the loadconfig command.
+     *
+     * @return number of loadconfig commands executed.
+     * @throws Exception
+     *             when reading the counter file failed
+     */
+    private int getLoadConfigCount() throws Exception {
+        return new FilePath(testDirectory).child("loadconfig.count").readToString().length() / 2;
+    }
+}
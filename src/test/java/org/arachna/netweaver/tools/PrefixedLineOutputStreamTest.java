@@ -0,0 +1,99 @@
+/**
+ *
+ */
+package org.arachna.netweaver.tools;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PrefixedLineOutputStream}.
+ *
+ * @author Dirk Weigenand
+ */
+public class PrefixedLineOutputStreamTest {
+    /**
+     * the shared log.
+     */
+    private ByteArrayOutputStream log;
+
+    /**
+     * stream to the shared log.
+     */
+    private PrintStream logger;
+
+    /**
+     * Create the shared log.
+     */
+    @Before
+    public void setUp() {
+        log = new ByteArrayOutputStream();
+        logger = new PrintStream(log);
+    }
+
+    /**
+     * Assert that chunks written by several streams are copied to the shared log as whole, prefixed lines.
+     */
+    @Test
+    public void interleavedChunksAreWrittenAsWholeLines() {
+        final PrefixedLineOutputStream first = new PrefixedLineOutputStream(logger, "[1] ");
+        final PrefixedLineOutputStream second = new PrefixedLineOutputStream(logger, "[2] ");
+
+        write(first, "building d");
+        write(second, "building other\nbuil");
+        write(first, "c\ndone\n");
+        write(second, "d done\n");
+
+        assertThat(getLog(), equalTo("[2] building other\n[1] building dc\n[1] done\n[2] build done\n"));
+    }
+
+    /**
+     * Assert that closing the stream terminates an incomplete line.
+     *
+     * @throws IOException
+     *             re-thrown from closing the stream
+     */
+    @Test
+    public void closeWritesIncompleteLine() throws IOException {
+        final PrefixedLineOutputStream stream = new PrefixedLineOutputStream(logger, "[1] ");
+
+        write(stream, "dc>");
+        assertThat(getLog(), equalTo(""));
+        stream.close();
+        stream.close();
+
+        assertThat(getLog(), equalTo("[1] dc>\n"));
+    }
+
+    /**
+     * Write the given text to the given stream.
+     *
+     * @param stream
+     *            stream to write to.
+     * @param text
+     *            text to write.
+     */
+    private void write(final PrefixedLineOutputStream stream, final String text) {
+        final byte[] bytes = text.getBytes(Charset.defaultCharset());
+        stream.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Returns the content of the shared log.
+     *
+     * @return content of the shared log.
+     */
+    private String getLog() {
+        logger.flush();
+
+        return new String(log.toByteArray(), Charset.defaultCharset());
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ *
+ */
+package org.arachna.netweaver.tools.dc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.List;
+
+import org.arachna.netweaver.dc.types.JdkHomePaths;
+import org.arachna.netweaver.tools.DIToolDescriptor;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LoadConfigCommandBuilder}.
+ *
+ * @author Dirk Weigenand
+ */
+public class LoadConfigCommandBuilderTest {
+    /**
+     * Assert that the first worker uses the default spool and trace files.
+     */
+    @Test
+    public void firstWorkerUsesDefaultSpoolAndTraceFiles() {
+        final List<String> commands = createBuilder().execute();
+
+        assertThat(commands.get(0), equalTo("spool spool.txt"));
+        assertThat(commands.get(1), equalTo("tracefile tracefile.txt"));
+    }
+
+    /**
+     * Assert that further workers use their own spool and trace files.
+     */
+    @Test
+    public void workersUseTheirOwnSpoolAndTraceFiles() {
+        final List<String> commands = createBuilder().execute(2);
+
+        assertThat(commands.get(0), equalTo("spool spool-2.txt"));
+        assertThat(commands.get(1), equalTo("tracefile tracefile-2.txt"));
+        assertThat(commands.get(3), equalTo("loadconfig -u developer -p secret -v \".dtr\" -l \".dtc\""));
+    }
+
+    /**
+     * Create a builder for NetWeaver 7.1 and onwards.
+     *
+     * @return builder for <code>loadconfig</code> commands.
+     */
+    private LoadConfigCommandBuilder createBuilder() {
+        return new LoadConfigCommandBuilder(new DIToolDescriptor("developer", "secret", "", "", new JdkHomePaths()),
+            LoadConfigTemplate.V71);
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ *
+ */
+package org.arachna.util.io;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import hudson.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link FileFinder}.
+ *
+ * @author Dirk Weigenand
+ */
+public class FileFinderTest {
+    /**
+     * base directory for tests.
+     */
+    private File baseDir;
+
+    /**
+     * Set up fixture: create a directory tree containing Java sources, other files and version control meta data.
+     *
+     * @throws IOException
+     *             when creating the directory tree fails.
+     */
+    @Before
+    public void setUp() throws IOException {
+        baseDir = Util.createTempDir();
+        create("A.java");
+        create("readme.txt");
+        create("org/example/B.java");
+        create("org/example/deep/C.java");
+        create(".svn/text-base/D.java");
+        new File(baseDir, "org/example/E.java").mkdirs();
+    }
+
+    /**
+     * Remove test folder.
+     */
+    @After
+    public void tearDown() {
+        Util.deleteRecursive(baseDir);
+    }
+
+    /**
+     * Assert that all files matching the pattern are found recursively and directories are not reported.
+     */
+    @Test
+    public void findMatchingFilesRecursively() {
+        assertThat(getRelativePaths(new FileFinder(baseDir, ".*\\.java").find()),
+            equalTo(asSortedList("A.java", ".svn/text-base/D.java", "org/example/B.java", "org/example/deep/C.java")));
+    }
+
+    /**
+     * Assert that directories matching a prune rule are not descended into.
+     */
+    @Test
+    public void prunedDirectoriesAreSkipped() {
+        assertThat(getRelativePaths(new FileFinder(baseDir, ".*\\.java", "\\.svn", "deep").find()),
+            equalTo(asSortedList("A.java", "org/example/B.java")));
+    }
+
+    /**
+     * Assert that sub directories are not listed before the files found so far are consumed.
+     */
+    @Test
+    public void subDirectoriesAreListedLazily() {
+        final Iterator<File> files = new FileFinder(baseDir, ".*\\.java", "\\.svn").iterator();
+
+        assertThat(files.next().getName(), equalTo("A.java"));
+        Util.deleteRecursive(new File(baseDir, "org"));
+        assertThat(files.hasNext(), equalTo(false));
+    }
+
+    /**
+     * Assert that a non existing base directory yields no files.
+     */
+    @Test
+    public void nonExistingBaseDirYieldsNoFiles() {
+        assertThat(new FileFinder(new File(baseDir, "missing"), ".*").find().isEmpty(), equalTo(true));
+    }
+
+    /**
+     * Create an empty file with the given path relative to the base directory.
+     *
+     * @param path
+     *            path of file relative to the base directory.
+     * @throws IOException
+     *             when creating the file fails.
+     */
+    private void create(final String path) throws IOException {
+        final File file = new File(baseDir, path);
+        file.getParentFile().mkdirs();
+        file.createNewFile();
+    }
+
+    /**
+     * Returns the sorted paths of the given files relative to the base directory using '/' as separator.
+     *
+     * @param files
+     *            files found.
+     * @return sorted relative paths of the given files.
+     */
+    private List<String> getRelativePaths(final List<File> files) {
+        final String prefix = baseDir.getAbsolutePath() + File.separator;
+        final List<String> paths = new ArrayList<String>();
+
+        for (final File file : files) {
+            paths.add(file.getAbsolutePath().substring(prefix.length()).replace(File.separatorChar, '/'));
+        }
+
+        Collections.sort(paths);
+
+        return paths;
+    }
+
+    /**
+     * Returns the given paths as sorted list.
+     *
+     * @param paths
+     *            paths to sort.
+     * @return sorted list of the given paths.
+     */
+    private List<String> asSortedList(final String... paths) {
+        final List<String> list = new ArrayList<String>(Arrays.asList(paths));
+        Collections.sort(list);
+
+        return list;
+    }
+}